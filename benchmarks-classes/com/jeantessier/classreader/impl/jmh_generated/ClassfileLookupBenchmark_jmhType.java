@@ -0,0 +1,4 @@
+package com.jeantessier.classreader.impl.jmh_generated;
+public class ClassfileLookupBenchmark_jmhType extends ClassfileLookupBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.jeantessier.classreader.impl.jmh_generated;
+public class ClassfileParsingBenchmark_jmhType extends ClassfileParsingBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.jeantessier.classreader.jmh_generated;
+public class ArchiveLoadingBenchmark_jmhType extends ArchiveLoadingBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.jeantessier.dependency.jmh_generated;
+public class CodeDependencyCollectorBenchmark_jmhType extends CodeDependencyCollectorBenchmark_jmhType_B3 {
+}
+
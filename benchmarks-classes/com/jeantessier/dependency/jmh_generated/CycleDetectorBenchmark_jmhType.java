@@ -0,0 +1,4 @@
+package com.jeantessier.dependency.jmh_generated;
+public class CycleDetectorBenchmark_jmhType extends CycleDetectorBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.jeantessier.dependency.jmh_generated;
+public class LinkMaximizerBenchmark_jmhType extends LinkMaximizerBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.jeantessier.dependency.jmh_generated;
+public class LinkMinimizerBenchmark_jmhType extends LinkMinimizerBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.jeantessier.dependency.jmh_generated;
+public class NodeLoaderBenchmark_jmhType extends NodeLoaderBenchmark_jmhType_B3 {
+}
+
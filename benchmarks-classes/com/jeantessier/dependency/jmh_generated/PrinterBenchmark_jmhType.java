@@ -0,0 +1,4 @@
+package com.jeantessier.dependency.jmh_generated;
+public class PrinterBenchmark_jmhType extends PrinterBenchmark_jmhType_B3 {
+}
+
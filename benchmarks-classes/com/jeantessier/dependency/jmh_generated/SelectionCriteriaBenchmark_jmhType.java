@@ -0,0 +1,4 @@
+package com.jeantessier.dependency.jmh_generated;
+public class SelectionCriteriaBenchmark_jmhType extends SelectionCriteriaBenchmark_jmhType_B3 {
+}
+
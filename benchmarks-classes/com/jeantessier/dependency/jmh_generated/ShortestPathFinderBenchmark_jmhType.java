@@ -0,0 +1,4 @@
+package com.jeantessier.dependency.jmh_generated;
+public class ShortestPathFinderBenchmark_jmhType extends ShortestPathFinderBenchmark_jmhType_B3 {
+}
+
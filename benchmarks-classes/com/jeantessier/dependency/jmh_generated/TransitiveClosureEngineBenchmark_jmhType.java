@@ -0,0 +1,4 @@
+package com.jeantessier.dependency.jmh_generated;
+public class TransitiveClosureEngineBenchmark_jmhType extends TransitiveClosureEngineBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.jeantessier.diff.jmh_generated;
+public class DifferencesFactoryBenchmark_jmhType extends DifferencesFactoryBenchmark_jmhType_B3 {
+}
+
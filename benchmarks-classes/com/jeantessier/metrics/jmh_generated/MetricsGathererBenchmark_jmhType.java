@@ -0,0 +1,4 @@
+package com.jeantessier.metrics.jmh_generated;
+public class MetricsGathererBenchmark_jmhType extends MetricsGathererBenchmark_jmhType_B3 {
+}
+
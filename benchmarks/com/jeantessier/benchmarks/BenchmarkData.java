@@ -0,0 +1,89 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.benchmarks;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+
+import com.jeantessier.classreader.*;
+import com.jeantessier.dependency.*;
+
+/**
+ *  Reads and prepares the inputs that the benchmarks share, outside
+ *  of the measured code.
+ */
+public class BenchmarkData {
+    public static List<byte[]> readClassfileBytes(File jar) throws IOException {
+        List<byte[]> result = new ArrayList<byte[]>();
+
+        ZipInputStream in = new ZipInputStream(new BufferedInputStream(new FileInputStream(jar)));
+        try {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                if (entry.getName().endsWith(".class")) {
+                    result.add(readBytes(in));
+                }
+            }
+        } finally {
+            in.close();
+        }
+
+        return result;
+    }
+
+    public static Collection<Classfile> loadClassfiles(File jar) {
+        ClassfileLoader loader = new AggregatingClassfileLoader();
+        loader.load(Collections.singleton(jar.getPath()));
+        return loader.getAllClassfiles();
+    }
+
+    public static NodeFactory extractDependencies(Collection<Classfile> classfiles) {
+        NodeFactory result = new NodeFactory();
+        new CodeDependencyCollector(result).visitClassfiles(classfiles);
+        return result;
+    }
+
+    private static byte[] readBytes(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        byte[] buffer = new byte[16 * 1024];
+        int length;
+        while ((length = in.read(buffer)) != -1) {
+            out.write(buffer, 0, length);
+        }
+
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,421 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.benchmarks;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+
+/**
+ *  <p>Writes the synthetic JAR files that the benchmarks run against.
+ *  The classfiles are generated directly from a fixed seed, so every
+ *  run produces the very same bytes, regardless of the JDK or the
+ *  platform.</p>
+ *
+ *  <p>For each size, it writes <code>synthetic-<i>size</i>.jar</code>
+ *  and <code>synthetic-<i>size</i>-new.jar</code>, a later version of
+ *  the same code where some classes were removed, some were added,
+ *  and some had their methods changed.</p>
+ *
+ *  <p>Each class has static fields and static methods whose code
+ *  reaches for fields and methods of other classes, mostly in the
+ *  same package, which gives dependency cycles at every level.</p>
+ *
+ *  <p>It also writes <code>synthetic-resources.jar</code>, a small
+ *  number of classes buried under many images and HTML pages, like a
+ *  typical WAR file.</p>
+ *
+ *  <p>Usage: <code>SyntheticJarGenerator directory</code></p>
+ */
+public class SyntheticJarGenerator {
+    public static final String[] SIZES = {"small", "medium", "large"};
+
+    private static final int[] NB_CLASSES = {100, 1000, 5000};
+
+    private static final String NEW_SUFFIX = "-new";
+
+    public static final String RESOURCES = "resources";
+
+    private static final int RESOURCES_NB_CLASSES = 100;
+    private static final int RESOURCES_NB_RESOURCES = 2000;
+    private static final int RESOURCE_SIZE = 16 * 1024;
+
+    private static final long SEED = 20090101L;
+    private static final long ENTRY_TIME = new GregorianCalendar(2009, Calendar.JANUARY, 1).getTimeInMillis();
+
+    private static final int CLASSES_PER_PACKAGE = 25;
+    private static final int DEFAULT_NB_FIELDS = 3;
+    private static final int DEFAULT_NB_METHODS = 5;
+    private static final int NB_INSTRUCTIONS = 4;
+    private static final int LOCAL_PERCENTAGE = 70;
+
+    private static final int REMOVED_EVERY = 40;
+    private static final int MODIFIED_EVERY = 10;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: SyntheticJarGenerator directory");
+            System.exit(1);
+        }
+
+        File dir = new File(args[0]);
+        dir.mkdirs();
+
+        for (int i = 0; i < SIZES.length; i++) {
+            File oldJar = new File(dir, getFilename(SIZES[i]));
+            new SyntheticJarGenerator(NB_CLASSES[i], false).write(oldJar);
+            System.out.println("Wrote " + oldJar);
+
+            File newJar = new File(dir, getFilename(SIZES[i] + NEW_SUFFIX));
+            new SyntheticJarGenerator(NB_CLASSES[i], true).write(newJar);
+            System.out.println("Wrote " + newJar);
+        }
+
+        File resourcesJar = new File(dir, getFilename(RESOURCES));
+        new SyntheticJarGenerator(RESOURCES_NB_CLASSES, false, DEFAULT_NB_FIELDS, DEFAULT_NB_METHODS, RESOURCES_NB_RESOURCES).write(resourcesJar);
+        System.out.println("Wrote " + resourcesJar);
+    }
+
+    /**
+     *  Maps a benchmark parameter to a JAR file.  The parameter is
+     *  either the name of an existing file or one of the synthetic
+     *  sizes, optionally followed by <code>-new</code>, in which case
+     *  the JAR file is looked up in the directory named by the
+     *  <code>benchmark.jars</code> system property.
+     */
+    public static File getJar(String name) {
+        File result = new File(name);
+
+        if (!result.isFile()) {
+            result = new File(System.getProperty("benchmark.jars", "benchmarks-jars"), getFilename(name));
+        }
+
+        return result;
+    }
+
+    public static File getNewJar(String name) {
+        return getJar(name + NEW_SUFFIX);
+    }
+
+    private static String getFilename(String name) {
+        return "synthetic-" + name + ".jar";
+    }
+
+    private int nbClasses;
+    private boolean newVersion;
+    private int nbFields;
+    private int nbMethods;
+    private int nbResources;
+
+    public SyntheticJarGenerator(int nbClasses, boolean newVersion) {
+        this(nbClasses, newVersion, DEFAULT_NB_FIELDS, DEFAULT_NB_METHODS);
+    }
+
+    public SyntheticJarGenerator(int nbClasses, boolean newVersion, int nbFields, int nbMethods) {
+        this(nbClasses, newVersion, nbFields, nbMethods, 0);
+    }
+
+    public SyntheticJarGenerator(int nbClasses, boolean newVersion, int nbFields, int nbMethods, int nbResources) {
+        this.nbClasses = nbClasses;
+        this.newVersion = newVersion;
+        this.nbFields = nbFields;
+        this.nbMethods = nbMethods;
+        this.nbResources = nbResources;
+    }
+
+    public void write(File file) throws IOException {
+        ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        try {
+            for (int i = 0; i < getNbClassesWithAdditions(); i++) {
+                if (isPresent(i)) {
+                    ZipEntry entry = new ZipEntry(getClassName(i) + ".class");
+                    entry.setTime(ENTRY_TIME);
+                    out.putNextEntry(entry);
+                    out.write(generateClass(i));
+                    out.closeEntry();
+                }
+            }
+
+            for (int i = 0; i < nbResources; i++) {
+                ZipEntry entry = new ZipEntry(getResourceName(i));
+                entry.setTime(ENTRY_TIME);
+                out.putNextEntry(entry);
+                out.write(generateResource(i));
+                out.closeEntry();
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private int getNbClassesWithAdditions() {
+        return newVersion ? nbClasses + nbClasses / REMOVED_EVERY : nbClasses;
+    }
+
+    private boolean isPresent(int i) {
+        return !newVersion || i % REMOVED_EVERY != REMOVED_EVERY - 1;
+    }
+
+    private boolean isModified(int i) {
+        return newVersion && i % MODIFIED_EVERY == MODIFIED_EVERY - 1;
+    }
+
+    private String getClassName(int i) {
+        return String.format("synthetic/p%03d/C%05d", i / CLASSES_PER_PACKAGE, i);
+    }
+
+    /**
+     *  Alternates between images, which do not compress, and HTML
+     *  pages, which do.
+     */
+    private String getResourceName(int i) {
+        return String.format("resources/r%03d/R%05d", i / CLASSES_PER_PACKAGE, i) + (i % 2 == 0 ? ".gif" : ".html");
+    }
+
+    private byte[] generateResource(int i) {
+        Random random = new Random(SEED * 43 + i);
+        byte[] result = new byte[RESOURCE_SIZE];
+
+        if (i % 2 == 0) {
+            random.nextBytes(result);
+        } else {
+            for (int j = 0; j < result.length; j++) {
+                result[j] = (byte) ('a' + random.nextInt(8));
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     *  Each class gets its own random sequence, so that a class that
+     *  is not modified comes out the same in both versions.
+     */
+    private byte[] generateClass(int i) throws IOException {
+        Random random = new Random(SEED * 31 + i);
+
+        String superclassName = "java/lang/Object";
+        if (i > 0 && random.nextInt(100) < 30) {
+            superclassName = getClassName(random.nextInt(i));
+        }
+
+        if (isModified(i)) {
+            random = new Random(SEED * 37 + i);
+        }
+
+        ConstantPoolBuilder pool = new ConstantPoolBuilder();
+        int thisClass = pool.addClass(getClassName(i));
+        int superClass = pool.addClass(superclassName);
+        int codeName = pool.addUtf8("Code");
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(body);
+
+        out.writeShort(0x0021); // ACC_PUBLIC | ACC_SUPER
+        out.writeShort(thisClass);
+        out.writeShort(superClass);
+        out.writeShort(0); // interfaces
+
+        out.writeShort(nbFields);
+        for (int field = 0; field < nbFields; field++) {
+            out.writeShort(0x0009); // ACC_PUBLIC | ACC_STATIC
+            out.writeShort(pool.addUtf8("f" + field));
+            out.writeShort(pool.addUtf8(getFieldType(i, field)));
+            out.writeShort(0); // attributes
+        }
+
+        out.writeShort(nbMethods + 1);
+
+        ByteArrayOutputStream code = new ByteArrayOutputStream();
+        code.write(0x2A); // aload_0
+        writeInstruction(code, 0xB7, pool.addMethodref(superclassName, "<init>", "()V")); // invokespecial
+        code.write(0xB1); // return
+        writeMethod(out, pool, codeName, 0x0001, "<init>", 1, code.toByteArray());
+
+        for (int method = 0; method < nbMethods; method++) {
+            code = new ByteArrayOutputStream();
+            for (int instruction = 0; instruction < NB_INSTRUCTIONS; instruction++) {
+                int target = pickTarget(random, i);
+                if (random.nextBoolean()) {
+                    writeInstruction(code, 0xB8, pool.addMethodref(getClassName(target), "m" + random.nextInt(nbMethods), "()V")); // invokestatic
+                } else {
+                    int field = random.nextInt(nbFields);
+                    writeInstruction(code, 0xB2, pool.addFieldref(getClassName(target), "f" + field, getFieldType(target, field))); // getstatic
+                    code.write(0x57); // pop
+                }
+            }
+            code.write(0xB1); // return
+            writeMethod(out, pool, codeName, 0x0009, "m" + method, 0, code.toByteArray());
+        }
+
+        out.writeShort(0); // attributes
+        out.close();
+
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        DataOutputStream classfile = new DataOutputStream(result);
+        classfile.writeInt(0xCAFEBABE);
+        classfile.writeShort(0); // minor version
+        classfile.writeShort(49); // major version, Java 5
+        pool.write(classfile);
+        body.writeTo(classfile);
+        classfile.close();
+
+        return result.toByteArray();
+    }
+
+    private String getFieldType(int i, int field) {
+        Random random = new Random(SEED * 41 + i * nbFields + field);
+        return "L" + getClassName(pickTarget(random, i)) + ";";
+    }
+
+    private int pickTarget(Random random, int i) {
+        int result;
+
+        if (random.nextInt(100) < LOCAL_PERCENTAGE) {
+            int first = i - i % CLASSES_PER_PACKAGE;
+            int last = i < nbClasses ? nbClasses : getNbClassesWithAdditions();
+            result = first + random.nextInt(Math.min(CLASSES_PER_PACKAGE, last - first));
+        } else {
+            result = random.nextInt(nbClasses);
+        }
+
+        return result;
+    }
+
+    private void writeInstruction(ByteArrayOutputStream code, int opcode, int index) {
+        code.write(opcode);
+        code.write(index >> 8);
+        code.write(index);
+    }
+
+    private void writeMethod(DataOutputStream out, ConstantPoolBuilder pool, int codeName, int accessFlag, String name, int maxLocals, byte[] code) throws IOException {
+        out.writeShort(accessFlag);
+        out.writeShort(pool.addUtf8(name));
+        out.writeShort(pool.addUtf8("()V"));
+        out.writeShort(1); // attributes
+
+        out.writeShort(codeName);
+        out.writeInt(2 + 2 + 4 + code.length + 2 + 2);
+        out.writeShort(1); // max stack
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0); // exception table
+        out.writeShort(0); // attributes
+    }
+
+    private static class ConstantPoolBuilder {
+        private Map<String, Integer> indices = new HashMap<String, Integer>();
+        private ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private DataOutputStream out = new DataOutputStream(bytes);
+        private int nextIndex = 1;
+
+        public int addUtf8(String value) throws IOException {
+            Integer result = indices.get("Utf8:" + value);
+
+            if (result == null) {
+                out.writeByte(1);
+                out.writeUTF(value);
+                result = register("Utf8:" + value);
+            }
+
+            return result;
+        }
+
+        public int addClass(String name) throws IOException {
+            Integer result = indices.get("Class:" + name);
+
+            if (result == null) {
+                int nameIndex = addUtf8(name);
+                out.writeByte(7);
+                out.writeShort(nameIndex);
+                result = register("Class:" + name);
+            }
+
+            return result;
+        }
+
+        public int addFieldref(String className, String name, String descriptor) throws IOException {
+            return addMemberref(9, className, name, descriptor);
+        }
+
+        public int addMethodref(String className, String name, String descriptor) throws IOException {
+            return addMemberref(10, className, name, descriptor);
+        }
+
+        private int addMemberref(int tag, String className, String name, String descriptor) throws IOException {
+            String key = tag + ":" + className + "." + name + ":" + descriptor;
+            Integer result = indices.get(key);
+
+            if (result == null) {
+                int classIndex = addClass(className);
+                int nameAndTypeIndex = addNameAndType(name, descriptor);
+                out.writeByte(tag);
+                out.writeShort(classIndex);
+                out.writeShort(nameAndTypeIndex);
+                result = register(key);
+            }
+
+            return result;
+        }
+
+        private int addNameAndType(String name, String descriptor) throws IOException {
+            String key = "NameAndType:" + name + ":" + descriptor;
+            Integer result = indices.get(key);
+
+            if (result == null) {
+                int nameIndex = addUtf8(name);
+                int descriptorIndex = addUtf8(descriptor);
+                out.writeByte(12);
+                out.writeShort(nameIndex);
+                out.writeShort(descriptorIndex);
+                result = register(key);
+            }
+
+            return result;
+        }
+
+        private int register(String key) {
+            int result = nextIndex++;
+            indices.put(key, result);
+            return result;
+        }
+
+        public void write(DataOutputStream classfile) throws IOException {
+            out.flush();
+            classfile.writeShort(nextIndex);
+            bytes.writeTo(classfile);
+        }
+    }
+}
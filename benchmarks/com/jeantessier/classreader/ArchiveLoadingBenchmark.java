@@ -0,0 +1,108 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.classreader;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.jeantessier.benchmarks.*;
+
+/**
+ *  <p>Measures how long it takes to load the classes in a JAR file
+ *  that is mostly made of resources, such as images and HTML pages,
+ *  both from the file itself and as a stream, the way JAR files
+ *  nested in other archives are read.</p>
+ *
+ *  <p>Run it with JMH's <code>-prof gc</code> option to see how many
+ *  bytes are allocated for entries that are ignored.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArchiveLoadingBenchmark {
+    @Param({SyntheticJarGenerator.RESOURCES})
+    public String jar;
+
+    private File file;
+
+    @Setup
+    public void findJar() {
+        file = SyntheticJarGenerator.getJar(jar);
+    }
+
+    @Benchmark
+    public int loadFile() {
+        ClassfileCounter counter = new ClassfileCounter();
+
+        ClassfileLoader loader = new TransientClassfileLoader();
+        loader.addLoadListener(counter);
+        loader.load(Collections.singleton(file.getPath()));
+
+        return counter.getNbClassfiles();
+    }
+
+    @Benchmark
+    public int loadStream() throws IOException {
+        ClassfileCounter counter = new ClassfileCounter();
+
+        ClassfileLoader loader = new TransientClassfileLoader();
+        loader.addLoadListener(counter);
+        InputStream in = new BufferedInputStream(new FileInputStream(file));
+        try {
+            loader.load(file.getPath(), in);
+        } finally {
+            in.close();
+        }
+
+        return counter.getNbClassfiles();
+    }
+
+    private static class ClassfileCounter extends LoadAdapter {
+        private int nbClassfiles;
+
+        public int getNbClassfiles() {
+            return nbClassfiles;
+        }
+
+        public void endClassfile(LoadEvent event) {
+            nbClassfiles++;
+        }
+    }
+}
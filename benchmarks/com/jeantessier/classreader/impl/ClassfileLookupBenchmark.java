@@ -0,0 +1,125 @@
+/*
+ *  Copyright (c) 2001-2016, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.classreader.impl;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.jeantessier.benchmarks.*;
+import com.jeantessier.classreader.*;
+
+/**
+ *  <p>Measures how long it takes to look up every field and method of
+ *  classes with many members, both directly on each class and through
+ *  its class hierarchy.</p>
+ *
+ *  <p>The classes come from a small synthetic JAR file, generated in a
+ *  temporary directory, whose classes have <code>members</code> fields
+ *  and as many methods each.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassfileLookupBenchmark {
+    private static final int NB_CLASSES = 25;
+
+    @Param({"5", "1000", "2000"})
+    public int members;
+
+    private Collection<com.jeantessier.classreader.Classfile> classfiles;
+    private List<String> fieldNames = new ArrayList<String>();
+    private List<String> methodSignatures = new ArrayList<String>();
+
+    @Setup
+    public void loadClassfiles() throws IOException {
+        File jar = File.createTempFile("lookup", ".jar");
+        try {
+            new SyntheticJarGenerator(NB_CLASSES, false, members, members).write(jar);
+            classfiles = BenchmarkData.loadClassfiles(jar);
+        } finally {
+            jar.delete();
+        }
+
+        for (int i = 0; i < members; i++) {
+            fieldNames.add("f" + i);
+            methodSignatures.add("m" + i + "()");
+        }
+    }
+
+    @Benchmark
+    public int getMembers() {
+        int result = 0;
+
+        for (com.jeantessier.classreader.Classfile classfile : classfiles) {
+            for (String name : fieldNames) {
+                if (classfile.getField(name) != null) {
+                    result++;
+                }
+            }
+            for (String signature : methodSignatures) {
+                if (classfile.getMethod(signature) != null) {
+                    result++;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    @Benchmark
+    public int locateMembers() {
+        int result = 0;
+
+        for (com.jeantessier.classreader.Classfile classfile : classfiles) {
+            for (String name : fieldNames) {
+                if (classfile.locateField(name) != null) {
+                    result++;
+                }
+            }
+            for (String signature : methodSignatures) {
+                if (classfile.locateMethod(signature) != null) {
+                    result++;
+                }
+            }
+        }
+
+        return result;
+    }
+}
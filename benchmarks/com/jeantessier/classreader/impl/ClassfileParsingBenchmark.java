@@ -0,0 +1,94 @@
+/*
+ *  Copyright (c) 2001-2016, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.classreader.impl;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.jeantessier.benchmarks.*;
+import com.jeantessier.classreader.*;
+
+/**
+ *  <p>Measures how long it takes to parse every <code>.class</code>
+ *  file in a JAR file that has already been read into memory, with
+ *  both the regular and the lazy constant pool.</p>
+ *
+ *  <p>Run it with JMH's <code>-prof gc</code> option to see the bytes
+ *  allocated per operation.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassfileParsingBenchmark {
+    @Param({"small", "medium", "large"})
+    public String jar;
+
+    private List<byte[]> classfiles;
+
+    private ClassfileLoader loader = new TransientClassfileLoader();
+    private ClassfileFactory defaultFactory = new DefaultClassfileFactory();
+    private ClassfileFactory lazyFactory = new LazyClassfileFactory();
+
+    @Setup
+    public void readClassfiles() throws IOException {
+        classfiles = BenchmarkData.readClassfileBytes(SyntheticJarGenerator.getJar(jar));
+    }
+
+    @Benchmark
+    public int parse() throws IOException {
+        return parse(defaultFactory);
+    }
+
+    @Benchmark
+    public int parseWithLazyConstantPool() throws IOException {
+        return parse(lazyFactory);
+    }
+
+    private int parse(ClassfileFactory factory) throws IOException {
+        int result = 0;
+
+        for (byte[] bytes : classfiles) {
+            com.jeantessier.classreader.Classfile classfile = factory.create(loader, new DataInputStream(new ByteArrayInputStream(bytes)));
+            result += classfile.getClassName().length();
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.util.*;
+
+import com.jeantessier.classreader.*;
+
+/**
+ *  <p>Compares the heap used by a regular {@link NodeFactory} and by
+ *  a {@link CompactGraph} extracted from the same files.  The compact
+ *  graph is built straight from the loader, without going through a
+ *  full <code>NodeFactory</code> first.</p>
+ *
+ *  <p>Usage: <code>CompactGraphMemoryBenchmark file...</code>
+ *  where each file is a JAR, ZIP, directory, or <code>.class</code>
+ *  file to extract dependencies from.  Run with a fixed heap, such as
+ *  <code>-Xms512m -Xmx512m</code>, for stable numbers.</p>
+ */
+public class CompactGraphMemoryBenchmark {
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: CompactGraphMemoryBenchmark file...");
+            System.exit(1);
+        }
+
+        long baseline = usedMemory();
+
+        NodeFactory factory = extract(Arrays.asList(args));
+        long regular = usedMemory() - baseline;
+        factory = null;
+
+        baseline = usedMemory();
+
+        CompactGraphBuilder builder = new CompactGraphBuilder();
+        ClassfileLoader loader = new TransientClassfileLoader();
+        loader.addLoadListener(builder);
+        loader.load(Arrays.asList(args));
+        loader = null;
+        long building = usedMemory() - baseline;
+
+        CompactGraph graph = builder.getGraph();
+        builder = null;
+        long compact = usedMemory() - baseline;
+
+        System.out.println("Nodes:        " + graph.getNbNodes());
+        System.out.println("Dependencies: " + graph.getNbDependencies());
+        System.out.println("NodeFactory:           " + toKilobytes(regular) + " KB");
+        System.out.println("CompactGraphBuilder:   " + toKilobytes(building) + " KB");
+        System.out.println("CompactGraph:          " + toKilobytes(compact) + " KB");
+        if (compact > 0) {
+            System.out.println("Ratio:                 " + (regular * 100 / compact) + "%");
+        }
+    }
+
+    private static NodeFactory extract(Collection<String> filenames) {
+        NodeFactory result = new NodeFactory();
+
+        ClassfileLoader loader = new TransientClassfileLoader();
+        loader.addLoadListener(new LoadListenerVisitorAdapter(new CodeDependencyCollector(result)));
+        loader.load(filenames);
+
+        return result;
+    }
+
+    private static long usedMemory() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+
+        long result = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(100);
+            result = Math.min(result, runtime.totalMemory() - runtime.freeMemory());
+        }
+
+        return result;
+    }
+
+    private static long toKilobytes(long bytes) {
+        return bytes / 1024;
+    }
+}
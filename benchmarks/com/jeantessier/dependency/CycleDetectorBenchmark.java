@@ -0,0 +1,87 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.jeantessier.benchmarks.*;
+
+/**
+ *  <p>Measures how long it takes to find the cycles in the graph, by
+ *  following every path with {@link CycleDetector} and by going
+ *  through strongly connected components with
+ *  {@link ComponentCycleDetector}.</p>
+ *
+ *  <p>The synthetic code depends on itself so much that following
+ *  every path only finishes if cycles are kept short.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CycleDetectorBenchmark {
+    private static final int MAXIMUM_CYCLE_LENGTH = 3;
+
+    @Param({"small", "medium", "large"})
+    public String jar;
+
+    private NodeFactory factory;
+    private SelectionCriteria criteria = new RegularExpressionSelectionCriteria("//");
+
+    @Setup
+    public void extractDependencies() {
+        factory = BenchmarkData.extractDependencies(BenchmarkData.loadClassfiles(SyntheticJarGenerator.getJar(jar)));
+    }
+
+    @Benchmark
+    public Collection<Cycle> cycleDetector() {
+        CycleDetector detector = new CycleDetector(criteria);
+        detector.setMaximumCycleLength(MAXIMUM_CYCLE_LENGTH);
+        detector.traverseNodes(factory.getPackages().values());
+        return detector.getCycles();
+    }
+
+    @Benchmark
+    public Collection<Cycle> componentCycleDetector() {
+        ComponentCycleDetector detector = new ComponentCycleDetector(criteria);
+        detector.setMaximumCycleLength(MAXIMUM_CYCLE_LENGTH);
+        detector.traverseNodes(factory.getPackages().values());
+        return detector.getCycles();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.io.*;
+import java.util.concurrent.*;
+import java.util.zip.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.jeantessier.benchmarks.*;
+
+/**
+ *  Measures how long it takes to print a maximized synthetic graph as
+ *  XML, the regular way from a <code>NodeFactory</code> and in
+ *  streaming mode from a {@link CompactGraph}, with and without
+ *  compressing the output on the fly.  The output goes to a stream
+ *  that only counts bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrinterBenchmark {
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    @Param({"small", "medium", "large"})
+    public String jar;
+
+    private NodeFactory factory;
+    private CompactGraph graph;
+
+    @Setup
+    public void extractDependencies() {
+        factory = BenchmarkData.extractDependencies(BenchmarkData.loadClassfiles(SyntheticJarGenerator.getJar(jar)));
+        new LinkMaximizer().traverseNodes(factory.getPackages().values());
+        graph = compact(factory);
+    }
+
+    @Benchmark
+    public long sortedXML() {
+        CountingOutputStream counter = new CountingOutputStream();
+        PrintWriter out = new PrintWriter(new OutputStreamWriter(counter));
+        new XMLPrinter(out).traverseNodes(factory.getPackages().values());
+        out.close();
+        return counter.getCount();
+    }
+
+    @Benchmark
+    public long streamingXML() {
+        CountingOutputStream counter = new CountingOutputStream();
+        print(graph, counter);
+        return counter.getCount();
+    }
+
+    @Benchmark
+    public long compactAndStreamXML() {
+        CountingOutputStream counter = new CountingOutputStream();
+        print(compact(factory), counter);
+        return counter.getCount();
+    }
+
+    @Benchmark
+    public long streamingGzippedXML() throws IOException {
+        CountingOutputStream counter = new CountingOutputStream();
+        print(graph, new GZIPOutputStream(counter, BUFFER_SIZE));
+        return counter.getCount();
+    }
+
+    private CompactGraph compact(NodeFactory factory) {
+        CompactGraphBuilder builder = new CompactGraphBuilder();
+        builder.add(factory);
+        return builder.getGraph();
+    }
+
+    private void print(DependencyGraph graph, OutputStream stream) {
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(stream), BUFFER_SIZE));
+        new StreamingXMLPrinter(out).traverseGraph(graph);
+        out.close();
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        public long getCount() {
+            return count;
+        }
+
+        public void write(int b) {
+            count++;
+        }
+
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.jeantessier.dependency;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.jeantessier.benchmarks.*;
+
+/**
+ *  Measures how long it takes to match every feature name of a
+ *  synthetic graph against a typical mix of literal and regular
+ *  include and exclude expressions, with a fresh criteria each time
+ *  and with one that has already seen every name.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SelectionCriteriaBenchmark {
+    @Param({"small", "medium", "large"})
+    public String jar;
+
+    private Collection<String> names;
+    private RegularExpressionSelectionCriteria sharedCriteria;
+
+    @Setup
+    public void extractDependencies() {
+        NodeFactory factory = BenchmarkData.extractDependencies(BenchmarkData.loadClassfiles(SyntheticJarGenerator.getJar(jar)));
+        names = new ArrayList<String>(factory.getFeatures().keySet());
+
+        sharedCriteria = createCriteria();
+        matchAll(sharedCriteria);
+    }
+
+    @Benchmark
+    public int firstPass() {
+        return matchAll(createCriteria());
+    }
+
+    @Benchmark
+    public int repeatedPass() {
+        return matchAll(sharedCriteria);
+    }
+
+    private RegularExpressionSelectionCriteria createCriteria() {
+        RegularExpressionSelectionCriteria result = new RegularExpressionSelectionCriteria();
+        result.setGlobalIncludes("/^synthetic\\.p000\\./,/^synthetic\\.p001\\./,/^synthetic\\.p0[2-4]\\d\\./");
+        result.setGlobalExcludes("/^java\\./,/\\.m\\d*3\\(/");
+        return result;
+    }
+
+    private int matchAll(SelectionCriteria criteria) {
+        int result = 0;
+
+        for (String name : names) {
+            if (criteria.matchesFeatureName(name)) {
+                result++;
+            }
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.jeantessier.dependency;
+
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.jeantessier.benchmarks.*;
+
+/**
+ *  Measures how long it takes to find the shortest paths from the
+ *  first synthetic class to another one with
+ *  {@link ShortestPathFinder}, compared to computing the outbound
+ *  closure from the first class until it reaches the other one with
+ *  {@link FrontierClosureEngine}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShortestPathFinderBenchmark {
+    @Param({"small", "medium", "large"})
+    public String jar;
+
+    private NodeFactory factory;
+    private SelectionCriteria startCriteria = new RegularExpressionSelectionCriteria("/^synthetic\\.p000\\.C00000\\b/");
+    private SelectionCriteria targetCriteria = new RegularExpressionSelectionCriteria("/^synthetic\\.p\\d+\\.C00050\\b/");
+
+    @Setup
+    public void extractDependencies() {
+        factory = BenchmarkData.extractDependencies(BenchmarkData.loadClassfiles(SyntheticJarGenerator.getJar(jar)));
+    }
+
+    @Benchmark
+    public int findPaths() {
+        ShortestPathFinder finder = new ShortestPathFinder(startCriteria, targetCriteria);
+        finder.findPaths(factory.getPackages().values());
+        return finder.getDistance();
+    }
+
+    @Benchmark
+    public int findFiveShortestPaths() {
+        ShortestPathFinder finder = new ShortestPathFinder(startCriteria, targetCriteria);
+        finder.setMaximumNbPaths(5);
+        finder.findPaths(factory.getPackages().values());
+        return finder.getDistance();
+    }
+
+    @Benchmark
+    public int computeClosureUntilTarget() {
+        FrontierClosureEngine engine = new FrontierClosureEngine(factory.getPackages().values(), startCriteria, targetCriteria, true);
+        engine.computeAllLayers();
+        return engine.getNbLayers();
+    }
+}
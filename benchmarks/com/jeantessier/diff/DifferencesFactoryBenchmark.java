@@ -0,0 +1,99 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.diff;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.jeantessier.benchmarks.*;
+import com.jeantessier.classreader.*;
+
+/**
+ *  Measures how long it takes to compare two versions of the same
+ *  synthetic JAR file, down to the code of methods, one package after
+ *  the other, with {@link ParallelDifferencesFactory}, and skipping
+ *  identical classes based on their {@link Fingerprints}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DifferencesFactoryBenchmark {
+    @Param({"small", "medium", "large"})
+    public String size;
+
+    private PackageMapper oldPackages;
+    private PackageMapper newPackages;
+
+    private Fingerprints oldFingerprints = new Fingerprints();
+    private Fingerprints newFingerprints = new Fingerprints();
+
+    @Setup
+    public void loadClassfiles() {
+        oldPackages = loadPackages(SyntheticJarGenerator.getJar(size).getPath(), oldFingerprints);
+        newPackages = loadPackages(SyntheticJarGenerator.getNewJar(size).getPath(), newFingerprints);
+    }
+
+    private PackageMapper loadPackages(String filename, Fingerprints fingerprints) {
+        PackageMapper result = new PackageMapper();
+
+        ClassfileLoader loader = new FingerprintingClassfileLoader(fingerprints);
+        loader.addLoadListener(result);
+        loader.load(Collections.singleton(filename));
+
+        return result;
+    }
+
+    @Benchmark
+    public Differences createProjectDifferences() {
+        DifferencesFactory factory = new DifferencesFactory(new APIDifferenceStrategy(new CodeDifferenceStrategy()));
+        return factory.createProjectDifferences("benchmark", "old", oldPackages, "new", newPackages);
+    }
+
+    @Benchmark
+    public Differences createProjectDifferencesInParallel() {
+        DifferencesFactory factory = new ParallelDifferencesFactory(new APIDifferenceStrategy(new CodeDifferenceStrategy()));
+        return factory.createProjectDifferences("benchmark", "old", oldPackages, "new", newPackages);
+    }
+
+    @Benchmark
+    public Differences createProjectDifferencesWithFingerprints() {
+        DifferencesFactory factory = new DifferencesFactory(new FingerprintDifferenceStrategy(new APIDifferenceStrategy(new CodeDifferenceStrategy()), oldFingerprints, newFingerprints));
+        return factory.createProjectDifferences("benchmark", "old", oldPackages, "new", newPackages);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.metrics;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import javax.xml.parsers.*;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.annotations.Measurement;
+import org.xml.sax.*;
+
+import com.jeantessier.benchmarks.*;
+import com.jeantessier.classreader.*;
+
+/**
+ *  Measures how long it takes to compute the OO metrics of classfiles
+ *  that have already been parsed, using the configuration named by
+ *  the <code>benchmark.metrics.configuration</code> system property.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsGathererBenchmark {
+    @Param({"small", "medium", "large"})
+    public String jar;
+
+    private Collection<Classfile> classfiles;
+    private MetricsConfiguration configuration;
+
+    @Setup
+    public void loadClassfiles() throws IOException, SAXException, ParserConfigurationException {
+        classfiles = BenchmarkData.loadClassfiles(SyntheticJarGenerator.getJar(jar));
+        configuration = new MetricsConfigurationLoader(false).load(System.getProperty("benchmark.metrics.configuration", "etc/MetricsConfig.xml"));
+    }
+
+    @Benchmark
+    public MetricsFactory gather() {
+        MetricsFactory factory = new MetricsFactory("benchmark", configuration);
+        new MetricsGatherer(factory).visitClassfiles(classfiles);
+        return factory;
+    }
+}
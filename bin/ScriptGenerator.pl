@@ -61,7 +61,9 @@ getopts(":cguvw");
               "DependencyGraphToText" => ".xsl.template.txt",
               "DependencyGraphToUnconfirmedFullyQualifiedNames" => ".xsl.template.txt",
               "DependencyGraphToyEd" => ".xsl.template.txt",
+              "DependencyLayers" => ".cli.template.txt",
               "DependencyMetrics" => ".cli.template.txt",
+              "DependencyPaths" => ".cli.template.txt",
               "DependencyReporter" => ".cli.template.txt",
               "DependentsToHTML" => ".xsl.template.txt",
               "DependentsToText" => ".xsl.template.txt",
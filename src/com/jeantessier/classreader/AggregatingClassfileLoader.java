@@ -34,17 +34,19 @@ package com.jeantessier.classreader;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.atomic.*;
 
 import com.jeantessier.classreader.impl.*;
 
 public class AggregatingClassfileLoader extends ClassfileLoaderEventSource {
     private Map<String, Classfile> classfiles = new TreeMap<String, Classfile>();
+    private AtomicInteger modificationCount = new AtomicInteger();
 
     public AggregatingClassfileLoader() {
         this(new DefaultClassfileFactory());
     }
 
-    private AggregatingClassfileLoader(ClassfileFactory factory) {
+    public AggregatingClassfileLoader(ClassfileFactory factory) {
         super(factory);
     }
 
@@ -52,7 +54,7 @@ public class AggregatingClassfileLoader extends ClassfileLoaderEventSource {
         this(new DefaultClassfileFactory(), dispatcher);
     }
 
-    private AggregatingClassfileLoader(ClassfileFactory factory, ClassfileLoaderDispatcher dispatcher) {
+    public AggregatingClassfileLoader(ClassfileFactory factory, ClassfileLoaderDispatcher dispatcher) {
         super(factory, dispatcher);
     }
 
@@ -68,10 +70,19 @@ public class AggregatingClassfileLoader extends ClassfileLoaderEventSource {
         return Collections.unmodifiableCollection(classfiles.keySet());
     }
 
+    /**
+     *  Changes every time a classfile is added, so that classfiles can
+     *  tell when what they looked up in this loader may be out of date.
+     */
+    public int getModificationCount() {
+        return modificationCount.get();
+    }
+
     protected Classfile load(DataInput in) throws IOException {
         Classfile result = getFactory().create(this, in);
 
         classfiles.put(result.getClassName(), result);
+        modificationCount.incrementAndGet();
 
         return result;
     }
@@ -0,0 +1,161 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.classreader;
+
+import java.io.*;
+import java.nio.*;
+
+/**
+ *  Reads straight out of a {@link ByteBuffer}, either as a stream or
+ *  as {@link DataInput}, without copying it.  {@link MappedArchive}
+ *  uses it to stream entries out of a mapped file, and the lazy
+ *  constant pool uses it to parse entries with the regular
+ *  constructors that take a {@link DataInput}.
+ *
+ *  <p>It reads from the buffer's current position and moves it.  Give
+ *  it a duplicate if other code shares the buffer.</p>
+ */
+public class ByteBufferInputStream extends InputStream implements DataInput {
+    private ByteBuffer buffer;
+
+    public ByteBufferInputStream(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public void seek(int position) {
+        buffer.position(position);
+    }
+
+    public int read() {
+        return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    public int read(byte[] bytes, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+
+        if (!buffer.hasRemaining()) {
+            return -1;
+        }
+
+        int result = Math.min(length, buffer.remaining());
+        buffer.get(bytes, offset, result);
+        return result;
+    }
+
+    public long skip(long n) {
+        return skipBytes((int) Math.min(n, Integer.MAX_VALUE));
+    }
+
+    public int available() {
+        return buffer.remaining();
+    }
+
+    public void readFully(byte[] b) throws IOException {
+        readFully(b, 0, b.length);
+    }
+
+    public void readFully(byte[] b, int off, int len) throws IOException {
+        checkRemaining(len);
+        buffer.get(b, off, len);
+    }
+
+    public int skipBytes(int n) {
+        int result = Math.max(0, Math.min(n, buffer.remaining()));
+        buffer.position(buffer.position() + result);
+        return result;
+    }
+
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    public byte readByte() throws IOException {
+        checkRemaining(1);
+        return buffer.get();
+    }
+
+    public int readUnsignedByte() throws IOException {
+        return readByte() & 0xFF;
+    }
+
+    public short readShort() throws IOException {
+        checkRemaining(2);
+        return buffer.getShort();
+    }
+
+    public int readUnsignedShort() throws IOException {
+        return readShort() & 0xFFFF;
+    }
+
+    public char readChar() throws IOException {
+        checkRemaining(2);
+        return buffer.getChar();
+    }
+
+    public int readInt() throws IOException {
+        checkRemaining(4);
+        return buffer.getInt();
+    }
+
+    public long readLong() throws IOException {
+        checkRemaining(8);
+        return buffer.getLong();
+    }
+
+    public float readFloat() throws IOException {
+        checkRemaining(4);
+        return buffer.getFloat();
+    }
+
+    public double readDouble() throws IOException {
+        checkRemaining(8);
+        return buffer.getDouble();
+    }
+
+    public String readLine() {
+        throw new UnsupportedOperationException("Classfiles do not contain lines of text");
+    }
+
+    public String readUTF() throws IOException {
+        return DataInputStream.readUTF(this);
+    }
+
+    private void checkRemaining(int length) throws EOFException {
+        if (buffer.remaining() < length) {
+            throw new EOFException();
+        }
+    }
+}
@@ -61,6 +61,26 @@ public abstract class ClassfileLoader {
     // Protected contract for Decorator Pattern
     protected abstract void load(String filename);
     protected abstract void load(String filename, InputStream in);
+
+    /**
+     *  Decides what to do with an entry in a JAR or Zip file from its
+     *  name alone.  Returns <code>null</code> by default, which tells
+     *  the archive loaders to hand the entry to
+     *  {@link #load(String, InputStream)}, as they used to.
+     */
+    protected ClassfileLoaderAction dispatchEntry(String filename) {
+        return null;
+    }
+
+    /**
+     *  Loads an entry that {@link #dispatchEntry(String)} has already
+     *  dispatched.  By default, ignores the action and calls
+     *  {@link #load(String, InputStream)}.
+     */
+    protected void load(String filename, ClassfileLoaderAction dispatch, InputStream in) {
+        load(filename, in);
+    }
+
     protected abstract Classfile load(DataInput in) throws IOException;
 
     // Event stuff
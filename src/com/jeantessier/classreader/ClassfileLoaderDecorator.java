@@ -98,6 +98,14 @@ public abstract class ClassfileLoaderDecorator extends ClassfileLoader {
         getLoader().fireEndSession();
     }
     
+    protected ClassfileLoaderAction dispatchEntry(String filename) {
+        return getLoader().dispatchEntry(filename);
+    }
+
+    protected void load(String filename, ClassfileLoaderAction dispatch, InputStream in) {
+        getLoader().load(filename, dispatch, in);
+    }
+
     protected Classfile load(DataInput in) throws IOException {
         return getLoader().load(in);
     }
@@ -38,14 +38,16 @@ import java.util.*;
 import org.apache.log4j.*;
 
 public abstract class ClassfileLoaderEventSource extends ClassfileLoader {
+    private static final Logger LOGGER = Logger.getLogger(ClassfileLoaderEventSource.class);
+
     public static final ClassfileLoaderDispatcher DEFAULT_DISPATCHER = new PermissiveDispatcher();
     
     private ClassfileFactory factory;
     private ClassfileLoaderDispatcher dispatcher;
     
     private ClassfileLoader dirLoader = new DirectoryClassfileLoader(this);
-    private ClassfileLoader jarLoader = new JarClassfileLoader(this);
-    private ClassfileLoader zipLoader = new ZipClassfileLoader(this);
+    private ClassfileLoader jarLoader = new MappedArchiveClassfileLoader(this, new JarClassfileLoader(this));
+    private ClassfileLoader zipLoader = new MappedArchiveClassfileLoader(this, new ZipClassfileLoader(this));
 
     private HashSet<LoadListener> loadListeners = new HashSet<LoadListener>();
 
@@ -67,6 +69,10 @@ public abstract class ClassfileLoaderEventSource extends ClassfileLoader {
         return factory;
     }
 
+    protected ClassfileLoaderDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
     protected void load(String filename) {
         ClassfileLoaderAction dispatch = dispatcher.dispatch(filename);
 
@@ -74,27 +80,37 @@ public abstract class ClassfileLoaderEventSource extends ClassfileLoader {
         
         switch (dispatch) {
             case IGNORE:
-                Logger.getLogger(getClass()).debug("IGNORE \"" + filename + "\"");
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("IGNORE \"" + filename + "\"");
+                }
                 break;
 
             case CLASS:
             case DIRECTORY:
-                Logger.getLogger(getClass()).debug("DIRECTORY or CLASS \"" + filename + "\"");
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("DIRECTORY or CLASS \"" + filename + "\"");
+                }
                 dirLoader.load(filename);
                 break;
 
             case ZIP:
-                Logger.getLogger(getClass()).debug("ZIP \"" + filename + "\"");
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("ZIP \"" + filename + "\"");
+                }
                 zipLoader.load(filename);
                 break;
 
             case JAR:
-                Logger.getLogger(getClass()).debug("JAR \"" + filename + "\"");
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("JAR \"" + filename + "\"");
+                }
                 jarLoader.load(filename);
                 break;
 
             default:
-                Logger.getLogger(getClass()).debug("default (IGNORE) \"" + filename + "\"");
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("default (IGNORE) \"" + filename + "\"");
+                }
                 break;
         }
     }
@@ -105,44 +121,81 @@ public abstract class ClassfileLoaderEventSource extends ClassfileLoader {
         if (dispatch == ClassfileLoaderAction.IGNORE && getTopGroupSize() == 1 &&  filename.equals(getTopGroupName())) {
             dispatch = previousDispatch;
         }
-        
+
+        load(filename, dispatch, in);
+    }
+
+    /**
+     *  Decides what to do with an entry in a JAR or Zip file without
+     *  looking at the filesystem, so that the archive loaders can skip
+     *  ignored entries without decompressing them.
+     */
+    protected ClassfileLoaderAction dispatchEntry(String filename) {
+        ClassfileLoaderAction result;
+
+        if (dispatcher instanceof ArchiveEntryDispatcher) {
+            result = ((ArchiveEntryDispatcher) dispatcher).dispatchEntry(filename);
+        } else {
+            result = dispatcher.dispatch(filename);
+        }
+
+        return result;
+    }
+
+    protected void load(String filename, ClassfileLoaderAction dispatch, InputStream in) {
         switch (dispatch) {
             case IGNORE:
-                Logger.getLogger(getClass()).debug("IGNORE \"" + filename + "\"");
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("IGNORE \"" + filename + "\"");
+                }
                 break;
 
             case DIRECTORY:
-                Logger.getLogger(getClass()).debug("DIRECTORY \"" + filename + "\"");
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("DIRECTORY \"" + filename + "\"");
+                }
                 dirLoader.load(filename, in);
                 break;
 
             case ZIP:
-                Logger.getLogger(getClass()).debug("ZIP \"" + filename + "\"");
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("ZIP \"" + filename + "\"");
+                }
                 zipLoader.load(filename, in);
                 break;
 
             case JAR:
-                Logger.getLogger(getClass()).debug("JAR \"" + filename + "\"");
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("JAR \"" + filename + "\"");
+                }
                 jarLoader.load(filename, in);
                 break;
 
             case CLASS:
-                Logger.getLogger(getClass()).debug("CLASS \"" + filename + "\"");
-                try {
-                    fireBeginClassfile(filename);
-                    Classfile classfile = load(new DataInputStream(in));
-                    fireEndClassfile(filename, classfile);
-                } catch (IOException ex) {
-                    Logger.getLogger(getClass()).warn("Cannot load class from file \"" + filename + "\"", ex);
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("CLASS \"" + filename + "\"");
                 }
+                loadClassfile(filename, in);
                 break;
                 
             default:
-                Logger.getLogger(getClass()).debug("default (IGNORE) \"" + filename + "\"");
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("default (IGNORE) \"" + filename + "\"");
+                }
                 break;
         }
     }
 
+    protected void loadClassfile(String filename, InputStream in) {
+        try {
+            fireBeginClassfile(filename);
+            Classfile classfile = load(new DataInputStream(in));
+            fireEndClassfile(filename, classfile);
+        } catch (IOException ex) {
+            LOGGER.warn("Cannot load class from file \"" + filename + "\"", ex);
+        }
+    }
+
     public void addLoadListener(LoadListener listener) {
         synchronized(loadListeners) {
             loadListeners.add(listener);
@@ -155,8 +208,14 @@ public abstract class ClassfileLoaderEventSource extends ClassfileLoader {
         }
     }
 
+    protected Collection<LoadListener> getLoadListeners() {
+        synchronized(loadListeners) {
+            return new ArrayList<LoadListener>(loadListeners);
+        }
+    }
+
     protected void fireBeginSession() {
-        Logger.getLogger(getClass()).debug("Begin session");
+        LOGGER.debug("Begin session");
         
         LoadEvent event = new LoadEvent(this, null, null, null);
 
@@ -171,7 +230,9 @@ public abstract class ClassfileLoaderEventSource extends ClassfileLoader {
     }
 
     protected void fireBeginGroup(String groupName, int size) {
-        Logger.getLogger(getClass()).debug("Begin group \"" + groupName + "\" of size " + size);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Begin group \"" + groupName + "\" of size " + size);
+        }
 
         LoadEvent event = new LoadEvent(this, groupName, size);
 
@@ -189,7 +250,9 @@ public abstract class ClassfileLoaderEventSource extends ClassfileLoader {
     }
     
     protected void fireBeginFile(String filename) {
-        Logger.getLogger(getClass()).debug("Begin file \"" + filename + "\"");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Begin file \"" + filename + "\"");
+        }
         
         LoadEvent event = new LoadEvent(this, getTopGroupName(), filename, null);
 
@@ -204,7 +267,9 @@ public abstract class ClassfileLoaderEventSource extends ClassfileLoader {
     }
     
     protected void fireBeginClassfile(String filename) {
-        Logger.getLogger(getClass()).debug("Begin classfile \"" + filename + "\"");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Begin classfile \"" + filename + "\"");
+        }
         
         LoadEvent event = new LoadEvent(this, getTopGroupName(), filename, null);
 
@@ -219,9 +284,19 @@ public abstract class ClassfileLoaderEventSource extends ClassfileLoader {
     }
 
     protected void fireEndClassfile(String filename, Classfile classfile) {
-        Logger.getLogger(getClass()).debug("End classfile \"" + filename + "\": " + ((classfile != null) ? classfile.getClassName() : "nothing"));
-        
-        LoadEvent event = new LoadEvent(this, getTopGroupName(), filename, classfile);
+        fireEndClassfile(filename, classfile, null);
+    }
+
+    /**
+     *  Also gives the class name, for when the classfile was not
+     *  parsed and is <code>null</code>.
+     */
+    protected void fireEndClassfile(String filename, Classfile classfile, String className) {
+        LoadEvent event = new LoadEvent(this, getTopGroupName(), filename, classfile, className);
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("End classfile \"" + filename + "\": " + ((event.getClassName() != null) ? event.getClassName() : "nothing"));
+        }
 
         HashSet<LoadListener> listeners;
         synchronized(loadListeners) {
@@ -234,7 +309,9 @@ public abstract class ClassfileLoaderEventSource extends ClassfileLoader {
     }
 
     protected void fireEndFile(String filename) {
-        Logger.getLogger(getClass()).debug("End file \"" + filename + "\"");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("End file \"" + filename + "\"");
+        }
         
         LoadEvent event = new LoadEvent(this, getTopGroupName(), filename, null);
 
@@ -249,7 +326,9 @@ public abstract class ClassfileLoaderEventSource extends ClassfileLoader {
     }
 
     protected void fireEndGroup(String groupName) {
-        Logger.getLogger(getClass()).debug("End group \"" + groupName + "\"");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("End group \"" + groupName + "\"");
+        }
         
         LoadEvent event = new LoadEvent(this, groupName, null, null);
 
@@ -267,7 +346,7 @@ public abstract class ClassfileLoaderEventSource extends ClassfileLoader {
     }
 
     protected void fireEndSession() {
-        Logger.getLogger(getClass()).debug("End session");
+        LOGGER.debug("End session");
         
         LoadEvent event = new LoadEvent(this, null, null, null);
 
@@ -281,7 +360,7 @@ public abstract class ClassfileLoaderEventSource extends ClassfileLoader {
         }
     }
 
-    private String getTopGroupName() {
+    protected String getTopGroupName() {
         String result = null;
 
         if (!groupNames.isEmpty()) {
@@ -39,6 +39,7 @@ public interface Code_attribute extends Attribute_info, Iterable<Instruction> {
     public int getMaxLocals();
     public byte[] getCode();
     public Iterator<Instruction> iterator();
+    public InstructionCursor cursor();
     public Collection<? extends ExceptionHandler> getExceptionHandlers();
     public Collection<? extends Attribute_info> getAttributes();
 }
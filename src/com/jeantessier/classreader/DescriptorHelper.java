@@ -36,9 +36,26 @@ import java.util.*;
 
 import org.apache.log4j.*;
 
+/**
+ *  <p>Converts descriptors from classfiles to Java notation.</p>
+ *
+ *  <p>The same descriptors show up over and over again across a
+ *  codebase, so each one is parsed only once and the result kept in a
+ *  shared cache.  The cache is bounded: once it is full, each new
+ *  entry pushes out the least recently used one, so a long run keeps
+ *  the descriptors it sees most often.  It is safe to use from many
+ *  threads at once.</p>
+ */
 public final class DescriptorHelper {
+    private static final Logger LOGGER = Logger.getLogger(DescriptorHelper.class);
+
+    private static final int MAX_CACHE_SIZE = 64 * 1024;
+
     private static Map<String, String> conversion = new HashMap<String, String>();
 
+    private static Map<String, String> types = new LinkedHashMap<String, String>(16, 0.75f, true);
+    private static Map<String, MethodDescriptor> methods = new LinkedHashMap<String, MethodDescriptor>(16, 0.75f, true);
+
     static {
         conversion.put("B", "byte");
         conversion.put("C", "char");
@@ -56,9 +73,24 @@ public final class DescriptorHelper {
     }
 
     public static String convert(String type) {
+        String result = lookup(types, type);
+
+        if (result == null) {
+            result = parseType(type);
+            if (result != null) {
+                cache(types, type, result);
+            }
+        }
+
+        return result;
+    }
+
+    private static String parseType(String type) {
         String result = null;
 
-        Logger.getLogger(DescriptorHelper.class).debug("Begin Convert(\"" + type + "\")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Begin Convert(\"" + type + "\")");
+        }
 
         if (type.length() == 1) {
             result = conversion.get(type);
@@ -68,61 +100,131 @@ public final class DescriptorHelper {
             result = convert(type.substring(1)) + "[]";
         }
 
-        Logger.getLogger(DescriptorHelper.class).debug("End   Convert(\"" + type + "\"): \"" + result + "\"");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("End   Convert(\"" + type + "\"): \"" + result + "\"");
+        }
 
         return result;
     }
 
     public static String getSignature(String descriptor) {
-        StringBuffer result = new StringBuffer();
+        return getMethodDescriptor(descriptor).getSignature();
+    }
 
-        Logger.getLogger(DescriptorHelper.class).debug("Begin Signature(\"" + descriptor + "\")");
+    public static int getParameterCount(String descriptor) {
+        return getMethodDescriptor(descriptor).getParameterTypes().size();
+    }
 
-        result.append("(");
+    public static List<String> getParameterTypes(String descriptor) {
+        return getMethodDescriptor(descriptor).getParameterTypes();
+    }
 
-        int start = descriptor.indexOf("(") + 1;
-        int end   = descriptor.indexOf(")");
+    public static String getReturnType(String descriptor) {
+        String result;
 
-        Iterator i = new DescriptorIterator(descriptor.substring(start, end));
-        while (i.hasNext()) {
-            result.append(i.next());
-            if (i.hasNext()) {
-                result.append(", ");
-            }
+        if (descriptor.startsWith("(")) {
+            result = getMethodDescriptor(descriptor).getReturnType();
+        } else {
+            result = convert(descriptor);
         }
 
-        result.append(")");
-
-        Logger.getLogger(DescriptorHelper.class).debug("End   Signature(\"" + descriptor + "\"): \"" + result + "\"");
+        return result;
+    }
 
-        return result.toString();
+    public static String getType(String descriptor) {
+        return convert(descriptor);
     }
 
-    public static int getParameterCount(String descriptor) {
-        int result = 0;
+    private static MethodDescriptor getMethodDescriptor(String descriptor) {
+        MethodDescriptor result = lookup(methods, descriptor);
 
-        Logger.getLogger(DescriptorHelper.class).debug("Begin ParameterCount(\"" + descriptor + "\")");
+        if (result == null) {
+            result = new MethodDescriptor(descriptor);
+            cache(methods, descriptor, result);
+        }
+
+        return result;
+    }
 
-        int start = descriptor.indexOf("(") + 1;
-        int end   = descriptor.indexOf(")");
+    /**
+     *  Lookups reorder the access-ordered cache, so they need the lock
+     *  too.
+     */
+    private static <V> V lookup(Map<String, V> cache, String key) {
+        V result;
 
-        Iterator i = new DescriptorIterator(descriptor.substring(start, end));
-        while (i.hasNext()) {
-            i.next();
-            result++;
+        synchronized (cache) {
+            result = cache.get(key);
         }
 
-        Logger.getLogger(DescriptorHelper.class).debug("End   ParameterCount(\"" + descriptor + "\"): \"" + result + "\"");
-
         return result;
     }
 
-    public static String getReturnType(String descriptor) {
-        return convert(descriptor.substring(descriptor.lastIndexOf(")") + 1));
+    /**
+     *  Adds the entry at the most recently used end of the cache and
+     *  evicts the least recently used entries until the cache fits
+     *  again.
+     */
+    private static <V> void cache(Map<String, V> cache, String key, V value) {
+        synchronized (cache) {
+            cache.put(key, value);
+
+            Iterator<String> i = cache.keySet().iterator();
+            while (cache.size() > MAX_CACHE_SIZE && i.hasNext()) {
+                i.next();
+                i.remove();
+            }
+        }
     }
 
-    public static String getType(String descriptor) {
-        return convert(descriptor);
+    /**
+     *  A method descriptor, once parsed.  Instances never change after
+     *  construction.
+     */
+    private static final class MethodDescriptor {
+        private final List<String> parameterTypes;
+        private final String returnType;
+        private final String signature;
+
+        public MethodDescriptor(String descriptor) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Parsing method descriptor \"" + descriptor + "\"");
+            }
+
+            int start = descriptor.indexOf("(") + 1;
+            int end   = descriptor.indexOf(")");
+
+            List<String> types = new ArrayList<String>();
+            StringBuilder buffer = new StringBuilder();
+
+            buffer.append("(");
+            Iterator i = new DescriptorIterator(descriptor.substring(start, end));
+            while (i.hasNext()) {
+                String type = (String) i.next();
+                types.add(type);
+                buffer.append(type);
+                if (i.hasNext()) {
+                    buffer.append(", ");
+                }
+            }
+            buffer.append(")");
+
+            parameterTypes = Collections.unmodifiableList(types);
+            returnType = convert(descriptor.substring(end + 1));
+            signature = buffer.toString();
+        }
+
+        public List<String> getParameterTypes() {
+            return parameterTypes;
+        }
+
+        public String getReturnType() {
+            return returnType;
+        }
+
+        public String getSignature() {
+            return signature;
+        }
     }
 }
 
@@ -37,12 +37,16 @@ package com.jeantessier.classreader;
  import org.apache.log4j.*;
 
 public class DirectoryClassfileLoader extends ClassfileLoaderDecorator {
+    private static final Logger LOGGER = Logger.getLogger(DirectoryClassfileLoader.class);
+
     public DirectoryClassfileLoader(ClassfileLoader loader) {
         super(loader);
     }
 
     protected void load(String filename) {
-        Logger.getLogger(getClass()).debug("Starting group from path \"" + filename + "\"");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Starting group from path \"" + filename + "\"");
+        }
         
         try {
             DirectoryExplorer explorer = new DirectoryExplorer(filename);
@@ -52,7 +56,9 @@ public class DirectoryClassfileLoader extends ClassfileLoaderDecorator {
             for (File file : explorer.getFiles()) {
                 fireBeginFile(file.getPath());
 
-                Logger.getLogger(getClass()).debug("Starting file \"" + file.getPath() + "\" (" + file.length() + " bytes)");
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Starting file \"" + file.getPath() + "\" (" + file.length() + " bytes)");
+                }
 
                 if (!file.isDirectory()) {
                     // No need to close "in" in finally block.  Only problems can
@@ -63,14 +69,14 @@ public class DirectoryClassfileLoader extends ClassfileLoaderDecorator {
                         getLoader().load(file.getPath(), in);
                         in.close();
                     } catch (IOException ex) {
-                        Logger.getLogger(getClass()).error("Cannot load file \"" + file.getPath() + "\"", ex);
+                        LOGGER.error("Cannot load file \"" + file.getPath() + "\"", ex);
                     }
                 }
 
                 fireEndFile(file.getPath());
             }
         } catch (IOException ex) {
-            Logger.getLogger(getClass()).error("Cannot load group \"" + filename + "\"", ex);
+            LOGGER.error("Cannot load group \"" + filename + "\"", ex);
         } finally {
             fireEndGroup(filename);
         }
@@ -69,16 +69,14 @@ public class FeatureDependencyCollector extends CollectorBase {
         super.visitMethod_info(entry);
     }
 
+    protected void visitInstructions(Code_attribute attribute) {
+        visitInstructionsWithCursor(attribute);
+    }
+
     public void visitInstruction(Instruction helper) {
-        switch (helper.getOpcode()) {
-            case 0xb2: // getstatic
-            case 0xb3: // putstatic
-            case 0xb4: // getfield
-            case 0xb5: // putfield
-            case 0xb6: // invokevirtual
-            case 0xb7: // invokespecial
-            case 0xb8: // invokestatic
-            case 0xb9: // invokeinterface
+        switch (InstructionCategory.forOpcode(helper.getOpcode())) {
+            case FIELD_ACCESS:
+            case METHOD_INVOCATION:
                 helper.getIndexedConstantPoolEntry().accept(this);
                 break;
             default:
@@ -0,0 +1,84 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.classreader;
+
+/**
+ *  Groups opcodes by what they refer to in the constant pool, so that
+ *  visitors can decide what to do with an instruction with a single
+ *  table lookup instead of a long <code>switch</code>.
+ */
+public enum InstructionCategory {
+    CONSTANT_POOL_LOAD(0x12, 0x13),               // ldc, ldc_w
+    WIDE_CONSTANT_POOL_LOAD(0x14),                // ldc2_w
+    FIELD_ACCESS(0xb2, 0xb3, 0xb4, 0xb5),         // getstatic, putstatic, getfield, putfield
+    METHOD_INVOCATION(0xb6, 0xb7, 0xb8, 0xb9),    // invokevirtual, invokespecial, invokestatic, invokeinterface
+    DYNAMIC_INVOCATION(0xba),                     // invokedynamic
+    OBJECT_CREATION(0xbb),                        // new
+    TYPE_REFERENCE(0xbd, 0xc0, 0xc1, 0xc5),       // anewarray, checkcast, instanceof, multianewarray
+    OTHER();
+
+    private static final int NB_OPCODES = 0x100;
+
+    private static final InstructionCategory[] categories = new InstructionCategory[NB_OPCODES];
+
+    static {
+        for (int i = 0; i < NB_OPCODES; i++) {
+            categories[i] = OTHER;
+        }
+
+        for (InstructionCategory category : values()) {
+            for (int opcode : category.opcodes) {
+                categories[opcode] = category;
+            }
+        }
+    }
+
+    private final int[] opcodes;
+
+    InstructionCategory(int ... opcodes) {
+        this.opcodes = opcodes;
+    }
+
+    /**
+     *  @return <code>true</code> if instructions in this category have
+     *          an index into the constant pool.
+     */
+    public boolean isConstantPoolReference() {
+        return this != OTHER;
+    }
+
+    public static InstructionCategory forOpcode(int opcode) {
+        return categories[opcode];
+    }
+}
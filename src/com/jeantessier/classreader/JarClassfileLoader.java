@@ -38,12 +38,16 @@ import java.util.jar.*;
 import org.apache.log4j.*;
 
 public class JarClassfileLoader extends ZipClassfileLoader {
+    private static final Logger LOGGER = Logger.getLogger(JarClassfileLoader.class);
+
     public JarClassfileLoader(ClassfileLoader loader) {
         super(loader);
     }
 
     protected void load(String filename) {
-        Logger.getLogger(getClass()).debug("Reading " + filename);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Reading " + filename);
+        }
 
         JarFile jarfile = null;
         try {
@@ -53,7 +57,7 @@ public class JarClassfileLoader extends ZipClassfileLoader {
             load(jarfile);
             fireEndGroup(filename);
         } catch (IOException ex) {
-            Logger.getLogger(getClass()).error("Cannot load JAR file \"" + filename + "\"", ex);
+            LOGGER.error("Cannot load JAR file \"" + filename + "\"", ex);
         } finally {
             if (jarfile != null) {
                 try {
@@ -66,7 +70,9 @@ public class JarClassfileLoader extends ZipClassfileLoader {
     }
 
     protected void load(String filename, InputStream in) {
-        Logger.getLogger(getClass()).debug("Reading " + filename);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Reading " + filename);
+        }
         
         JarInputStream jarfile = null;
         try {
@@ -76,7 +82,7 @@ public class JarClassfileLoader extends ZipClassfileLoader {
             load(jarfile);
             fireEndGroup(filename);
         } catch (IOException ex) {
-            Logger.getLogger(getClass()).error("Cannot load JAR file \"" + filename + "\"", ex);
+            LOGGER.error("Cannot load JAR file \"" + filename + "\"", ex);
         } finally {
             if (jarfile != null) {
                 try {
@@ -38,6 +38,7 @@ public class LoadEvent extends EventObject {
     private String groupName;
     private String filename;
     private Classfile classfile;
+    private String className;
     private int size;
 
     public LoadEvent(Object source, String groupName, int size) {
@@ -49,11 +50,25 @@ public class LoadEvent extends EventObject {
     }
     
     public LoadEvent(Object source, String groupName, String filename, Classfile classfile, int size) {
+        this(source, groupName, filename, classfile, null, size);
+    }
+
+    /**
+     *  For loaders that can tell which class a classfile holds without
+     *  parsing it, e.g., from a cache.  The classfile can then be
+     *  <code>null</code>.
+     */
+    public LoadEvent(Object source, String groupName, String filename, Classfile classfile, String className) {
+        this(source, groupName, filename, classfile, className, -1);
+    }
+
+    private LoadEvent(Object source, String groupName, String filename, Classfile classfile, String className, int size) {
         super(source);
 
         this.groupName = groupName;
         this.filename = filename;
         this.classfile = classfile;
+        this.className = className;
         this.size = size;
     }
 
@@ -69,6 +84,20 @@ public class LoadEvent extends EventObject {
         return classfile;
     }
 
+    /**
+     *  @return the name of the class in the classfile, even if the
+     *          loader did not parse it.
+     */
+    public String getClassName() {
+        String result = className;
+
+        if (result == null && classfile != null) {
+            result = classfile.getClassName();
+        }
+
+        return result;
+    }
+
     public int getSize() {
         return size;
     }
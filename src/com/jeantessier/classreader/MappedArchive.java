@@ -0,0 +1,425 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.classreader;
+
+import java.io.*;
+import java.lang.reflect.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.zip.*;
+
+import org.apache.log4j.*;
+
+/**
+ *  <p>Random access to the entries of a JAR or Zip file held in a
+ *  {@link ByteBuffer}, usually a file mapped in memory.  It reads the
+ *  central directory directly, so entries can be visited without
+ *  streaming through the whole file.</p>
+ *
+ *  <p>Entries that are stored without compression are exposed as
+ *  slices of the same buffer.  In particular, a stored JAR file nested
+ *  in another one is opened in place, without copying a single
+ *  byte.  Compressed nested archives are decompressed once, in a
+ *  buffer of their exact size.</p>
+ *
+ *  <p>It only supports what a JAR file needs: a single disk, entries
+ *  that are either stored or deflated, and no encryption.  ZIP64
+ *  archives are not supported either.  {@link #MappedArchive(ByteBuffer)}
+ *  throws a {@link ZipException} when it finds anything else, so that
+ *  callers can fall back on {@link ZipFile} or {@link ZipInputStream}.</p>
+ *
+ *  <p>Archives from {@link #open(File)} hold on to a memory mapping
+ *  until {@link #close()} is called.  After that, none of their
+ *  entries, buffers, streams, or nested archives may be used.</p>
+ */
+public class MappedArchive {
+    private static final Logger LOGGER = Logger.getLogger(MappedArchive.class);
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int LOCAL_HEADER_SIZE = 30;
+
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int END_SIZE = 22;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+
+    private static final int ENCRYPTED_FLAG = 0x0001;
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private ByteBuffer buffer;
+    private List<Entry> entries;
+    private MappedByteBuffer mapping;
+
+    public static MappedArchive open(File file) throws IOException {
+        MappedArchive result;
+
+        FileInputStream in = new FileInputStream(file);
+        try {
+            FileChannel channel = in.getChannel();
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new ZipException(file + " is too large to map in memory (" + channel.size() + " bytes)");
+            }
+
+            MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            try {
+                result = new MappedArchive(mapping);
+            } catch (ZipException ex) {
+                unmap(mapping);
+                throw ex;
+            }
+            result.mapping = mapping;
+        } finally {
+            in.close();
+        }
+
+        return result;
+    }
+
+    public MappedArchive(ByteBuffer buffer) throws ZipException {
+        this.buffer = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        this.entries = Collections.unmodifiableList(readCentralDirectory());
+    }
+
+    /**
+     *  The entries, in the order of the central directory, which is
+     *  also the order of {@link ZipFile#entries()}.
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     *  The entries, in the order of their local headers in the file,
+     *  which is the order {@link ZipInputStream} reads them in.  It
+     *  is usually the same as {@link #getEntries()}, but tools that
+     *  update archives in place can make the two differ.
+     */
+    public List<Entry> getEntriesInFileOrder() {
+        List<Entry> result = new ArrayList<Entry>(entries);
+
+        Collections.sort(result, new Comparator<Entry>() {
+            public int compare(Entry entry1, Entry entry2) {
+                return entry1.localHeaderOffset - entry2.localHeaderOffset;
+            }
+        });
+
+        return Collections.unmodifiableList(result);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     *  Releases the memory mapping of an archive from
+     *  {@link #open(File)} right away, instead of whenever the garbage
+     *  collector gets to it.  Does nothing for other archives.
+     */
+    public void close() {
+        if (mapping != null) {
+            unmap(mapping);
+            mapping = null;
+            buffer = null;
+        }
+    }
+
+    /**
+     *  There is no public API to unmap a buffer, so this uses the
+     *  cleaner of the JVM if it can find it.  Otherwise, the mapping
+     *  goes away when the buffer is garbage collected.
+     */
+    private static void unmap(MappedByteBuffer mapping) {
+        try {
+            // Java 9 and later
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field unsafe = unsafeClass.getDeclaredField("theUnsafe");
+            unsafe.setAccessible(true);
+            unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(unsafe.get(null), mapping);
+        } catch (Exception ex) {
+            try {
+                // Java 8 and earlier
+                Method cleanerMethod = mapping.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(mapping);
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            } catch (Exception ex2) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Cannot unmap buffer, leaving it to the garbage collector: " + ex2);
+                }
+            }
+        }
+    }
+
+    private List<Entry> readCentralDirectory() throws ZipException {
+        try {
+            int end = findEndOfCentralDirectory();
+
+            int nbEntries = getUnsignedShort(end + 10);
+            long directorySize = getUnsignedInt(end + 12);
+            long directoryOffset = getUnsignedInt(end + 16);
+            if (getUnsignedShort(end + 4) != 0 || getUnsignedShort(end + 6) != 0 || getUnsignedShort(end + 8) != nbEntries) {
+                throw new ZipException("Archives on multiple disks are not supported");
+            }
+            if (nbEntries == 0xFFFF || directorySize == 0xFFFFFFFFL || directoryOffset == 0xFFFFFFFFL) {
+                throw new ZipException("ZIP64 archives are not supported");
+            }
+            if (directoryOffset + directorySize > end) {
+                throw new ZipException("Invalid central directory");
+            }
+
+            List<Entry> result = new ArrayList<Entry>(nbEntries);
+
+            int position = (int) directoryOffset;
+            for (int i = 0; i < nbEntries; i++) {
+                if (buffer.getInt(position) != CENTRAL_HEADER_SIGNATURE) {
+                    throw new ZipException("Invalid central directory header for entry " + i);
+                }
+
+                int flags = getUnsignedShort(position + 8);
+                int method = getUnsignedShort(position + 10);
+                long compressedSize = getUnsignedInt(position + 20);
+                long size = getUnsignedInt(position + 24);
+                int nameLength = getUnsignedShort(position + 28);
+                int extraLength = getUnsignedShort(position + 30);
+                int commentLength = getUnsignedShort(position + 32);
+                long localHeaderOffset = getUnsignedInt(position + 42);
+
+                String name = readName(position + CENTRAL_HEADER_SIZE, nameLength);
+
+                if ((flags & ENCRYPTED_FLAG) != 0) {
+                    throw new ZipException("Entry \"" + name + "\" is encrypted");
+                }
+                if (method != STORED && method != DEFLATED) {
+                    throw new ZipException("Entry \"" + name + "\" uses unsupported compression method " + method);
+                }
+                if (compressedSize == 0xFFFFFFFFL || size == 0xFFFFFFFFL || localHeaderOffset == 0xFFFFFFFFL) {
+                    throw new ZipException("ZIP64 archives are not supported");
+                }
+
+                result.add(new Entry(name, method, (int) compressedSize, size, (int) localHeaderOffset, getDataOffset(name, localHeaderOffset, compressedSize)));
+
+                position += CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+            }
+
+            return result;
+        } catch (IndexOutOfBoundsException ex) {
+            throw new ZipException("Archive is truncated");
+        }
+    }
+
+    private int findEndOfCentralDirectory() throws ZipException {
+        int last = buffer.limit() - END_SIZE;
+        int first = Math.max(0, last - MAX_COMMENT_SIZE);
+
+        for (int position = last; position >= first; position--) {
+            if (buffer.getInt(position) == END_SIGNATURE && position + END_SIZE + getUnsignedShort(position + 20) == buffer.limit()) {
+                return position;
+            }
+        }
+
+        throw new ZipException("Cannot find end of central directory");
+    }
+
+    private int getDataOffset(String name, long localHeaderOffset, long compressedSize) throws ZipException {
+        if (localHeaderOffset + LOCAL_HEADER_SIZE > buffer.limit() || buffer.getInt((int) localHeaderOffset) != LOCAL_HEADER_SIGNATURE) {
+            throw new ZipException("Invalid local header for entry \"" + name + "\"");
+        }
+
+        int position = (int) localHeaderOffset;
+        long result = position + LOCAL_HEADER_SIZE + getUnsignedShort(position + 26) + getUnsignedShort(position + 28);
+        if (result + compressedSize > buffer.limit()) {
+            throw new ZipException("Entry \"" + name + "\" is truncated");
+        }
+
+        return (int) result;
+    }
+
+    private String readName(int position, int length) throws ZipException {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(position + i);
+        }
+
+        try {
+            // Same as java.util.zip, which reads names as UTF-8
+            // whether the language encoding flag is set or not.
+            return new String(bytes, "UTF-8");
+        } catch (UnsupportedEncodingException ex) {
+            throw new ZipException(ex.getMessage());
+        }
+    }
+
+    private int getUnsignedShort(int position) {
+        return buffer.getShort(position) & 0xFFFF;
+    }
+
+    private long getUnsignedInt(int position) {
+        return buffer.getInt(position) & 0xFFFFFFFFL;
+    }
+
+    private ByteBuffer slice(int offset, int length) {
+        ByteBuffer result = buffer.duplicate();
+        result.limit(offset + length);
+        result.position(offset);
+        return result.slice();
+    }
+
+    public class Entry {
+        private String name;
+        private int method;
+        private int compressedSize;
+        private long size;
+        private int localHeaderOffset;
+        private int dataOffset;
+
+        private Entry(String name, int method, int compressedSize, long size, int localHeaderOffset, int dataOffset) {
+            this.name = name;
+            this.method = method;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+            this.dataOffset = dataOffset;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isDirectory() {
+            return name.endsWith("/");
+        }
+
+        public boolean isStored() {
+            return method == STORED;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         *  The contents of a stored entry, as a slice of the archive's
+         *  buffer.  No bytes are copied.
+         */
+        public ByteBuffer getBuffer() throws ZipException {
+            if (!isStored()) {
+                throw new ZipException("Entry \"" + name + "\" is compressed");
+            }
+
+            return slice(dataOffset, compressedSize);
+        }
+
+        public InputStream getInputStream() {
+            InputStream result = new ByteBufferInputStream(slice(dataOffset, compressedSize));
+
+            if (!isStored()) {
+                result = new EntryInflaterInputStream(result);
+            }
+
+            return result;
+        }
+
+        /**
+         *  Opens this entry as an archive in its own right.  A stored
+         *  entry shares the buffer of the enclosing archive.
+         */
+        public MappedArchive openArchive() throws IOException {
+            ByteBuffer contents;
+
+            if (isStored()) {
+                contents = getBuffer();
+            } else {
+                if (size > Integer.MAX_VALUE) {
+                    throw new ZipException("Entry \"" + name + "\" is too large to decompress in memory (" + size + " bytes)");
+                }
+
+                byte[] bytes = new byte[(int) size];
+                DataInputStream in = new DataInputStream(getInputStream());
+                try {
+                    in.readFully(bytes);
+                } finally {
+                    in.close();
+                }
+                contents = ByteBuffer.wrap(bytes);
+            }
+
+            return new MappedArchive(contents);
+        }
+
+        public String toString() {
+            return getName();
+        }
+    }
+
+    /**
+     *  Raw deflated data needs an extra dummy byte at the end, which
+     *  {@link ZipFile} adds the same way.
+     */
+    private static class EntryInflaterInputStream extends InflaterInputStream {
+        private boolean eof;
+
+        public EntryInflaterInputStream(InputStream in) {
+            super(in, new Inflater(true), BUFFER_SIZE);
+        }
+
+        protected void fill() throws IOException {
+            if (eof) {
+                throw new EOFException("Unexpected end of entry");
+            }
+
+            len = in.read(buf, 0, buf.length);
+            if (len == -1) {
+                buf[0] = 0;
+                len = 1;
+                eof = true;
+            }
+            inf.setInput(buf, 0, len);
+        }
+
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                inf.end();
+            }
+        }
+    }
+}
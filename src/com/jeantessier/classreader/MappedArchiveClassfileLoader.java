@@ -0,0 +1,208 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.classreader;
+
+import java.io.*;
+import java.util.*;
+
+import org.apache.log4j.*;
+
+/**
+ *  Loads JAR and Zip files by mapping them in memory with
+ *  {@link MappedArchive}.  Nested archives are read in place instead
+ *  of being streamed through a chain of decompressors.  Archives it
+ *  cannot read, and archives that only exist as streams, are handed
+ *  to a fallback loader, usually a {@link ZipClassfileLoader} or a
+ *  {@link JarClassfileLoader}.
+ *
+ *  <p>Nested archives fire the same events as when the fallback
+ *  streams them: a group of unknown size, entries in the order of the
+ *  file rather than of the central directory and, for nested JAR
+ *  files, no entry for the manifest.  Top-level archives list their
+ *  entries in central directory order, like {@link java.util.zip.ZipFile}.</p>
+ *
+ *  <p>Each top-level archive is unmapped as soon as it is loaded.</p>
+ */
+public class MappedArchiveClassfileLoader extends ClassfileLoaderDecorator {
+    private static final Logger LOGGER = Logger.getLogger(MappedArchiveClassfileLoader.class);
+
+    private static final String MANIFEST_DIRECTORY = "META-INF/";
+    private static final String MANIFEST_NAME = "META-INF/MANIFEST.MF";
+
+    private ClassfileLoader fallback;
+
+    public MappedArchiveClassfileLoader(ClassfileLoader loader, ClassfileLoader fallback) {
+        super(loader);
+
+        this.fallback = fallback;
+    }
+
+    protected void load(String filename) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Starting group in file " + filename);
+        }
+
+        MappedArchive archive;
+        try {
+            archive = MappedArchive.open(new File(filename));
+        } catch (IOException ex) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Cannot map \"" + filename + "\", falling back: " + ex.getMessage());
+            }
+            fallback.load(filename);
+            return;
+        }
+
+        try {
+            fireBeginGroup(filename, archive.size());
+
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Loading MappedArchive " + filename);
+            }
+            load(archive.getEntries());
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Loaded MappedArchive " + filename);
+            }
+
+            fireEndGroup(filename);
+        } finally {
+            archive.close();
+        }
+    }
+
+    protected void load(String filename, InputStream in) {
+        fallback.load(filename, in);
+    }
+
+    protected void load(List<MappedArchive.Entry> entries) {
+        for (MappedArchive.Entry entry : entries) {
+            fireBeginFile(entry.getName());
+
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Starting file " + entry.getName() + " (" + entry.getSize() + " bytes)");
+            }
+
+            ClassfileLoaderAction dispatch = getLoader().dispatchEntry(entry.getName());
+            if (dispatch == null) {
+                // The loader could not decide from the name alone.
+                passUp(entry, dispatch);
+            } else {
+                switch (dispatch) {
+                    case IGNORE:
+                    case DIRECTORY:
+                        if (LOGGER.isDebugEnabled()) {
+                            LOGGER.debug("Skipping file " + entry.getName());
+                        }
+                        break;
+
+                    case ZIP:
+                    case JAR:
+                        loadNestedArchive(entry, dispatch);
+                        break;
+
+                    default:
+                        passUp(entry, dispatch);
+                        break;
+                }
+            }
+
+            fireEndFile(entry.getName());
+        }
+    }
+
+    private void loadNestedArchive(MappedArchive.Entry entry, ClassfileLoaderAction dispatch) {
+        MappedArchive archive;
+        try {
+            archive = entry.openArchive();
+        } catch (IOException ex) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Cannot open nested archive \"" + entry.getName() + "\" in place, falling back: " + ex.getMessage());
+            }
+            passUp(entry, dispatch);
+            return;
+        }
+
+        List<MappedArchive.Entry> entries = archive.getEntriesInFileOrder();
+        if (dispatch == ClassfileLoaderAction.JAR) {
+            entries = withoutManifest(entries);
+        }
+
+        fireBeginGroup(entry.getName(), -1);
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Loading nested MappedArchive " + entry.getName() + (entry.isStored() ? " in place" : ""));
+        }
+        load(entries);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Loaded nested MappedArchive " + entry.getName());
+        }
+
+        fireEndGroup(entry.getName());
+    }
+
+    private void passUp(MappedArchive.Entry entry, ClassfileLoaderAction dispatch) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Passing up file " + entry.getName());
+        }
+
+        InputStream in = entry.getInputStream();
+        try {
+            getLoader().load(entry.getName(), dispatch, in);
+        } finally {
+            try {
+                in.close();
+            } catch (IOException ex) {
+                // Ignore
+            }
+        }
+    }
+
+    /**
+     *  {@link java.util.jar.JarInputStream} hides the manifest, and
+     *  the directory that holds it, when they are the first entries.
+     */
+    private List<MappedArchive.Entry> withoutManifest(List<MappedArchive.Entry> entries) {
+        int start = 0;
+
+        if (start < entries.size() && entries.get(start).getName().equalsIgnoreCase(MANIFEST_DIRECTORY)) {
+            start++;
+        }
+
+        if (start < entries.size() && entries.get(start).getName().equalsIgnoreCase(MANIFEST_NAME)) {
+            start++;
+        }
+
+        return entries.subList(start, entries.size());
+    }
+}
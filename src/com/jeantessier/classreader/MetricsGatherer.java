@@ -445,6 +445,10 @@ public class MetricsGatherer extends VisitorBase {
     }
 
     // Attribute helpers
+    protected void visitInstructions(Code_attribute attribute) {
+        visitInstructionsWithCursor(attribute);
+    }
+
     public void visitInstruction(Instruction helper) {
         getInstructionCounts()[helper.getOpcode()]++;
 
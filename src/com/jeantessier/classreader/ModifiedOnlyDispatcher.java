@@ -37,7 +37,9 @@ import java.util.*;
 
 import org.apache.log4j.*;
 
-public class ModifiedOnlyDispatcher implements ClassfileLoaderDispatcher {
+public class ModifiedOnlyDispatcher implements ArchiveEntryDispatcher {
+    private static final Logger LOGGER = Logger.getLogger(ModifiedOnlyDispatcher.class);
+
     private ClassfileLoaderDispatcher delegate;
 
     private Map<String, Long> timestamps = new HashMap<String, Long>();
@@ -46,24 +48,58 @@ public class ModifiedOnlyDispatcher implements ClassfileLoaderDispatcher {
         this.delegate = delegate;
     }
 
-    public ClassfileLoaderAction dispatch(String filename) {
+    public synchronized ClassfileLoaderAction dispatch(String filename) {
         ClassfileLoaderAction result = delegate.dispatch(filename);
 
         if (result == ClassfileLoaderAction.CLASS) {
             Long timestamp = timestamps.get(filename);
-            Logger.getLogger(getClass()).debug(filename + " has timestamp " + timestamp);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(filename + " has timestamp " + timestamp);
+            }
 
             File file = new File(filename);
             if (timestamp != null && timestamp >= file.lastModified()) {
-                Logger.getLogger(getClass()).debug("Already dispatched \"" + filename + "\": IGNORE");
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Already dispatched \"" + filename + "\": IGNORE");
+                }
                 result = ClassfileLoaderAction.IGNORE;
             } else {
-                Logger.getLogger(getClass()).debug("Delegating ...");
+                LOGGER.debug("Delegating ...");
                 timestamp = file.lastModified();
                 timestamps.put(filename, timestamp);
             }
         } else {
-            Logger.getLogger(getClass()).debug("Delegating ...");
+            LOGGER.debug("Delegating ...");
+        }
+
+        return result;
+    }
+
+    /**
+     *  Entries in JAR and Zip files have no timestamp of their own,
+     *  so a class entry is only dispatched the first time its name
+     *  is seen.
+     */
+    public synchronized ClassfileLoaderAction dispatchEntry(String entryName) {
+        ClassfileLoaderAction result;
+        if (delegate instanceof ArchiveEntryDispatcher) {
+            result = ((ArchiveEntryDispatcher) delegate).dispatchEntry(entryName);
+        } else {
+            result = delegate.dispatch(entryName);
+        }
+
+        if (result == ClassfileLoaderAction.CLASS) {
+            if (timestamps.containsKey(entryName)) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Already dispatched entry \"" + entryName + "\": IGNORE");
+                }
+                result = ClassfileLoaderAction.IGNORE;
+            } else {
+                LOGGER.debug("Delegating ...");
+                timestamps.put(entryName, 0L);
+            }
+        } else {
+            LOGGER.debug("Delegating ...");
         }
 
         return result;
@@ -60,6 +60,21 @@ public class Monitor extends LoadListenerVisitorAdapter {
         this.removeVisitor = removeVisitor;
     }
 
+    /**
+     *  Picks up where <code>previous</code> left off, remembering the
+     *  same files, but sends events to other visitors.  This lets the
+     *  next update go to a copy of the graph while the original stays
+     *  untouched.  <code>previous</code> is not modified.
+     */
+    public Monitor(Visitor addVisitor, RemoveVisitor removeVisitor, Monitor previous) {
+        this(addVisitor, removeVisitor);
+
+        fileToClass.putAll(previous.fileToClass);
+        previousFiles.addAll(previous.previousFiles);
+        currentFiles.addAll(previous.currentFiles);
+        closedSession = previous.closedSession;
+    }
+
     public boolean isClosedSession() {
         return closedSession;
     }
@@ -0,0 +1,486 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.classreader;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.apache.log4j.*;
+
+import com.jeantessier.classreader.impl.*;
+
+/**
+ *  <p>Loads top-level files on a pool of threads.  Each directory,
+ *  JAR, or Zip file is read and decompressed by a reader thread and
+ *  every <code>.class</code> file it contains is parsed by a separate
+ *  pool of parser threads.</p>
+ *
+ *  <p>Listeners that implement {@link ThreadSafeLoadListener} are
+ *  notified from the reader threads, in order, as soon as each
+ *  classfile is parsed.  All other listeners are notified from the
+ *  calling thread, one top-level file at a time, in the order the
+ *  files were given to {@link #load(Collection)}.  They see exactly
+ *  the same sequence of events as with
+ *  {@link TransientClassfileLoader}.</p>
+ *
+ *  <p>Events flow to the listeners as the classfiles are parsed.  Each
+ *  reader keeps only a bounded window of events ahead of its
+ *  listeners; when the window is full, it waits for the listeners to
+ *  catch up.  Like {@link TransientClassfileLoader}, this loader does
+ *  not keep the classfiles it loads, so a large directory or JAR file
+ *  never has all its classfiles in memory at once.</p>
+ *
+ *  <p>The dispatcher is shared by all reader threads and must be
+ *  thread-safe.</p>
+ */
+public class ParallelClassfileLoader extends ClassfileLoaderEventSource {
+    public static final int DEFAULT_NB_THREADS = Runtime.getRuntime().availableProcessors();
+
+    /**
+     *  Events each reader can get ahead of its listeners, per thread.
+     */
+    private static final int WINDOW_SIZE_PER_THREAD = 16;
+
+    /**
+     *  Marks the end of the events of a top-level file.
+     */
+    private static final PendingEvent NO_MORE_EVENTS = new PendingEvent(null, null, null, -1, null);
+
+    private int nbThreads;
+
+    public ParallelClassfileLoader() {
+        this(DEFAULT_NB_THREADS);
+    }
+
+    public ParallelClassfileLoader(int nbThreads) {
+        this(new DefaultClassfileFactory(), DEFAULT_DISPATCHER, nbThreads);
+    }
+
+    public ParallelClassfileLoader(ClassfileLoaderDispatcher dispatcher) {
+        this(dispatcher, DEFAULT_NB_THREADS);
+    }
+
+    public ParallelClassfileLoader(ClassfileLoaderDispatcher dispatcher, int nbThreads) {
+        this(new DefaultClassfileFactory(), dispatcher, nbThreads);
+    }
+
+    public ParallelClassfileLoader(ClassfileFactory factory, ClassfileLoaderDispatcher dispatcher, int nbThreads) {
+        super(factory, dispatcher);
+
+        this.nbThreads = Math.max(1, nbThreads);
+    }
+
+    public int getNbThreads() {
+        return nbThreads;
+    }
+
+    private int getWindowSize() {
+        return WINDOW_SIZE_PER_THREAD * getNbThreads();
+    }
+
+    public Classfile getClassfile(String name) {
+        return null;
+    }
+
+    public Collection<Classfile> getAllClassfiles() {
+        return Collections.emptyList();
+    }
+
+    public Collection<String> getAllClassNames() {
+        return Collections.emptyList();
+    }
+
+    public void load(Collection<String> filenames) {
+        fireBeginSession();
+
+        Collection<LoadListener> threadSafeListeners = new ArrayList<LoadListener>();
+        Collection<LoadListener> sequentialListeners = new ArrayList<LoadListener>();
+        splitLoadListeners(threadSafeListeners, sequentialListeners);
+
+        ExecutorService readers = Executors.newFixedThreadPool(getNbThreads());
+        ExecutorService parsers = Executors.newFixedThreadPool(getNbThreads());
+        try {
+            // Keeps a bounded number of top-level files in flight so that
+            // the readers do not get too far ahead of the sequential listeners.
+            Iterator<String> i = filenames.iterator();
+            LinkedList<GroupReader> groups = new LinkedList<GroupReader>();
+            while (i.hasNext() && groups.size() < 2 * getNbThreads()) {
+                groups.addLast(new GroupReader(i.next(), parsers, threadSafeListeners).start(readers));
+            }
+
+            while (!groups.isEmpty() && !Thread.currentThread().isInterrupted()) {
+                GroupReader group = groups.removeFirst();
+                fireEvents(group, sequentialListeners);
+                if (i.hasNext()) {
+                    groups.addLast(new GroupReader(i.next(), parsers, threadSafeListeners).start(readers));
+                }
+            }
+        } finally {
+            readers.shutdownNow();
+            parsers.shutdownNow();
+        }
+
+        fireEndSession();
+    }
+
+    protected void load(String filename) {
+        Collection<LoadListener> threadSafeListeners = new ArrayList<LoadListener>();
+        Collection<LoadListener> sequentialListeners = new ArrayList<LoadListener>();
+        splitLoadListeners(threadSafeListeners, sequentialListeners);
+
+        ExecutorService readers = Executors.newSingleThreadExecutor();
+        ExecutorService parsers = Executors.newFixedThreadPool(getNbThreads());
+        try {
+            fireEvents(new GroupReader(filename, parsers, threadSafeListeners).start(readers), sequentialListeners);
+        } finally {
+            readers.shutdownNow();
+            parsers.shutdownNow();
+        }
+    }
+
+    protected Classfile load(DataInput in) throws IOException {
+        return getFactory().create(this, in);
+    }
+
+    private void splitLoadListeners(Collection<LoadListener> threadSafeListeners, Collection<LoadListener> sequentialListeners) {
+        for (LoadListener listener : getLoadListeners()) {
+            if (listener instanceof ThreadSafeLoadListener) {
+                threadSafeListeners.add(listener);
+            } else {
+                sequentialListeners.add(listener);
+            }
+        }
+    }
+
+    /**
+     *  Fires the events of one top-level file as its reader hands them
+     *  over, until it has read the whole file.
+     */
+    private void fireEvents(GroupReader group, Collection<LoadListener> listeners) {
+        PendingEvent event = group.nextEvent();
+        while (event != null) {
+            fireEvent(event, listeners);
+            event = group.nextEvent();
+        }
+
+        group.checkCompletion();
+    }
+
+    private void fireEvent(PendingEvent pendingEvent, Collection<LoadListener> listeners) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+
+        LoadEvent event = pendingEvent.createLoadEvent(this);
+        if (event != null) {
+            for (LoadListener listener : listeners) {
+                pendingEvent.fire(listener, event);
+            }
+        }
+    }
+
+    private enum PendingEventType {
+        BEGIN_GROUP, BEGIN_FILE, BEGIN_CLASSFILE, END_CLASSFILE, END_FILE, END_GROUP
+    }
+
+    /**
+     *  A load event recorded by a reader thread.  For
+     *  <code>END_CLASSFILE</code> events, the classfile may still be
+     *  parsed by the parser threads until the event is resolved.
+     */
+    private static class PendingEvent {
+        private PendingEventType type;
+        private String groupName;
+        private String filename;
+        private int size;
+        private Future<Classfile> future;
+        private Classfile classfile;
+
+        public PendingEvent(PendingEventType type, String groupName, String filename, int size, Future<Classfile> future) {
+            this.type = type;
+            this.groupName = groupName;
+            this.filename = filename;
+            this.size = size;
+            this.future = future;
+        }
+
+        public boolean isResolved() {
+            return future == null || future.isDone();
+        }
+
+        /**
+         *  Waits for the classfile to be parsed, if need be.
+         */
+        public void resolve() {
+            if (future != null) {
+                classfile = getClassfile();
+                future = null;
+            }
+        }
+
+        /**
+         *  @return the event, or <code>null</code> if the classfile
+         *          could not be parsed.
+         */
+        public LoadEvent createLoadEvent(Object source) {
+            LoadEvent result;
+
+            switch (type) {
+                case BEGIN_GROUP:
+                    result = new LoadEvent(source, groupName, size);
+                    break;
+
+                case END_CLASSFILE:
+                    result = (classfile != null) ? new LoadEvent(source, groupName, filename, classfile) : null;
+                    break;
+
+                default:
+                    result = new LoadEvent(source, groupName, filename, null);
+                    break;
+            }
+
+            return result;
+        }
+
+        public void fire(LoadListener listener, LoadEvent event) {
+            switch (type) {
+                case BEGIN_GROUP:
+                    listener.beginGroup(event);
+                    break;
+                case BEGIN_FILE:
+                    listener.beginFile(event);
+                    break;
+                case BEGIN_CLASSFILE:
+                    listener.beginClassfile(event);
+                    break;
+                case END_CLASSFILE:
+                    listener.endClassfile(event);
+                    break;
+                case END_FILE:
+                    listener.endFile(event);
+                    break;
+                case END_GROUP:
+                    listener.endGroup(event);
+                    break;
+            }
+        }
+
+        private Classfile getClassfile() {
+            Classfile result = null;
+
+            try {
+                result = future.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                Logger.getLogger(getClass()).warn("Interrupted while waiting for \"" + filename + "\"", ex);
+            } catch (ExecutionException ex) {
+                Logger.getLogger(getClass()).warn("Cannot load class from file \"" + filename + "\"", ex.getCause());
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     *  Reads one top-level file on a reader thread.  It reuses the
+     *  regular directory, JAR, and Zip decorators, but records their
+     *  events instead of firing them and hands <code>.class</code>
+     *  files to the parser threads.
+     *
+     *  <p>Recorded events wait in a window until they are resolved,
+     *  then go to the thread-safe listeners and on to a bounded queue
+     *  for the calling thread.  When the window is full, the reader
+     *  waits for the oldest classfile to be parsed; when the queue is
+     *  full, it waits for the calling thread.</p>
+     */
+    private class GroupReader extends ClassfileLoaderEventSource implements Runnable {
+        private String filename;
+        private ExecutorService parsers;
+        private Collection<LoadListener> threadSafeListeners;
+
+        private LinkedList<PendingEvent> window = new LinkedList<PendingEvent>();
+        private BlockingQueue<PendingEvent> queue = new ArrayBlockingQueue<PendingEvent>(getWindowSize());
+        private Future<?> completion;
+
+        public GroupReader(String filename, ExecutorService parsers, Collection<LoadListener> threadSafeListeners) {
+            super(ParallelClassfileLoader.this.getFactory(), ParallelClassfileLoader.this.getDispatcher());
+
+            this.filename = filename;
+            this.parsers = parsers;
+            this.threadSafeListeners = threadSafeListeners;
+        }
+
+        public GroupReader start(ExecutorService readers) {
+            completion = readers.submit(this);
+            return this;
+        }
+
+        public void run() {
+            try {
+                load(filename);
+                flush(true);
+            } finally {
+                hand(NO_MORE_EVENTS);
+            }
+        }
+
+        /**
+         *  @return the next event, resolved, or <code>null</code> once
+         *          the whole file has been read.
+         */
+        public PendingEvent nextEvent() {
+            PendingEvent result = null;
+
+            try {
+                result = queue.take();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                Logger.getLogger(getClass()).warn("Interrupted while waiting for group \"" + filename + "\"", ex);
+            }
+
+            if (result == NO_MORE_EVENTS) {
+                result = null;
+            }
+
+            return result;
+        }
+
+        public void checkCompletion() {
+            try {
+                completion.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                Logger.getLogger(getClass()).warn("Interrupted while waiting for group \"" + filename + "\"", ex);
+            } catch (ExecutionException ex) {
+                Logger.getLogger(getClass()).error("Cannot load group \"" + filename + "\"", ex.getCause());
+            }
+        }
+
+        public Classfile getClassfile(String name) {
+            return ParallelClassfileLoader.this.getClassfile(name);
+        }
+
+        public Collection<Classfile> getAllClassfiles() {
+            return ParallelClassfileLoader.this.getAllClassfiles();
+        }
+
+        public Collection<String> getAllClassNames() {
+            return ParallelClassfileLoader.this.getAllClassNames();
+        }
+
+        protected Classfile load(DataInput in) throws IOException {
+            return ParallelClassfileLoader.this.load(in);
+        }
+
+        protected void loadClassfile(final String filename, InputStream in) {
+            fireBeginClassfile(filename);
+
+            try {
+                final byte[] bytes = ClassfileContentHelper.readBytes(in);
+                Future<Classfile> classfile = parsers.submit(new Callable<Classfile>() {
+                    public Classfile call() {
+                        Classfile result = null;
+
+                        try {
+                            result = load(new DataInputStream(new ByteArrayInputStream(bytes)));
+                        } catch (IOException ex) {
+                            Logger.getLogger(getClass()).warn("Cannot load class from file \"" + filename + "\"", ex);
+                        }
+
+                        return result;
+                    }
+                });
+                record(new PendingEvent(PendingEventType.END_CLASSFILE, getTopGroupName(), filename, -1, classfile));
+            } catch (IOException ex) {
+                Logger.getLogger(getClass()).warn("Cannot load class from file \"" + filename + "\"", ex);
+            }
+        }
+
+        protected void fireBeginGroup(String groupName, int size) {
+            record(new PendingEvent(PendingEventType.BEGIN_GROUP, groupName, null, size, null));
+            super.fireBeginGroup(groupName, size);
+        }
+
+        protected void fireBeginFile(String filename) {
+            record(new PendingEvent(PendingEventType.BEGIN_FILE, getTopGroupName(), filename, -1, null));
+        }
+
+        protected void fireBeginClassfile(String filename) {
+            record(new PendingEvent(PendingEventType.BEGIN_CLASSFILE, getTopGroupName(), filename, -1, null));
+        }
+
+        protected void fireEndFile(String filename) {
+            record(new PendingEvent(PendingEventType.END_FILE, getTopGroupName(), filename, -1, null));
+        }
+
+        protected void fireEndGroup(String groupName) {
+            record(new PendingEvent(PendingEventType.END_GROUP, groupName, null, -1, null));
+            super.fireEndGroup(groupName);
+        }
+
+        private void record(PendingEvent event) {
+            window.addLast(event);
+            flush(false);
+        }
+
+        /**
+         *  Passes on the events at the head of the window that are
+         *  resolved, plus as many as it takes to bring the window back
+         *  to size.  With <code>all</code>, it passes on every event.
+         */
+        private void flush(boolean all) {
+            while (!window.isEmpty() && (all || window.size() > getWindowSize() || window.getFirst().isResolved())) {
+                PendingEvent event = window.removeFirst();
+                event.resolve();
+                fireEvent(event, threadSafeListeners);
+                hand(event);
+            }
+        }
+
+        /**
+         *  Hands an event to the calling thread, waiting for room in the
+         *  queue if need be.  If the load is cancelled, the reader
+         *  stops.
+         */
+        private void hand(PendingEvent event) {
+            try {
+                queue.put(event);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Loading \"" + filename + "\" was cancelled");
+            }
+        }
+    }
+}
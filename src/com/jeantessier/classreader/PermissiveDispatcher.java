@@ -36,22 +36,42 @@ import java.io.*;
 
 import org.apache.log4j.*;
 
-public class PermissiveDispatcher implements ClassfileLoaderDispatcher {
+public class PermissiveDispatcher implements ArchiveEntryDispatcher {
+    private static final Logger LOGGER = Logger.getLogger(PermissiveDispatcher.class);
+
     public ClassfileLoaderAction dispatch(String filename) {
         ClassfileLoaderAction result;
 
         if (new File(filename).isDirectory()) {
             result = ClassfileLoaderAction.DIRECTORY;
-            Logger.getLogger(getClass()).debug("Dispatching \"" + filename + "\": ACTION_DIRECTORY");
-        } else if (filename.endsWith(".jar")) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Dispatching \"" + filename + "\": ACTION_DIRECTORY");
+            }
+        } else {
+            result = dispatchEntry(filename);
+        }
+  
+        return result;
+    }
+
+    public ClassfileLoaderAction dispatchEntry(String filename) {
+        ClassfileLoaderAction result;
+
+        if (filename.endsWith(".jar")) {
             result = ClassfileLoaderAction.JAR;
-            Logger.getLogger(getClass()).debug("Dispatching \"" + filename + "\": ACTION_JAR");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Dispatching \"" + filename + "\": ACTION_JAR");
+            }
         } else if (filename.endsWith(".zip")) {
             result = ClassfileLoaderAction.ZIP;
-            Logger.getLogger(getClass()).debug("Dispatching \"" + filename + "\": ACTION_ZIP");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Dispatching \"" + filename + "\": ACTION_ZIP");
+            }
         } else if (filename.endsWith(".class")) {
             result = ClassfileLoaderAction.CLASS;
-            Logger.getLogger(getClass()).debug("Dispatching \"" + filename + "\": ACTION_CLASS");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Dispatching \"" + filename + "\": ACTION_CLASS");
+            }
         } else if (filename.endsWith("/")           ||
                    filename.endsWith(".bat")        ||
                    filename.endsWith(".css")        ||
@@ -71,10 +91,14 @@ public class PermissiveDispatcher implements ClassfileLoaderDispatcher {
                    filename.endsWith(".xml")        ||
                    filename.endsWith(".xsl")) {
             result = ClassfileLoaderAction.IGNORE;
-            Logger.getLogger(getClass()).debug("Dispatching \"" + filename + "\": ACTION_IGNORE");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Dispatching \"" + filename + "\": ACTION_IGNORE");
+            }
         } else {
             result = ClassfileLoaderAction.ZIP;
-            Logger.getLogger(getClass()).debug("Dispatching \"" + filename + "\": ACTION_ZIP");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Dispatching \"" + filename + "\": ACTION_ZIP");
+            }
         }
   
         return result;
@@ -37,6 +37,8 @@ import java.util.*;
 import org.apache.log4j.*;
 
 public final class SignatureHelper {
+    private static final Logger LOGGER = Logger.getLogger(SignatureHelper.class);
+
     private static Map<String, String> conversion = new HashMap<String, String>();
 
     static {
@@ -58,7 +60,9 @@ public final class SignatureHelper {
     public static String convert(String type) {
         String result = null;
 
-        Logger.getLogger(SignatureHelper.class).debug("Begin Convert(\"" + type + "\")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Begin Convert(\"" + type + "\")");
+        }
 
         if (type.length() == 1) {
             result = conversion.get(type);
@@ -70,7 +74,9 @@ public final class SignatureHelper {
             result = convert(type.substring(1)) + "[]";
         }
 
-        Logger.getLogger(SignatureHelper.class).debug("End   Convert(\"" + type + "\"): \"" + result + "\"");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("End   Convert(\"" + type + "\"): \"" + result + "\"");
+        }
 
         return result;
     }
@@ -78,7 +84,9 @@ public final class SignatureHelper {
     public static String getSignature(String descriptor) {
         StringBuffer result = new StringBuffer();
 
-        Logger.getLogger(SignatureHelper.class).debug("Begin Signature(\"" + descriptor + "\")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Begin Signature(\"" + descriptor + "\")");
+        }
 
         result.append("(");
 
@@ -95,7 +103,9 @@ public final class SignatureHelper {
 
         result.append(")");
 
-        Logger.getLogger(SignatureHelper.class).debug("End   Signature(\"" + descriptor + "\"): \"" + result + "\"");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("End   Signature(\"" + descriptor + "\"): \"" + result + "\"");
+        }
 
         return result.toString();
     }
@@ -103,7 +113,9 @@ public final class SignatureHelper {
     public static int getParameterCount(String descriptor) {
         int result = 0;
 
-        Logger.getLogger(SignatureHelper.class).debug("Begin ParameterCount(\"" + descriptor + "\")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Begin ParameterCount(\"" + descriptor + "\")");
+        }
 
         int start = descriptor.indexOf("(") + 1;
         int end   = descriptor.indexOf(")");
@@ -114,7 +126,9 @@ public final class SignatureHelper {
             result++;
         }
 
-        Logger.getLogger(SignatureHelper.class).debug("End   ParameterCount(\"" + descriptor + "\"): \"" + result + "\"");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("End   ParameterCount(\"" + descriptor + "\"): \"" + result + "\"");
+        }
 
         return result;
     }
@@ -36,25 +36,65 @@ import java.io.*;
 
 import org.apache.log4j.*;
 
-public class StrictDispatcher implements ClassfileLoaderDispatcher {
+public class StrictDispatcher implements ArchiveEntryDispatcher {
+    private static final Logger LOGGER = Logger.getLogger(StrictDispatcher.class);
+
     public ClassfileLoaderAction dispatch(String filename) {
         ClassfileLoaderAction result;
         
         if (filename.endsWith(".jar")) {
             result = ClassfileLoaderAction.JAR;
-            Logger.getLogger(getClass()).debug("Dispatching \"" + filename + "\": ACTION_JAR");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Dispatching \"" + filename + "\": ACTION_JAR");
+            }
         } else if (filename.endsWith(".zip")) {
             result = ClassfileLoaderAction.ZIP;
-            Logger.getLogger(getClass()).debug("Dispatching \"" + filename + "\": ACTION_ZIP");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Dispatching \"" + filename + "\": ACTION_ZIP");
+            }
         } else if (filename.endsWith(".class")) {
             result = ClassfileLoaderAction.CLASS;
-            Logger.getLogger(getClass()).debug("Dispatching \"" + filename + "\": ACTION_CLASS");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Dispatching \"" + filename + "\": ACTION_CLASS");
+            }
         } else if (new File(filename).exists()) {
             result = ClassfileLoaderAction.DIRECTORY;
-            Logger.getLogger(getClass()).debug("Dispatching \"" + filename + "\": ACTION_DIRECTORY");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Dispatching \"" + filename + "\": ACTION_DIRECTORY");
+            }
+        } else {
+            result = ClassfileLoaderAction.IGNORE;
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Dispatching \"" + filename + "\": ACTION_IGNORE");
+            }
+        }
+        
+        return result;
+    }
+
+    public ClassfileLoaderAction dispatchEntry(String filename) {
+        ClassfileLoaderAction result;
+        
+        if (filename.endsWith(".jar")) {
+            result = ClassfileLoaderAction.JAR;
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Dispatching entry \"" + filename + "\": ACTION_JAR");
+            }
+        } else if (filename.endsWith(".zip")) {
+            result = ClassfileLoaderAction.ZIP;
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Dispatching entry \"" + filename + "\": ACTION_ZIP");
+            }
+        } else if (filename.endsWith(".class")) {
+            result = ClassfileLoaderAction.CLASS;
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Dispatching entry \"" + filename + "\": ACTION_CLASS");
+            }
         } else {
             result = ClassfileLoaderAction.IGNORE;
-            Logger.getLogger(getClass()).debug("Dispatching \"" + filename + "\": ACTION_IGNORE");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Dispatching entry \"" + filename + "\": ACTION_IGNORE");
+            }
         }
         
         return result;
@@ -42,7 +42,7 @@ public class TransientClassfileLoader extends ClassfileLoaderEventSource {
         this(new DefaultClassfileFactory());
     }
 
-    private TransientClassfileLoader(ClassfileFactory factory) {
+    public TransientClassfileLoader(ClassfileFactory factory) {
         super(factory);
     }
 
@@ -50,7 +50,7 @@ public class TransientClassfileLoader extends ClassfileLoaderEventSource {
         this(new DefaultClassfileFactory(), dispatcher);
     }
 
-    private TransientClassfileLoader(ClassfileFactory factory, ClassfileLoaderDispatcher dispatcher) {
+    public TransientClassfileLoader(ClassfileFactory factory, ClassfileLoaderDispatcher dispatcher) {
         super(factory, dispatcher);
     }
 
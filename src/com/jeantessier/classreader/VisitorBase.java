@@ -295,6 +295,19 @@ public abstract class VisitorBase implements Visitor {
         }
     }
 
+    /**
+     *  Visits instructions through a single {@link InstructionCursor}
+     *  instead of one {@link Instruction} per opcode.  Subclasses that do
+     *  not hold on to instructions past {@link #visitInstruction} can call
+     *  it from {@link #visitInstructions}.
+     */
+    protected void visitInstructionsWithCursor(Code_attribute attribute) {
+        InstructionCursor cursor = attribute.cursor();
+        while (cursor.next()) {
+            cursor.accept(this);
+        }
+    }
+
     public void visitInstruction(Instruction helper) {
         // Do nothing
     }
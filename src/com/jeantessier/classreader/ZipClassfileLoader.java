@@ -39,6 +39,8 @@ import java.util.zip.*;
 import org.apache.log4j.*;
 
 public class ZipClassfileLoader extends ClassfileLoaderDecorator {
+    private static final Logger LOGGER = Logger.getLogger(ZipClassfileLoader.class);
+
     private static final int BUFFER_SIZE = 16 * 1024;
     
     public ZipClassfileLoader(ClassfileLoader loader) {
@@ -46,7 +48,9 @@ public class ZipClassfileLoader extends ClassfileLoaderDecorator {
     }
 
     protected void load(String filename) {
-        Logger.getLogger(getClass()).debug("Starting group in file " + filename);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Starting group in file " + filename);
+        }
         
         ZipFile zipfile = null;
         try {
@@ -54,13 +58,17 @@ public class ZipClassfileLoader extends ClassfileLoaderDecorator {
 
             fireBeginGroup(filename, zipfile.size());
 
-            Logger.getLogger(getClass()).debug("Loading ZipFile " + filename);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Loading ZipFile " + filename);
+            }
             load(zipfile);
-            Logger.getLogger(getClass()).debug("Loaded ZipFile " + filename);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Loaded ZipFile " + filename);
+            }
 
             fireEndGroup(filename);
         } catch (IOException ex) {
-            Logger.getLogger(getClass()).error("Cannot load Zip file \"" + filename + "\"", ex);
+            LOGGER.error("Cannot load Zip file \"" + filename + "\"", ex);
         } finally {
             if (zipfile != null) {
                 try {
@@ -73,7 +81,9 @@ public class ZipClassfileLoader extends ClassfileLoaderDecorator {
     }
 
     protected void load(String filename, InputStream in) {
-        Logger.getLogger(getClass()).debug("Starting group in stream " + filename);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Starting group in stream " + filename);
+        }
         
         ZipInputStream zipfile = null;
         try {
@@ -81,13 +91,17 @@ public class ZipClassfileLoader extends ClassfileLoaderDecorator {
 
             fireBeginGroup(filename, -1);
 
-            Logger.getLogger(getClass()).debug("Loading ZipInputStream " + filename);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Loading ZipInputStream " + filename);
+            }
             load(zipfile);
-            Logger.getLogger(getClass()).debug("Loaded ZipInputStream " + filename);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Loaded ZipInputStream " + filename);
+            }
 
             fireEndGroup(filename);
         } catch (IOException ex) {
-            Logger.getLogger(getClass()).error("Cannot load Zip file \"" + filename + "\"", ex);
+            LOGGER.error("Cannot load Zip file \"" + filename + "\"", ex);
         } finally {
             if (zipfile != null) {
                 try {
@@ -106,62 +120,75 @@ public class ZipClassfileLoader extends ClassfileLoaderDecorator {
 
             fireBeginFile(entry.getName());
                 
-            Logger.getLogger(getClass()).debug("Starting file " + entry.getName() + " (" + entry.getSize() + " bytes)");
-
-            byte[]      bytes = null;
-            InputStream in    = null;
-            try {
-                in    = zipfile.getInputStream(entry);
-                bytes = readBytes(in);
-            } finally {
-                if (in != null) {
-                    try {
-                        in.close();
-                    } catch (IOException ex) {
-                        // Ignore
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Starting file " + entry.getName() + " (" + entry.getSize() + " bytes)");
+            }
+
+            ClassfileLoaderAction dispatch = getLoader().dispatchEntry(entry.getName());
+            if (isLoadable(dispatch)) {
+                InputStream in = null;
+                try {
+                    in = new BufferedInputStream(zipfile.getInputStream(entry), BUFFER_SIZE);
+
+                    if (LOGGER.isDebugEnabled()) {
+                        LOGGER.debug("Passing up file " + entry.getName());
+                    }
+                    getLoader().load(entry.getName(), dispatch, in);
+                } finally {
+                    if (in != null) {
+                        try {
+                            in.close();
+                        } catch (IOException ex) {
+                            // Ignore
+                        }
                     }
                 }
+            } else if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Skipping file " + entry.getName());
             }
             
-            Logger.getLogger(getClass()).debug("Passing up file " + entry.getName() + " (" + bytes.length + " bytes)");
-            getLoader().load(entry.getName(), new ByteArrayInputStream(bytes));
-            
             fireEndFile(entry.getName());
         }
     }
 
     protected void load(ZipInputStream in) throws IOException {
+        // Nested loaders close the stream they are given when they are
+        // done, but the rest of the entries still need it.
+        InputStream entryStream = new FilterInputStream(in) {
+            public void close() {
+                // Do nothing
+            }
+        };
+
         ZipEntry entry;
         while ((entry = in.getNextEntry()) != null) {
             fireBeginFile(entry.getName());
                 
-            Logger.getLogger(getClass()).debug("Starting file " + entry.getName() + " (" + entry.getSize() + " bytes)");
-            byte[] bytes = readBytes(in);
-            
-            Logger.getLogger(getClass()).debug("Passing up file " + entry.getName() + " (" + bytes.length + " bytes)");
-            getLoader().load(entry.getName(), new ByteArrayInputStream(bytes));
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Starting file " + entry.getName() + " (" + entry.getSize() + " bytes)");
+            }
+
+            ClassfileLoaderAction dispatch = getLoader().dispatchEntry(entry.getName());
+            if (isLoadable(dispatch)) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Passing up file " + entry.getName());
+                }
+                getLoader().load(entry.getName(), dispatch, new BufferedInputStream(entryStream, BUFFER_SIZE));
+            } else if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Skipping file " + entry.getName());
+            }
             
             fireEndFile(entry.getName());
         }
     }
 
-    private byte[] readBytes(InputStream in) {
-        byte[] result = null;
-        
-        try {
-            ByteArrayOutputStream out        = new ByteArrayOutputStream();
-            byte[]                buffer     = new byte[BUFFER_SIZE];
-            int                   bytesRead = 0;
-            while ((bytesRead = in.read(buffer, 0, BUFFER_SIZE)) != -1) {
-                out.write(buffer, 0, bytesRead);
-            }
-            out.close();
-                
-            result = out.toByteArray();
-        } catch (IOException ex) {
-            Logger.getLogger(getClass()).debug("Error loading Zip entry", ex);
-        }
-        
-        return(result);
+    /**
+     *  Entries that are ignored are never decompressed.  Directory
+     *  entries have no contents to load.  A <code>null</code> action
+     *  means the loader could not decide from the name, so the entry
+     *  gets loaded and dispatched from there.
+     */
+    private boolean isLoadable(ClassfileLoaderAction dispatch) {
+        return dispatch != ClassfileLoaderAction.IGNORE && dispatch != ClassfileLoaderAction.DIRECTORY;
     }
 }
@@ -40,6 +40,8 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public class Annotation implements com.jeantessier.classreader.Annotation {
+    private static final Logger LOGGER = Logger.getLogger(Annotation.class);
+
     private ConstantPool constantPool;
 
     private Collection<ElementValuePair> elementValuePairs = new LinkedList<ElementValuePair>();
@@ -54,12 +56,18 @@ public class Annotation implements com.jeantessier.classreader.Annotation {
         this.constantPool = constantPool;
 
         typeIndex = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Type index: " + typeIndex + " (" + getType() + ")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Type index: " + typeIndex + " (" + getType() + ")");
+        }
 
         int numElementValuePairs = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Reading " + numElementValuePairs + " element value pair(s) ...");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Reading " + numElementValuePairs + " element value pair(s) ...");
+        }
         for (int i=0; i<numElementValuePairs; i++) {
-            Logger.getLogger(getClass()).debug("Element value pair " + i + ":");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Element value pair " + i + ":");
+            }
             elementValuePairs.add(new ElementValuePair(constantPool, in, elementValueFactory));
         }
     }
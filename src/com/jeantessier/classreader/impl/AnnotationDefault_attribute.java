@@ -39,6 +39,8 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public class AnnotationDefault_attribute extends Attribute_info implements com.jeantessier.classreader.AnnotationDefault_attribute {
+    private static final Logger LOGGER = Logger.getLogger(AnnotationDefault_attribute.class);
+
     private ElementValue elementValue;
 
     public AnnotationDefault_attribute(ConstantPool constantPool, Visitable owner, DataInput in) throws IOException {
@@ -49,7 +51,9 @@ public class AnnotationDefault_attribute extends Attribute_info implements com.j
         super(constantPool, owner);
 
         int byteCount = in.readInt();
-        Logger.getLogger(getClass()).debug("Attribute length: " + byteCount);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Attribute length: " + byteCount);
+        }
 
         elementValue = elementValueFactory.create(constantPool, in);
     }
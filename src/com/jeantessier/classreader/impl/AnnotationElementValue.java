@@ -39,13 +39,17 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public class AnnotationElementValue extends ElementValue implements com.jeantessier.classreader.AnnotationElementValue {
+    private static final Logger LOGGER = Logger.getLogger(AnnotationElementValue.class);
+
     private Annotation annotation;
 
     public AnnotationElementValue(ConstantPool constantPool, DataInput in) throws IOException {
         super(constantPool);
 
         annotation = new Annotation(constantPool, in);
-        Logger.getLogger(getClass()).debug("Annotation: " + annotation);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Annotation: " + annotation);
+        }
     }
 
     public Annotation getAnnotation() {
@@ -40,6 +40,8 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public class ArrayElementValue extends ElementValue implements com.jeantessier.classreader.ArrayElementValue {
+    private static final Logger LOGGER = Logger.getLogger(ArrayElementValue.class);
+
     private Collection<ElementValue> values = new ArrayList<ElementValue>();
 
     public ArrayElementValue(ConstantPool constantPool, DataInput in) throws IOException {
@@ -50,9 +52,13 @@ public class ArrayElementValue extends ElementValue implements com.jeantessier.c
         super(constantPool);
 
         int numValues = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Reading " + numValues + " value(s) ...");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Reading " + numValues + " value(s) ...");
+        }
         for (int i = 0; i < numValues; i++) {
-            Logger.getLogger(getClass()).debug("value " + i + ":");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("value " + i + ":");
+            }
             values.add(elementValueFactory.create(constantPool, in));
         }
     }
@@ -39,6 +39,8 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public class AttributeFactory {
+    private static final Logger LOGGER = Logger.getLogger(AttributeFactory.class);
+
     public Attribute_info create(ConstantPool constantPool, Visitable owner, DataInput in) throws IOException {
         Attribute_info result;
 
@@ -48,25 +50,31 @@ public class AttributeFactory {
 
             if (entry instanceof UTF8_info) {
                 String name = ((UTF8_info) entry).getValue();
-                Logger.getLogger(AttributeFactory.class).debug("Attribute name index: " + nameIndex + " (" + name + ")");
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Attribute name index: " + nameIndex + " (" + name + ")");
+                }
 
                 AttributeType attributeType = AttributeType.forName(name);
                 if (attributeType != null) {
                     result = attributeType.create(constantPool, owner, in);
                 } else {
-                    Logger.getLogger(AttributeFactory.class).warn("Unknown attribute name \"" + name + "\"");
+                    LOGGER.warn("Unknown attribute name \"" + name + "\"");
                     result = new Custom_attribute(name, constantPool, owner, in);
                 }
             } else {
-                Logger.getLogger(AttributeFactory.class).debug("Attribute name: " + entry);
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Attribute name: " + entry);
+                }
 
-                Logger.getLogger(AttributeFactory.class).warn("Unknown attribute with invalid name \"" + entry + "\"");
+                LOGGER.warn("Unknown attribute with invalid name \"" + entry + "\"");
                 result = new Custom_attribute(constantPool, owner, in);
             }
         } else {
-            Logger.getLogger(AttributeFactory.class).debug("Attribute name index: " + nameIndex);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Attribute name index: " + nameIndex);
+            }
 
-            Logger.getLogger(AttributeFactory.class).warn("Unknown attribute with no name (name index = " + nameIndex + ")");
+            LOGGER.warn("Unknown attribute with no name (name index = " + nameIndex + ")");
             result = new Custom_attribute(constantPool, owner, in);
         }
 
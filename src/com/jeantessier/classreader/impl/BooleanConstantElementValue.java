@@ -39,9 +39,13 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public class BooleanConstantElementValue extends ConstantElementValue implements com.jeantessier.classreader.BooleanConstantElementValue {
+    private static final Logger LOGGER = Logger.getLogger(BooleanConstantElementValue.class);
+
     public BooleanConstantElementValue(ConstantPool constantPool, DataInput in) throws IOException {
         super(constantPool, in);
-        Logger.getLogger(getClass()).debug("Const value index: " + getConstValueIndex() + " (" + getConstValue() + ")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Const value index: " + getConstValueIndex() + " (" + getConstValue() + ")");
+        }
     }
 
     /**
@@ -39,9 +39,13 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public class ByteConstantElementValue extends ConstantElementValue implements com.jeantessier.classreader.ByteConstantElementValue {
+    private static final Logger LOGGER = Logger.getLogger(ByteConstantElementValue.class);
+
     public ByteConstantElementValue(ConstantPool constantPool, DataInput in) throws IOException {
         super(constantPool, in);
-        Logger.getLogger(getClass()).debug("Const value index: " + getConstValueIndex() + " (" + getConstValue() + ")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Const value index: " + getConstValueIndex() + " (" + getConstValue() + ")");
+        }
     }
 
     public byte getConstValue() {
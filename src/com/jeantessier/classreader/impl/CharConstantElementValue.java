@@ -39,9 +39,13 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public class CharConstantElementValue extends ConstantElementValue implements com.jeantessier.classreader.CharConstantElementValue {
+    private static final Logger LOGGER = Logger.getLogger(CharConstantElementValue.class);
+
     public CharConstantElementValue(ConstantPool constantPool, DataInput in) throws IOException {
         super(constantPool, in);
-        Logger.getLogger(getClass()).debug("Const value index: " + getConstValueIndex() + " (" + getConstValue() + ")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Const value index: " + getConstValueIndex() + " (" + getConstValue() + ")");
+        }
     }
 
     public char getConstValue() {
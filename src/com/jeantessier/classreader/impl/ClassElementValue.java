@@ -40,13 +40,17 @@ import com.jeantessier.classreader.*;
 import com.jeantessier.classreader.UTF8_info;
 
 public class ClassElementValue extends ElementValue implements com.jeantessier.classreader.ClassElementValue {
+    private static final Logger LOGGER = Logger.getLogger(ClassElementValue.class);
+
     private int classInfoIndex;
 
     public ClassElementValue(ConstantPool constantPool, DataInput in) throws IOException {
         super(constantPool);
 
         classInfoIndex = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Class info index: " + classInfoIndex);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Class info index: " + classInfoIndex);
+        }
     }
 
     public int getClassInfoIndex() {
@@ -32,6 +32,7 @@
 
 package com.jeantessier.classreader.impl;
 
+import com.jeantessier.classreader.AggregatingClassfileLoader;
 import com.jeantessier.classreader.ClassfileLoader;
 import com.jeantessier.classreader.Visitor;
 import org.apache.log4j.Logger;
@@ -39,10 +40,16 @@ import org.apache.log4j.Logger;
 import java.io.DataInput;
 import java.io.IOException;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class Classfile implements com.jeantessier.classreader.Classfile {
+    private static final Logger LOGGER = Logger.getLogger(Classfile.class);
+
     private static final int ACC_PUBLIC = 0x0001;
     private static final int ACC_FINAL = 0x0010;
     private static final int ACC_SUPER = 0x0020;
@@ -66,6 +73,38 @@ public class Classfile implements com.jeantessier.classreader.Classfile {
     private Collection<Method_info> methods = new LinkedList<Method_info>();
     private Collection<Attribute_info> attributes = new LinkedList<Attribute_info>();
 
+    private final LazyValue<Map<String, Field_info>> fieldsByName = new LazyValue<Map<String, Field_info>>() {
+        protected Map<String, Field_info> compute() {
+            Map<String, Field_info> result = new HashMap<String, Field_info>();
+
+            for (Field_info field : fields) {
+                String fieldName = field.getName();
+                if (!result.containsKey(fieldName)) {
+                    result.put(fieldName, field);
+                }
+            }
+
+            return result;
+        }
+    };
+
+    private final LazyValue<Map<String, Method_info>> methodsBySignature = new LazyValue<Map<String, Method_info>>() {
+        protected Map<String, Method_info> compute() {
+            Map<String, Method_info> result = new HashMap<String, Method_info>();
+
+            for (Method_info method : methods) {
+                String methodSignature = method.getSignature();
+                if (!result.containsKey(methodSignature)) {
+                    result.put(methodSignature, method);
+                }
+            }
+
+            return result;
+        }
+    };
+
+    private volatile LocatedFeatures locatedFeatures;
+
     /**
      *  Parses the input stream and extracts the class description.
      *  You should only call this constructor from a ClassfileLoader.
@@ -75,10 +114,16 @@ public class Classfile implements com.jeantessier.classreader.Classfile {
     }
 
     public Classfile(ClassfileLoader loader, DataInput in, AttributeFactory attributeFactory) throws IOException {
+        this(loader, in, attributeFactory, new ConstantPoolFactory());
+    }
+
+    public Classfile(ClassfileLoader loader, DataInput in, AttributeFactory attributeFactory, ConstantPoolFactory constantPoolFactory) throws IOException {
         this.loader = loader;
 
         magicNumber = in.readInt();
-        Logger.getLogger(getClass()).debug("magic number = 0x" + Integer.toHexString(magicNumber).toUpperCase());
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("magic number = 0x" + Integer.toHexString(magicNumber).toUpperCase());
+        }
 
         if (magicNumber != 0xCAFEBABE) {
             throw new IOException("Bad magic number");
@@ -86,57 +131,83 @@ public class Classfile implements com.jeantessier.classreader.Classfile {
         
         // Reading the file format's version number
         minorVersion = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("minor version = " + minorVersion);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("minor version = " + minorVersion);
+        }
         majorVersion = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("major version = " + majorVersion);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("major version = " + majorVersion);
+        }
 
         // Reading the constant pool
-        Logger.getLogger(getClass()).debug("Reading the constant pool ...");
-        constantPool = new ConstantPool(this, in);
-        Logger.getLogger(getClass()).debug(constantPool);
+        LOGGER.debug("Reading the constant pool ...");
+        constantPool = constantPoolFactory.create(this, in);
+        LOGGER.debug(constantPool);
 
         // Skipping the access flag
         accessFlag = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("accessFlag = " + accessFlag);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("accessFlag = " + accessFlag);
+        }
 
         // Retrieving this class's name
         classIndex = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("thisClass = " + classIndex + " (" + getClassName() + ")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("thisClass = " + classIndex + " (" + getClassName() + ")");
+        }
 
         // Retrieving this class's superclass
         superclassIndex = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("superclass = " + superclassIndex + " (" + getSuperclassName() + ")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("superclass = " + superclassIndex + " (" + getSuperclassName() + ")");
+        }
 
         // Retrieving the inferfaces
         int interfaceCount = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Reading " + interfaceCount + " interface(s)");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Reading " + interfaceCount + " interface(s)");
+        }
         for (int i=0; i<interfaceCount; i++) {
             Class_info interfaceInfo = (Class_info) constantPool.get(in.readUnsignedShort());
-            Logger.getLogger(getClass()).debug("    " + interfaceInfo.getName());
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("    " + interfaceInfo.getName());
+            }
             interfaces.add(interfaceInfo);
         }
 
         // Retrieving the fields
         int fieldCount = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Reading " + fieldCount + " field(s)");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Reading " + fieldCount + " field(s)");
+        }
         for (int i=0; i<fieldCount; i++) {
-            Logger.getLogger(getClass()).debug("Field " + i + ":");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Field " + i + ":");
+            }
             fields.add(new Field_info(this, in));
         }
 
         // Retrieving the methods
         int methodCount = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Reading " + methodCount + " method(s)");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Reading " + methodCount + " method(s)");
+        }
         for (int i=0; i<methodCount; i++) {
-            Logger.getLogger(getClass()).debug("Method " + i + ":");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Method " + i + ":");
+            }
             methods.add(new Method_info(this, in));
         }
 
         // Retrieving the attributes
         int attributeCount = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Reading " + attributeCount + " class attribute(s)");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Reading " + attributeCount + " class attribute(s)");
+        }
         for (int i=0; i<attributeCount; i++) {
-            Logger.getLogger(getClass()).debug("Attribute " + i + ":");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Attribute " + i + ":");
+            }
             attributes.add(attributeFactory.create(constantPool, this, in));
         }
     }
@@ -249,16 +320,29 @@ public class Classfile implements com.jeantessier.classreader.Classfile {
     }
 
     public Field_info getField(String name) {
-        for (Field_info field : fields) {
-            if (field.getName().equals(name)) {
-                return field;
+        return fieldsByName.get().get(name);
+    }
+
+    public com.jeantessier.classreader.Field_info locateField(String name) {
+        com.jeantessier.classreader.Field_info result;
+
+        LocatedFeatures located = getLocatedFeatures();
+        if (located != null) {
+            Object cached = located.fields.get(name);
+            if (cached == null) {
+                result = lookupField(name);
+                located.fields.putIfAbsent(name, (result != null) ? result : NOT_FOUND);
+            } else {
+                result = (cached != NOT_FOUND) ? (com.jeantessier.classreader.Field_info) cached : null;
             }
+        } else {
+            result = lookupField(name);
         }
 
-        return null;
+        return result;
     }
 
-    public com.jeantessier.classreader.Field_info locateField(String name) {
+    private com.jeantessier.classreader.Field_info lookupField(String name) {
         com.jeantessier.classreader.Field_info localField = getField(name);
         if (localField != null) {
             return localField;
@@ -291,16 +375,29 @@ public class Classfile implements com.jeantessier.classreader.Classfile {
     }
 
     public Method_info getMethod(String signature) {
-        for (Method_info method : methods) {
-            if (method.getSignature().equals(signature)) {
-                return method;
+        return methodsBySignature.get().get(signature);
+    }
+
+    public com.jeantessier.classreader.Method_info locateMethod(String signature) {
+        com.jeantessier.classreader.Method_info result;
+
+        LocatedFeatures located = getLocatedFeatures();
+        if (located != null) {
+            Object cached = located.methods.get(signature);
+            if (cached == null) {
+                result = lookupMethod(signature);
+                located.methods.putIfAbsent(signature, (result != null) ? result : NOT_FOUND);
+            } else {
+                result = (cached != NOT_FOUND) ? (com.jeantessier.classreader.Method_info) cached : null;
             }
+        } else {
+            result = lookupMethod(signature);
         }
 
-        return null;
+        return result;
     }
 
-    public com.jeantessier.classreader.Method_info locateMethod(String signature) {
+    private com.jeantessier.classreader.Method_info lookupMethod(String signature) {
         com.jeantessier.classreader.Method_info localMethod = getMethod(signature);
         if (localMethod != null) {
             return localMethod;
@@ -327,6 +424,27 @@ public class Classfile implements com.jeantessier.classreader.Classfile {
         return null;
     }
 
+    /**
+     *  Lookups through the class hierarchy are only remembered for
+     *  loaders that can tell when their classfiles change.  The memo is
+     *  dropped as soon as the loader has loaded more classfiles.
+     */
+    private LocatedFeatures getLocatedFeatures() {
+        LocatedFeatures result = null;
+
+        if (getLoader() instanceof AggregatingClassfileLoader) {
+            int modificationCount = ((AggregatingClassfileLoader) getLoader()).getModificationCount();
+
+            result = locatedFeatures;
+            if (result == null || result.modificationCount != modificationCount) {
+                result = new LocatedFeatures(modificationCount);
+                locatedFeatures = result;
+            }
+        }
+
+        return result;
+    }
+
     public Collection<Attribute_info> getAttributes() {
         return attributes;
     }
@@ -519,4 +637,16 @@ public class Classfile implements com.jeantessier.classreader.Classfile {
 
         return result;
     }
+
+    private static final Object NOT_FOUND = new Object();
+
+    private static class LocatedFeatures {
+        private final int modificationCount;
+        private final ConcurrentMap<String, Object> fields = new ConcurrentHashMap<String, Object>();
+        private final ConcurrentMap<String, Object> methods = new ConcurrentHashMap<String, Object>();
+
+        public LocatedFeatures(int modificationCount) {
+            this.modificationCount = modificationCount;
+        }
+    }
 }
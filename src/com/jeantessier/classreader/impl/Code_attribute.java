@@ -43,6 +43,8 @@ import com.jeantessier.classreader.*;
 import com.jeantessier.text.*;
 
 public class Code_attribute extends Attribute_info implements Iterable<Instruction>, com.jeantessier.classreader.Code_attribute {
+    private static final Logger LOGGER = Logger.getLogger(Code_attribute.class);
+
     private int maxStack;
     private int maxLocals;
     private byte[] code;
@@ -57,37 +59,55 @@ public class Code_attribute extends Attribute_info implements Iterable<Instructi
         super(constantPool, owner);
 
         int byteCount = in.readInt();
-        Logger.getLogger(getClass()).debug("Attribute length: " + byteCount);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Attribute length: " + byteCount);
+        }
 
         maxStack = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Code max stack: " + maxStack);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Code max stack: " + maxStack);
+        }
 
         maxLocals = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Code max locals: " + maxLocals);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Code max locals: " + maxLocals);
+        }
 
         int codeLength = in.readInt();
-        Logger.getLogger(getClass()).debug("Code length: " + codeLength);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Code length: " + codeLength);
+        }
         
         code = new byte[codeLength];
         in.readFully(code);
-        Logger.getLogger(getClass()).debug("Read " + codeLength + " byte(s): " + Hex.toString(code));
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Read " + codeLength + " byte(s): " + Hex.toString(code));
+        }
 
         int exceptionTableLength = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Reading " + exceptionTableLength + " exception handler(s) ...");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Reading " + exceptionTableLength + " exception handler(s) ...");
+        }
         for (int i=0; i<exceptionTableLength; i++) {
-            Logger.getLogger(getClass()).debug("Exception handler " + i + ":");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Exception handler " + i + ":");
+            }
             exceptionHandlers.add(new ExceptionHandler(this, in));
         }
 
         int attributeCount = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Reading " + attributeCount + " code attribute(s)");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Reading " + attributeCount + " code attribute(s)");
+        }
         for (int i=0; i<attributeCount; i++) {
-            Logger.getLogger(getClass()).debug("code attribute " + i + ":");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("code attribute " + i + ":");
+            }
             attributes.add(attributeFactory.create(getConstantPool(), this, in));
         }
 
-        if (Logger.getLogger(getClass()).isDebugEnabled()) {
-            Logger.getLogger(getClass()).debug("Read instructions(s):");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Read instructions(s):");
 
             for (Instruction instr : this) {
                 logInstruction(instr);
@@ -111,6 +131,10 @@ public class Code_attribute extends Attribute_info implements Iterable<Instructi
         return new CodeIterator(this, code);
     }
 
+    public InstructionCursor cursor() {
+        return new InstructionCursor(this, code);
+    }
+
     public Collection<ExceptionHandler> getExceptionHandlers() {
         return exceptionHandlers;
     }
@@ -139,7 +163,7 @@ public class Code_attribute extends Attribute_info implements Iterable<Instructi
         appendOffset(message, instruction);
         appendValue(message, instruction);
 
-        Logger.getLogger(getClass()).debug(message);
+        LOGGER.debug(message);
     }
 
     private void appendIndexedConstantPoolEntry(StringBuilder message, Instruction instruction) {
@@ -44,10 +44,12 @@ import java.io.StringWriter;
 import java.util.ArrayList;
 
 public class ConstantPool extends ArrayList<com.jeantessier.classreader.ConstantPoolEntry> implements com.jeantessier.classreader.ConstantPool {
+    private static final Logger LOGGER = Logger.getLogger(ConstantPool.class);
+
     private Classfile classfile;
 
     public ConstantPool(Classfile classfile, DataInput in) throws IOException {
-        this.classfile = classfile;
+        this(classfile);
 
         int count = in.readUnsignedShort();
 
@@ -59,8 +61,6 @@ public class ConstantPool extends ArrayList<com.jeantessier.classreader.Constant
         for (int i=1; i<count; i++) {
             byte tag = in.readByte();
 
-            Logger.getLogger(getClass()).info("Entry " + i + " has tag " + tag);
-
             switch(tag) {
                 case ConstantPoolEntry.CONSTANT_Class:
                     add(new Class_info(this, in));
@@ -109,12 +109,19 @@ public class ConstantPool extends ArrayList<com.jeantessier.classreader.Constant
                     add(new InvokeDynamic_info(this, in));
                     break;
                 default:
-                    Logger.getLogger(getClass()).info("Unknown Tag " + tag);
+                    LOGGER.info("Unknown Tag " + tag);
                     break;
             }
         }
     }
 
+    /**
+     *  For subclasses that read the entries themselves.
+     */
+    protected ConstantPool(Classfile classfile) {
+        this.classfile = classfile;
+    }
+
     public Classfile getClassfile() {
         return classfile;
     }
@@ -39,16 +39,22 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public class ConstantValue_attribute extends Attribute_info implements com.jeantessier.classreader.ConstantValue_attribute {
+    private static final Logger LOGGER = Logger.getLogger(ConstantValue_attribute.class);
+
     private int valueIndex;
 
     public ConstantValue_attribute(ConstantPool constantPool, Visitable owner, DataInput in) throws IOException {
         super(constantPool, owner);
 
         int byteCount = in.readInt();
-        Logger.getLogger(getClass()).debug("Attribute length: " + byteCount);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Attribute length: " + byteCount);
+        }
 
         valueIndex = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Constant value: " + getValueIndex() + " (" + getRawValue() + ")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Constant value: " + getValueIndex() + " (" + getRawValue() + ")");
+        }
     }
 
     public int getValueIndex() {
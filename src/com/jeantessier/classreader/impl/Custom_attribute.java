@@ -40,6 +40,8 @@ import com.jeantessier.classreader.*;
 import com.jeantessier.text.*;
 
 public class Custom_attribute extends Attribute_info implements com.jeantessier.classreader.Custom_attribute {
+    private static final Logger LOGGER = Logger.getLogger(Custom_attribute.class);
+
     private String name;
     private byte[] info;
 
@@ -53,13 +55,15 @@ public class Custom_attribute extends Attribute_info implements com.jeantessier.
         this.name = name;
 
         int byteCount = in.readInt();
-        Logger.getLogger(getClass()).debug("Attribute length: " + byteCount);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Attribute length: " + byteCount);
+        }
 
         this.info = new byte[byteCount];
         in.readFully(info);
 
-        if (Logger.getLogger(getClass()).isDebugEnabled()) {
-            Logger.getLogger(getClass()).debug("Read " + byteCount + " byte(s): " + Hex.toString(this.info));
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Read " + byteCount + " byte(s): " + Hex.toString(this.info));
         }
     }
 
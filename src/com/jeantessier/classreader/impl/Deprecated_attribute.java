@@ -39,11 +39,15 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public class Deprecated_attribute extends Attribute_info implements com.jeantessier.classreader.Deprecated_attribute {
+    private static final Logger LOGGER = Logger.getLogger(Deprecated_attribute.class);
+
     public Deprecated_attribute(ConstantPool constantPool, Visitable owner, DataInput in) throws IOException {
         super(constantPool, owner);
 
         int byteCount = in.readInt();
-        Logger.getLogger(getClass()).debug("Attribute length: " + byteCount);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Attribute length: " + byteCount);
+        }
     }
 
     public String toString() {
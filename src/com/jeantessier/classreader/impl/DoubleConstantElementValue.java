@@ -39,9 +39,13 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public class DoubleConstantElementValue extends ConstantElementValue implements com.jeantessier.classreader.DoubleConstantElementValue {
+    private static final Logger LOGGER = Logger.getLogger(DoubleConstantElementValue.class);
+
     public DoubleConstantElementValue(ConstantPool constantPool, DataInput in) throws IOException {
         super(constantPool, in);
-        Logger.getLogger(getClass()).debug("Const value index: " + getConstValueIndex() + " (" + getConstValue() + ")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Const value index: " + getConstValueIndex() + " (" + getConstValue() + ")");
+        }
     }
 
     public double getConstValue() {
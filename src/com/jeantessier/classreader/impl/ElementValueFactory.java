@@ -37,12 +37,16 @@ import java.io.*;
 import org.apache.log4j.*;
 
 public class ElementValueFactory {
+    private static final Logger LOGGER = Logger.getLogger(ElementValueFactory.class);
+
     public ElementValue create(ConstantPool constantPool, DataInput in) throws IOException {
         ElementValue result;
 
         char tag = (char) in.readUnsignedByte();
         ElementValueType elementValueType = ElementValueType.forTag(tag);
-        Logger.getLogger(getClass()).debug("tag " + tag + " (" + elementValueType + ")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("tag " + tag + " (" + elementValueType + ")");
+        }
         if (elementValueType != null) {
             result = elementValueType.create(constantPool, in);
         } else {
@@ -40,6 +40,8 @@ import com.jeantessier.classreader.UTF8_info;
 import com.jeantessier.classreader.*;
 
 public class ElementValuePair implements com.jeantessier.classreader.ElementValuePair {
+    private static final Logger LOGGER = Logger.getLogger(ElementValuePair.class);
+
     private ConstantPool constantPool;
 
     private int elementNameIndex;
@@ -53,7 +55,9 @@ public class ElementValuePair implements com.jeantessier.classreader.ElementValu
         this.constantPool = constantPool;
 
         elementNameIndex = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Element name index: " + elementNameIndex + " (" + getElementName() + ")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Element name index: " + elementNameIndex + " (" + getElementName() + ")");
+        }
 
         elementValue = elementValueFactory.create(constantPool, in);
     }
@@ -39,6 +39,8 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public class EnclosingMethod_attribute extends Attribute_info implements com.jeantessier.classreader.EnclosingMethod_attribute {
+    private static final Logger LOGGER = Logger.getLogger(EnclosingMethod_attribute.class);
+
     private int classIndex;
     private int methodIndex;
 
@@ -46,13 +48,19 @@ public class EnclosingMethod_attribute extends Attribute_info implements com.jea
         super(constantPool, owner);
 
         int byteCount = in.readInt();
-        Logger.getLogger(getClass()).debug("Attribute length: " + byteCount);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Attribute length: " + byteCount);
+        }
 
         classIndex = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Class index: " + classIndex + " (" + getClassInfo() + ")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Class index: " + classIndex + " (" + getClassInfo() + ")");
+        }
 
         methodIndex = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Method index: " + methodIndex + " (" + getMethod() + ")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Method index: " + methodIndex + " (" + getMethod() + ")");
+        }
     }
 
     public int getClassIndex() {
@@ -40,6 +40,8 @@ import com.jeantessier.classreader.*;
 import com.jeantessier.classreader.UTF8_info;
 
 public class EnumElementValue extends ElementValue implements com.jeantessier.classreader.EnumElementValue {
+    private static final Logger LOGGER = Logger.getLogger(EnumElementValue.class);
+
     private int typeNameIndex;
     private int constNameIndex;
 
@@ -47,10 +49,14 @@ public class EnumElementValue extends ElementValue implements com.jeantessier.cl
         super(constantPool);
 
         typeNameIndex = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Type name index: " + typeNameIndex);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Type name index: " + typeNameIndex);
+        }
 
         constNameIndex = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Const name index: " + constNameIndex);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Const name index: " + constNameIndex);
+        }
     }
 
     public int getTypeNameIndex() {
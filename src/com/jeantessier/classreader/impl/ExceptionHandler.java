@@ -39,6 +39,8 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public class ExceptionHandler implements com.jeantessier.classreader.ExceptionHandler {
+    private static final Logger LOGGER = Logger.getLogger(ExceptionHandler.class);
+
     private Code_attribute code;
     private int            startPC;
     private int            endPC;
@@ -49,16 +51,24 @@ public class ExceptionHandler implements com.jeantessier.classreader.ExceptionHa
         this.code = code;
 
         startPC = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("start PC: " + startPC);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("start PC: " + startPC);
+        }
 
         endPC = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("end PC: " + endPC);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("end PC: " + endPC);
+        }
 
         handlerPC = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("handler PC: " + handlerPC);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("handler PC: " + handlerPC);
+        }
 
         catchTypeIndex = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("catch type index: " + catchTypeIndex + " (" + getCatchType() + ")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("catch type index: " + catchTypeIndex + " (" + getCatchType() + ")");
+        }
     }
 
     public Code_attribute getCode() {
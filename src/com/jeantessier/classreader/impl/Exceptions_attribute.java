@@ -40,21 +40,31 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public class Exceptions_attribute extends Attribute_info implements com.jeantessier.classreader.Exceptions_attribute {
+    private static final Logger LOGGER = Logger.getLogger(Exceptions_attribute.class);
+
     private Collection<Class_info> exceptions = new LinkedList<Class_info>();
 
     public Exceptions_attribute(ConstantPool constantPool, Visitable owner, DataInput in) throws IOException {
         super(constantPool, owner);
 
         int byteCount = in.readInt();
-        Logger.getLogger(getClass()).debug("Attribute length: " + byteCount);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Attribute length: " + byteCount);
+        }
 
         int exceptionCount = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Reading " + exceptionCount + " exception(s) ...");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Reading " + exceptionCount + " exception(s) ...");
+        }
         for (int i=0; i<exceptionCount; i++) {
-            Logger.getLogger(getClass()).debug("Exception " + i + ":");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Exception " + i + ":");
+            }
             Class_info exception = (Class_info) constantPool.get(in.readUnsignedShort());
             exceptions.add(exception);
-            Logger.getLogger(getClass()).debug("Class " + exception);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Class " + exception);
+            }
         }
     }
 
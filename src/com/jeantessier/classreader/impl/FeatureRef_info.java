@@ -38,6 +38,12 @@ public abstract class FeatureRef_info extends ConstantPoolEntry implements com.j
     private int classIndex;
     private int nameAndTypeIndex;
 
+    private final LazyValue<String> fullSignature = new LazyValue<String>() {
+        protected String compute() {
+            return getClassName() + "." + getSignature();
+        }
+    };
+
     public FeatureRef_info(ConstantPool constantPool, DataInput in) throws IOException {
         super(constantPool);
 
@@ -83,7 +89,7 @@ public abstract class FeatureRef_info extends ConstantPoolEntry implements com.j
     public abstract String getSignature();
 
     public String getFullSignature() {
-        return getClassName() + "." + getSignature();
+        return fullSignature.get();
     }
 
     public String toString() {
@@ -40,6 +40,8 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public abstract class Feature_info implements com.jeantessier.classreader.Feature_info {
+    private static final Logger LOGGER = Logger.getLogger(Feature_info.class);
+
     private static final int ACC_PUBLIC = 0x0001;
     private static final int ACC_PRIVATE = 0x0002;
     private static final int ACC_PROTECTED = 0x0004;
@@ -53,6 +55,12 @@ public abstract class Feature_info implements com.jeantessier.classreader.Featur
     private int descriptorIndex;
     private Collection<Attribute_info> attributes = new LinkedList<Attribute_info>();
 
+    private final LazyValue<String> fullSignature = new LazyValue<String>() {
+        protected String compute() {
+            return getClassfile().getClassName() + "." + getSignature();
+        }
+    };
+
     public Feature_info(Classfile classfile, DataInput in) throws IOException {
         this(classfile, in, new AttributeFactory());
     }
@@ -61,18 +69,28 @@ public abstract class Feature_info implements com.jeantessier.classreader.Featur
         this.classfile = classfile;
 
         accessFlag = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug(getFeatureType() + " access flag: " + accessFlag);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(getFeatureType() + " access flag: " + accessFlag);
+        }
 
         nameIndex = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug(getFeatureType() + " name: " + nameIndex + " (" + getName() + ")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(getFeatureType() + " name: " + nameIndex + " (" + getName() + ")");
+        }
 
         descriptorIndex = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug(getFeatureType() + " Descriptor: " + descriptorIndex + " (" + getDescriptor() + ")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(getFeatureType() + " Descriptor: " + descriptorIndex + " (" + getDescriptor() + ")");
+        }
 
         int attributeCount = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Reading " + attributeCount + " " + getFeatureType() + " attribute(s)");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Reading " + attributeCount + " " + getFeatureType() + " attribute(s)");
+        }
         for (int i=0; i<attributeCount; i++) {
-            Logger.getLogger(getClass()).debug(getFeatureType() + " attribute " + i + ":");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug(getFeatureType() + " attribute " + i + ":");
+            }
             attributes.add(attributeFactory.create(getClassfile().getConstantPool(), this, in));
         }
     }
@@ -178,7 +196,7 @@ public abstract class Feature_info implements com.jeantessier.classreader.Featur
     }
 
     public String getFullSignature() {
-        return getClassfile().getClassName() + "." + getSignature();
+        return fullSignature.get();
     }
 
     /**
@@ -39,6 +39,8 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public class InnerClass implements com.jeantessier.classreader.InnerClass {
+    private static final Logger LOGGER = Logger.getLogger(InnerClass.class);
+
     private static final int ACC_PUBLIC = 0x0001;
     private static final int ACC_PRIVATE = 0x0002;
     private static final int ACC_PROTECTED = 0x0004;
@@ -60,16 +62,24 @@ public class InnerClass implements com.jeantessier.classreader.InnerClass {
         this.innerClasses = innerClasses;
 
         innerClassInfoIndex = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Inner class info index: " + innerClassInfoIndex + " (" + getInnerClassInfo() + ")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Inner class info index: " + innerClassInfoIndex + " (" + getInnerClassInfo() + ")");
+        }
 
         outerClassInfoIndex = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Outer class info index: " + outerClassInfoIndex + " (" + getOuterClassInfo() + ")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Outer class info index: " + outerClassInfoIndex + " (" + getOuterClassInfo() + ")");
+        }
 
         innerNameIndex = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Inner name index: " + innerNameIndex + " (" + getInnerName() + ")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Inner name index: " + innerNameIndex + " (" + getInnerName() + ")");
+        }
 
         accessFlag = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Inner class access flag: " + accessFlag);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Inner class access flag: " + accessFlag);
+        }
     }
 
     public InnerClasses_attribute getInnerClasses() {
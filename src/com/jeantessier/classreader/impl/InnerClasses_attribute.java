@@ -40,18 +40,26 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public class InnerClasses_attribute extends Attribute_info implements com.jeantessier.classreader.InnerClasses_attribute {
+    private static final Logger LOGGER = Logger.getLogger(InnerClasses_attribute.class);
+
     private Collection<InnerClass> classes = new LinkedList<InnerClass>();
 
     public InnerClasses_attribute(ConstantPool constantPool, Visitable owner, DataInput in) throws IOException {
         super(constantPool, owner);
 
         int byteCount = in.readInt();
-        Logger.getLogger(getClass()).debug("Attribute length: " + byteCount);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Attribute length: " + byteCount);
+        }
 
         int classCount = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Reading " + classCount + " inner class(es) ...");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Reading " + classCount + " inner class(es) ...");
+        }
         for (int i=0; i<classCount; i++) {
-            Logger.getLogger(getClass()).debug("Inner class " + i + ":");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Inner class " + i + ":");
+            }
             classes.add(new InnerClass(this, in));
         }
     }
@@ -32,6 +32,7 @@
 
 package com.jeantessier.classreader.impl;
 
+import com.jeantessier.classreader.InstructionCategory;
 import com.jeantessier.classreader.LocalVariableFinder;
 import com.jeantessier.classreader.Visitor;
 
@@ -588,6 +589,10 @@ public class Instruction implements com.jeantessier.classreader.Instruction {
     public int getStart() {
         return start;
     }
+
+    protected void setStart(int start) {
+        this.start = start;
+    }
     
     public int getOpcode() {
         return getByte(0);
@@ -862,31 +867,10 @@ public class Instruction implements com.jeantessier.classreader.Instruction {
     }
 
     public com.jeantessier.classreader.ConstantPoolEntry getIndexedConstantPoolEntry() {
-        com.jeantessier.classreader.ConstantPoolEntry result;
+        com.jeantessier.classreader.ConstantPoolEntry result = null;
 
-        switch (getOpcode()) {
-            case 0x12: // ldc
-            case 0x13: // ldc_w
-            case 0x14: // ldc2_w
-            case 0xb2: // getstatic
-            case 0xb3: // putstatic
-            case 0xb4: // getfield
-            case 0xb5: // putfield
-            case 0xb6: // invokevirtual
-            case 0xb7: // invokespecial
-            case 0xb8: // invokestatic
-            case 0xb9: // invokeinterface
-            case 0xba: // invokedynamic
-            case 0xbb: // new
-            case 0xbd: // anewarray
-            case 0xc0: // checkcast
-            case 0xc1: // instanceof
-            case 0xc5: // multianewarray
-                result = code.getConstantPool().get(getIndex());
-                break;
-            default:
-                result = null;
-                break;
+        if (InstructionCategory.forOpcode(getOpcode()).isConstantPoolReference()) {
+            result = code.getConstantPool().get(getIndex());
         }
 
         return result;
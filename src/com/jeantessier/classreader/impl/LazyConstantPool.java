@@ -0,0 +1,358 @@
+/*
+ *  Copyright (c) 2001-2016, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.classreader.impl;
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import org.apache.log4j.*;
+
+import com.jeantessier.classreader.ByteBufferInputStream;
+
+/**
+ *  <p>A constant pool that copies the raw bytes of its entries and
+ *  only turns them into {@link ConstantPoolEntry} objects the first
+ *  time someone asks for them.  {@link UTF8_info} entries go one step
+ *  further and only decode their string the first time someone asks
+ *  for its value.</p>
+ *
+ *  <p>Tools that only look at a few entries, like the class name and
+ *  the names of attributes, save most of the work and allocation of
+ *  parsing the pool.  Tools that visit the whole pool end up with the
+ *  same entries as a regular {@link ConstantPool}.</p>
+ *
+ *  <p>Because the UTF-8 strings are decoded late, a malformed string
+ *  is reported when it is first read instead of when the class is
+ *  loaded.</p>
+ *
+ *  <p>Entries are parsed under a lock and published through an
+ *  {@link AtomicReferenceArray}, so several threads can share the
+ *  pool.  Methods that read the backing {@link ArrayList} directly
+ *  parse the whole pool first; after that, the pool behaves like a
+ *  regular one, even if it gets modified.</p>
+ */
+public class LazyConstantPool extends ConstantPool {
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOGGER = Logger.getLogger(LazyConstantPool.class);
+
+    private static final int INITIAL_BUFFER_SIZE = 4 * 1024;
+
+    private byte[] tags;
+    private int[] offsets;
+    private ByteBuffer buffer;
+    private ByteBufferInputStream input;
+
+    private AtomicReferenceArray<com.jeantessier.classreader.ConstantPoolEntry> entries;
+    private volatile boolean fullyParsed = false;
+
+    public LazyConstantPool(Classfile classfile, DataInput in) throws IOException {
+        super(classfile);
+
+        int count = in.readUnsignedShort();
+
+        ensureCapacity(count);
+        tags = new byte[count];
+        offsets = new int[count];
+        entries = new AtomicReferenceArray<com.jeantessier.classreader.ConstantPoolEntry>(count);
+
+        byte[] bytes = new byte[INITIAL_BUFFER_SIZE];
+        int length = 0;
+
+        // Entry 0 is null
+        add(null);
+
+        for (int i=1; i<count; i++) {
+            byte tag = in.readByte();
+
+            int size;
+            int utf8Length = 0;
+            if (tag == ConstantPoolEntry.CONSTANT_Utf8) {
+                utf8Length = in.readUnsignedShort();
+                size = 2 + utf8Length;
+            } else {
+                size = getEntrySize(tag);
+            }
+
+            if (size < 0) {
+                LOGGER.info("Unknown Tag " + tag);
+                add(null);
+                continue;
+            }
+
+            if (length + size > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + size));
+            }
+
+            tags[i] = tag;
+            offsets[i] = length;
+
+            if (tag == ConstantPoolEntry.CONSTANT_Utf8) {
+                bytes[length] = (byte) (utf8Length >> 8);
+                bytes[length + 1] = (byte) utf8Length;
+                in.readFully(bytes, length + 2, utf8Length);
+            } else {
+                in.readFully(bytes, length, size);
+            }
+            length += size;
+
+            add(null);
+
+            if (tag == ConstantPoolEntry.CONSTANT_Long || tag == ConstantPoolEntry.CONSTANT_Double) {
+                i++;
+                add(null);
+            }
+        }
+
+        buffer = ByteBuffer.wrap(bytes, 0, length);
+        input = new ByteBufferInputStream(buffer.duplicate());
+    }
+
+    /**
+     *  @return the number of bytes that follow the tag, or -1 for
+     *          unknown tags.  UTF8_info entries are variable-length
+     *          and are handled separately.
+     */
+    private static int getEntrySize(byte tag) {
+        int result;
+
+        switch (tag) {
+            case ConstantPoolEntry.CONSTANT_Class:
+            case ConstantPoolEntry.CONSTANT_String:
+            case ConstantPoolEntry.CONSTANT_MethodType:
+                result = 2;
+                break;
+            case ConstantPoolEntry.CONSTANT_MethodHandle:
+                result = 3;
+                break;
+            case ConstantPoolEntry.CONSTANT_Fieldref:
+            case ConstantPoolEntry.CONSTANT_Methodref:
+            case ConstantPoolEntry.CONSTANT_InterfaceMethodref:
+            case ConstantPoolEntry.CONSTANT_Integer:
+            case ConstantPoolEntry.CONSTANT_Float:
+            case ConstantPoolEntry.CONSTANT_NameAndType:
+            case ConstantPoolEntry.CONSTANT_InvokeDynamic:
+                result = 4;
+                break;
+            case ConstantPoolEntry.CONSTANT_Long:
+            case ConstantPoolEntry.CONSTANT_Double:
+                result = 8;
+                break;
+            default:
+                result = -1;
+                break;
+        }
+
+        return result;
+    }
+
+    public com.jeantessier.classreader.ConstantPoolEntry get(int index) {
+        com.jeantessier.classreader.ConstantPoolEntry result;
+
+        if (fullyParsed) {
+            result = super.get(index);
+        } else {
+            result = entries.get(index);
+            if (result == null && tags[index] != 0) {
+                result = parse(index);
+            }
+        }
+
+        return result;
+    }
+
+    private synchronized com.jeantessier.classreader.ConstantPoolEntry parse(int index) {
+        com.jeantessier.classreader.ConstantPoolEntry result = entries.get(index);
+
+        if (result == null) {
+            try {
+                input.seek(offsets[index]);
+
+                switch (tags[index]) {
+                    case ConstantPoolEntry.CONSTANT_Class:
+                        result = new Class_info(this, input);
+                        break;
+                    case ConstantPoolEntry.CONSTANT_Fieldref:
+                        result = new FieldRef_info(this, input);
+                        break;
+                    case ConstantPoolEntry.CONSTANT_Methodref:
+                        result = new MethodRef_info(this, input);
+                        break;
+                    case ConstantPoolEntry.CONSTANT_InterfaceMethodref:
+                        result = new InterfaceMethodRef_info(this, input);
+                        break;
+                    case ConstantPoolEntry.CONSTANT_String:
+                        result = new String_info(this, input);
+                        break;
+                    case ConstantPoolEntry.CONSTANT_Integer:
+                        result = new Integer_info(this, input);
+                        break;
+                    case ConstantPoolEntry.CONSTANT_Float:
+                        result = new Float_info(this, input);
+                        break;
+                    case ConstantPoolEntry.CONSTANT_Long:
+                        result = new Long_info(this, input);
+                        break;
+                    case ConstantPoolEntry.CONSTANT_Double:
+                        result = new Double_info(this, input);
+                        break;
+                    case ConstantPoolEntry.CONSTANT_NameAndType:
+                        result = new NameAndType_info(this, input);
+                        break;
+                    case ConstantPoolEntry.CONSTANT_Utf8:
+                        result = new UTF8_info(this, buffer, offsets[index]);
+                        break;
+                    case ConstantPoolEntry.CONSTANT_MethodHandle:
+                        result = new MethodHandle_info(this, input);
+                        break;
+                    case ConstantPoolEntry.CONSTANT_MethodType:
+                        result = new MethodType_info(this, input);
+                        break;
+                    case ConstantPoolEntry.CONSTANT_InvokeDynamic:
+                        result = new InvokeDynamic_info(this, input);
+                        break;
+                }
+            } catch (IOException ex) {
+                throw new IllegalStateException("Cannot parse constant pool entry " + index, ex);
+            }
+
+            set(index, result);
+            entries.set(index, result);
+        }
+
+        return result;
+    }
+
+    /**
+     *  Parses every entry that has not been parsed yet, so that
+     *  {@link ArrayList} methods that read the backing array directly
+     *  see every entry.  From then on, {@link #get(int)} reads the
+     *  backing array too, so changes to the list are not undone by
+     *  late parsing.
+     */
+    private void parseAll() {
+        if (!fullyParsed) {
+            for (int i=1; i<tags.length; i++) {
+                get(i);
+            }
+
+            fullyParsed = true;
+        }
+    }
+
+    public Iterator<com.jeantessier.classreader.ConstantPoolEntry> iterator() {
+        parseAll();
+        return super.iterator();
+    }
+
+    public void forEach(java.util.function.Consumer<? super com.jeantessier.classreader.ConstantPoolEntry> action) {
+        parseAll();
+
+        for (int i=0; i<size(); i++) {
+            action.accept(super.get(i));
+        }
+    }
+
+    public Spliterator<com.jeantessier.classreader.ConstantPoolEntry> spliterator() {
+        parseAll();
+        return super.spliterator();
+    }
+
+    public boolean removeIf(java.util.function.Predicate<? super com.jeantessier.classreader.ConstantPoolEntry> filter) {
+        parseAll();
+
+        boolean result = false;
+
+        for (int i=size()-1; i>=0; i--) {
+            if (filter.test(super.get(i))) {
+                remove(i);
+                result = true;
+            }
+        }
+
+        return result;
+    }
+
+    public ListIterator<com.jeantessier.classreader.ConstantPoolEntry> listIterator() {
+        parseAll();
+        return super.listIterator();
+    }
+
+    public ListIterator<com.jeantessier.classreader.ConstantPoolEntry> listIterator(int index) {
+        parseAll();
+        return super.listIterator(index);
+    }
+
+    public List<com.jeantessier.classreader.ConstantPoolEntry> subList(int fromIndex, int toIndex) {
+        parseAll();
+        return super.subList(fromIndex, toIndex);
+    }
+
+    public Object[] toArray() {
+        parseAll();
+        return super.toArray();
+    }
+
+    public <T> T[] toArray(T[] a) {
+        parseAll();
+        return super.toArray(a);
+    }
+
+    public boolean contains(Object o) {
+        parseAll();
+        return super.contains(o);
+    }
+
+    public int indexOf(Object o) {
+        parseAll();
+        return super.indexOf(o);
+    }
+
+    public int lastIndexOf(Object o) {
+        parseAll();
+        return super.lastIndexOf(o);
+    }
+
+    public boolean equals(Object o) {
+        parseAll();
+        return super.equals(o);
+    }
+
+    public int hashCode() {
+        parseAll();
+        return super.hashCode();
+    }
+}
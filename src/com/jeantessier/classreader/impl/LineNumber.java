@@ -39,6 +39,8 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public class LineNumber implements com.jeantessier.classreader.LineNumber {
+    private static final Logger LOGGER = Logger.getLogger(LineNumber.class);
+
     private LineNumberTable_attribute lineNumberTable;
     private int                       startPC;
     private int                       lineNumber;
@@ -47,10 +49,14 @@ public class LineNumber implements com.jeantessier.classreader.LineNumber {
         setLineNumberTable(lineNumberTable);
 
         startPC = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Line number table start PC: " + startPC);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Line number table start PC: " + startPC);
+        }
 
         lineNumber = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Line number: " + lineNumber);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Line number: " + lineNumber);
+        }
     }
 
     public LineNumberTable_attribute getLineNumberTable() {
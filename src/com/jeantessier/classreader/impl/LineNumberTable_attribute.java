@@ -40,18 +40,26 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public class LineNumberTable_attribute extends Attribute_info implements com.jeantessier.classreader.LineNumberTable_attribute {
+    private static final Logger LOGGER = Logger.getLogger(LineNumberTable_attribute.class);
+
     private Collection<LineNumber> lineNumbers = new LinkedList<LineNumber>();
 
     public LineNumberTable_attribute(ConstantPool constantPool, Visitable owner, DataInput in) throws IOException {
         super(constantPool, owner);
 
         int byteCount = in.readInt();
-        Logger.getLogger(getClass()).debug("Attribute length: " + byteCount);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Attribute length: " + byteCount);
+        }
 
         int lineNumberTableLength = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Reading " + lineNumberTableLength + " line number(s) ...");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Reading " + lineNumberTableLength + " line number(s) ...");
+        }
         for (int i=0; i<lineNumberTableLength; i++) {
-            Logger.getLogger(getClass()).debug("Line number entry " + i + ":");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Line number entry " + i + ":");
+            }
             lineNumbers.add(new LineNumber(this, in));
         }
     }
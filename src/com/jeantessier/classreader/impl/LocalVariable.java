@@ -39,6 +39,8 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public class LocalVariable implements com.jeantessier.classreader.LocalVariable {
+    private static final Logger LOGGER = Logger.getLogger(LocalVariable.class);
+
     private LocalVariableTable_attribute localVariableTable;
     private int startPC;
     private int length;
@@ -50,19 +52,29 @@ public class LocalVariable implements com.jeantessier.classreader.LocalVariable
         this.localVariableTable = localVariableTable;
 
         startPC = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("start PC: " + startPC);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("start PC: " + startPC);
+        }
 
         length = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("length: " + length);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("length: " + length);
+        }
 
         nameIndex = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("name: " + nameIndex + " (" + getName() + ")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("name: " + nameIndex + " (" + getName() + ")");
+        }
 
         descriptorIndex = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("descriptor: " + descriptorIndex + " (" + getDescriptor() + ")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("descriptor: " + descriptorIndex + " (" + getDescriptor() + ")");
+        }
 
         index = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("index: " + index);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("index: " + index);
+        }
     }
 
     public LocalVariableTable_attribute getLocalVariableTable() {
@@ -40,18 +40,26 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public class LocalVariableTable_attribute extends Attribute_info implements com.jeantessier.classreader.LocalVariableTable_attribute {
+    private static final Logger LOGGER = Logger.getLogger(LocalVariableTable_attribute.class);
+
     private Collection<LocalVariable> localVariables = new LinkedList<LocalVariable>();
 
     public LocalVariableTable_attribute(ConstantPool constantPool, Visitable owner, DataInput in) throws IOException {
         super(constantPool, owner);
 
         int byteCount = in.readInt();
-        Logger.getLogger(getClass()).debug("Attribute length: " + byteCount);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Attribute length: " + byteCount);
+        }
 
         int localVariableTableLength = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Reading " + localVariableTableLength + " local variable(s) ...");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Reading " + localVariableTableLength + " local variable(s) ...");
+        }
         for (int i=0; i<localVariableTableLength; i++) {
-            Logger.getLogger(getClass()).debug("Local variable " + i + ":");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Local variable " + i + ":");
+            }
             localVariables.add(new LocalVariable(this, in));
         }
     }
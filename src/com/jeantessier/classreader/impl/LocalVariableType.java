@@ -39,6 +39,8 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public class LocalVariableType implements com.jeantessier.classreader.LocalVariableType {
+    private static final Logger LOGGER = Logger.getLogger(LocalVariableType.class);
+
     private LocalVariableTypeTable_attribute localVariableTypeTable;
     private int startPC;
     private int length;
@@ -50,19 +52,29 @@ public class LocalVariableType implements com.jeantessier.classreader.LocalVaria
         this.localVariableTypeTable = localVariableTypeTable;
 
         startPC = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("start PC: " + startPC);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("start PC: " + startPC);
+        }
 
         length = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("length: " + length);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("length: " + length);
+        }
 
         nameIndex = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("name: " + nameIndex + " (" + getName() + ")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("name: " + nameIndex + " (" + getName() + ")");
+        }
 
         signatureIndex = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("signature: " + signatureIndex + " (" + getSignature() + ")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("signature: " + signatureIndex + " (" + getSignature() + ")");
+        }
 
         index = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("index: " + index);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("index: " + index);
+        }
     }
 
     public LocalVariableTypeTable_attribute getLocalVariableTypeTable() {
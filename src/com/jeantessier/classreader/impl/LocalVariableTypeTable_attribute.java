@@ -40,18 +40,26 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public class LocalVariableTypeTable_attribute extends Attribute_info implements com.jeantessier.classreader.LocalVariableTypeTable_attribute {
+    private static final Logger LOGGER = Logger.getLogger(LocalVariableTypeTable_attribute.class);
+
     private Collection<LocalVariableType> localVariableTypes = new LinkedList<LocalVariableType>();
 
     public LocalVariableTypeTable_attribute(ConstantPool constantPool, Visitable owner, DataInput in) throws IOException {
         super(constantPool, owner);
 
         int byteCount = in.readInt();
-        Logger.getLogger(getClass()).debug("Attribute length: " + byteCount);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Attribute length: " + byteCount);
+        }
 
         int localVariableTableTypeLength = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Reading " + localVariableTableTypeLength + " local variable type(s) ...");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Reading " + localVariableTableTypeLength + " local variable type(s) ...");
+        }
         for (int i=0; i<localVariableTableTypeLength; i++) {
-            Logger.getLogger(getClass()).debug("Local variable type " + i + ":");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Local variable type " + i + ":");
+            }
             localVariableTypes.add(new LocalVariableType(this, in));
         }
     }
@@ -37,6 +37,19 @@ import java.io.*;
 import com.jeantessier.classreader.*;
 
 public class MethodRef_info extends FeatureRef_info implements com.jeantessier.classreader.MethodRef_info {
+    private final LazyValue<String> signature = new LazyValue<String>() {
+        protected String compute() {
+            StringBuilder result = new StringBuilder();
+
+            result.append(getName());
+            if (!isStaticInitializer()) {
+                result.append(DescriptorHelper.getSignature(getRawNameAndType().getType()));
+            }
+
+            return result.toString();
+        }
+    };
+
     public MethodRef_info(ConstantPool constantPool, DataInput in) throws IOException {
         super(constantPool, in);
     }
@@ -68,14 +81,7 @@ public class MethodRef_info extends FeatureRef_info implements com.jeantessier.c
     }
 
     public String getSignature() {
-        StringBuilder result = new StringBuilder();
-
-        result.append(getName());
-        if (!isStaticInitializer()) {
-            result.append(DescriptorHelper.getSignature(getRawNameAndType().getType()));
-        }
-
-        return result.toString();
+        return signature.get();
     }
 
     public void accept(Visitor visitor) {
@@ -45,6 +45,24 @@ public class Method_info extends Feature_info implements com.jeantessier.classre
     private static final int ACC_ABSTRACT = 0x0400;
     private static final int ACC_STRICT = 0x0800;
 
+    private final LazyValue<String> signature = new LazyValue<String>() {
+        protected String compute() {
+            StringBuffer result = new StringBuffer();
+
+            if (isConstructor()) {
+                result.append(getClassfile().getSimpleName());
+                result.append(DescriptorHelper.getSignature(getDescriptor()));
+            } else if (isStaticInitializer()) {
+                result.append("static {}");
+            } else {
+                result.append(getName());
+                result.append(DescriptorHelper.getSignature(getDescriptor()));
+            }
+
+            return result.toString();
+        }
+    };
+
     public Method_info(Classfile classfile, DataInput in) throws IOException {
         super(classfile, in);
     }
@@ -98,19 +116,7 @@ public class Method_info extends Feature_info implements com.jeantessier.classre
     }
 
     public String getSignature() {
-        StringBuffer result = new StringBuffer();
-
-        if (isConstructor()) {
-            result.append(getClassfile().getSimpleName());
-            result.append(DescriptorHelper.getSignature(getDescriptor()));
-        } else if (isStaticInitializer()) {
-            result.append("static {}");
-        } else {
-            result.append(getName());
-            result.append(DescriptorHelper.getSignature(getDescriptor()));
-        }
-
-        return result.toString();
+        return signature.get();
     }
 
     public String getReturnType() {
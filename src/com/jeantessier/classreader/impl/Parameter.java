@@ -40,13 +40,19 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public class Parameter implements com.jeantessier.classreader.Parameter {
+    private static final Logger LOGGER = Logger.getLogger(Parameter.class);
+
     private Collection<Annotation> annotations = new LinkedList<Annotation>();
 
     public Parameter(ConstantPool constantPool, DataInput in) throws IOException {
         int numAnnotations = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Reading " + numAnnotations + " annotation(s) ...");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Reading " + numAnnotations + " annotation(s) ...");
+        }
         for (int i=0; i<numAnnotations; i++) {
-            Logger.getLogger(getClass()).debug("Annotation " + i + ":");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Annotation " + i + ":");
+            }
             annotations.add(new Annotation(constantPool, in));
         }
     }
@@ -40,18 +40,26 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public abstract class RuntimeAnnotations_attribute extends Annotations_attribute implements com.jeantessier.classreader.RuntimeAnnotations_attribute {
+    private static final Logger LOGGER = Logger.getLogger(RuntimeAnnotations_attribute.class);
+
     private Collection<Annotation> annotations = new LinkedList<Annotation>();
 
     public RuntimeAnnotations_attribute(ConstantPool constantPool, Visitable owner, DataInput in) throws IOException {
         super(constantPool, owner);
 
         int byteCount = in.readInt();
-        Logger.getLogger(getClass()).debug("Attribute length: " + byteCount);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Attribute length: " + byteCount);
+        }
 
         int numAnnotations = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Reading " + numAnnotations + " annotation(s) ...");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Reading " + numAnnotations + " annotation(s) ...");
+        }
         for (int i=0; i<numAnnotations; i++) {
-            Logger.getLogger(getClass()).debug("annotation " + i + ":");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("annotation " + i + ":");
+            }
             annotations.add(new Annotation(constantPool, in));
         }
     }
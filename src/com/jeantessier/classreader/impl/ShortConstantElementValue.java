@@ -39,9 +39,13 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public class ShortConstantElementValue extends ConstantElementValue implements com.jeantessier.classreader.ShortConstantElementValue {
+    private static final Logger LOGGER = Logger.getLogger(ShortConstantElementValue.class);
+
     public ShortConstantElementValue(ConstantPool constantPool, DataInput in) throws IOException {
         super(constantPool, in);
-        Logger.getLogger(getClass()).debug("Const value index: " + getConstValueIndex() + " (" + getConstValue() + ")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Const value index: " + getConstValueIndex() + " (" + getConstValue() + ")");
+        }
     }
 
     public short getConstValue() {
@@ -39,16 +39,22 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public class Signature_attribute extends Attribute_info implements com.jeantessier.classreader.Signature_attribute {
+    private static final Logger LOGGER = Logger.getLogger(Signature_attribute.class);
+
     private int signatureIndex;
 
     public Signature_attribute(ConstantPool constantPool, Visitable owner, DataInput in) throws IOException {
         super(constantPool, owner);
 
         int byteCount = in.readInt();
-        Logger.getLogger(getClass()).debug("Attribute length: " + byteCount);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Attribute length: " + byteCount);
+        }
 
         signatureIndex = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Signature: " + signatureIndex + " (" + getSignature() + ")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Signature: " + signatureIndex + " (" + getSignature() + ")");
+        }
     }
 
     public int getSignatureIndex() {
@@ -39,16 +39,22 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public class SourceDebugExtension_attribute extends Attribute_info implements com.jeantessier.classreader.SourceDebugExtension_attribute {
+    private static final Logger LOGGER = Logger.getLogger(SourceDebugExtension_attribute.class);
+
     private String debugExtension;
 
     public SourceDebugExtension_attribute(ConstantPool constantPool, Visitable owner, DataInput in) throws IOException {
         super(constantPool, owner);
 
         int byteCount = in.readInt();
-        Logger.getLogger(getClass()).debug("Attribute length: " + byteCount);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Attribute length: " + byteCount);
+        }
 
         debugExtension = in.readUTF();
-        Logger.getLogger(getClass()).debug("Debug extension: " + debugExtension);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Debug extension: " + debugExtension);
+        }
     }
 
     public String getDebugExtension() {
@@ -39,16 +39,22 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public class SourceFile_attribute extends Attribute_info implements com.jeantessier.classreader.SourceFile_attribute {
+    private static final Logger LOGGER = Logger.getLogger(SourceFile_attribute.class);
+
     private int sourceFileIndex;
 
     public SourceFile_attribute(ConstantPool constantPool, Visitable owner, DataInput in) throws IOException {
         super(constantPool, owner);
 
         int byteCount = in.readInt();
-        Logger.getLogger(getClass()).debug("Attribute length: " + byteCount);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Attribute length: " + byteCount);
+        }
 
         sourceFileIndex = in.readUnsignedShort();
-        Logger.getLogger(getClass()).debug("Source file: " + sourceFileIndex + " (" + getSourceFile() + ")");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Source file: " + sourceFileIndex + " (" + getSourceFile() + ")");
+        }
     }
 
     public int getSourceFileIndex() {
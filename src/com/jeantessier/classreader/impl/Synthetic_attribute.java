@@ -39,11 +39,15 @@ import org.apache.log4j.*;
 import com.jeantessier.classreader.*;
 
 public class Synthetic_attribute extends Attribute_info implements com.jeantessier.classreader.Synthetic_attribute {
+    private static final Logger LOGGER = Logger.getLogger(Synthetic_attribute.class);
+
     public Synthetic_attribute(ConstantPool constantPool, Visitable owner, DataInput in) throws IOException {
         super(constantPool, owner);
 
         int byteCount = in.readInt();
-        Logger.getLogger(getClass()).debug("Attribute length: " + byteCount);
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Attribute length: " + byteCount);
+        }
     }
 
     public String toString() {
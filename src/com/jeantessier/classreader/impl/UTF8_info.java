@@ -33,11 +33,15 @@
 package com.jeantessier.classreader.impl;
 
 import java.io.*;
+import java.nio.*;
 
 import com.jeantessier.classreader.*;
 
 public class UTF8_info extends ConstantPoolEntry implements com.jeantessier.classreader.UTF8_info {
-    private String value;
+    private volatile String value;
+
+    private volatile ByteBuffer buffer;
+    private int offset;
 
     public UTF8_info(ConstantPool constantPool, DataInput in) throws IOException {
         super(constantPool);
@@ -45,8 +49,44 @@ public class UTF8_info extends ConstantPoolEntry implements com.jeantessier.clas
         value = in.readUTF();
     }
 
+    /**
+     *  Used by LazyConstantPool: the string is decoded from the buffer,
+     *  starting with its two-byte length at the given offset, the
+     *  first time it is needed.  The entry lets go of the buffer once
+     *  the string is decoded.
+     */
+    UTF8_info(ConstantPool constantPool, ByteBuffer buffer, int offset) {
+        super(constantPool);
+
+        this.buffer = buffer;
+        this.offset = offset;
+    }
+
     public String getValue() {
-        return value;
+        String result = value;
+
+        if (result == null) {
+            ByteBuffer source = buffer;
+
+            if (source == null) {
+                // Another thread decoded the string in the meantime
+                result = value;
+            } else {
+                ByteBufferInputStream in = new ByteBufferInputStream(source.duplicate());
+                in.seek(offset);
+
+                try {
+                    result = in.readUTF();
+                } catch (IOException ex) {
+                    throw new IllegalStateException("Malformed UTF8_info entry", ex);
+                }
+
+                value = result;
+                buffer = null;
+            }
+        }
+
+        return result;
     }
 
     public String toString() {
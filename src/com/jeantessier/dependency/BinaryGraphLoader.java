@@ -0,0 +1,304 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+
+import org.apache.log4j.*;
+
+/**
+ *  <p>Reads a graph saved by {@link BinaryGraphWriter} into a
+ *  {@link NodeFactory}.  Files are memory-mapped and read in a single
+ *  pass, one record at a time.  Because nodes are stored with their
+ *  parent's id, the loader does not need to parse names to find a
+ *  node's class or package.</p>
+ *
+ *  <p>Listeners get a <code>beginClass</code> and an
+ *  <code>endClass</code> event around the dependencies of each class
+ *  and of its features, in the order they were written.</p>
+ *
+ *  <p>Loading several graphs into the same factory merges them, just
+ *  like {@link NodeLoader} does.</p>
+ */
+public class BinaryGraphLoader {
+    private static final String ENCODING = "UTF-8";
+
+    private NodeFactory factory;
+
+    private HashSet<DependencyListener> dependencyListeners = new HashSet<DependencyListener>();
+
+    public BinaryGraphLoader() {
+        this(new NodeFactory());
+    }
+
+    public BinaryGraphLoader(NodeFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     *  Tells whether a stream starts like a binary graph.  The stream
+     *  must support marks; it is reset to where it was.
+     */
+    public static boolean isBinaryGraph(InputStream in) throws IOException {
+        in.mark(4);
+        try {
+            return new DataInputStream(in).readInt() == BinaryGraphWriter.MAGIC;
+        } catch (EOFException ex) {
+            return false;
+        } finally {
+            in.reset();
+        }
+    }
+
+    public NodeFactory load(String filename) throws IOException {
+        NodeFactory result;
+
+        FileInputStream in = new FileInputStream(filename);
+        try {
+            FileChannel channel = in.getChannel();
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(filename + " is too large to map in memory (" + channel.size() + " bytes)");
+            }
+
+            result = load(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } finally {
+            in.close();
+        }
+
+        return result;
+    }
+
+    public NodeFactory load(InputStream in) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        byte[] chunk = new byte[64 * 1024];
+        int length;
+        while ((length = in.read(chunk)) != -1) {
+            buffer.write(chunk, 0, length);
+        }
+
+        return load(ByteBuffer.wrap(buffer.toByteArray()));
+    }
+
+    public NodeFactory load(ByteBuffer in) throws IOException {
+        HashSet<DependencyListener> listeners;
+        synchronized(dependencyListeners) {
+            listeners = new HashSet<DependencyListener>(dependencyListeners);
+        }
+
+        try {
+            if (in.getInt() != BinaryGraphWriter.MAGIC) {
+                throw new IOException("Not a binary dependency graph");
+            }
+
+            int version = in.getInt();
+            if (version != BinaryGraphWriter.VERSION) {
+                throw new IOException("Unsupported binary graph version " + version);
+            }
+
+            fireBeginSession(listeners);
+
+            List<Node> nodes = new ArrayList<Node>();
+            byte[] scratch = new byte[256];
+
+            Node node = null;
+            ClassNode currentClass = null;
+
+            byte tag = in.get();
+            while (tag != BinaryGraphWriter.END) {
+                switch (tag) {
+                    case BinaryGraphWriter.PACKAGE:
+                        nodes.add(factory.createPackage(readName(in, scratch), in.get() != 0));
+                        break;
+
+                    case BinaryGraphWriter.CLASS: {
+                        String name = readName(in, scratch);
+                        boolean confirmed = in.get() != 0;
+                        nodes.add(factory.createClass(getNode(nodes, in.getInt(), PackageNode.class), name, confirmed));
+                        break;
+                    }
+
+                    case BinaryGraphWriter.FEATURE: {
+                        String name = readName(in, scratch);
+                        boolean confirmed = in.get() != 0;
+                        nodes.add(factory.createFeature(getNode(nodes, in.getInt(), ClassNode.class), name, confirmed));
+                        break;
+                    }
+
+                    case BinaryGraphWriter.NODE:
+                        node = getNode(nodes, in.getInt(), Node.class);
+
+                        if (!(node instanceof FeatureNode) && currentClass != null) {
+                            fireEndClass(listeners, currentClass.getName());
+                            currentClass = null;
+                        }
+
+                        if (node instanceof ClassNode) {
+                            currentClass = (ClassNode) node;
+                            fireBeginClass(listeners, currentClass.getName());
+                        }
+                        break;
+
+                    case BinaryGraphWriter.DEPENDENCY: {
+                        Node dependency = getNode(nodes, in.getInt(), Node.class);
+                        if (node == null) {
+                            throw new IOException("Dependency outside of a node in binary dependency graph");
+                        }
+                        node.addDependency(dependency);
+                        fireDependency(listeners, node, dependency);
+                        break;
+                    }
+
+                    case BinaryGraphWriter.PARENT: {
+                        ClassNode parent = getNode(nodes, in.getInt(), ClassNode.class);
+                        if (!(node instanceof ClassNode)) {
+                            throw new IOException("Superclass outside of a class in binary dependency graph");
+                        }
+                        ((ClassNode) node).addParent(parent);
+                        break;
+                    }
+
+                    default:
+                        throw new IOException("Invalid record " + tag + " in binary dependency graph");
+                }
+
+                tag = in.get();
+            }
+
+            Logger.getLogger(getClass()).debug("Loaded " + nodes.size() + " nodes");
+
+            if (currentClass != null) {
+                fireEndClass(listeners, currentClass.getName());
+            }
+
+            fireEndSession(listeners);
+        } catch (BufferUnderflowException ex) {
+            throw new IOException("Binary dependency graph is truncated");
+        }
+
+        return factory;
+    }
+
+    public NodeFactory getFactory() {
+        return factory;
+    }
+
+    private String readName(ByteBuffer in, byte[] scratch) throws IOException {
+        int length = in.getInt();
+        if (length < 0 || length > in.remaining()) {
+            throw new IOException("Invalid name length " + length + " in binary dependency graph");
+        }
+
+        String result;
+        if (in.hasArray()) {
+            result = new String(in.array(), in.arrayOffset() + in.position(), length, ENCODING);
+            in.position(in.position() + length);
+        } else {
+            byte[] bytes = length <= scratch.length ? scratch : new byte[length];
+            in.get(bytes, 0, length);
+            result = new String(bytes, 0, length, ENCODING);
+        }
+
+        return result;
+    }
+
+    private <T extends Node> T getNode(List<Node> nodes, int id, Class<T> type) throws IOException {
+        if (id < 0 || id >= nodes.size() || !type.isInstance(nodes.get(id))) {
+            throw new IOException("Invalid node id " + id + " in binary dependency graph");
+        }
+
+        return type.cast(nodes.get(id));
+    }
+
+    public void addDependencyListener(DependencyListener listener) {
+        synchronized(dependencyListeners) {
+            dependencyListeners.add(listener);
+        }
+    }
+
+    public void removeDependencyListener(DependencyListener listener) {
+        synchronized(dependencyListeners) {
+            dependencyListeners.remove(listener);
+        }
+    }
+
+    protected void fireBeginSession(Collection<DependencyListener> listeners) {
+        DependencyEvent event = new DependencyEvent(this);
+
+        for (DependencyListener listener : listeners) {
+            listener.beginSession(event);
+        }
+    }
+
+    protected void fireBeginClass(Collection<DependencyListener> listeners, String classname) {
+        if (!listeners.isEmpty()) {
+            DependencyEvent event = new DependencyEvent(this, classname);
+
+            for (DependencyListener listener : listeners) {
+                listener.beginClass(event);
+            }
+        }
+    }
+
+    protected void fireDependency(Collection<DependencyListener> listeners, Node dependent, Node dependable) {
+        if (!listeners.isEmpty()) {
+            DependencyEvent event = new DependencyEvent(this, dependent, dependable);
+
+            for (DependencyListener listener : listeners) {
+                listener.dependency(event);
+            }
+        }
+    }
+
+    protected void fireEndClass(Collection<DependencyListener> listeners, String classname) {
+        if (!listeners.isEmpty()) {
+            DependencyEvent event = new DependencyEvent(this, classname);
+
+            for (DependencyListener listener : listeners) {
+                listener.endClass(event);
+            }
+        }
+    }
+
+    protected void fireEndSession(Collection<DependencyListener> listeners) {
+        DependencyEvent event = new DependencyEvent(this);
+
+        for (DependencyListener listener : listeners) {
+            listener.endSession(event);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ *  <p>Saves a dependency graph in a compact binary format that
+ *  {@link BinaryGraphLoader} can read back much faster than
+ *  {@link NodeLoader} can parse the equivalent XML.  Like the printers,
+ *  it writes the nodes its {@link TraversalStrategy} lets it visit;
+ *  the default strategy visits the whole graph in sorted order.  Each
+ *  top-level call to {@link #traverseNodes} writes one graph.  Call
+ *  {@link #flush} when done to push the bytes out and report any
+ *  error.</p>
+ *
+ *  <p>The writer streams records as it traverses the graph, so it
+ *  only keeps the id of each node it has written, never a copy of the
+ *  graph.  All numbers are big-endian 32-bit integers.  A graph starts
+ *  with a header:</p>
+ *
+ *  <pre>
+ *  magic ("DFGR"), version
+ *  </pre>
+ *
+ *  <p>followed by records, each one starting with a one-byte tag.  A
+ *  node is defined the first time it is needed, after its container.
+ *  Its id is its position among the node definitions.</p>
+ *
+ *  <pre>
+ *  PACKAGE:    name length, name in UTF-8, confirmed (one byte, 0 or 1)
+ *  CLASS:      name length, name in UTF-8, confirmed, package id
+ *  FEATURE:    name length, name in UTF-8, confirmed, class id
+ *  NODE:       node id
+ *  DEPENDENCY: target id
+ *  PARENT:     superclass id
+ *  END
+ *  </pre>
+ *
+ *  <p>There is a <code>NODE</code> record for each visited node, in
+ *  traversal order, so a class's features come right after it.  The
+ *  <code>DEPENDENCY</code> and <code>PARENT</code> records that follow
+ *  belong to that node.  Inbound dependencies are not stored; they are
+ *  rebuilt from the outbound ones.</p>
+ */
+public class BinaryGraphWriter extends VisitorBase {
+    public static final String FILE_EXTENSION = ".dfg";
+
+    static final int MAGIC = 0x44464752;
+    static final int VERSION = 3;
+
+    static final byte END = 0;
+    static final byte PACKAGE = 1;
+    static final byte CLASS = 2;
+    static final byte FEATURE = 3;
+    static final byte NODE = 4;
+    static final byte DEPENDENCY = 5;
+    static final byte PARENT = 6;
+
+    private static final String ENCODING = "UTF-8";
+
+    private DataOutputStream out;
+    private IOException error = null;
+
+    private boolean atTopLevel = false;
+
+    private Map<Node, Integer> ids = new IdentityHashMap<Node, Integer>();
+
+    public BinaryGraphWriter(OutputStream out) {
+        this(new SortedTraversalStrategy(new ComprehensiveTraversalStrategy()), out);
+    }
+
+    public BinaryGraphWriter(TraversalStrategy strategy, OutputStream out) {
+        super(strategy);
+
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+    }
+
+    public void traverseNodes(Collection<? extends Node> nodes) {
+        if (atTopLevel) {
+            super.traverseNodes(nodes);
+        } else {
+            atTopLevel = true;
+            try {
+                writeHeader();
+                super.traverseNodes(nodes);
+                writeTag(END);
+            } finally {
+                atTopLevel = false;
+                ids.clear();
+            }
+        }
+    }
+
+    /**
+     *  Flushes the underlying stream and throws the first error that
+     *  happened while writing, if any.
+     */
+    public void flush() throws IOException {
+        out.flush();
+
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    protected void preprocessPackageNode(PackageNode node) {
+        super.preprocessPackageNode(node);
+
+        writeReference(NODE, node);
+    }
+
+    public void visitOutboundPackageNode(PackageNode node) {
+        if (getStrategy().isInFilter(node)) {
+            writeReference(DEPENDENCY, node);
+        }
+    }
+
+    protected void preprocessClassNode(ClassNode node) {
+        super.preprocessClassNode(node);
+
+        writeReference(NODE, node);
+        for (ClassNode parent : node.getParents()) {
+            writeReference(PARENT, parent);
+        }
+    }
+
+    public void visitOutboundClassNode(ClassNode node) {
+        if (getStrategy().isInFilter(node)) {
+            writeReference(DEPENDENCY, node);
+        }
+    }
+
+    protected void preprocessFeatureNode(FeatureNode node) {
+        super.preprocessFeatureNode(node);
+
+        writeReference(NODE, node);
+    }
+
+    public void visitOutboundFeatureNode(FeatureNode node) {
+        if (getStrategy().isInFilter(node)) {
+            writeReference(DEPENDENCY, node);
+        }
+    }
+
+    private void writeHeader() {
+        if (error == null) {
+            try {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+            } catch (IOException ex) {
+                error = ex;
+            }
+        }
+    }
+
+    private void writeTag(byte tag) {
+        if (error == null) {
+            try {
+                out.writeByte(tag);
+            } catch (IOException ex) {
+                error = ex;
+            }
+        }
+    }
+
+    /**
+     *  Writes a record that refers to a node, after defining the node
+     *  if it has not been written yet.
+     */
+    private void writeReference(byte tag, Node node) {
+        int id = define(node);
+
+        if (error == null) {
+            try {
+                out.writeByte(tag);
+                out.writeInt(id);
+            } catch (IOException ex) {
+                error = ex;
+            }
+        }
+    }
+
+    private int define(Node node) {
+        Integer result = ids.get(node);
+
+        if (result == null) {
+            if (node instanceof PackageNode) {
+                writeDefinition(PACKAGE, node, -1);
+            } else if (node instanceof ClassNode) {
+                writeDefinition(CLASS, node, define(((ClassNode) node).getPackageNode()));
+            } else {
+                writeDefinition(FEATURE, node, define(((FeatureNode) node).getClassNode()));
+            }
+
+            result = ids.size();
+            ids.put(node, result);
+        }
+
+        return result;
+    }
+
+    private void writeDefinition(byte tag, Node node, int parentId) {
+        if (error == null) {
+            try {
+                byte[] name = node.getName().getBytes(ENCODING);
+                out.writeByte(tag);
+                out.writeInt(name.length);
+                out.write(name);
+                out.writeByte(node.isConfirmed() ? 1 : 0);
+                if (tag != PACKAGE) {
+                    out.writeInt(parentId);
+                }
+            } catch (IOException ex) {
+                error = ex;
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.util.*;
+
+import com.jeantessier.classreader.*;
+
+/**
+ *  <p>The nodes and dependencies that {@link CodeDependencyCollector}
+ *  extracts from a single classfile, in a form that
+ *  {@link ExtractionCache} can save and that
+ *  {@link CodeDependencyCollector#visitCachedClass(CachedClass)} can
+ *  replay into another graph.</p>
+ *
+ *  <p>The dependencies are recorded without any filtering, so that the
+ *  same cache can serve extractions with different filters.  The
+ *  filter is applied when the class is replayed.</p>
+ *
+ *  <p>Each dependency is recorded every time the collector reports
+ *  it, and in the same order, so that replaying the class fires the
+ *  same {@link DependencyEvent}s as parsing it.</p>
+ */
+class CachedClass {
+    /**
+     *  Dependent index for dependencies that start at the class itself
+     *  rather than at one of its features.
+     */
+    static final int CLASS_INDEX = -1;
+
+    static final byte PACKAGE_KIND = 'P';
+    static final byte CLASS_KIND = 'C';
+    static final byte FEATURE_KIND = 'F';
+
+    private String className;
+    private List<String> parentNames = new ArrayList<String>();
+    private List<String> featureNames = new ArrayList<String>();
+    private List<Dependency> dependencies = new ArrayList<Dependency>();
+
+    CachedClass(String className) {
+        this.className = className;
+    }
+
+    /**
+     *  Extracts the dependencies of a classfile into a scratch graph
+     *  and records them.
+     */
+    static CachedClass extract(Classfile classfile) {
+        NodeFactory factory = new NodeFactory();
+        CodeDependencyCollector collector = new CodeDependencyCollector(factory);
+        DependencyRecorder recorder = new DependencyRecorder();
+        collector.addDependencyListener(recorder);
+        classfile.accept(collector);
+
+        ClassNode classNode = factory.createClass(classfile.getClassName());
+        CachedClass result = new CachedClass(classNode.getName());
+
+        for (ClassNode parent : classNode.getParents()) {
+            result.addParentName(parent.getName());
+        }
+
+        Map<Node, Integer> featureIndices = new HashMap<Node, Integer>();
+        for (FeatureNode feature : classNode.getFeatures()) {
+            if (feature.isConfirmed()) {
+                featureIndices.put(feature, result.getFeatureNames().size());
+                result.addFeatureName(feature.getName());
+            }
+        }
+
+        for (DependencyEvent event : recorder.getEvents()) {
+            Node dependent = event.getDependent();
+            Node dependable = event.getDependable();
+            int dependentIndex = (dependent == classNode) ? CLASS_INDEX : featureIndices.get(dependent);
+            result.addDependency(dependentIndex, getKind(dependable), dependable.getName());
+        }
+
+        return result;
+    }
+
+    private static byte getKind(Node node) {
+        byte result;
+
+        if (node instanceof FeatureNode) {
+            result = FEATURE_KIND;
+        } else if (node instanceof ClassNode) {
+            result = CLASS_KIND;
+        } else {
+            result = PACKAGE_KIND;
+        }
+
+        return result;
+    }
+
+    String getClassName() {
+        return className;
+    }
+
+    List<String> getParentNames() {
+        return parentNames;
+    }
+
+    void addParentName(String parentName) {
+        parentNames.add(parentName);
+    }
+
+    List<String> getFeatureNames() {
+        return featureNames;
+    }
+
+    void addFeatureName(String featureName) {
+        featureNames.add(featureName);
+    }
+
+    List<Dependency> getDependencies() {
+        return dependencies;
+    }
+
+    void addDependency(int dependentIndex, byte dependableKind, String dependableName) {
+        dependencies.add(new Dependency(dependentIndex, dependableKind, dependableName));
+    }
+
+    private static class DependencyRecorder implements DependencyListener {
+        private List<DependencyEvent> events = new ArrayList<DependencyEvent>();
+
+        public List<DependencyEvent> getEvents() {
+            return events;
+        }
+
+        public void beginSession(DependencyEvent event) {
+            // Do nothing
+        }
+
+        public void beginClass(DependencyEvent event) {
+            // Do nothing
+        }
+
+        public void dependency(DependencyEvent event) {
+            events.add(event);
+        }
+
+        public void endClass(DependencyEvent event) {
+            // Do nothing
+        }
+
+        public void endSession(DependencyEvent event) {
+            // Do nothing
+        }
+    }
+
+    static class Dependency {
+        private int dependentIndex;
+        private byte dependableKind;
+        private String dependableName;
+
+        Dependency(int dependentIndex, byte dependableKind, String dependableName) {
+            this.dependentIndex = dependentIndex;
+            this.dependableKind = dependableKind;
+            this.dependableName = dependableName;
+        }
+
+        /**
+         *  @return {@link CachedClass#CLASS_INDEX} or the position of
+         *          the dependent feature in
+         *          {@link CachedClass#getFeatureNames()}.
+         */
+        int getDependentIndex() {
+            return dependentIndex;
+        }
+
+        byte getDependableKind() {
+            return dependableKind;
+        }
+
+        String getDependableName() {
+            return dependableName;
+        }
+    }
+}
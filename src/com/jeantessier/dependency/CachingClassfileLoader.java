@@ -0,0 +1,108 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.io.*;
+
+import org.apache.log4j.*;
+
+import com.jeantessier.classreader.*;
+
+/**
+ *  <p>Loads classfiles and feeds their dependencies to a
+ *  {@link CodeDependencyCollector}, going through an
+ *  {@link ExtractionCache}.  Each classfile is hashed; if the cache
+ *  already has an entry for it, its dependencies are replayed into the
+ *  collector's graph without parsing the classfile at all.  Otherwise,
+ *  the classfile is parsed, its dependencies are recorded in the
+ *  cache, and then replayed into the graph.</p>
+ *
+ *  <p>The collector does the work itself and must not also be added
+ *  as a {@link LoadListener}.  Other listeners are notified as with
+ *  {@link TransientClassfileLoader}, except that the
+ *  <code>endClassfile</code> event for a classfile found in the cache
+ *  has no {@link Classfile}, only its class name, since the classfile
+ *  is never parsed.</p>
+ */
+public class CachingClassfileLoader extends TransientClassfileLoader {
+    private static final Logger LOGGER = Logger.getLogger(CachingClassfileLoader.class);
+
+    private CodeDependencyCollector collector;
+    private ExtractionCache cache;
+
+    public CachingClassfileLoader(CodeDependencyCollector collector, ExtractionCache cache) {
+        this(collector, cache, DEFAULT_DISPATCHER);
+    }
+
+    public CachingClassfileLoader(CodeDependencyCollector collector, ExtractionCache cache, ClassfileLoaderDispatcher dispatcher) {
+        super(dispatcher);
+
+        this.collector = collector;
+        this.cache = cache;
+    }
+
+    public CodeDependencyCollector getCollector() {
+        return collector;
+    }
+
+    public ExtractionCache getCache() {
+        return cache;
+    }
+
+    protected void loadClassfile(String filename, InputStream in) {
+        try {
+            fireBeginClassfile(filename);
+
+            byte[] bytes = ClassfileContentHelper.readBytes(in);
+            String key = ClassfileContentHelper.computeDigest(bytes);
+
+            Classfile classfile = null;
+            CachedClass cachedClass = getCache().get(key);
+            if (cachedClass != null) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Replaying \"" + filename + "\" from the extraction cache");
+                }
+            } else {
+                classfile = load(new DataInputStream(new ByteArrayInputStream(bytes)));
+                cachedClass = CachedClass.extract(classfile);
+                getCache().put(key, cachedClass);
+            }
+
+            getCollector().visitCachedClass(cachedClass);
+            fireEndClassfile(filename, classfile, cachedClass.getClassName());
+        } catch (IOException ex) {
+            LOGGER.warn("Cannot load class from file \"" + filename + "\"", ex);
+        }
+    }
+}
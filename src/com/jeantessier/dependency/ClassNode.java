@@ -36,14 +36,24 @@ import java.util.*;
 
 public class ClassNode extends Node {
     private PackageNode packageNode;
-    private Collection<FeatureNode> features = new HashSet<FeatureNode>();
+    private Collection<FeatureNode> features;
 
-    private Collection<ClassNode> parents = new HashSet<ClassNode>();
-    private Collection<ClassNode> children = new HashSet<ClassNode>();
+    private Collection<ClassNode> parents;
+    private Collection<ClassNode> children;
 
     public ClassNode(PackageNode packageNode, String name, boolean concrete) {
-        super(name, concrete);
+        this(packageNode, name, concrete, true);
+    }
+
+    ClassNode(PackageNode packageNode, String name, boolean concrete, boolean withCollections) {
+        super(name, concrete, withCollections);
         this.packageNode = packageNode;
+
+        if (withCollections) {
+            features = new HashSet<FeatureNode>();
+            parents = new HashSet<ClassNode>();
+            children = new HashSet<ClassNode>();
+        }
     }
 
     public String getSimpleName() {
@@ -51,9 +61,11 @@ public class ClassNode extends Node {
     }
 
     // Only to be used by NodeFactory and DeletingVisitor
-    void setConfirmed(boolean confirmed) {
+    // Locks this class, then its package, so that FeatureNode and
+    // PackageNode never see a half-propagated state.
+    synchronized void setConfirmed(boolean confirmed) {
         if (!confirmed) {
-            for (FeatureNode featureNode : getFeatures()) {
+            for (FeatureNode featureNode : snapshotFeatures()) {
                 featureNode.setConfirmed(false);
             }
         }
@@ -67,11 +79,21 @@ public class ClassNode extends Node {
     }
 
     public void addFeature(FeatureNode node) {
-        features.add(node);
+        synchronized (features) {
+            features.add(node);
+        }
     }
 
     public void removeFeature(FeatureNode node) {
-        features.remove(node);
+        synchronized (features) {
+            features.remove(node);
+        }
+    }
+
+    private Collection<FeatureNode> snapshotFeatures() {
+        synchronized (features) {
+            return new ArrayList<FeatureNode>(features);
+        }
     }
 
     public Collection<FeatureNode> getFeatures() {
@@ -82,6 +104,10 @@ public class ClassNode extends Node {
         return super.canAddDependencyTo(node) && getPackageNode().canAddDependencyTo(node);
     }
 
+    Class<? extends Node> getKind() {
+        return ClassNode.class;
+    }
+
     public void accept(Visitor visitor) {
         visitor.visitClassNode(this);
     }
@@ -95,8 +121,12 @@ public class ClassNode extends Node {
     }
 
     public void addParent(ClassNode parentClass) {
-        parents.add(parentClass);
-        parentClass.children.add(this);
+        synchronized (parents) {
+            parents.add(parentClass);
+        }
+        synchronized (parentClass.children) {
+            parentClass.children.add(this);
+        }
     }
 
     public Collection<ClassNode> getParents() {
@@ -109,6 +109,63 @@ public class CodeDependencyCollector extends CollectorBase {
         fireEndClass(classfile.getClassName());
     }
 
+    /**
+     *  Adds the nodes and dependencies recorded in an
+     *  {@link ExtractionCache} as if the classfile had been visited,
+     *  applying this collector's filter, and fires the same events.
+     */
+    void visitCachedClass(CachedClass cachedClass) {
+        ClassNode currentClass = getFactory().createClass(cachedClass.getClassName(), true);
+
+        fireBeginClass(cachedClass.getClassName());
+
+        for (String parentName : cachedClass.getParentNames()) {
+            currentClass.addParent(getFactory().createClass(parentName));
+        }
+
+        List<Node> features = new ArrayList<Node>(cachedClass.getFeatureNames().size());
+        for (String featureName : cachedClass.getFeatureNames()) {
+            features.add(getFactory().createFeature(featureName, true));
+        }
+
+        for (CachedClass.Dependency dependency : cachedClass.getDependencies()) {
+            Node dependent = (dependency.getDependentIndex() == CachedClass.CLASS_INDEX) ? currentClass : features.get(dependency.getDependentIndex());
+            Node dependable = createDependable(dependency.getDependableKind(), dependency.getDependableName());
+            if (dependable != null) {
+                dependent.addDependency(dependable);
+                fireDependency(dependent, dependable);
+            }
+        }
+
+        fireEndClass(cachedClass.getClassName());
+    }
+
+    private Node createDependable(byte kind, String name) {
+        Node result = null;
+
+        switch (kind) {
+            case CachedClass.FEATURE_KIND:
+                if (filterCriteria.isMatchingFeatures() && filterCriteria.matchesFeatureName(name)) {
+                    result = getFactory().createFeature(name);
+                }
+                break;
+
+            case CachedClass.CLASS_KIND:
+                if (filterCriteria.isMatchingClasses() && filterCriteria.matchesClassName(name)) {
+                    result = getFactory().createClass(name);
+                }
+                break;
+
+            case CachedClass.PACKAGE_KIND:
+                if (filterCriteria.isMatchingPackages() && filterCriteria.matchesPackageName(name)) {
+                    result = getFactory().createPackage(name);
+                }
+                break;
+        }
+
+        return result;
+    }
+
     protected void visitClassfileAttributes(Classfile classfile) {
         setCurrent(getFactory().createClass(classfile.getClassName()));
         super.visitClassfileAttributes(classfile);
@@ -229,6 +286,10 @@ public class CodeDependencyCollector extends CollectorBase {
         super.visitMethod_info(entry);
     }
 
+    protected void visitInstructions(Code_attribute attribute) {
+        visitInstructionsWithCursor(attribute);
+    }
+
     public void visitInstruction(Instruction helper) {
         Logger.getLogger(getClass()).debug("VisitInstruction() ...");
 
@@ -237,22 +298,11 @@ public class CodeDependencyCollector extends CollectorBase {
          *  followed by a call to the constructor method.
          */
 
-        switch (helper.getOpcode()) {
-            case 0x12: // ldc
-            case 0x13: // ldc_w
-            case 0xb2: // getstatic
-            case 0xb3: // putstatic
-            case 0xb4: // getfield
-            case 0xb5: // putfield
-            case 0xb6: // invokevirtual
-            case 0xb7: // invokespecial
-            case 0xb8: // invokestatic
-            case 0xb9: // invokeinterface
-            // case 0xbb: // new
-            case 0xbd: // anewarray
-            case 0xc0: // checkcast
-            case 0xc1: // instanceof
-            case 0xc5: // multianewarray
+        switch (InstructionCategory.forOpcode(helper.getOpcode())) {
+            case CONSTANT_POOL_LOAD:
+            case FIELD_ACCESS:
+            case METHOD_INVOCATION:
+            case TYPE_REFERENCE:
                 helper.getIndexedConstantPoolEntry().accept(this);
                 break;
             default:
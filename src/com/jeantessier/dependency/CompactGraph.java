@@ -0,0 +1,649 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ *  <p>A read-only dependency graph that keeps its nodes and
+ *  dependencies in flat arrays instead of one object per node and
+ *  one hash set per list of dependencies.  Use
+ *  {@link CompactGraphBuilder} to create one.</p>
+ *
+ *  <p>Each node name is stored once.  Dependencies, containment, and
+ *  inheritance are stored as sorted arrays of ids in compressed
+ *  sparse row form: the neighbors of node <i>i</i> are
+ *  <code>targets[offsets[i]]</code> through
+ *  <code>targets[offsets[i + 1] - 1]</code>.</p>
+ *
+ *  <p>{@link #getPackages()}, {@link #getClasses()}, and
+ *  {@link #getFeatures()} present the graph as read-only
+ *  {@link PackageNode}, {@link ClassNode}, and {@link FeatureNode}
+ *  views that read the arrays in place, so the regular printers and
+ *  traversals run on it directly.  A view is only created when it is
+ *  first reached and is then reused, and it equals the regular node
+ *  with the same name.</p>
+ */
+public class CompactGraph implements DependencyGraph {
+    private String[] names;
+    private int nbPackages;
+    private int nbClasses;
+
+    private BitSet confirmed;
+    private int[] containers;
+
+    private Adjacency contents;
+    private Adjacency outbound;
+    private Adjacency inbound;
+
+    // Only classes have parents and children, so these two are
+    // indexed by id - nbPackages.
+    private Adjacency parents;
+    private Adjacency children;
+
+    private AtomicReferenceArray<Node> views;
+
+    CompactGraph(String[] names, int nbPackages, int nbClasses, BitSet confirmed, int[] containers, Adjacency outbound, Adjacency parents) {
+        this.names = names;
+        this.nbPackages = nbPackages;
+        this.nbClasses = nbClasses;
+        this.confirmed = confirmed;
+        this.containers = containers;
+        this.outbound = outbound;
+        this.parents = parents;
+
+        inbound = outbound.transpose(getNbNodes());
+        children = parents.transpose(nbClasses);
+
+        int[] counts = new int[getNbNodes()];
+        for (int id = 0; id < getNbNodes(); id++) {
+            if (containers[id] != NO_NODE) {
+                counts[containers[id]]++;
+            }
+        }
+        contents = new Adjacency(counts);
+        for (int id = 0; id < getNbNodes(); id++) {
+            if (containers[id] != NO_NODE) {
+                contents.add(containers[id], id);
+            }
+        }
+
+        views = new AtomicReferenceArray<Node>(getNbNodes());
+    }
+
+    public int getNbNodes() {
+        return names.length;
+    }
+
+    public int getNbPackages() {
+        return nbPackages;
+    }
+
+    public int getNbClasses() {
+        return nbClasses;
+    }
+
+    public int getNbFeatures() {
+        return getNbNodes() - nbPackages - nbClasses;
+    }
+
+    public int getNbDependencies() {
+        return outbound.size();
+    }
+
+    public boolean isPackage(int node) {
+        return node >= 0 && node < nbPackages;
+    }
+
+    public boolean isClass(int node) {
+        return node >= nbPackages && node < nbPackages + nbClasses;
+    }
+
+    public boolean isFeature(int node) {
+        return node >= nbPackages + nbClasses && node < getNbNodes();
+    }
+
+    public int findPackage(String name) {
+        return find(0, nbPackages, name);
+    }
+
+    public int findClass(String name) {
+        return find(nbPackages, nbPackages + nbClasses, name);
+    }
+
+    public int findFeature(String name) {
+        return find(nbPackages + nbClasses, getNbNodes(), name);
+    }
+
+    private int find(int from, int to, String name) {
+        int result = Arrays.binarySearch(names, from, to, name);
+        return (result >= 0) ? result : NO_NODE;
+    }
+
+    public String getName(int node) {
+        return names[node];
+    }
+
+    public boolean isConfirmed(int node) {
+        return confirmed.get(node);
+    }
+
+    public int getContainer(int node) {
+        return containers[node];
+    }
+
+    public int[] getContents(int node) {
+        return contents.get(node, 0);
+    }
+
+    public int[] getOutboundDependencies(int node) {
+        return outbound.get(node, 0);
+    }
+
+    public int[] getInboundDependencies(int node) {
+        return inbound.get(node, 0);
+    }
+
+    public int[] getParents(int node) {
+        return isClass(node) ? parents.get(node - nbPackages, nbPackages) : new int[0];
+    }
+
+    public int[] getChildren(int node) {
+        return isClass(node) ? children.get(node - nbPackages, nbPackages) : new int[0];
+    }
+
+    public Map<String, PackageNode> getPackages() {
+        return new NodeMap<PackageNode>(0, nbPackages, PackageNode.class);
+    }
+
+    public Map<String, ClassNode> getClasses() {
+        return new NodeMap<ClassNode>(nbPackages, nbPackages + nbClasses, ClassNode.class);
+    }
+
+    public Map<String, FeatureNode> getFeatures() {
+        return new NodeMap<FeatureNode>(nbPackages + nbClasses, getNbNodes(), FeatureNode.class);
+    }
+
+    /**
+     *  Returns the read-only view for a node id.  The view throws
+     *  {@link UnsupportedOperationException} if anything tries to
+     *  change it.
+     */
+    public Node getNode(int node) {
+        Node result = views.get(node);
+
+        if (result == null) {
+            if (isPackage(node)) {
+                result = new PackageView(this, node);
+            } else if (isClass(node)) {
+                result = new ClassView(this, node);
+            } else {
+                result = new FeatureView(this, node);
+            }
+
+            if (!views.compareAndSet(node, null, result)) {
+                result = views.get(node);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     *  Recreates the graph as regular, modifiable nodes, for tools
+     *  that change the graph they work on.  This uses as much memory
+     *  as the graph that was compacted in the first place; tools that
+     *  only read the graph should use the views from
+     *  {@link #getPackages()} instead.
+     */
+    public NodeFactory toNodeFactory() {
+        NodeFactory result = new NodeFactory();
+
+        Node[] nodes = new Node[getNbNodes()];
+        for (int id = 0; id < getNbNodes(); id++) {
+            if (isPackage(id)) {
+                nodes[id] = result.createPackage(names[id], isConfirmed(id));
+            } else if (isClass(id)) {
+                nodes[id] = result.createClass((PackageNode) nodes[containers[id]], names[id], isConfirmed(id));
+            } else {
+                nodes[id] = result.createFeature((ClassNode) nodes[containers[id]], names[id], isConfirmed(id));
+            }
+        }
+
+        for (int id = 0; id < getNbNodes(); id++) {
+            for (int dependency : getOutboundDependencies(id)) {
+                nodes[id].addDependency(nodes[dependency]);
+            }
+            for (int parent : getParents(id)) {
+                ((ClassNode) nodes[id]).addParent((ClassNode) nodes[parent]);
+            }
+        }
+
+        return result;
+    }
+
+    private <T extends Node> Collection<T> getNodes(Adjacency adjacency, int source, int offset, Class<T> type) {
+        return new NodeCollection<T>(adjacency.targets, adjacency.offsets[source], adjacency.offsets[source + 1], offset, type);
+    }
+
+    private <T extends Node> Collection<T> getContentNodes(int node, Class<T> type) {
+        return getNodes(contents, node, 0, type);
+    }
+
+    private Collection<Node> getOutboundNodes(int node) {
+        return getNodes(outbound, node, 0, Node.class);
+    }
+
+    private Collection<Node> getInboundNodes(int node) {
+        return getNodes(inbound, node, 0, Node.class);
+    }
+
+    private Collection<ClassNode> getParentNodes(int node) {
+        return getNodes(parents, node - nbPackages, nbPackages, ClassNode.class);
+    }
+
+    private Collection<ClassNode> getChildNodes(int node) {
+        return getNodes(children, node - nbPackages, nbPackages, ClassNode.class);
+    }
+
+    /**
+     *  The views of a range of ids, either consecutive ids when
+     *  <code>ids</code> is <code>null</code> or a row of an
+     *  {@link Adjacency}, with <code>offset</code> added to each id.
+     */
+    private class NodeCollection<T extends Node> extends AbstractCollection<T> {
+        private int[] ids;
+        private int from;
+        private int to;
+        private int offset;
+        private Class<T> type;
+
+        public NodeCollection(int[] ids, int from, int to, int offset, Class<T> type) {
+            this.ids = ids;
+            this.from = from;
+            this.to = to;
+            this.offset = offset;
+            this.type = type;
+        }
+
+        public int size() {
+            return to - from;
+        }
+
+        public Iterator<T> iterator() {
+            return new Iterator<T>() {
+                private int i = from;
+
+                public boolean hasNext() {
+                    return i < to;
+                }
+
+                public T next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+
+                    int id = (ids == null) ? i : ids[i];
+                    i++;
+
+                    return type.cast(getNode(id + offset));
+                }
+
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+    }
+
+    /**
+     *  The views of one kind of node, by name.
+     */
+    private class NodeMap<T extends Node> extends AbstractMap<String, T> {
+        private int from;
+        private int to;
+        private Class<T> type;
+
+        public NodeMap(int from, int to, Class<T> type) {
+            this.from = from;
+            this.to = to;
+            this.type = type;
+        }
+
+        public int size() {
+            return to - from;
+        }
+
+        public boolean containsKey(Object key) {
+            return key instanceof String && find(from, to, (String) key) != NO_NODE;
+        }
+
+        public T get(Object key) {
+            T result = null;
+
+            if (key instanceof String) {
+                int id = find(from, to, (String) key);
+                if (id != NO_NODE) {
+                    result = type.cast(getNode(id));
+                }
+            }
+
+            return result;
+        }
+
+        public Set<String> keySet() {
+            return new AbstractSet<String>() {
+                public int size() {
+                    return to - from;
+                }
+
+                public boolean contains(Object key) {
+                    return containsKey(key);
+                }
+
+                public Iterator<String> iterator() {
+                    return Arrays.asList(names).subList(from, to).iterator();
+                }
+            };
+        }
+
+        public Collection<T> values() {
+            return new NodeCollection<T>(null, from, to, 0, type);
+        }
+
+        public Set<Map.Entry<String, T>> entrySet() {
+            return new AbstractSet<Map.Entry<String, T>>() {
+                public int size() {
+                    return to - from;
+                }
+
+                public Iterator<Map.Entry<String, T>> iterator() {
+                    final Iterator<T> i = values().iterator();
+
+                    return new Iterator<Map.Entry<String, T>>() {
+                        public boolean hasNext() {
+                            return i.hasNext();
+                        }
+
+                        public Map.Entry<String, T> next() {
+                            T node = i.next();
+                            return new AbstractMap.SimpleImmutableEntry<String, T>(node.getName(), node);
+                        }
+
+                        public void remove() {
+                            throw new UnsupportedOperationException();
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+    private static class PackageView extends PackageNode {
+        private CompactGraph graph;
+        private int id;
+
+        public PackageView(CompactGraph graph, int id) {
+            super(graph.getName(id), graph.isConfirmed(id), false);
+            this.graph = graph;
+            this.id = id;
+        }
+
+        void setConfirmed(boolean confirmed) {
+            throw new UnsupportedOperationException("CompactGraph is read-only");
+        }
+
+        public boolean canAddDependencyTo(Node node) {
+            return false;
+        }
+
+        public void addDependency(Node node) {
+            throw new UnsupportedOperationException("CompactGraph is read-only");
+        }
+
+        public void removeDependency(Node node) {
+            throw new UnsupportedOperationException("CompactGraph is read-only");
+        }
+
+        public Collection<Node> getInboundDependencies() {
+            return graph.getInboundNodes(id);
+        }
+
+        public Collection<Node> getOutboundDependencies() {
+            return graph.getOutboundNodes(id);
+        }
+
+        public void addClass(ClassNode node) {
+            throw new UnsupportedOperationException("CompactGraph is read-only");
+        }
+
+        public void removeClass(ClassNode node) {
+            throw new UnsupportedOperationException("CompactGraph is read-only");
+        }
+
+        public Collection<ClassNode> getClasses() {
+            return graph.getContentNodes(id, ClassNode.class);
+        }
+    }
+
+    private static class ClassView extends ClassNode {
+        private CompactGraph graph;
+        private int id;
+
+        public ClassView(CompactGraph graph, int id) {
+            super(null, graph.getName(id), graph.isConfirmed(id), false);
+            this.graph = graph;
+            this.id = id;
+        }
+
+        void setConfirmed(boolean confirmed) {
+            throw new UnsupportedOperationException("CompactGraph is read-only");
+        }
+
+        public boolean canAddDependencyTo(Node node) {
+            return false;
+        }
+
+        public void addDependency(Node node) {
+            throw new UnsupportedOperationException("CompactGraph is read-only");
+        }
+
+        public void removeDependency(Node node) {
+            throw new UnsupportedOperationException("CompactGraph is read-only");
+        }
+
+        public Collection<Node> getInboundDependencies() {
+            return graph.getInboundNodes(id);
+        }
+
+        public Collection<Node> getOutboundDependencies() {
+            return graph.getOutboundNodes(id);
+        }
+
+        public PackageNode getPackageNode() {
+            return (PackageNode) graph.getNode(graph.getContainer(id));
+        }
+
+        public void addFeature(FeatureNode node) {
+            throw new UnsupportedOperationException("CompactGraph is read-only");
+        }
+
+        public void removeFeature(FeatureNode node) {
+            throw new UnsupportedOperationException("CompactGraph is read-only");
+        }
+
+        public Collection<FeatureNode> getFeatures() {
+            return graph.getContentNodes(id, FeatureNode.class);
+        }
+
+        public void addParent(ClassNode parentClass) {
+            throw new UnsupportedOperationException("CompactGraph is read-only");
+        }
+
+        public Collection<ClassNode> getParents() {
+            return graph.getParentNodes(id);
+        }
+
+        public Collection<ClassNode> getChildren() {
+            return graph.getChildNodes(id);
+        }
+    }
+
+    private static class FeatureView extends FeatureNode {
+        private CompactGraph graph;
+        private int id;
+
+        public FeatureView(CompactGraph graph, int id) {
+            super(null, graph.getName(id), graph.isConfirmed(id), false);
+            this.graph = graph;
+            this.id = id;
+        }
+
+        void setConfirmed(boolean confirmed) {
+            throw new UnsupportedOperationException("CompactGraph is read-only");
+        }
+
+        public boolean canAddDependencyTo(Node node) {
+            return false;
+        }
+
+        public void addDependency(Node node) {
+            throw new UnsupportedOperationException("CompactGraph is read-only");
+        }
+
+        public void removeDependency(Node node) {
+            throw new UnsupportedOperationException("CompactGraph is read-only");
+        }
+
+        public Collection<Node> getInboundDependencies() {
+            return graph.getInboundNodes(id);
+        }
+
+        public Collection<Node> getOutboundDependencies() {
+            return graph.getOutboundNodes(id);
+        }
+
+        public ClassNode getClassNode() {
+            return (ClassNode) graph.getNode(graph.getContainer(id));
+        }
+    }
+
+    /**
+     *  Compressed sparse row storage for one kind of edge.
+     */
+    static class Adjacency {
+        private int[] offsets;
+        private int[] targets;
+        private int[] next;
+
+        public Adjacency(int[] counts) {
+            offsets = new int[counts.length + 1];
+            for (int i = 0; i < counts.length; i++) {
+                offsets[i + 1] = offsets[i] + counts[i];
+            }
+
+            targets = new int[offsets[counts.length]];
+            next = Arrays.copyOf(offsets, counts.length);
+        }
+
+        public void add(int source, int target) {
+            targets[next[source]++] = target;
+        }
+
+        /**
+         *  Sorts each row and drops repeated targets, so that a
+         *  dependency seen twice is only stored once.
+         */
+        public void sort() {
+            int size = 0;
+            for (int i = 0; i < offsets.length - 1; i++) {
+                int from = offsets[i];
+                int to = offsets[i + 1];
+
+                Arrays.sort(targets, from, to);
+
+                offsets[i] = size;
+                for (int j = from; j < to; j++) {
+                    if (j == from || targets[j] != targets[j - 1]) {
+                        targets[size++] = targets[j];
+                    }
+                }
+            }
+            offsets[offsets.length - 1] = size;
+
+            if (size < targets.length) {
+                targets = Arrays.copyOf(targets, size);
+            }
+            next = null;
+        }
+
+        public int size() {
+            return targets.length;
+        }
+
+        public int[] get(int source, int offset) {
+            int[] result = Arrays.copyOfRange(targets, offsets[source], offsets[source + 1]);
+
+            if (offset != 0) {
+                for (int i = 0; i < result.length; i++) {
+                    result[i] += offset;
+                }
+            }
+
+            return result;
+        }
+
+        /**
+         *  Sources are visited in increasing order, so every row of
+         *  the result is sorted without further work.
+         */
+        public Adjacency transpose(int nbTargets) {
+            int[] counts = new int[nbTargets];
+            for (int target : targets) {
+                counts[target]++;
+            }
+
+            Adjacency result = new Adjacency(counts);
+            for (int source = 0; source < offsets.length - 1; source++) {
+                for (int i = offsets[source]; i < offsets[source + 1]; i++) {
+                    result.add(targets[i], source);
+                }
+            }
+            result.next = null;
+
+            return result;
+        }
+    }
+}
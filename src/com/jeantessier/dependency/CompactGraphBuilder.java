@@ -0,0 +1,233 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.util.*;
+
+import com.jeantessier.classreader.*;
+
+/**
+ *  <p>Builds a {@link CompactGraph} one classfile at a time, so that
+ *  the whole graph never has to exist as {@link Node} objects.</p>
+ *
+ *  <p>Register it with a {@link ClassfileLoader}.  As each classfile
+ *  is loaded, a {@link CodeDependencyCollector} extracts its
+ *  dependencies into a scratch {@link NodeFactory} that only holds
+ *  that one class and the nodes it refers to.  The builder then
+ *  records those nodes and dependencies as ids and drops the scratch
+ *  graph.  The names it keeps are the ones {@link NodeFactory} has
+ *  already interned.  Call {@link #getGraph()} once loading is
+ *  done.</p>
+ *
+ *  <p>{@link #add(NodeFactory)} does the same with a graph that has
+ *  already been built, such as one read from XML or one that went
+ *  through {@link LinkMaximizer}.</p>
+ */
+public class CompactGraphBuilder extends LoadAdapter {
+    private SelectionCriteria filterCriteria;
+
+    private Map<String, Integer> packages = new HashMap<String, Integer>();
+    private Map<String, Integer> classes = new HashMap<String, Integer>();
+    private Map<String, Integer> features = new HashMap<String, Integer>();
+
+    private BitSet confirmed = new BitSet();
+    private IntList containers = new IntList();
+
+    private IntList dependents = new IntList();
+    private IntList dependables = new IntList();
+
+    private IntList subclasses = new IntList();
+    private IntList superclasses = new IntList();
+
+    public CompactGraphBuilder() {
+        this(new ComprehensiveSelectionCriteria());
+    }
+
+    public CompactGraphBuilder(SelectionCriteria filterCriteria) {
+        this.filterCriteria = filterCriteria;
+    }
+
+    public void endClassfile(LoadEvent event) {
+        NodeFactory scratch = new NodeFactory();
+        event.getClassfile().accept(new CodeDependencyCollector(scratch, filterCriteria));
+        add(scratch);
+    }
+
+    public void add(NodeFactory factory) {
+        for (PackageNode node : factory.getPackages().values()) {
+            addNode(packages, node.getName(), node.isConfirmed(), DependencyGraph.NO_NODE);
+        }
+        for (ClassNode node : factory.getClasses().values()) {
+            addNode(classes, node.getName(), node.isConfirmed(), packages.get(node.getPackageNode().getName()));
+        }
+        for (FeatureNode node : factory.getFeatures().values()) {
+            addNode(features, node.getName(), node.isConfirmed(), classes.get(node.getClassNode().getName()));
+        }
+
+        for (PackageNode node : factory.getPackages().values()) {
+            addDependencies(packages.get(node.getName()), node);
+        }
+        for (ClassNode node : factory.getClasses().values()) {
+            int id = classes.get(node.getName());
+            addDependencies(id, node);
+            for (ClassNode parent : node.getParents()) {
+                subclasses.add(id);
+                superclasses.add(classes.get(parent.getName()));
+            }
+        }
+        for (FeatureNode node : factory.getFeatures().values()) {
+            addDependencies(features.get(node.getName()), node);
+        }
+    }
+
+    private void addNode(Map<String, Integer> ids, String name, boolean confirmed, int container) {
+        Integer id = ids.get(name);
+
+        if (id == null) {
+            id = containers.size();
+            ids.put(name, id);
+            containers.add(container);
+        }
+
+        if (confirmed) {
+            this.confirmed.set(id);
+        }
+    }
+
+    private void addDependencies(int dependent, Node node) {
+        for (Node dependable : node.getOutboundDependencies()) {
+            dependents.add(dependent);
+            dependables.add(getId(dependable));
+        }
+    }
+
+    private int getId(Node node) {
+        int result;
+
+        if (node instanceof PackageNode) {
+            result = packages.get(node.getName());
+        } else if (node instanceof ClassNode) {
+            result = classes.get(node.getName());
+        } else {
+            result = features.get(node.getName());
+        }
+
+        return result;
+    }
+
+    /**
+     *  Renumbers the nodes by kind and name and packs the
+     *  dependencies into sorted rows.  The builder can keep going
+     *  afterwards; later calls return a graph with everything added
+     *  so far.
+     */
+    public CompactGraph getGraph() {
+        String[] names = new String[containers.size()];
+        int[] newIds = new int[containers.size()];
+
+        int nbPackages = renumber(packages, 0, names, newIds);
+        int nbClasses = renumber(classes, nbPackages, names, newIds);
+        renumber(features, nbPackages + nbClasses, names, newIds);
+
+        BitSet newConfirmed = new BitSet(names.length);
+        int[] newContainers = new int[names.length];
+        for (int id = 0; id < names.length; id++) {
+            newConfirmed.set(newIds[id], confirmed.get(id));
+            newContainers[newIds[id]] = (containers.get(id) == DependencyGraph.NO_NODE) ? DependencyGraph.NO_NODE : newIds[containers.get(id)];
+        }
+
+        int[] counts = new int[names.length];
+        for (int i = 0; i < dependents.size(); i++) {
+            counts[newIds[dependents.get(i)]]++;
+        }
+        CompactGraph.Adjacency outbound = new CompactGraph.Adjacency(counts);
+        for (int i = 0; i < dependents.size(); i++) {
+            outbound.add(newIds[dependents.get(i)], newIds[dependables.get(i)]);
+        }
+        outbound.sort();
+
+        counts = new int[nbClasses];
+        for (int i = 0; i < subclasses.size(); i++) {
+            counts[newIds[subclasses.get(i)] - nbPackages]++;
+        }
+        CompactGraph.Adjacency parents = new CompactGraph.Adjacency(counts);
+        for (int i = 0; i < subclasses.size(); i++) {
+            parents.add(newIds[subclasses.get(i)] - nbPackages, newIds[superclasses.get(i)] - nbPackages);
+        }
+        parents.sort();
+
+        return new CompactGraph(names, nbPackages, nbClasses, newConfirmed, newContainers, outbound, parents);
+    }
+
+    /**
+     *  @return the number of nodes of this kind, which get new ids
+     *          <code>first</code> and up in name order.
+     */
+    private int renumber(Map<String, Integer> ids, int first, String[] names, int[] newIds) {
+        String[] sortedNames = ids.keySet().toArray(new String[ids.size()]);
+        Arrays.sort(sortedNames);
+
+        for (int i = 0; i < sortedNames.length; i++) {
+            names[first + i] = sortedNames[i];
+            newIds[ids.get(sortedNames[i])] = first + i;
+        }
+
+        return sortedNames.length;
+    }
+
+    /**
+     *  A growable array of <code>int</code>, so that edges do not
+     *  cost an <code>Integer</code> each while the graph is being
+     *  built.
+     */
+    private static class IntList {
+        private int[] values = new int[1024];
+        private int size = 0;
+
+        public void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        public int get(int index) {
+            return values[index];
+        }
+
+        public int size() {
+            return size;
+        }
+    }
+}
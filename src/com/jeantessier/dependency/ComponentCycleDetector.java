@@ -0,0 +1,262 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.util.*;
+
+import org.apache.log4j.*;
+
+/**
+ *  <p>Finds cycles in two steps.  It first computes the strongly
+ *  connected components of the graph with {@link ComponentFinder},
+ *  then lists the elementary cycles within each component with
+ *  Johnson's algorithm.  Only components that contain at least one
+ *  start node are searched, and only cycles that go through at least
+ *  one start node are reported.</p>
+ *
+ *  <p>Unlike {@link CycleDetector}, it only follows dependencies
+ *  between nodes of the same kind, so every cycle is either all
+ *  packages, all classes, or all features.  The maximum cycle length
+ *  bounds the search itself, not just which cycles get reported.</p>
+ */
+public class ComponentCycleDetector implements CycleFinder {
+    private SelectionCriteria startCriteria;
+    private int maximumCycleLength = Integer.MAX_VALUE;
+
+    private Collection<Cycle> cycles = new TreeSet<Cycle>(new CycleComparator());
+    private List<List<Node>> components = new ArrayList<List<Node>>();
+    private Set<Node> processedNodes = new HashSet<Node>();
+
+    public ComponentCycleDetector() {
+        this(new ComprehensiveSelectionCriteria());
+    }
+
+    public ComponentCycleDetector(SelectionCriteria startCriteria) {
+        this.startCriteria = startCriteria;
+    }
+
+    public Collection<Cycle> getCycles() {
+        return cycles;
+    }
+
+    /**
+     *  @return the strongly connected components with more than one
+     *          node that contain at least one start node.
+     */
+    public List<List<Node>> getComponents() {
+        return components;
+    }
+
+    public int getMaximumCycleLength() {
+        return maximumCycleLength;
+    }
+
+    public void setMaximumCycleLength(int maximumCycleLength) {
+        this.maximumCycleLength = maximumCycleLength;
+    }
+
+    public void traverseNodes(Collection<? extends Node> nodes) {
+        Set<Node> startNodes = new LinkedHashSet<Node>();
+        collectStartNodes(nodes, startNodes);
+
+        for (List<Node> component : new ComponentFinder().findComponents(startNodes)) {
+            if (component.size() > 1 && !processedNodes.contains(component.get(0)) && !Collections.disjoint(component, startNodes)) {
+                Logger.getLogger(getClass()).debug("Found component " + component);
+
+                processedNodes.addAll(component);
+                components.add(component);
+                findCycles(component, startNodes);
+            }
+        }
+    }
+
+    private void collectStartNodes(Collection<? extends Node> nodes, Set<Node> startNodes) {
+        for (Node node : nodes) {
+            if (node instanceof PackageNode) {
+                PackageNode packageNode = (PackageNode) node;
+                if (startCriteria.matches(packageNode)) {
+                    startNodes.add(packageNode);
+                }
+                collectStartNodes(packageNode.getClasses(), startNodes);
+            } else if (node instanceof ClassNode) {
+                ClassNode classNode = (ClassNode) node;
+                if (startCriteria.matches(classNode)) {
+                    startNodes.add(classNode);
+                }
+                collectStartNodes(classNode.getFeatures(), startNodes);
+            } else if (node instanceof FeatureNode) {
+                FeatureNode featureNode = (FeatureNode) node;
+                if (startCriteria.matches(featureNode)) {
+                    startNodes.add(featureNode);
+                }
+            }
+        }
+    }
+
+    /**
+     *  Johnson's algorithm, restricted to one component.  Nodes are
+     *  taken in order and each one in turn is the smallest node of
+     *  the cycles found from it, so every cycle is found exactly
+     *  once and already starts with its smallest node.
+     */
+    private void findCycles(List<Node> component, Set<Node> startNodes) {
+        Map<Node, Integer> positions = new HashMap<Node, Integer>();
+        int lastStartPosition = -1;
+        for (int i = 0; i < component.size(); i++) {
+            positions.put(component.get(i), i);
+            if (startNodes.contains(component.get(i))) {
+                lastStartPosition = i;
+            }
+        }
+
+        boolean allStartNodes = startNodes.containsAll(component);
+
+        // Past the last start node, no remaining cycle can contain one.
+        for (int i = 0; i <= lastStartPosition; i++) {
+            findCycles(component.get(i), i, positions, allStartNodes ? null : startNodes);
+        }
+    }
+
+    private void findCycles(Node start, int startPosition, Map<Node, Integer> positions, Set<Node> startNodes) {
+        Set<Node> blocked = new HashSet<Node>();
+        Map<Node, Set<Node>> blockedBy = new HashMap<Node, Set<Node>>();
+        LinkedList<Node> path = new LinkedList<Node>();
+        LinkedList<Frame> frames = new LinkedList<Frame>();
+
+        path.addLast(start);
+        blocked.add(start);
+        frames.addLast(new Frame(start, startPosition, positions));
+
+        while (!frames.isEmpty()) {
+            Frame frame = frames.getLast();
+            Node next = frame.nextNeighbor();
+
+            if (next != null) {
+                if (next == start) {
+                    if (path.size() <= getMaximumCycleLength()) {
+                        addCycle(path, startNodes);
+                    }
+                    frame.found = true;
+                } else if (path.size() >= getMaximumCycleLength()) {
+                    // Cut short by the length limit.  Marking the node
+                    // as found keeps it from being blocked, since it
+                    // may still be part of shorter cycles later on.
+                    frame.found = true;
+                } else if (!blocked.contains(next)) {
+                    path.addLast(next);
+                    blocked.add(next);
+                    frames.addLast(new Frame(next, startPosition, positions));
+                }
+            } else {
+                frames.removeLast();
+                path.removeLast();
+
+                if (frame.found) {
+                    unblock(frame.node, blocked, blockedBy);
+                    if (!frames.isEmpty()) {
+                        frames.getLast().found = true;
+                    }
+                } else {
+                    Frame neighbors = new Frame(frame.node, startPosition, positions);
+                    for (Node neighbor = neighbors.nextNeighbor(); neighbor != null; neighbor = neighbors.nextNeighbor()) {
+                        Set<Node> nodes = blockedBy.get(neighbor);
+                        if (nodes == null) {
+                            nodes = new HashSet<Node>();
+                            blockedBy.put(neighbor, nodes);
+                        }
+                        nodes.add(frame.node);
+                    }
+                }
+            }
+        }
+    }
+
+    private void unblock(Node node, Set<Node> blocked, Map<Node, Set<Node>> blockedBy) {
+        LinkedList<Node> nodesToUnblock = new LinkedList<Node>();
+        nodesToUnblock.add(node);
+
+        while (!nodesToUnblock.isEmpty()) {
+            Node current = nodesToUnblock.removeFirst();
+            blocked.remove(current);
+
+            Set<Node> nodes = blockedBy.remove(current);
+            if (nodes != null) {
+                for (Node other : nodes) {
+                    if (blocked.contains(other)) {
+                        nodesToUnblock.addLast(other);
+                    }
+                }
+            }
+        }
+    }
+
+    private void addCycle(List<Node> path, Set<Node> startNodes) {
+        if (startNodes == null || !Collections.disjoint(path, startNodes)) {
+            Cycle cycle = new Cycle(path);
+            cycles.add(cycle);
+            Logger.getLogger(getClass()).debug("Found cycle " + cycle);
+        }
+    }
+
+    /**
+     *  Walks the outbound dependencies of a node that stay within the
+     *  component and do not come before the current start node.
+     */
+    private static class Frame {
+        private Node node;
+        private int startPosition;
+        private Map<Node, Integer> positions;
+        private Iterator<Node> neighbors;
+        private boolean found = false;
+
+        public Frame(Node node, int startPosition, Map<Node, Integer> positions) {
+            this.node = node;
+            this.startPosition = startPosition;
+            this.positions = positions;
+            this.neighbors = node.getOutboundDependencies().iterator();
+        }
+
+        public Node nextNeighbor() {
+            while (neighbors.hasNext()) {
+                Node neighbor = neighbors.next();
+                Integer position = positions.get(neighbor);
+                if (position != null && position >= startPosition) {
+                    return neighbor;
+                }
+            }
+
+            return null;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.util.*;
+
+/**
+ *  Finds the strongly connected components of a dependency graph
+ *  using Tarjan's algorithm.  It only follows dependencies between
+ *  nodes of the same kind: package to package, class to class, and
+ *  feature to feature.
+ *
+ *  <p>The search is iterative, so it can handle very deep graphs,
+ *  and runs in time linear to the number of nodes and dependencies
+ *  reachable from the start nodes.</p>
+ */
+public class ComponentFinder {
+    /**
+     *  Returns every strongly connected component reachable from
+     *  <code>startNodes</code>, including components with a single
+     *  node.  Components come in reverse topological order: a
+     *  component always appears before the components that depend on
+     *  it.
+     */
+    public List<List<Node>> findComponents(Collection<? extends Node> startNodes) {
+        return findComponents(startNodes, null);
+    }
+
+    /**
+     *  Same as {@link #findComponents(Collection)}, but follows the
+     *  dependencies in <code>dependencies</code> instead of the
+     *  outbound dependencies of the nodes themselves.  Nodes that are
+     *  not keys in the map have no dependencies.
+     */
+    public List<List<Node>> findComponents(Collection<? extends Node> startNodes, Map<? extends Node, ? extends Collection<? extends Node>> dependencies) {
+        List<List<Node>> result = new ArrayList<List<Node>>();
+
+        Map<Node, Integer> indices = new HashMap<Node, Integer>();
+        Map<Node, Integer> lowLinks = new HashMap<Node, Integer>();
+        LinkedList<Node> stack = new LinkedList<Node>();
+        Set<Node> onStack = new HashSet<Node>();
+        LinkedList<Frame> callStack = new LinkedList<Frame>();
+
+        for (Node startNode : startNodes) {
+            if (indices.containsKey(startNode)) {
+                continue;
+            }
+
+            visit(startNode, dependencies, indices, lowLinks, stack, onStack, callStack);
+
+            while (!callStack.isEmpty()) {
+                Frame frame = callStack.getLast();
+                Node next = frame.nextNeighbor();
+
+                if (next != null) {
+                    if (!indices.containsKey(next)) {
+                        visit(next, dependencies, indices, lowLinks, stack, onStack, callStack);
+                    } else if (onStack.contains(next)) {
+                        lowLinks.put(frame.node, Math.min(lowLinks.get(frame.node), indices.get(next)));
+                    }
+                } else {
+                    callStack.removeLast();
+
+                    if (!callStack.isEmpty()) {
+                        Node parent = callStack.getLast().node;
+                        lowLinks.put(parent, Math.min(lowLinks.get(parent), lowLinks.get(frame.node)));
+                    }
+
+                    if (lowLinks.get(frame.node).equals(indices.get(frame.node))) {
+                        List<Node> component = new ArrayList<Node>();
+                        Node member;
+                        do {
+                            member = stack.removeLast();
+                            onStack.remove(member);
+                            component.add(member);
+                        } while (member != frame.node);
+                        Collections.sort(component, new NodeComparator());
+                        result.add(component);
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private void visit(Node node, Map<? extends Node, ? extends Collection<? extends Node>> dependencies, Map<Node, Integer> indices, Map<Node, Integer> lowLinks, LinkedList<Node> stack, Set<Node> onStack, LinkedList<Frame> callStack) {
+        int index = indices.size();
+        indices.put(node, index);
+        lowLinks.put(node, index);
+        stack.addLast(node);
+        onStack.add(node);
+
+        Collection<? extends Node> neighbors;
+        if (dependencies == null) {
+            neighbors = node.getOutboundDependencies();
+        } else if (dependencies.containsKey(node)) {
+            neighbors = dependencies.get(node);
+        } else {
+            neighbors = Collections.emptySet();
+        }
+        callStack.addLast(new Frame(node, neighbors.iterator()));
+    }
+
+    private static boolean isSameKind(Node node, Node dependency) {
+        return node.getClass() == dependency.getClass();
+    }
+
+    private static class Frame {
+        private Node node;
+        private Iterator<? extends Node> neighbors;
+
+        public Frame(Node node, Iterator<? extends Node> neighbors) {
+            this.node = node;
+            this.neighbors = neighbors;
+        }
+
+        public Node nextNeighbor() {
+            while (neighbors.hasNext()) {
+                Node neighbor = neighbors.next();
+                if (isSameKind(node, neighbor)) {
+                    return neighbor;
+                }
+            }
+
+            return null;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.util.concurrent.*;
+
+/**
+ *  <p>A {@link NodeFactory} that several threads can share while
+ *  they build the same dependency graph.</p>
+ *
+ *  <p>Nodes are kept in {@link ConcurrentHashMap}s.  Lookups do not
+ *  lock and {@link NodeFactory} creates nodes with
+ *  <code>putIfAbsent()</code>, so that two threads that ask for the
+ *  same name at the same time both get the same node.  The nodes
+ *  themselves guard their dependencies and their containment with
+ *  the node's own collections, which makes
+ *  {@link Node#addDependency(Node)}, {@link ClassNode#addParent(ClassNode)},
+ *  and friends safe to call concurrently.  Like any
+ *  {@link NodeFactory}, it interns node names.</p>
+ *
+ *  <p>The graph can be read from any thread once all writers are
+ *  done, but iterating over a node's dependencies while another
+ *  thread is still adding to them is not supported.</p>
+ *
+ *  @see ThreadSafeCollectorAdapter
+ */
+public class ConcurrentNodeFactory extends NodeFactory {
+    public ConcurrentNodeFactory() {
+        super(new ConcurrentHashMap<String, PackageNode>(), new ConcurrentHashMap<String, ClassNode>(), new ConcurrentHashMap<String, FeatureNode>());
+    }
+}
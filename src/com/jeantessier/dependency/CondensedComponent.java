@@ -0,0 +1,103 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.jeantessier.dependency;
+
+import java.util.*;
+
+/**
+ *  A strongly connected component of a dependency graph, collapsed
+ *  into a single node by {@link GraphCondenser}.  It is named after
+ *  the first of its nodes, in alphabetical order.
+ */
+public class CondensedComponent implements Comparable<CondensedComponent> {
+    private List<Node> nodes;
+    private Collection<CondensedComponent> dependencies = new HashSet<CondensedComponent>();
+    private int layer;
+
+    public CondensedComponent(List<Node> nodes) {
+        this.nodes = nodes;
+    }
+
+    public String getName() {
+        return nodes.get(0).getName();
+    }
+
+    /**
+     *  @return the nodes in this component, in alphabetical order.
+     */
+    public List<Node> getNodes() {
+        return nodes;
+    }
+
+    /**
+     *  @return <code>true</code> if this component has more than one
+     *          node, meaning its nodes depend on each other in one or
+     *          more cycles.
+     */
+    public boolean isCycle() {
+        return nodes.size() > 1;
+    }
+
+    /**
+     *  @return the other components that this one depends on, in no
+     *          particular order.
+     */
+    public Collection<CondensedComponent> getDependencies() {
+        return dependencies;
+    }
+
+    void addDependency(CondensedComponent dependency) {
+        dependencies.add(dependency);
+    }
+
+    /**
+     *  @return 0 if this component does not depend on any other
+     *          component, or one more than the highest layer among
+     *          the components it depends on.
+     */
+    public int getLayer() {
+        return layer;
+    }
+
+    void setLayer(int layer) {
+        this.layer = layer;
+    }
+
+    public int compareTo(CondensedComponent other) {
+        return getName().compareTo(other.getName());
+    }
+
+    public String toString() {
+        return getName();
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.jeantessier.dependency;
+
+import java.util.*;
+
+/**
+ *  The directed acyclic graph of {@link CondensedComponent}s built by
+ *  {@link GraphCondenser}, arranged in layers.  Layer 0 holds the
+ *  components that do not depend on anything else.
+ */
+public class CondensedGraph {
+    private List<CondensedComponent> components;
+    private List<List<CondensedComponent>> layers = new ArrayList<List<CondensedComponent>>();
+    private List<CondensedComponent> longestChain;
+
+    CondensedGraph(List<CondensedComponent> components, List<CondensedComponent> longestChain) {
+        this.components = components;
+        this.longestChain = longestChain;
+
+        for (CondensedComponent component : components) {
+            while (layers.size() <= component.getLayer()) {
+                layers.add(new ArrayList<CondensedComponent>());
+            }
+            layers.get(component.getLayer()).add(component);
+        }
+
+        for (List<CondensedComponent> layer : layers) {
+            Collections.sort(layer);
+        }
+    }
+
+    /**
+     *  @return every component, in reverse topological order: a
+     *          component always appears before the components that
+     *          depend on it.
+     */
+    public List<CondensedComponent> getComponents() {
+        return components;
+    }
+
+    /**
+     *  @return the components of each layer, in alphabetical order,
+     *          starting with layer 0.
+     */
+    public List<List<CondensedComponent>> getLayers() {
+        return layers;
+    }
+
+    /**
+     *  @return one of the longest chains of dependencies between
+     *          components, starting with the one in the highest layer
+     *          and going down to layer 0.
+     */
+    public List<CondensedComponent> getLongestChain() {
+        return longestChain;
+    }
+}
@@ -39,7 +39,7 @@ import org.apache.log4j.*;
 /**
  * TODO Class comment
  */
-public class CycleDetector extends VisitorBase {
+public class CycleDetector extends VisitorBase implements CycleFinder {
     private LinkedList<Node> currentPath = new LinkedList<Node>();
     private Collection<Cycle> cycles = new TreeSet<Cycle>(new CycleComparator());
     private int maximumCycleLength = Integer.MAX_VALUE;
@@ -81,7 +81,7 @@ public class CycleDetector extends VisitorBase {
         if (getStrategy().isInFilter(node)) {
             if (currentPath.getFirst().equals(node) && currentPath.size() <= getMaximumCycleLength()) {
                 addCycle();
-            } else if (!currentPath.contains(node)){
+            } else if (!currentPath.contains(node) && currentPath.size() < getMaximumCycleLength()) {
                 pushNodeOnCurrentPath(node);
                 traverseOutbound(node.getOutboundDependencies());
                 traverseOutbound(node.getClasses());
@@ -108,7 +108,7 @@ public class CycleDetector extends VisitorBase {
         if (getStrategy().isInFilter(node)) {
             if (currentPath.getFirst().equals(node) && currentPath.size() <= getMaximumCycleLength()) {
                 addCycle();
-            } else if (!currentPath.contains(node)){
+            } else if (!currentPath.contains(node) && currentPath.size() < getMaximumCycleLength()) {
                 pushNodeOnCurrentPath(node);
                 traverseOutbound(node.getOutboundDependencies());
                 traverseOutbound(node.getFeatures());
@@ -135,7 +135,7 @@ public class CycleDetector extends VisitorBase {
         if (getStrategy().isInFilter(node)) {
             if (currentPath.getFirst().equals(node) && currentPath.size() <= getMaximumCycleLength()) {
                 addCycle();
-            } else if (!currentPath.contains(node)){
+            } else if (!currentPath.contains(node) && currentPath.size() < getMaximumCycleLength()) {
                 pushNodeOnCurrentPath(node);
                 traverseOutbound(node.getOutboundDependencies());
                 popNodeFromCurrentPath(node);
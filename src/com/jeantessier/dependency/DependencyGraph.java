@@ -0,0 +1,109 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+/**
+ *  <p>Read-only access to a dependency graph whose nodes are
+ *  identified by <code>int</code> ids instead of {@link Node}
+ *  objects.</p>
+ *
+ *  <p>Ids run from 0 to {@link #getNbNodes()} - 1.  Packages come
+ *  first, then classes, then features.  Within each kind, ids follow
+ *  the alphabetical order of the node names.  Every array of ids that
+ *  this interface returns is sorted in increasing order and belongs
+ *  to the caller.</p>
+ */
+public interface DependencyGraph {
+    public static final int NO_NODE = -1;
+
+    public int getNbNodes();
+    public int getNbPackages();
+    public int getNbClasses();
+    public int getNbFeatures();
+    public int getNbDependencies();
+
+    public boolean isPackage(int node);
+    public boolean isClass(int node);
+    public boolean isFeature(int node);
+
+    /**
+     *  @return the id of the package with this name, or
+     *          {@link #NO_NODE} if there is none.
+     */
+    public int findPackage(String name);
+
+    /**
+     *  @return the id of the class with this name, or
+     *          {@link #NO_NODE} if there is none.
+     */
+    public int findClass(String name);
+
+    /**
+     *  @return the id of the feature with this name, or
+     *          {@link #NO_NODE} if there is none.
+     */
+    public int findFeature(String name);
+
+    public String getName(int node);
+    public boolean isConfirmed(int node);
+
+    /**
+     *  @return the package of a class, the class of a feature, or
+     *          {@link #NO_NODE} for a package.
+     */
+    public int getContainer(int node);
+
+    /**
+     *  @return the classes in a package, the features in a class, or
+     *          nothing for a feature.
+     */
+    public int[] getContents(int node);
+
+    public int[] getOutboundDependencies(int node);
+    public int[] getInboundDependencies(int node);
+
+    /**
+     *  @return the superclass and interfaces of a class, like
+     *          {@link ClassNode#getParents()}, or nothing for other
+     *          nodes.
+     */
+    public int[] getParents(int node);
+
+    /**
+     *  @return the subclasses and implementations of a class, like
+     *          {@link ClassNode#getChildren()}, or nothing for other
+     *          nodes.
+     */
+    public int[] getChildren(int node);
+}
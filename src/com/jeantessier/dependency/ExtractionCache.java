@@ -0,0 +1,299 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.io.*;
+import java.util.*;
+
+import org.apache.log4j.*;
+
+/**
+ *  <p>Remembers the dependencies extracted from each classfile, keyed
+ *  by a hash of the classfile's content, so that
+ *  {@link CachingClassfileLoader} can replay them instead of parsing
+ *  the classfile again.  The cache can be saved to disk and loaded
+ *  back for the next extraction.</p>
+ *
+ *  <p>Only the entries that were used since the cache was loaded are
+ *  saved.  Classes that have disappeared from the codebase, or whose
+ *  classfile changed, are dropped at the next save.</p>
+ *
+ *  <p>All numbers are big-endian 32-bit integers.  The file starts
+ *  with a header:</p>
+ *
+ *  <pre>
+ *  magic ("DFEC"), version, string count, strings
+ *  </pre>
+ *
+ *  <p>where each string is its length in bytes followed by its UTF-8
+ *  bytes, so that names of any length can be saved.  Entries refer to
+ *  strings by their position in this table.  Then comes the entry
+ *  count and the entries:</p>
+ *
+ *  <pre>
+ *  key, class name,
+ *  parent count, parent names,
+ *  feature count, feature names,
+ *  dependency count, dependencies
+ *  </pre>
+ *
+ *  <p>where each dependency is the index of its dependent feature, or
+ *  -1 for the class itself, the kind of its dependable node (one byte,
+ *  'P', 'C', or 'F'), and the name of its dependable node.  There is
+ *  one dependency for each time the classfile refers to the
+ *  dependable, in the order the references were found.</p>
+ */
+public class ExtractionCache {
+    static final int MAGIC = 0x44464543;
+
+    /**
+     *  Must change whenever {@link CodeDependencyCollector} starts
+     *  extracting different dependencies, so that older caches are not
+     *  replayed.
+     */
+    static final int VERSION = 2;
+
+    private static final String ENCODING = "UTF-8";
+
+    private Map<String, CachedClass> previousEntries = new HashMap<String, CachedClass>();
+    private Map<String, CachedClass> currentEntries = new HashMap<String, CachedClass>();
+
+    private int nbHits = 0;
+    private int nbMisses = 0;
+
+    /**
+     *  Loads the entries saved in a file.  Does nothing if the file
+     *  does not exist yet.
+     *
+     *  @throws IOException if the file is not a cache file, or was
+     *          saved by a different version of the cache.
+     */
+    public void load(File file) throws IOException {
+        if (file.exists()) {
+            InputStream in = new BufferedInputStream(new FileInputStream(file));
+            try {
+                load(in);
+            } finally {
+                in.close();
+            }
+        }
+    }
+
+    public void load(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not an extraction cache");
+        }
+
+        int version = data.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported extraction cache version " + version);
+        }
+
+        String[] strings = new String[data.readInt()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = readString(data);
+        }
+
+        try {
+            int nbEntries = data.readInt();
+            for (int i = 0; i < nbEntries; i++) {
+                String key = strings[data.readInt()];
+                CachedClass cachedClass = new CachedClass(strings[data.readInt()]);
+
+                int nbParents = data.readInt();
+                for (int j = 0; j < nbParents; j++) {
+                    cachedClass.addParentName(strings[data.readInt()]);
+                }
+
+                int nbFeatures = data.readInt();
+                for (int j = 0; j < nbFeatures; j++) {
+                    cachedClass.addFeatureName(strings[data.readInt()]);
+                }
+
+                int nbDependencies = data.readInt();
+                for (int j = 0; j < nbDependencies; j++) {
+                    int dependentIndex = data.readInt();
+                    if (dependentIndex < CachedClass.CLASS_INDEX || dependentIndex >= nbFeatures) {
+                        throw new IOException("Invalid dependent " + dependentIndex + " in entry for " + cachedClass.getClassName());
+                    }
+                    byte dependableKind = data.readByte();
+                    if (dependableKind != CachedClass.PACKAGE_KIND && dependableKind != CachedClass.CLASS_KIND && dependableKind != CachedClass.FEATURE_KIND) {
+                        throw new IOException("Invalid node kind " + dependableKind + " in entry for " + cachedClass.getClassName());
+                    }
+                    cachedClass.addDependency(dependentIndex, dependableKind, strings[data.readInt()]);
+                }
+
+                previousEntries.put(key, cachedClass);
+            }
+        } catch (ArrayIndexOutOfBoundsException ex) {
+            throw new IOException("Invalid string reference in extraction cache");
+        }
+
+        Logger.getLogger(getClass()).info("Loaded " + previousEntries.size() + " entries from extraction cache");
+    }
+
+    public void save(File file) throws IOException {
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+        try {
+            save(out);
+        } finally {
+            out.close();
+        }
+    }
+
+    public void save(OutputStream out) throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<String, Integer>();
+        for (Map.Entry<String, CachedClass> entry : currentEntries.entrySet()) {
+            addString(strings, entry.getKey());
+
+            CachedClass cachedClass = entry.getValue();
+            addString(strings, cachedClass.getClassName());
+            for (String parentName : cachedClass.getParentNames()) {
+                addString(strings, parentName);
+            }
+            for (String featureName : cachedClass.getFeatureNames()) {
+                addString(strings, featureName);
+            }
+            for (CachedClass.Dependency dependency : cachedClass.getDependencies()) {
+                addString(strings, dependency.getDependableName());
+            }
+        }
+
+        DataOutputStream data = new DataOutputStream(out);
+
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+
+        data.writeInt(strings.size());
+        for (String string : strings.keySet()) {
+            writeString(data, string);
+        }
+
+        data.writeInt(currentEntries.size());
+        for (Map.Entry<String, CachedClass> entry : currentEntries.entrySet()) {
+            CachedClass cachedClass = entry.getValue();
+
+            data.writeInt(strings.get(entry.getKey()));
+            data.writeInt(strings.get(cachedClass.getClassName()));
+
+            data.writeInt(cachedClass.getParentNames().size());
+            for (String parentName : cachedClass.getParentNames()) {
+                data.writeInt(strings.get(parentName));
+            }
+
+            data.writeInt(cachedClass.getFeatureNames().size());
+            for (String featureName : cachedClass.getFeatureNames()) {
+                data.writeInt(strings.get(featureName));
+            }
+
+            data.writeInt(cachedClass.getDependencies().size());
+            for (CachedClass.Dependency dependency : cachedClass.getDependencies()) {
+                data.writeInt(dependency.getDependentIndex());
+                data.writeByte(dependency.getDependableKind());
+                data.writeInt(strings.get(dependency.getDependableName()));
+            }
+        }
+
+        data.flush();
+    }
+
+    private void addString(Map<String, Integer> strings, String string) {
+        if (!strings.containsKey(string)) {
+            strings.put(string, strings.size());
+        }
+    }
+
+    private String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid string length " + length + " in extraction cache");
+        }
+
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+
+        return new String(bytes, ENCODING);
+    }
+
+    private void writeString(DataOutput out, String string) throws IOException {
+        byte[] bytes = string.getBytes(ENCODING);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     *  @return the number of entries that will be saved, i.e., the
+     *          number of distinct classfiles seen since the cache was
+     *          loaded.
+     */
+    public int size() {
+        return currentEntries.size();
+    }
+
+    public int getNbHits() {
+        return nbHits;
+    }
+
+    public int getNbMisses() {
+        return nbMisses;
+    }
+
+    /**
+     *  @return the entry for this key, or <code>null</code> if the
+     *          classfile has not been seen before.
+     */
+    CachedClass get(String key) {
+        CachedClass result = currentEntries.get(key);
+
+        if (result == null) {
+            result = previousEntries.remove(key);
+            if (result != null) {
+                currentEntries.put(key, result);
+            }
+        }
+
+        if (result != null) {
+            nbHits++;
+        }
+
+        return result;
+    }
+
+    void put(String key, CachedClass cachedClass) {
+        nbMisses++;
+        currentEntries.put(key, cachedClass);
+    }
+}
@@ -36,15 +36,23 @@ public class FeatureNode extends Node {
     private ClassNode parent;
 
     public FeatureNode(ClassNode parent, String name, boolean concrete) {
-        super(name, concrete);
+        this(parent, name, concrete, true);
+    }
+
+    FeatureNode(ClassNode parent, String name, boolean concrete, boolean withCollections) {
+        super(name, concrete, withCollections);
         this.parent = parent;
     }
 
     // Only to be used by NodeFactory and DeletingVisitor
+    // Holds the class's lock so that it cannot be unconfirmed halfway
+    // through confirming this feature.
     void setConfirmed(boolean confirmed) {
-        super.setConfirmed(confirmed);
-        if (confirmed) {
-            getClassNode().setConfirmed(confirmed);
+        synchronized (getClassNode()) {
+            super.setConfirmed(confirmed);
+            if (confirmed) {
+                getClassNode().setConfirmed(confirmed);
+            }
         }
     }
 
@@ -56,6 +64,10 @@ public class FeatureNode extends Node {
         return super.canAddDependencyTo(node) && getClassNode().canAddDependencyTo(node);
     }
 
+    Class<? extends Node> getKind() {
+        return FeatureNode.class;
+    }
+
     public void accept(Visitor visitor) {
         visitor.visitFeatureNode(this);
     }
@@ -0,0 +1,299 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.util.*;
+
+/**
+ *  <p>A {@link ClosureEngine} that expands the closure breadth-first
+ *  over integer ids instead of visiting and copying nodes.</p>
+ *
+ *  <p>Each node gets an id the first time the search reaches it.
+ *  Coverage is a {@link BitSet} of ids and each layer is an array of
+ *  ids.  Edges from one layer to the next are recorded as pairs of
+ *  ids.  Nothing is copied into the output {@link NodeFactory} until
+ *  the end of each call to one of the <code>compute</code> methods,
+ *  and then only once per node and once per edge.</p>
+ *
+ *  <p>The result is the same as with {@link TransitiveClosureEngine}
+ *  using a {@link ClosureOutboundSelector} or a
+ *  {@link ClosureInboundSelector}: the same layers, the same copied
+ *  nodes and dependencies, and the same stop conditions.</p>
+ */
+public class FrontierClosureEngine implements ClosureEngine {
+    private NodeFactory factory;
+    private boolean outbound;
+    private SelectionCriteria stopCriteria;
+
+    private boolean done = false;
+
+    private List<Node> nodes = new ArrayList<Node>();
+    private Map<Node, Integer> ids = new HashMap<Node, Integer>();
+    private BitSet coverage = new BitSet();
+
+    private List<int[]> layers = new ArrayList<int[]>();
+    private List<int[]> edges = new ArrayList<int[]>();
+
+    private Node[] copies = new Node[0];
+    private List<Collection<Node>> copiedLayers = new ArrayList<Collection<Node>>();
+
+    public FrontierClosureEngine(Collection<? extends Node> packages, SelectionCriteria startCriteria, SelectionCriteria stopCriteria, boolean outbound) {
+        this(new NodeFactory(), packages, startCriteria, stopCriteria, outbound);
+    }
+
+    /**
+     *  @param outbound follow dependencies in their direction if
+     *                  <code>true</code>, against it otherwise.
+     */
+    public FrontierClosureEngine(NodeFactory factory, Collection<? extends Node> packages, SelectionCriteria startCriteria, SelectionCriteria stopCriteria, boolean outbound) {
+        this.factory = factory;
+        this.outbound = outbound;
+        this.stopCriteria = stopCriteria;
+
+        init(packages, startCriteria);
+    }
+
+    private void init(Collection<? extends Node> packages, SelectionCriteria startCriteria) {
+        IntBuffer start = new IntBuffer();
+
+        for (Node node : packages) {
+            PackageNode packageNode = (PackageNode) node;
+            if (startCriteria.matches(packageNode)) {
+                select(packageNode, start);
+            }
+
+            for (ClassNode classNode : packageNode.getClasses()) {
+                if (startCriteria.matches(classNode)) {
+                    select(classNode, start);
+                }
+
+                for (FeatureNode featureNode : classNode.getFeatures()) {
+                    if (startCriteria.matches(featureNode)) {
+                        select(featureNode, start);
+                    }
+                }
+            }
+        }
+
+        addLayer(start.toArray(), new int[0]);
+        materialize();
+    }
+
+    private void select(Node node, IntBuffer layer) {
+        int id = getId(node);
+        if (!coverage.get(id)) {
+            coverage.set(id);
+            layer.add(id);
+        }
+    }
+
+    public NodeFactory getFactory() {
+        return factory;
+    }
+
+    public int getNbLayers() {
+        return copiedLayers.size();
+    }
+
+    public Collection<? extends Node> getLayer(int i) {
+        return copiedLayers.get(i);
+    }
+
+    public void computeAllLayers() {
+        while (!done) {
+            expand();
+        }
+        materialize();
+    }
+
+    public void computeLayers(long nbLayers) {
+        for (long i=0; !done && i<nbLayers; i++) {
+            expand();
+        }
+        materialize();
+    }
+
+    public void computeNextLayer() {
+        if (!done) {
+            expand();
+        }
+        materialize();
+    }
+
+    private void expand() {
+        IntBuffer next = new IntBuffer();
+        IntBuffer newEdges = new IntBuffer();
+        BitSet discovered = new BitSet();
+
+        for (int id : layers.get(layers.size() - 1)) {
+            Node node = nodes.get(id);
+            Collection<Node> neighbors = outbound ? node.getOutboundDependencies() : node.getInboundDependencies();
+
+            for (Node neighbor : neighbors) {
+                int neighborId = getId(neighbor);
+                if (!coverage.get(neighborId)) {
+                    newEdges.add(id);
+                    newEdges.add(neighborId);
+                    if (!discovered.get(neighborId)) {
+                        discovered.set(neighborId);
+                        next.add(neighborId);
+                    }
+                }
+            }
+        }
+
+        coverage.or(discovered);
+
+        int[] layer = next.toArray();
+        if (layer.length == 0) {
+            done = true;
+        } else {
+            addLayer(layer, newEdges.toArray());
+        }
+    }
+
+    private void addLayer(int[] layer, int[] layerEdges) {
+        layers.add(layer);
+        edges.add(layerEdges);
+
+        if (layer.length == 0) {
+            done = true;
+        }
+
+        for (int i = 0; !done && i < layer.length; i++) {
+            done = matchesStopCriteria(nodes.get(layer[i]));
+        }
+    }
+
+    private boolean matchesStopCriteria(Node node) {
+        if (node instanceof PackageNode) {
+            return stopCriteria.matches((PackageNode) node);
+        } else if (node instanceof ClassNode) {
+            return stopCriteria.matches((ClassNode) node);
+        } else {
+            return stopCriteria.matches((FeatureNode) node);
+        }
+    }
+
+    private int getId(Node node) {
+        Integer result = ids.get(node);
+
+        if (result == null) {
+            result = nodes.size();
+            nodes.add(node);
+            ids.put(node, result);
+        }
+
+        return result;
+    }
+
+    /**
+     *  Copies the layers computed since the last call into the factory,
+     *  along with the dependencies that lead into them.
+     */
+    private void materialize() {
+        if (copies.length < nodes.size()) {
+            Node[] newCopies = new Node[nodes.size()];
+            System.arraycopy(copies, 0, newCopies, 0, copies.length);
+            copies = newCopies;
+        }
+
+        for (int i = copiedLayers.size(); i < layers.size(); i++) {
+            int[] layer = layers.get(i);
+
+            Collection<Node> copiedLayer = new ArrayList<Node>(layer.length);
+            for (int id : layer) {
+                copiedLayer.add(getCopy(id));
+            }
+
+            int[] layerEdges = edges.get(i);
+            for (int j = 0; j < layerEdges.length; j += 2) {
+                Node from = getCopy(layerEdges[j]);
+                Node to = getCopy(layerEdges[j + 1]);
+                if (outbound) {
+                    from.addDependency(to);
+                } else {
+                    to.addDependency(from);
+                }
+            }
+
+            copiedLayers.add(Collections.unmodifiableCollection(copiedLayer));
+        }
+    }
+
+    private Node getCopy(int id) {
+        Node result = copies[id];
+
+        if (result == null) {
+            Node node = nodes.get(id);
+            if (node instanceof PackageNode) {
+                result = factory.createPackage(node.getName(), node.isConfirmed());
+            } else if (node instanceof ClassNode) {
+                result = factory.createClass(node.getName(), node.isConfirmed());
+            } else {
+                // Same as createFeature(name, confirmed), without parsing
+                // the class name back out of the feature name
+                FeatureNode featureNode = (FeatureNode) node;
+                ClassNode parent = factory.createClass(featureNode.getClassNode().getName(), featureNode.isConfirmed());
+                result = factory.createFeature(parent, featureNode.getName(), featureNode.isConfirmed());
+            }
+            copies[id] = result;
+        }
+
+        return result;
+    }
+
+    /**
+     *  Growable array of <code>int</code>, to avoid boxing ids.
+     */
+    private static class IntBuffer {
+        private int[] values = new int[16];
+        private int size = 0;
+
+        public void add(int value) {
+            if (size == values.length) {
+                int[] newValues = new int[size * 2];
+                System.arraycopy(values, 0, newValues, 0, size);
+                values = newValues;
+            }
+            values[size++] = value;
+        }
+
+        public int[] toArray() {
+            int[] result = new int[size];
+            System.arraycopy(values, 0, result, 0, size);
+            return result;
+        }
+    }
+}
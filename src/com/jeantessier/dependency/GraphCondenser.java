@@ -0,0 +1,204 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.jeantessier.dependency;
+
+import java.util.*;
+
+import org.apache.log4j.*;
+
+/**
+ *  <p>Collapses each strongly connected component of a dependency
+ *  graph into a single {@link CondensedComponent}, either at the
+ *  package level or at the class level.  The result is a
+ *  {@link CondensedGraph}, a directed acyclic graph of components
+ *  arranged in layers.</p>
+ *
+ *  <p>Dependencies are rolled up to the level being condensed.  At
+ *  the package level, a package depends on another package if it,
+ *  one of its classes, or one of their features depends on that other
+ *  package or on something in it.  At the class level, a class
+ *  depends on another class if it or one of its features depends on
+ *  that other class or one of its features.  Nodes that do not match
+ *  the selection criteria are left out, along with the dependencies
+ *  on them.</p>
+ *
+ *  <p>It rolls up the dependencies in a single pass over the graph
+ *  and finds the components with {@link ComponentFinder}, so it runs
+ *  in time linear to the number of nodes and dependencies.</p>
+ */
+public class GraphCondenser {
+    private SelectionCriteria criteria;
+
+    public GraphCondenser() {
+        this(new ComprehensiveSelectionCriteria());
+    }
+
+    public GraphCondenser(SelectionCriteria criteria) {
+        this.criteria = criteria;
+    }
+
+    public CondensedGraph condensePackages(Collection<PackageNode> packages) {
+        Map<Node, Collection<Node>> dependencies = new LinkedHashMap<Node, Collection<Node>>();
+
+        for (PackageNode packageNode : packages) {
+            if (criteria.matches(packageNode)) {
+                Collection<Node> targets = new HashSet<Node>();
+
+                addPackages(packageNode.getOutboundDependencies(), targets);
+                for (ClassNode classNode : packageNode.getClasses()) {
+                    addPackages(classNode.getOutboundDependencies(), targets);
+                    for (FeatureNode featureNode : classNode.getFeatures()) {
+                        addPackages(featureNode.getOutboundDependencies(), targets);
+                    }
+                }
+
+                dependencies.put(packageNode, targets);
+            }
+        }
+
+        return condense(dependencies);
+    }
+
+    public CondensedGraph condenseClasses(Collection<PackageNode> packages) {
+        Map<Node, Collection<Node>> dependencies = new LinkedHashMap<Node, Collection<Node>>();
+
+        for (PackageNode packageNode : packages) {
+            for (ClassNode classNode : packageNode.getClasses()) {
+                if (criteria.matches(classNode)) {
+                    Collection<Node> targets = new HashSet<Node>();
+
+                    addClasses(classNode.getOutboundDependencies(), targets);
+                    for (FeatureNode featureNode : classNode.getFeatures()) {
+                        addClasses(featureNode.getOutboundDependencies(), targets);
+                    }
+
+                    dependencies.put(classNode, targets);
+                }
+            }
+        }
+
+        return condense(dependencies);
+    }
+
+    private void addPackages(Collection<Node> nodes, Collection<Node> targets) {
+        for (Node node : nodes) {
+            if (node instanceof PackageNode) {
+                targets.add(node);
+            } else if (node instanceof ClassNode) {
+                targets.add(((ClassNode) node).getPackageNode());
+            } else if (node instanceof FeatureNode) {
+                targets.add(((FeatureNode) node).getClassNode().getPackageNode());
+            }
+        }
+    }
+
+    private void addClasses(Collection<Node> nodes, Collection<Node> targets) {
+        for (Node node : nodes) {
+            if (node instanceof ClassNode) {
+                targets.add(node);
+            } else if (node instanceof FeatureNode) {
+                targets.add(((FeatureNode) node).getClassNode());
+            }
+        }
+    }
+
+    private CondensedGraph condense(Map<Node, Collection<Node>> dependencies) {
+        for (Map.Entry<Node, Collection<Node>> entry : dependencies.entrySet()) {
+            Iterator<Node> i = entry.getValue().iterator();
+            while (i.hasNext()) {
+                Node target = i.next();
+                if (target == entry.getKey() || !dependencies.containsKey(target)) {
+                    i.remove();
+                }
+            }
+        }
+
+        List<CondensedComponent> components = new ArrayList<CondensedComponent>();
+        Map<Node, CondensedComponent> componentsByNode = new HashMap<Node, CondensedComponent>();
+
+        for (List<Node> nodes : new ComponentFinder().findComponents(dependencies.keySet(), dependencies)) {
+            CondensedComponent component = new CondensedComponent(nodes);
+            components.add(component);
+            for (Node node : nodes) {
+                componentsByNode.put(node, component);
+            }
+        }
+
+        Logger.getLogger(getClass()).debug("Condensed " + dependencies.size() + " node(s) into " + components.size() + " component(s)");
+
+        // Components come in reverse topological order, so the layer
+        // of every dependency is known by the time we get to a component.
+        Map<CondensedComponent, CondensedComponent> nextInChain = new HashMap<CondensedComponent, CondensedComponent>();
+        CondensedComponent top = null;
+
+        for (CondensedComponent component : components) {
+            CondensedComponent next = null;
+
+            for (Node node : component.getNodes()) {
+                for (Node target : dependencies.get(node)) {
+                    CondensedComponent dependency = componentsByNode.get(target);
+                    if (dependency != component) {
+                        component.addDependency(dependency);
+                        if (isHigher(dependency, next)) {
+                            next = dependency;
+                        }
+                    }
+                }
+            }
+
+            if (next != null) {
+                component.setLayer(next.getLayer() + 1);
+                nextInChain.put(component, next);
+            }
+
+            if (isHigher(component, top)) {
+                top = component;
+            }
+        }
+
+        List<CondensedComponent> longestChain = new ArrayList<CondensedComponent>();
+        for (CondensedComponent component = top; component != null; component = nextInChain.get(component)) {
+            longestChain.add(component);
+        }
+
+        return new CondensedGraph(components, longestChain);
+    }
+
+    /**
+     *  Ties go to the component that comes first alphabetically, so
+     *  the longest chain does not depend on the order of traversal.
+     */
+    private static boolean isHigher(CondensedComponent component, CondensedComponent other) {
+        return other == null || component.getLayer() > other.getLayer() || (component.getLayer() == other.getLayer() && component.compareTo(other) < 0);
+    }
+}
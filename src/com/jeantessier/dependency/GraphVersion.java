@@ -0,0 +1,168 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ *  <p>One published version of a dependency graph, as handed out by
+ *  {@link GraphVersions}.  Nobody may modify the graph once it has
+ *  been published; to make changes, start from {@link #copyFactory()}
+ *  and publish the result as a new version.</p>
+ *
+ *  <p>Readers pin a version with {@link GraphVersions#acquire()} and
+ *  must call {@link #release()} when they are done.  Once a newer
+ *  version has been published and the last reader has released this
+ *  one, it drops its reference to the graph so that the graph can be
+ *  garbage collected even if something still holds on to this
+ *  object.</p>
+ */
+public class GraphVersion {
+    private GraphVersions versions;
+    private int version;
+    private volatile NodeFactory factory;
+
+    // Starts at 1 for GraphVersions itself, which gives it up when it
+    // publishes the next version.  Never goes back up once it hits 0.
+    private AtomicInteger references = new AtomicInteger(1);
+
+    GraphVersion(GraphVersions versions, int version, NodeFactory factory) {
+        this.versions = versions;
+        this.version = version;
+        this.factory = factory;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public NodeFactory getFactory() {
+        return factory;
+    }
+
+    public boolean isReleased() {
+        return references.get() == 0;
+    }
+
+    /**
+     *  <p>Makes a deep copy of this version's graph.  Nodes know both
+     *  their outbound and inbound dependencies, so no node can be
+     *  shared between versions without letting changes to the copy
+     *  show through in the published version.  The copy therefore
+     *  takes time and memory proportional to the number of nodes plus
+     *  the number of dependencies, and both graphs stay in memory
+     *  until the last reader releases this version.  Callers that
+     *  replace most of the graph anyway should build a fresh
+     *  {@link NodeFactory} instead.</p>
+     *
+     *  @return a new, mutable graph with the same nodes, dependencies,
+     *          inheritance, and confirmation as this version.
+     */
+    public NodeFactory copyFactory() {
+        NodeFactory result = new NodeFactory();
+
+        for (PackageNode packageNode : getFactory().getPackages().values()) {
+            PackageNode packageCopy = result.createPackage(packageNode.getName(), packageNode.isConfirmed());
+            for (ClassNode classNode : packageNode.getClasses()) {
+                ClassNode classCopy = result.createClass(packageCopy, classNode.getName(), classNode.isConfirmed());
+                for (FeatureNode featureNode : classNode.getFeatures()) {
+                    result.createFeature(classCopy, featureNode.getName(), featureNode.isConfirmed());
+                }
+            }
+        }
+
+        for (PackageNode packageNode : getFactory().getPackages().values()) {
+            copyDependencies(result, packageNode);
+            for (ClassNode classNode : packageNode.getClasses()) {
+                copyDependencies(result, classNode);
+                ClassNode classCopy = result.getClasses().get(classNode.getName());
+                for (ClassNode parent : classNode.getParents()) {
+                    classCopy.addParent(result.getClasses().get(parent.getName()));
+                }
+                for (FeatureNode featureNode : classNode.getFeatures()) {
+                    copyDependencies(result, featureNode);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private void copyDependencies(NodeFactory copy, Node node) {
+        Node nodeCopy = getCopy(copy, node);
+        for (Node dependency : node.getOutboundDependencies()) {
+            nodeCopy.addDependency(getCopy(copy, dependency));
+        }
+    }
+
+    private Node getCopy(NodeFactory copy, Node node) {
+        if (node instanceof PackageNode) {
+            return copy.getPackages().get(node.getName());
+        } else if (node instanceof ClassNode) {
+            return copy.getClasses().get(node.getName());
+        } else {
+            return copy.getFeatures().get(node.getName());
+        }
+    }
+
+    boolean tryAcquire() {
+        int count;
+        do {
+            count = references.get();
+            if (count == 0) {
+                return false;
+            }
+        } while (!references.compareAndSet(count, count + 1));
+
+        return true;
+    }
+
+    /**
+     *  Gives up this pin.  Call exactly once per successful
+     *  {@link GraphVersions#acquire()}.
+     */
+    public void release() {
+        int count = references.decrementAndGet();
+        if (count == 0) {
+            factory = null;
+            versions.released(this);
+        } else if (count < 0) {
+            throw new IllegalStateException("Version " + version + " released too many times");
+        }
+    }
+
+    public String toString() {
+        return "version " + version;
+    }
+}
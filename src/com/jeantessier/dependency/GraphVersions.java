@@ -0,0 +1,132 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+import org.apache.log4j.*;
+
+/**
+ *  <p>Successive immutable versions of a dependency graph that many
+ *  readers can share while a writer prepares the next one.</p>
+ *
+ *  <p>A reader calls {@link #acquire()} to pin the current version
+ *  and {@link GraphVersion#release()} when it is done, typically in a
+ *  <code>finally</code> block.  The pinned version stays complete and
+ *  unchanged for as long as it is pinned, no matter how many newer
+ *  versions get published in the meantime.  Acquiring never
+ *  blocks.</p>
+ *
+ *  <p>A writer builds a whole new {@link NodeFactory}, either from
+ *  scratch or from {@link GraphVersion#copyFactory()}, and hands it to
+ *  {@link #publish(NodeFactory)}.  Readers that arrive after that get
+ *  the new version.  The previous version is released as soon as its
+ *  last reader lets go of it.  Writers should synchronize on this
+ *  object so that two of them do not build from the same version at
+ *  the same time.</p>
+ *
+ *  <p>Versions do not share nodes.  An update that starts from the
+ *  current version pays for a full copy of the graph and, while old
+ *  readers hang on, needs room for at least two complete graphs.</p>
+ */
+public class GraphVersions {
+    private static final Logger LOGGER = Logger.getLogger(GraphVersions.class);
+
+    private AtomicReference<GraphVersion> current = new AtomicReference<GraphVersion>();
+    private AtomicInteger nextVersion = new AtomicInteger(1);
+    private Set<GraphVersion> live = Collections.synchronizedSet(new HashSet<GraphVersion>());
+
+    /**
+     *  @return the current version, pinned, or <code>null</code> if
+     *          nothing has been published yet.
+     */
+    public GraphVersion acquire() {
+        GraphVersion result = current.get();
+
+        // Only fails if a newer version replaced this one and its
+        // last reader released it in between, so the retry sees
+        // the newer one.
+        while (result != null && !result.tryAcquire()) {
+            result = current.get();
+        }
+
+        return result;
+    }
+
+    /**
+     *  Makes <code>factory</code> the current version.  The caller
+     *  must not modify <code>factory</code> afterwards.
+     */
+    public GraphVersion publish(NodeFactory factory) {
+        GraphVersion result = new GraphVersion(this, nextVersion.getAndIncrement(), factory);
+        live.add(result);
+
+        GraphVersion previous = current.getAndSet(result);
+        if (previous != null) {
+            previous.release();
+        }
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Published " + result + ", " + live.size() + " version(s) live");
+        }
+
+        return result;
+    }
+
+    /**
+     *  @return the number of the current version, or 0 if nothing
+     *          has been published yet.
+     */
+    public int getCurrentVersion() {
+        GraphVersion version = current.get();
+        return version != null ? version.getVersion() : 0;
+    }
+
+    /**
+     *  @return how many versions are still holding on to their graph:
+     *          the current one plus those that readers have pinned.
+     */
+    public int getNbLiveVersions() {
+        return live.size();
+    }
+
+    void released(GraphVersion version) {
+        live.remove(version);
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Released " + version + ", " + live.size() + " version(s) live");
+        }
+    }
+}
@@ -36,14 +36,25 @@ import java.util.*;
 
 public abstract class Node implements Comparable {
     private String  name      = "";
-    private boolean confirmed = false;
+    private volatile boolean confirmed = false;
     
-    private Collection<Node> inbound  = new HashSet<Node>();
-    private Collection<Node> outbound = new HashSet<Node>();
+    private Collection<Node> inbound;
+    private Collection<Node> outbound;
 
     public Node(String name, boolean confirmed) {
+        this(name, confirmed, true);
+    }
+
+    // Views over other graph stores, such as CompactGraph, override
+    // every accessor and do not need collections of their own.
+    Node(String name, boolean confirmed, boolean withCollections) {
         this.name      = name;
         this.confirmed = confirmed;
+
+        if (withCollections) {
+            inbound  = new HashSet<Node>();
+            outbound = new HashSet<Node>();
+        }
     }
 
     public String getName() {
@@ -65,8 +76,12 @@ public abstract class Node implements Comparable {
     
     public void addDependency(Node node) {
         if (canAddDependencyTo(node) && node.canAddDependencyTo(this)) {
-            outbound.add(node);
-            node.inbound.add(this);
+            synchronized (outbound) {
+                outbound.add(node);
+            }
+            synchronized (node.inbound) {
+                node.inbound.add(this);
+            }
         }
     }
 
@@ -77,8 +92,12 @@ public abstract class Node implements Comparable {
     }
 
     public void removeDependency(Node node) {
-        outbound.remove(node);
-        node.inbound.remove(this);
+        synchronized (outbound) {
+            outbound.remove(node);
+        }
+        synchronized (node.inbound) {
+            node.inbound.remove(this);
+        }
     }
 
     public void removeDependencies(Collection<? extends Node> nodes) {
@@ -99,6 +118,12 @@ public abstract class Node implements Comparable {
     public abstract void acceptInbound(Visitor visitor);
     public abstract void acceptOutbound(Visitor visitor);
 
+    /**
+     *  The class that regular nodes of this kind belong to, so that a
+     *  view equals the regular node with the same name.
+     */
+    abstract Class<? extends Node> getKind();
+
     public int hashCode() {
         return getName().hashCode();
     }
@@ -108,7 +133,7 @@ public abstract class Node implements Comparable {
 
         if (this == object) {
             result = true;
-        } else if (object == null || getClass() != object.getClass()) {
+        } else if (!(object instanceof Node) || getKind() != ((Node) object).getKind()) {
             result = false;
         } else {
             Node other = (Node) object;
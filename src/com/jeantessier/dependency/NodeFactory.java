@@ -33,35 +33,66 @@
 package com.jeantessier.dependency;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 import org.apache.log4j.*;
-import org.apache.oro.text.perl.*;
 
+/**
+ *  <p>Creates the nodes of a dependency graph and makes sure there is
+ *  only one node for each name.</p>
+ *
+ *  <p>Node names are interned so that graphs do not hold on to many
+ *  copies of the same strings.  Subclasses and the tools that copy
+ *  names out of a factory, like {@link ConcurrentNodeFactory} and
+ *  {@link CompactGraphBuilder}, get interned names for free.</p>
+ */
 public class NodeFactory {
-    private static final Perl5Util perl = new Perl5Util();
+    private static final Logger LOGGER = Logger.getLogger(NodeFactory.class);
+
+    private Map<String, PackageNode> packages;
+    private Map<String, ClassNode> classes;
+    private Map<String, FeatureNode> features;
+
+    public NodeFactory() {
+        this(new HashMap<String, PackageNode>(), new HashMap<String, ClassNode>(), new HashMap<String, FeatureNode>());
+    }
 
-    private Map<String, PackageNode> packages = new HashMap<String, PackageNode>();
-    private Map<String, ClassNode> classes = new HashMap<String, ClassNode>();
-    private Map<String, FeatureNode> features = new HashMap<String, FeatureNode>();
+    /**
+     *  Lets subclasses choose where nodes are kept.  If the maps are
+     *  {@link ConcurrentMap}s, threads that
+     *  create the same node at the same time all get the same one.
+     */
+    protected NodeFactory(Map<String, PackageNode> packages, Map<String, ClassNode> classes, Map<String, FeatureNode> features) {
+        this.packages = packages;
+        this.classes = classes;
+        this.features = features;
+    }
 
     public PackageNode createPackage(String packageName) {
         return createPackage(packageName, false);
     }
     
     public PackageNode createPackage(String packageName, boolean confirmed) {
-        Logger.getLogger(getClass()).debug("Create package \"" + packageName + "\"");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Create package \"" + packageName + "\"");
+        }
 
         PackageNode result = packages.get(packageName);
 
         if (result == null) {
-            result = new PackageNode(packageName, confirmed);
-            packages.put(packageName, result);
-            Logger.getLogger(getClass()).debug("Added package \"" + packageName + "\"");
+            packageName = packageName.intern();
+            PackageNode node = new PackageNode(packageName, confirmed);
+            result = register(packages, packageName, node);
+            if (result == node && LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Added package \"" + packageName + "\"");
+            }
         }
 
         if (confirmed && !result.isConfirmed()) {
             result.setConfirmed(confirmed);
-            Logger.getLogger(getClass()).debug("Package \"" + packageName + "\" is confirmed");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Package \"" + packageName + "\" is confirmed");
+            }
         }
 
         return result;
@@ -69,7 +100,9 @@ public class NodeFactory {
     
     // Only to be used by DeletingVisitor
     void deletePackage(PackageNode node) {
-        Logger.getLogger(getClass()).debug("Delete package \"" + node + "\"");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Delete package \"" + node + "\"");
+        }
 
         packages.remove(node.getName());
     }
@@ -83,7 +116,9 @@ public class NodeFactory {
     }
     
     public ClassNode createClass(String className, boolean confirmed) {
-        Logger.getLogger(getClass()).debug("Create class \"" + className + "\"");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Create class \"" + className + "\"");
+        }
 
         ClassNode result = classes.get(className);
 
@@ -93,16 +128,40 @@ public class NodeFactory {
             if (pos != -1) {
                 packageName = className.substring(0, pos);
             }
-            PackageNode parent = createPackage(packageName, confirmed);
-            result = new ClassNode(parent, className, confirmed);
-            parent.addClass(result);
-            classes.put(className, result);
-            Logger.getLogger(getClass()).debug("Added class \"" + className + "\"");
+            result = createClass(createPackage(packageName, confirmed), className, confirmed);
+        } else if (confirmed && !result.isConfirmed()) {
+            result.setConfirmed(confirmed);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Class \"" + className + "\" is confirmed");
+            }
+        }
+
+        return result;
+    }
+
+    // For callers that already have the parent node, such as loaders and
+    // graph copies.  The parent must be this factory's package for the
+    // class name; the name is not parsed to check.
+    ClassNode createClass(PackageNode parent, String className, boolean confirmed) {
+        ClassNode result = classes.get(className);
+
+        if (result == null) {
+            className = className.intern();
+            ClassNode node = new ClassNode(parent, className, confirmed);
+            result = register(classes, className, node);
+            if (result == node) {
+                parent.addClass(result);
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Added class \"" + className + "\"");
+                }
+            }
         }
 
         if (confirmed && !result.isConfirmed()) {
             result.setConfirmed(confirmed);
-            Logger.getLogger(getClass()).debug("Class \"" + className + "\" is confirmed");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Class \"" + className + "\" is confirmed");
+            }
         }
 
         return result;
@@ -110,7 +169,9 @@ public class NodeFactory {
 
     // Only to be used by DeletingVisitor
     void deleteClass(ClassNode node) {
-        Logger.getLogger(getClass()).debug("Delete class \"" + node + "\"");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Delete class \"" + node + "\"");
+        }
 
         node.getPackageNode().removeClass(node);
         classes.remove(node.getName());
@@ -125,31 +186,70 @@ public class NodeFactory {
     }
     
     public FeatureNode createFeature(String featureName, boolean confirmed) {
-        Logger.getLogger(getClass()).debug("Create feature \"" + featureName + "\"");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Create feature \"" + featureName + "\"");
+        }
 
         FeatureNode result = features.get(featureName);
 
         if (result == null) {
-            String parentName;
-
-            if (perl.match("/^(.*)\\.[^\\.]*\\(.*\\)$/", featureName)) {
-                parentName = perl.group(1);
-            } else if (perl.match("/^(.*)\\.[^\\.]*$/", featureName)) {
-                parentName = perl.group(1);
-            } else {
-                parentName = "";
+            result = createFeature(createClass(getClassName(featureName), confirmed), featureName, confirmed);
+        } else if (confirmed && !result.isConfirmed()) {
+            result.setConfirmed(confirmed);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Feature \"" + featureName + "\" is confirmed");
             }
+        }
+
+        return result;
+    }
+
+    /**
+     *  The class name is everything before the last dot.  For a
+     *  method, only dots before the parameter list count, since
+     *  parameter types have dots of their own.
+     */
+    static String getClassName(String featureName) {
+        String result = "";
+
+        int pos = -1;
+        int parametersStart = featureName.lastIndexOf('(');
+        if (parametersStart != -1 && featureName.endsWith(")")) {
+            pos = featureName.lastIndexOf('.', parametersStart);
+        }
+        if (pos == -1) {
+            pos = featureName.lastIndexOf('.');
+        }
+        if (pos != -1) {
+            result = featureName.substring(0, pos);
+        }
+
+        return result;
+    }
+
+    // For callers that already have the parent node, such as loaders and
+    // graph copies.  The parent must be this factory's class for the
+    // feature name; the name is not parsed to check.
+    FeatureNode createFeature(ClassNode parent, String featureName, boolean confirmed) {
+        FeatureNode result = features.get(featureName);
 
-            ClassNode parent = createClass(parentName, confirmed);
-            result = new FeatureNode(parent, featureName, confirmed);
-            parent.addFeature(result);
-            features.put(featureName, result);
-            Logger.getLogger(getClass()).debug("Added feature \"" + featureName + "\"");
+        if (result == null) {
+            featureName = featureName.intern();
+            FeatureNode node = new FeatureNode(parent, featureName, confirmed);
+            result = register(features, featureName, node);
+            if (result == node) {
+                parent.addFeature(result);
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Added feature \"" + featureName + "\"");
+                }
+            }
         }
 
         if (confirmed && !result.isConfirmed()) {
             result.setConfirmed(confirmed);
-            Logger.getLogger(getClass()).debug("Feature \"" + featureName + "\" is confirmed");
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Feature \"" + featureName + "\" is confirmed");
+            }
         }
 
         return result;
@@ -157,7 +257,9 @@ public class NodeFactory {
     
     // Only to be used by DeletingVisitor
     void deleteFeature(FeatureNode node) {
-        Logger.getLogger(getClass()).debug("Delete feature \"" + node + "\"");
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Delete feature \"" + node + "\"");
+        }
 
         node.getClassNode().removeFeature(node);
         features.remove(node.getName());
@@ -166,4 +268,21 @@ public class NodeFactory {
     public Map<String, FeatureNode> getFeatures() {
         return Collections.unmodifiableMap(features);
     }
+
+    /**
+     *  @return the node registered under this name, which is
+     *          <code>node</code> unless another thread got there
+     *          first.
+     */
+    private static <T extends Node> T register(Map<String, T> nodes, String name, T node) {
+        T result = null;
+
+        if (nodes instanceof ConcurrentMap) {
+            result = ((ConcurrentMap<String, T>) nodes).putIfAbsent(name, node);
+        } else {
+            nodes.put(name, node);
+        }
+
+        return (result != null) ? result : node;
+    }
 }
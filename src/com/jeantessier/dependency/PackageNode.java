@@ -35,34 +35,57 @@ package com.jeantessier.dependency;
 import java.util.*;
 
 public class PackageNode extends Node {
-    private Collection<ClassNode> classes = new HashSet<ClassNode>();
+    private Collection<ClassNode> classes;
 
     public PackageNode(String name, boolean concrete) {
-        super(name, concrete);
+        this(name, concrete, true);
+    }
+
+    PackageNode(String name, boolean concrete, boolean withCollections) {
+        super(name, concrete, withCollections);
+
+        if (withCollections) {
+            classes = new HashSet<ClassNode>();
+        }
     }
 
     // Only to be used by NodeFactory and DeletingVisitor
-    void setConfirmed(boolean confirmed) {
-        Iterator<ClassNode> i = getClasses().iterator();
-        while (!confirmed && i.hasNext()) {
-            confirmed = i.next().isConfirmed();
+    synchronized void setConfirmed(boolean confirmed) {
+        if (!confirmed) {
+            Collection<ClassNode> snapshot;
+            synchronized (classes) {
+                snapshot = new ArrayList<ClassNode>(classes);
+            }
+
+            Iterator<ClassNode> i = snapshot.iterator();
+            while (!confirmed && i.hasNext()) {
+                confirmed = i.next().isConfirmed();
+            }
         }
         
         super.setConfirmed(confirmed);
     }
 
     public void addClass(ClassNode node) {
-        classes.add(node);
+        synchronized (classes) {
+            classes.add(node);
+        }
     }
 
     public void removeClass(ClassNode node) {
-        classes.remove(node);
+        synchronized (classes) {
+            classes.remove(node);
+        }
     }
     
     public Collection<ClassNode> getClasses() {
         return Collections.unmodifiableCollection(classes);
     }
 
+    Class<? extends Node> getKind() {
+        return PackageNode.class;
+    }
+
     public void accept(Visitor visitor) {
         visitor.visitPackageNode(this);
     }
@@ -0,0 +1,319 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.io.*;
+import java.net.*;
+import java.util.*;
+
+import org.apache.log4j.*;
+
+import com.jeantessier.text.*;
+
+/**
+ *  <p>Keeps the rendered results of recent queries against a
+ *  {@link GraphVersions}, so that the web application can answer a
+ *  repeated query without traversing the graph again.</p>
+ *
+ *  <p>Results are keyed on a {@link Key}, which holds the page and its
+ *  normalized parameters, and on the number of the graph version they
+ *  were computed from.  As soon as a newer version shows up, all older
+ *  results are dropped.  Pages that publish a new version should also
+ *  call {@link #invalidate()} right away so that the memory is
+ *  reclaimed before the next query.</p>
+ *
+ *  <p>The cache holds at most a given number of results and a given
+ *  total number of characters.  When it is full, it evicts the least
+ *  recently used results first.  A single result larger than the
+ *  whole cache is never kept.</p>
+ */
+public class QueryResultCache {
+    private static final Logger LOGGER = Logger.getLogger(QueryResultCache.class);
+
+    public static final int DEFAULT_MAX_ENTRIES = 100;
+    public static final int DEFAULT_MAX_SIZE = 10 * 1024 * 1024;
+
+    private int maxEntries;
+    private long maxSize;
+
+    private LinkedHashMap<Key, String> results = new LinkedHashMap<Key, String>(16, 0.75f, true);
+    private int version;
+    private long size;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public QueryResultCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     *  @param maxEntries the maximum number of results to keep.
+     *  @param maxSize    the maximum total length of the results to
+     *                    keep, in characters.
+     */
+    public QueryResultCache(int maxEntries, long maxSize) {
+        this.maxEntries = maxEntries;
+        this.maxSize = maxSize;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     *  @return the result of the query identified by <code>key</code>
+     *          against graph version <code>version</code>, or
+     *          <code>null</code> if it is not in the cache.
+     */
+    public synchronized String get(int version, Key key) {
+        moveTo(version);
+
+        String result = null;
+        if (version == this.version) {
+            result = results.get(key);
+        }
+
+        if (result != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug((result != null ? "Hit" : "Miss") + " for " + key + " in version " + version);
+        }
+
+        return result;
+    }
+
+    /**
+     *  Remembers the result of a query.  It is silently dropped if a
+     *  newer graph version has been seen since, or if it is too large.
+     */
+    public synchronized void put(int version, Key key, String result) {
+        moveTo(version);
+
+        if (version != this.version || result.length() > maxSize || maxEntries < 1) {
+            return;
+        }
+
+        String previous = results.put(key, result);
+        if (previous != null) {
+            size -= previous.length();
+        }
+        size += result.length();
+
+        Iterator<Map.Entry<Key, String>> i = results.entrySet().iterator();
+        while (results.size() > maxEntries || size > maxSize) {
+            Map.Entry<Key, String> eldest = i.next();
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Evicting " + eldest.getKey());
+            }
+            size -= eldest.getValue().length();
+            i.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     *  Drops all results.  Statistics are kept.
+     */
+    public synchronized void invalidate() {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Invalidating " + results.size() + " result(s)");
+        }
+
+        results.clear();
+        size = 0;
+    }
+
+    private void moveTo(int version) {
+        if (version > this.version) {
+            invalidate();
+            this.version = version;
+        }
+    }
+
+    public synchronized int getNbEntries() {
+        return results.size();
+    }
+
+    /**
+     *  @return the total length of the results in the cache, in
+     *          characters.
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     *  @return the proportion of lookups that were hits, between 0 and
+     *          1, or 0 if there has not been any lookup yet.
+     */
+    public synchronized double getHitRatio() {
+        long lookups = hits + misses;
+        return lookups > 0 ? hits / (double) lookups : 0;
+    }
+
+    /**
+     *  <p>Identifies a query: the page that runs it and the values of
+     *  the parameters that affect its result.  Lists of regular
+     *  expressions are parsed first, so that lists that only differ in
+     *  spacing between the expressions are the same.</p>
+     *
+     *  <p>Parameters must always be added in the same order for a given
+     *  page.</p>
+     *
+     *  <p>A cached result is served to every request with the same key,
+     *  so the links in it must not depend on anything else in the
+     *  request.  Pages build them from {@link #getURLPattern(String)}
+     *  rather than from the request's parameters.</p>
+     */
+    public static class Key {
+        private static final String ENCODING = "UTF-8";
+
+        private String page;
+        private StringBuffer buffer = new StringBuffer();
+        private Map<String, String> parameters = new LinkedHashMap<String, String>();
+
+        public Key(String page) {
+            this.page = page;
+            buffer.append(page);
+        }
+
+        public Key add(String name, String value) {
+            return add(name, value, value);
+        }
+
+        /**
+         *  Checkboxes only appear in links when they are checked.
+         */
+        public Key add(String name, boolean value) {
+            return add(name, String.valueOf(value), value ? "on" : null);
+        }
+
+        public Key add(String name, int value) {
+            return add(name, String.valueOf(value));
+        }
+
+        public Key addExpressions(String name, String expressions) {
+            List<String> parsedExpressions = RegularExpressionParser.parseRE(expressions);
+
+            StringBuffer parameter = new StringBuffer();
+            for (String expression : parsedExpressions) {
+                if (parameter.length() > 0) {
+                    parameter.append(", ");
+                }
+                parameter.append(expression);
+            }
+
+            return add(name, parsedExpressions.toString(), parameter.toString());
+        }
+
+        private Key add(String name, String value, String parameter) {
+            buffer.append('\n').append(name).append('=').append(value);
+            if (parameter != null) {
+                parameters.put(name, parameter);
+            }
+            return this;
+        }
+
+        /**
+         *  @param linkedName the parameter that links set to the node
+         *                    they point to, as <code>/^{0}/</code>.
+         *  @return a {@link java.text.MessageFormat} pattern for links
+         *          that run the same query on another node, built only
+         *          from the parameters in this key.
+         */
+        public String getURLPattern(String linkedName) {
+            StringBuffer result = new StringBuffer();
+
+            result.append(page).append("?");
+            for (Map.Entry<String, String> entry : parameters.entrySet()) {
+                result.append(encode(entry.getKey())).append("=");
+                if (entry.getKey().equals(linkedName)) {
+                    result.append("/^{0}/");
+                } else {
+                    result.append(encode(entry.getValue()));
+                }
+                result.append("&");
+            }
+            result.append("submit=Run");
+
+            return result.toString();
+        }
+
+        private static String encode(String s) {
+            String result;
+
+            try {
+                result = URLEncoder.encode(s, ENCODING);
+            } catch (UnsupportedEncodingException ex) {
+                throw new IllegalStateException(ENCODING + " is not available", ex);
+            }
+
+            return result;
+        }
+
+        public boolean equals(Object object) {
+            return object instanceof Key && toString().equals(object.toString());
+        }
+
+        public int hashCode() {
+            return toString().hashCode();
+        }
+
+        public String toString() {
+            return buffer.toString();
+        }
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.util.*;
+
+import org.apache.oro.text.*;
+import org.apache.oro.text.regex.*;
+
+/**
+ *  <p>Matches names against a list of Perl5 regular expressions
+ *  written the way {@link org.apache.oro.text.perl.Perl5Util} expects
+ *  them, such as <code>/^java\.lang\./</code> or <code>m#Test#i</code>.
+ *  A name matches if any of the expressions matches part of it.</p>
+ *
+ *  <p>The expressions are parsed and compiled once, in the
+ *  constructor.  Expressions that are plain text, possibly anchored
+ *  with <code>^</code> and <code>$</code>, do not need a regular
+ *  expression engine at all: anchored ones go in a character trie
+ *  and the others are checked with <code>String</code> methods.  The
+ *  remaining expressions are compiled into ORO patterns.</p>
+ *
+ *  <p>Instances cannot change once built and can be shared between
+ *  threads.  Each thread gets its own {@link Perl5Matcher}.</p>
+ */
+class RegularExpressionMatcher {
+    private static final Pattern EXPRESSION_FORMAT;
+    private static final String METACHARACTERS = ".[]{}()*+?|^$";
+
+    private static final ThreadLocal<Perl5Matcher> matcher = new ThreadLocal<Perl5Matcher>() {
+        protected Perl5Matcher initialValue() {
+            return new Perl5Matcher();
+        }
+    };
+
+    static {
+        try {
+            EXPRESSION_FORMAT = new Perl5Compiler().compile("m?(\\W)(.*)\\1([imsx]*)", Perl5Compiler.SINGLELINE_MASK);
+        } catch (MalformedPatternException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    private Trie anchored = new Trie();
+    private Collection<String> suffixes = new ArrayList<String>();
+    private Collection<String> substrings = new ArrayList<String>();
+    private Collection<Pattern> patterns = new ArrayList<Pattern>();
+
+    private boolean empty = true;
+
+    public RegularExpressionMatcher(Collection<String> regularExpressions) {
+        Perl5Compiler compiler = new Perl5Compiler();
+
+        for (String regularExpression : regularExpressions) {
+            add(compiler, regularExpression);
+            empty = false;
+        }
+    }
+
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    public boolean matches(String name) {
+        if (empty) {
+            return false;
+        }
+
+        if (anchored.matches(name)) {
+            return true;
+        }
+
+        for (String suffix : suffixes) {
+            if (name.endsWith(suffix)) {
+                return true;
+            }
+        }
+
+        for (String substring : substrings) {
+            if (name.contains(substring)) {
+                return true;
+            }
+        }
+
+        if (!patterns.isEmpty()) {
+            Perl5Matcher perl5Matcher = matcher.get();
+            char[] input = name.toCharArray();
+            for (Pattern pattern : patterns) {
+                if (perl5Matcher.contains(input, pattern)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private void add(Perl5Compiler compiler, String regularExpression) {
+        Perl5Matcher perl5Matcher = matcher.get();
+        if (!perl5Matcher.matches(regularExpression, EXPRESSION_FORMAT)) {
+            throw new MatchException(regularExpression, new MalformedCachePatternException("Invalid expression: " + regularExpression));
+        }
+
+        MatchResult result = perl5Matcher.getMatch();
+        String body = result.group(2);
+        String options = result.group(3);
+
+        if ((options == null || options.length() == 0 || options.equals("s")) && addLiteral(body)) {
+            return;
+        }
+
+        try {
+            patterns.add(compiler.compile(body, compileOptions(options)));
+        } catch (MalformedPatternException ex) {
+            throw new MatchException(regularExpression, new MalformedCachePatternException(ex.getMessage()));
+        }
+    }
+
+    private boolean addLiteral(String body) {
+        int start = 0;
+        int end = body.length();
+
+        boolean atStart = body.startsWith("^");
+        if (atStart) {
+            start++;
+        }
+
+        // "\$" is a literal dollar sign, not an anchor
+        boolean atEnd = end > start && body.charAt(end - 1) == '$' && (end - 2 < start || body.charAt(end - 2) != '\\');
+        if (atEnd) {
+            end--;
+        }
+
+        String literal = unescape(body, start, end);
+        if (literal == null) {
+            return false;
+        }
+
+        // Like Perl, $ also matches before a trailing newline
+        if (atStart) {
+            anchored.add(literal, !atEnd);
+        } else if (atEnd) {
+            suffixes.add(literal);
+            suffixes.add(literal + "\n");
+        } else {
+            substrings.add(literal);
+        }
+
+        return true;
+    }
+
+    private static String unescape(String body, int start, int end) {
+        StringBuilder result = new StringBuilder(end - start);
+
+        for (int i = start; i < end; i++) {
+            char c = body.charAt(i);
+            if (c == '\\') {
+                i++;
+                if (i == end || Character.isLetterOrDigit(body.charAt(i))) {
+                    return null;
+                }
+                result.append(body.charAt(i));
+            } else if (METACHARACTERS.indexOf(c) != -1) {
+                return null;
+            } else {
+                result.append(c);
+            }
+        }
+
+        return result.toString();
+    }
+
+    private static int compileOptions(String options) {
+        int result = Perl5Compiler.DEFAULT_MASK;
+
+        if (options != null) {
+            for (int i = 0; i < options.length(); i++) {
+                switch (options.charAt(i)) {
+                    case 'i':
+                        result |= Perl5Compiler.CASE_INSENSITIVE_MASK;
+                        break;
+                    case 'm':
+                        result |= Perl5Compiler.MULTILINE_MASK;
+                        break;
+                    case 's':
+                        result |= Perl5Compiler.SINGLELINE_MASK;
+                        break;
+                    case 'x':
+                        result |= Perl5Compiler.EXTENDED_MASK;
+                        break;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     *  Character trie of the literals that must match at the start of
+     *  the name.  A node marked as a prefix matches any name that
+     *  reaches it; a node marked as exact only matches if the name
+     *  ends there, or right before a final newline.
+     */
+    private static class Trie {
+        private char[] labels = new char[0];
+        private Trie[] children = new Trie[0];
+        private boolean prefix = false;
+        private boolean exact = false;
+
+        public void add(String literal, boolean isPrefix) {
+            Trie node = this;
+            for (int i = 0; i < literal.length(); i++) {
+                node = node.getOrCreateChild(literal.charAt(i));
+            }
+
+            if (isPrefix) {
+                node.prefix = true;
+            } else {
+                node.exact = true;
+            }
+        }
+
+        public boolean matches(String name) {
+            Trie node = this;
+            int length = name.length();
+
+            for (int i = 0; node != null; i++) {
+                if (node.prefix) {
+                    return true;
+                }
+
+                if (node.exact && (i == length || (i == length - 1 && name.charAt(i) == '\n'))) {
+                    return true;
+                }
+
+                node = i < length ? node.getChild(name.charAt(i)) : null;
+            }
+
+            return false;
+        }
+
+        private Trie getChild(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Trie getOrCreateChild(char label) {
+            int index = Arrays.binarySearch(labels, label);
+
+            if (index < 0) {
+                index = -(index + 1);
+
+                char[] newLabels = new char[labels.length + 1];
+                System.arraycopy(labels, 0, newLabels, 0, index);
+                System.arraycopy(labels, index, newLabels, index + 1, labels.length - index);
+                newLabels[index] = label;
+
+                Trie[] newChildren = new Trie[children.length + 1];
+                System.arraycopy(children, 0, newChildren, 0, index);
+                System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+                newChildren[index] = new Trie();
+
+                labels = newLabels;
+                children = newChildren;
+            }
+
+            return children[index];
+        }
+    }
+}
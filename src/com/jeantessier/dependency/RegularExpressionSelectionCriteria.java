@@ -33,14 +33,29 @@
 package com.jeantessier.dependency;
 
 import java.util.*;
-
-import org.apache.oro.text.perl.*;
-import org.apache.oro.text.*;
+import java.util.concurrent.*;
 
 import com.jeantessier.text.*;
 
+/**
+ *  <p>Selects nodes whose names match lists of Perl5 regular
+ *  expressions.  A name is selected if it matches at least one
+ *  global or kind-specific include and none of the global or
+ *  kind-specific excludes.</p>
+ *
+ *  <p>Each include and exclude list is compiled once, the first time
+ *  it is needed, and recompiled only after one of the setters
+ *  changes it.  Results are remembered per name, up to
+ *  {@link #MAX_MEMO_SIZE} names of each kind; when a memo is full, it
+ *  is cleared and starts over.  Instances can be shared between
+ *  threads once they are configured.</p>
+ *
+ *  <p>Setters copy the lists they are given and getters return
+ *  read-only views, so the expressions only change through the
+ *  setters, which also discard the compiled matchers.</p>
+ */
 public class RegularExpressionSelectionCriteria implements SelectionCriteria {
-    private Perl5Util perl = new Perl5Util(new MaximumCapacityPatternCache());
+    public static final int MAX_MEMO_SIZE = 100000;
 
     private List<String> globalIncludes = new LinkedList<String>();
     private List<String> globalExcludes = new LinkedList<String>();
@@ -53,6 +68,10 @@ public class RegularExpressionSelectionCriteria implements SelectionCriteria {
     private boolean matchingFeatures = true;
     private List<String> featureIncludes = new LinkedList<String>();
     private List<String> featureExcludes = new LinkedList<String>();
+
+    private volatile Compiled packageMatcher;
+    private volatile Compiled classMatcher;
+    private volatile Compiled featureMatcher;
     
     public RegularExpressionSelectionCriteria() {
         // Do nothing
@@ -63,7 +82,7 @@ public class RegularExpressionSelectionCriteria implements SelectionCriteria {
     }
 
     public List<String> getGlobalIncludes() {
-        return globalIncludes;
+        return Collections.unmodifiableList(globalIncludes);
     }
 
     public void setGlobalIncludes(String globalIncludes) {
@@ -71,11 +90,14 @@ public class RegularExpressionSelectionCriteria implements SelectionCriteria {
     }
     
     public void setGlobalIncludes(List<String> globalIncludes) {
-        this.globalIncludes = globalIncludes;
+        this.globalIncludes = new LinkedList<String>(globalIncludes);
+        packageMatcher = null;
+        classMatcher = null;
+        featureMatcher = null;
     }
 
     public List<String> getGlobalExcludes() {
-        return globalExcludes;
+        return Collections.unmodifiableList(globalExcludes);
     }
 
     public void setGlobalExcludes(String globalExcludes) {
@@ -83,7 +105,10 @@ public class RegularExpressionSelectionCriteria implements SelectionCriteria {
     }
 
     public void setGlobalExcludes(List<String> globalExcludes) {
-        this.globalExcludes = globalExcludes;
+        this.globalExcludes = new LinkedList<String>(globalExcludes);
+        packageMatcher = null;
+        classMatcher = null;
+        featureMatcher = null;
     }
 
     public boolean isMatchingPackages() {
@@ -95,7 +120,7 @@ public class RegularExpressionSelectionCriteria implements SelectionCriteria {
     }
 
     public List<String> getPackageIncludes() {
-        return packageIncludes;
+        return Collections.unmodifiableList(packageIncludes);
     }
 
     public void setPackageIncludes(String packageIncludes) {
@@ -103,11 +128,12 @@ public class RegularExpressionSelectionCriteria implements SelectionCriteria {
     }
 
     public void setPackageIncludes(List<String> packageIncludes) {
-        this.packageIncludes = packageIncludes;
+        this.packageIncludes = new LinkedList<String>(packageIncludes);
+        packageMatcher = null;
     }
 
     public List<String> getPackageExcludes() {
-        return packageExcludes;
+        return Collections.unmodifiableList(packageExcludes);
     }
 
     public void setPackageExcludes(String packageExcludes) {
@@ -115,7 +141,8 @@ public class RegularExpressionSelectionCriteria implements SelectionCriteria {
     }
 
     public void setPackageExcludes(List<String> packageExcludes) {
-        this.packageExcludes = packageExcludes;
+        this.packageExcludes = new LinkedList<String>(packageExcludes);
+        packageMatcher = null;
     }
 
     public boolean isMatchingClasses() {
@@ -127,7 +154,7 @@ public class RegularExpressionSelectionCriteria implements SelectionCriteria {
     }
 
     public List<String> getClassIncludes() {
-        return classIncludes;
+        return Collections.unmodifiableList(classIncludes);
     }
 
     public void setClassIncludes(String classIncludes) {
@@ -135,11 +162,12 @@ public class RegularExpressionSelectionCriteria implements SelectionCriteria {
     }
 
     public void setClassIncludes(List<String> classIncludes) {
-        this.classIncludes = classIncludes;
+        this.classIncludes = new LinkedList<String>(classIncludes);
+        classMatcher = null;
     }
 
     public List<String> getClassExcludes() {
-        return classExcludes;
+        return Collections.unmodifiableList(classExcludes);
     }
 
     public void setClassExcludes(String classExcludes) {
@@ -147,7 +175,8 @@ public class RegularExpressionSelectionCriteria implements SelectionCriteria {
     }
 
     public void setClassExcludes(List<String> classExcludes) {
-        this.classExcludes = classExcludes;
+        this.classExcludes = new LinkedList<String>(classExcludes);
+        classMatcher = null;
     }
 
     public boolean isMatchingFeatures() {
@@ -159,7 +188,7 @@ public class RegularExpressionSelectionCriteria implements SelectionCriteria {
     }
 
     public List<String> getFeatureIncludes() {
-        return featureIncludes;
+        return Collections.unmodifiableList(featureIncludes);
     }
 
     public void setFeatureIncludes(String featureIncludes) {
@@ -167,11 +196,12 @@ public class RegularExpressionSelectionCriteria implements SelectionCriteria {
     }
 
     public void setFeatureIncludes(List<String> featureIncludes) {
-        this.featureIncludes = featureIncludes;
+        this.featureIncludes = new LinkedList<String>(featureIncludes);
+        featureMatcher = null;
     }
 
     public List<String> getFeatureExcludes() {
-        return featureExcludes;
+        return Collections.unmodifiableList(featureExcludes);
     }
 
     public void setFeatureExcludes(String featureExcludes) {
@@ -179,7 +209,8 @@ public class RegularExpressionSelectionCriteria implements SelectionCriteria {
     }
 
     public void setFeatureExcludes(List<String> featureExcludes) {
-        this.featureExcludes = featureExcludes;
+        this.featureExcludes = new LinkedList<String>(featureExcludes);
+        featureMatcher = null;
     }
 
     public boolean matches(PackageNode node) {
@@ -195,44 +226,64 @@ public class RegularExpressionSelectionCriteria implements SelectionCriteria {
     }
 
     public boolean matchesPackageName(String name) {
-        return matches(getGlobalIncludes(), getPackageIncludes(), name) &&
-            !matches(getGlobalExcludes(), getPackageExcludes(), name);
+        Compiled compiled = packageMatcher;
+        if (compiled == null) {
+            compiled = packageMatcher = new Compiled(getPackageIncludes(), getPackageExcludes());
+        }
+        return compiled.matches(name);
     }
 
     public boolean matchesClassName(String name) {
-        return matches(getGlobalIncludes(), getClassIncludes(), name) &&
-            !matches(getGlobalExcludes(), getClassExcludes(), name);
+        Compiled compiled = classMatcher;
+        if (compiled == null) {
+            compiled = classMatcher = new Compiled(getClassIncludes(), getClassExcludes());
+        }
+        return compiled.matches(name);
     }
 
     public boolean matchesFeatureName(String name) {
-        return matches(getGlobalIncludes(), getFeatureIncludes(), name) &&
-            !matches(getGlobalExcludes(), getFeatureExcludes(), name);
-    }
+        Compiled compiled = featureMatcher;
+        if (compiled == null) {
+            compiled = featureMatcher = new Compiled(getFeatureIncludes(), getFeatureExcludes());
+        }
+        return compiled.matches(name);
+    }
+
+    /**
+     *  Includes and excludes for one kind of node, combined with the
+     *  global ones, plus the results so far.  Two threads may compile
+     *  the same lists at the same time; both copies give the same
+     *  answers and the last one wins.
+     */
+    private class Compiled {
+        private RegularExpressionMatcher includes;
+        private RegularExpressionMatcher excludes;
+        private ConcurrentMap<String, Boolean> memo = new ConcurrentHashMap<String, Boolean>();
+
+        public Compiled(List<String> includes, List<String> excludes) {
+            this.includes = new RegularExpressionMatcher(concat(getGlobalIncludes(), includes));
+            this.excludes = new RegularExpressionMatcher(concat(getGlobalExcludes(), excludes));
+        }
 
-    private boolean matches(List<String> globalRegularExpressions, List<String> regularExpressions, String name) {
-        boolean  found = false;
-        Iterator<String> i;
+        public boolean matches(String name) {
+            Boolean result = memo.get(name);
 
-        i = globalRegularExpressions.iterator();
-        while (!found && i.hasNext()) {
-            String regex = i.next();
-            try {
-                found = perl.match(regex, name);
-            } catch (MalformedCachePatternException ex) {
-                throw new MatchException(regex, ex);
+            if (result == null) {
+                result = includes.matches(name) && !excludes.matches(name);
+                if (memo.size() >= MAX_MEMO_SIZE) {
+                    memo.clear();
+                }
+                memo.put(name, result);
             }
-        }
 
-        i = regularExpressions.iterator();
-        while (!found && i.hasNext()) {
-            String regex = i.next();
-            try {
-                found = perl.match(regex, name);
-            } catch (MalformedCachePatternException ex) {
-                throw new MatchException(regex, ex);
-            }
+            return result;
         }
 
-        return found;
+        private List<String> concat(List<String> global, List<String> specific) {
+            List<String> result = new ArrayList<String>(global.size() + specific.size());
+            result.addAll(global);
+            result.addAll(specific);
+            return result;
+        }
     }
 }
@@ -0,0 +1,613 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.jeantessier.dependency;
+
+import java.util.*;
+
+/**
+ *  <p>Finds the shortest dependency paths from programming elements
+ *  that match a start criteria to programming elements that match a
+ *  target criteria.</p>
+ *
+ *  <p>The search runs breadth-first from both ends at once: outbound
+ *  from the start nodes and inbound from the target nodes, always
+ *  expanding the smaller of the two frontiers by one layer.  It stops
+ *  as soon as the frontiers meet, so it only visits the part of the
+ *  graph that is closer to either end than the shortest path.  A
+ *  {@link TransitiveClosure} from the same start nodes would have to
+ *  visit everything they can reach.</p>
+ *
+ *  <p>A path goes through at least one dependency.  It starts with
+ *  its only start node and ends with its only target node, so a node
+ *  that matches both criteria can begin a path or end one, but never
+ *  sit in the middle of one.</p>
+ *
+ *  <p>By default, the finder keeps every path of the shortest length.
+ *  Call {@link #setMaximumNbPaths(int)} to get the <i>k</i> shortest
+ *  paths instead, shortest first, even if some of them are longer
+ *  than others.  These are computed with Yen's algorithm, running
+ *  one bidirectional search per deviation from the paths found so
+ *  far.</p>
+ *
+ *  <p>The {@link Granularity} decides which nodes the paths go
+ *  through.  With {@link Granularity#PACKAGE}, a package depends on
+ *  another package if it, or any of its classes or features, depends
+ *  on that package or anything in it, the same way
+ *  {@link GraphSummarizer} lifts dependencies.  With
+ *  {@link Granularity#CLASS}, dependencies are lifted to the classes
+ *  and dependencies on packages are ignored.  With
+ *  {@link Granularity#FEATURE}, the default, the finder follows the
+ *  dependencies exactly as they are in the graph.</p>
+ *
+ *  <p>The nodes and dependencies on the paths are copied into
+ *  {@link #getFactory()}, ready for any {@link Printer}.</p>
+ */
+public class ShortestPathFinder {
+    public enum Granularity {
+        PACKAGE,
+        CLASS,
+        FEATURE
+    }
+
+    public static final int ALL_SHORTEST_PATHS = 0;
+    public static final int NO_PATH = -1;
+
+    private SelectionCriteria startCriteria;
+    private SelectionCriteria targetCriteria;
+
+    private Granularity granularity = Granularity.FEATURE;
+    private int maximumNbPaths = ALL_SHORTEST_PATHS;
+
+    private Set<Node> startNodes = new HashSet<Node>();
+    private Set<Node> targetNodes = new HashSet<Node>();
+
+    private Map<Node, Collection<Node>> outboundNeighbors = new HashMap<Node, Collection<Node>>();
+    private Map<Node, Collection<Node>> inboundNeighbors = new HashMap<Node, Collection<Node>>();
+
+    private int distance = NO_PATH;
+    private int nbVisitedNodes = 0;
+
+    private List<List<Node>> paths;
+    private SortedSet<Node> pathStarts = new TreeSet<Node>();
+    private Map<Node, SortedSet<Node>> pathEdges = new HashMap<Node, SortedSet<Node>>();
+
+    private NodeFactory factory = new NodeFactory();
+    private Map<Node, Node> copies = new HashMap<Node, Node>();
+
+    public ShortestPathFinder(SelectionCriteria startCriteria, SelectionCriteria targetCriteria) {
+        this.startCriteria = startCriteria;
+        this.targetCriteria = targetCriteria;
+    }
+
+    public Granularity getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(Granularity granularity) {
+        this.granularity = granularity;
+    }
+
+    public int getMaximumNbPaths() {
+        return maximumNbPaths;
+    }
+
+    /**
+     *  @param maximumNbPaths how many of the shortest paths to find, or
+     *                        {@link #ALL_SHORTEST_PATHS} for every path
+     *                        of the shortest length.
+     */
+    public void setMaximumNbPaths(int maximumNbPaths) {
+        this.maximumNbPaths = maximumNbPaths;
+    }
+
+    public NodeFactory getFactory() {
+        return factory;
+    }
+
+    /**
+     *  @return the number of dependencies on the shortest path, or
+     *          {@link #NO_PATH} if no target can be reached from the
+     *          start nodes.
+     */
+    public int getDistance() {
+        return distance;
+    }
+
+    /**
+     *  @return how many nodes the searches reached, a measure of how
+     *          much of the graph they had to explore.
+     */
+    public int getNbVisitedNodes() {
+        return nbVisitedNodes;
+    }
+
+    /**
+     *  Lists the paths as sequences of nodes from the original graph,
+     *  shortest first.  In {@link #ALL_SHORTEST_PATHS} mode, the list
+     *  is enumerated on demand and can be very long when many paths
+     *  share the same length.
+     */
+    public List<List<Node>> getPaths() {
+        if (paths == null) {
+            paths = new ArrayList<List<Node>>();
+            for (Node node : pathStarts) {
+                LinkedList<Node> path = new LinkedList<Node>();
+                path.add(node);
+                enumeratePaths(path);
+            }
+        }
+
+        return paths;
+    }
+
+    private void enumeratePaths(LinkedList<Node> path) {
+        Collection<Node> nextNodes = pathEdges.get(path.getLast());
+
+        if (path.size() == distance + 1) {
+            paths.add(new ArrayList<Node>(path));
+        } else if (nextNodes != null) {
+            for (Node node : nextNodes) {
+                path.addLast(node);
+                enumeratePaths(path);
+                path.removeLast();
+            }
+        }
+    }
+
+    public void findPaths(Collection<? extends Node> packages) {
+        selectNodes(packages);
+
+        if (getMaximumNbPaths() == ALL_SHORTEST_PATHS) {
+            findAllShortestPaths();
+        } else {
+            findShortestPaths(getMaximumNbPaths());
+        }
+    }
+
+    private void selectNodes(Collection<? extends Node> packages) {
+        for (Node node : packages) {
+            PackageNode packageNode = (PackageNode) node;
+            selectNode(packageNode, startCriteria.matches(packageNode), targetCriteria.matches(packageNode));
+
+            for (ClassNode classNode : packageNode.getClasses()) {
+                selectNode(classNode, startCriteria.matches(classNode), targetCriteria.matches(classNode));
+
+                for (FeatureNode featureNode : classNode.getFeatures()) {
+                    selectNode(featureNode, startCriteria.matches(featureNode), targetCriteria.matches(featureNode));
+                }
+            }
+        }
+    }
+
+    private void selectNode(Node node, boolean start, boolean target) {
+        Node liftedNode = lift(node);
+
+        if (liftedNode != null) {
+            if (start) {
+                startNodes.add(liftedNode);
+            }
+
+            if (target) {
+                targetNodes.add(liftedNode);
+            }
+        }
+    }
+
+    private void findAllShortestPaths() {
+        Search search = new Search(Collections.<Node>emptySet(), Collections.<Node, Set<Node>>emptyMap());
+        search.run(startNodes);
+
+        distance = search.getDistance();
+        if (distance != NO_PATH) {
+            search.collectAllPaths();
+
+            for (Map.Entry<Node, SortedSet<Node>> entry : pathEdges.entrySet()) {
+                for (Node node : entry.getValue()) {
+                    getCopy(entry.getKey()).addDependency(getCopy(node));
+                }
+            }
+        }
+    }
+
+    /**
+     *  Yen's algorithm, with a virtual root in front of all the start
+     *  nodes so that paths can begin with different start nodes.
+     */
+    private void findShortestPaths(int k) {
+        paths = new ArrayList<List<Node>>();
+
+        Search search = new Search(Collections.<Node>emptySet(), Collections.<Node, Set<Node>>emptyMap());
+        search.run(startNodes);
+        List<Node> path = search.getPath();
+
+        SortedSet<List<Node>> candidates = new TreeSet<List<Node>>(new PathComparator());
+        while (path != null) {
+            paths.add(path);
+
+            if (paths.size() < k) {
+                for (int i = -1; i < path.size() - 1; i++) {
+                    List<Node> root = path.subList(0, i + 1);
+
+                    Set<Node> sources = new HashSet<Node>();
+                    if (i == -1) {
+                        sources.addAll(startNodes);
+                    } else {
+                        sources.add(path.get(i));
+                    }
+
+                    Map<Node, Set<Node>> blockedEdges = new HashMap<Node, Set<Node>>();
+                    for (List<Node> previousPath : paths) {
+                        if (previousPath.size() > i + 1 && previousPath.subList(0, i + 1).equals(root)) {
+                            if (i == -1) {
+                                sources.remove(previousPath.get(0));
+                            } else {
+                                Set<Node> blockedNodes = blockedEdges.get(previousPath.get(i));
+                                if (blockedNodes == null) {
+                                    blockedNodes = new HashSet<Node>();
+                                    blockedEdges.put(previousPath.get(i), blockedNodes);
+                                }
+                                blockedNodes.add(previousPath.get(i + 1));
+                            }
+                        }
+                    }
+
+                    // The first node is a start node, so it cannot be in the
+                    // middle of the spur path anyway, and it must remain
+                    // reachable as a target if the path is a cycle.
+                    Set<Node> blockedNodes = new HashSet<Node>();
+                    if (i > 1) {
+                        blockedNodes.addAll(path.subList(1, i));
+                    }
+
+                    search = new Search(blockedNodes, blockedEdges);
+                    search.run(sources);
+                    List<Node> spurPath = search.getPath();
+
+                    if (spurPath != null) {
+                        List<Node> candidate = new ArrayList<Node>(path.subList(0, Math.max(i, 0)));
+                        candidate.addAll(spurPath);
+                        if (!paths.contains(candidate)) {
+                            candidates.add(candidate);
+                        }
+                    }
+                }
+            }
+
+            if (paths.size() < k && !candidates.isEmpty()) {
+                path = candidates.first();
+                candidates.remove(path);
+            } else {
+                path = null;
+            }
+        }
+
+        if (!paths.isEmpty()) {
+            distance = paths.get(0).size() - 1;
+        }
+
+        for (List<Node> shortestPath : paths) {
+            Node previous = null;
+            for (Node node : shortestPath) {
+                Node copy = getCopy(node);
+                if (previous != null) {
+                    previous.addDependency(copy);
+                }
+                previous = copy;
+            }
+        }
+    }
+
+    /**
+     *  @return the node that stands for this one at the current
+     *          granularity, or <code>null</code> if there is none.
+     */
+    private Node lift(Node node) {
+        Node result = node;
+
+        if (granularity == Granularity.PACKAGE) {
+            if (node instanceof ClassNode) {
+                result = ((ClassNode) node).getPackageNode();
+            } else if (node instanceof FeatureNode) {
+                result = ((FeatureNode) node).getClassNode().getPackageNode();
+            }
+        } else if (granularity == Granularity.CLASS) {
+            if (node instanceof PackageNode) {
+                result = null;
+            } else if (node instanceof FeatureNode) {
+                result = ((FeatureNode) node).getClassNode();
+            }
+        }
+
+        return result;
+    }
+
+    private Collection<Node> getNeighbors(Node node, boolean outbound) {
+        Map<Node, Collection<Node>> cache = outbound ? outboundNeighbors : inboundNeighbors;
+        Collection<Node> result = cache.get(node);
+
+        if (result == null) {
+            result = new HashSet<Node>();
+
+            Collection<Node> members = new ArrayList<Node>();
+            members.add(node);
+            if (granularity == Granularity.PACKAGE && node instanceof PackageNode) {
+                for (ClassNode classNode : ((PackageNode) node).getClasses()) {
+                    members.add(classNode);
+                    members.addAll(classNode.getFeatures());
+                }
+            } else if (granularity == Granularity.CLASS && node instanceof ClassNode) {
+                members.addAll(((ClassNode) node).getFeatures());
+            }
+
+            for (Node member : members) {
+                for (Node dependency : outbound ? member.getOutboundDependencies() : member.getInboundDependencies()) {
+                    Node neighbor = lift(dependency);
+                    if (neighbor != null && !neighbor.equals(node)) {
+                        result.add(neighbor);
+                    }
+                }
+            }
+
+            cache.put(node, result);
+        }
+
+        return result;
+    }
+
+    private Node getCopy(Node node) {
+        Node result = copies.get(node);
+
+        if (result == null) {
+            if (node instanceof PackageNode) {
+                result = factory.createPackage(node.getName(), node.isConfirmed());
+            } else if (node instanceof ClassNode) {
+                result = factory.createClass(node.getName(), node.isConfirmed());
+            } else {
+                FeatureNode featureNode = (FeatureNode) node;
+                ClassNode parent = factory.createClass(featureNode.getClassNode().getName(), featureNode.isConfirmed());
+                result = factory.createFeature(parent, featureNode.getName(), featureNode.isConfirmed());
+            }
+            copies.put(node, result);
+        }
+
+        return result;
+    }
+
+    /**
+     *  One bidirectional breadth-first search, avoiding some nodes and
+     *  some dependencies.
+     */
+    private class Search {
+        private Set<Node> blockedNodes;
+        private Map<Node, Set<Node>> blockedEdges;
+
+        private Map<Node, Integer> forwardDistances = new HashMap<Node, Integer>();
+        private Map<Node, Collection<Node>> predecessors = new HashMap<Node, Collection<Node>>();
+        private Collection<Node> forwardLayer = new ArrayList<Node>();
+        private int forwardDepth = 0;
+
+        private Map<Node, Integer> backwardDistances = new HashMap<Node, Integer>();
+        private Map<Node, Collection<Node>> successors = new HashMap<Node, Collection<Node>>();
+        private Collection<Node> backwardLayer = new ArrayList<Node>();
+        private int backwardDepth = 0;
+
+        private int length = NO_PATH;
+        private List<Node[]> meetings = new ArrayList<Node[]>();
+
+        public Search(Set<Node> blockedNodes, Map<Node, Set<Node>> blockedEdges) {
+            this.blockedNodes = blockedNodes;
+            this.blockedEdges = blockedEdges;
+        }
+
+        public int getDistance() {
+            return length;
+        }
+
+        public void run(Collection<Node> sources) {
+            for (Node node : sources) {
+                if (!blockedNodes.contains(node)) {
+                    forwardDistances.put(node, 0);
+                    forwardLayer.add(node);
+                }
+            }
+
+            for (Node node : targetNodes) {
+                if (!blockedNodes.contains(node)) {
+                    backwardDistances.put(node, 0);
+                    backwardLayer.add(node);
+                }
+            }
+
+            nbVisitedNodes += forwardLayer.size() + backwardLayer.size();
+
+            while (length == NO_PATH && !forwardLayer.isEmpty() && !backwardLayer.isEmpty()) {
+                if (forwardLayer.size() <= backwardLayer.size()) {
+                    forwardLayer = expand(forwardLayer, forwardDepth++, forwardDistances, predecessors, backwardDistances, true);
+                } else {
+                    backwardLayer = expand(backwardLayer, backwardDepth++, backwardDistances, successors, forwardDistances, false);
+                }
+            }
+        }
+
+        private Collection<Node> expand(Collection<Node> layer, int depth, Map<Node, Integer> distances, Map<Node, Collection<Node>> parents, Map<Node, Integer> otherDistances, boolean outbound) {
+            Collection<Node> result = new ArrayList<Node>();
+
+            for (Node node : layer) {
+                for (Node neighbor : getNeighbors(node, outbound)) {
+                    Node from = outbound ? node : neighbor;
+                    Node to = outbound ? neighbor : node;
+                    if (isBlocked(from, to)) {
+                        continue;
+                    }
+
+                    Integer otherDistance = otherDistances.get(neighbor);
+                    if (otherDistance != null) {
+                        meet(from, to, depth + 1 + otherDistance);
+                    } else if (!startNodes.contains(neighbor) && !targetNodes.contains(neighbor)) {
+                        Integer neighborDistance = distances.get(neighbor);
+                        if (neighborDistance == null) {
+                            distances.put(neighbor, depth + 1);
+                            parents.put(neighbor, new ArrayList<Node>());
+                            result.add(neighbor);
+                        }
+                        if (neighborDistance == null || neighborDistance == depth + 1) {
+                            parents.get(neighbor).add(node);
+                        }
+                    }
+                }
+            }
+
+            nbVisitedNodes += result.size();
+
+            return result;
+        }
+
+        private boolean isBlocked(Node from, Node to) {
+            Set<Node> blockedTargets = blockedEdges.get(from);
+            return blockedNodes.contains(from) || blockedNodes.contains(to) || (blockedTargets != null && blockedTargets.contains(to));
+        }
+
+        /**
+         *  All the meetings found while expanding the first layer that
+         *  reaches the other side have the same length, but keeping the
+         *  minimum does not depend on it.
+         */
+        private void meet(Node from, Node to, int pathLength) {
+            if (length == NO_PATH || pathLength < length) {
+                length = pathLength;
+                meetings.clear();
+            }
+
+            if (pathLength == length) {
+                meetings.add(new Node[] {from, to});
+            }
+        }
+
+        /**
+         *  @return one of the shortest paths, the same one every time
+         *          for the same graph, or <code>null</code> if there is
+         *          none.
+         */
+        public List<Node> getPath() {
+            List<Node> result = null;
+
+            if (length != NO_PATH) {
+                Node[] meeting = null;
+                for (Node[] candidate : meetings) {
+                    if (meeting == null || candidate[0].compareTo(meeting[0]) < 0 || (candidate[0].equals(meeting[0]) && candidate[1].compareTo(meeting[1]) < 0)) {
+                        meeting = candidate;
+                    }
+                }
+
+                LinkedList<Node> path = new LinkedList<Node>();
+
+                Node node = meeting[0];
+                path.addFirst(node);
+                while (predecessors.containsKey(node)) {
+                    node = Collections.min(predecessors.get(node), new NodeComparator());
+                    path.addFirst(node);
+                }
+
+                node = meeting[1];
+                path.addLast(node);
+                while (successors.containsKey(node)) {
+                    node = Collections.min(successors.get(node), new NodeComparator());
+                    path.addLast(node);
+                }
+
+                result = new ArrayList<Node>(path);
+            }
+
+            return result;
+        }
+
+        /**
+         *  Records every dependency that is on one of the shortest paths,
+         *  walking back from the meetings on both sides.
+         */
+        public void collectAllPaths() {
+            Set<Node> forwardNodes = new HashSet<Node>();
+            Set<Node> backwardNodes = new HashSet<Node>();
+
+            for (Node[] meeting : meetings) {
+                addPathEdge(meeting[0], meeting[1]);
+                collect(meeting[0], predecessors, forwardNodes, true);
+                collect(meeting[1], successors, backwardNodes, false);
+            }
+        }
+
+        private void collect(Node node, Map<Node, Collection<Node>> parents, Set<Node> visited, boolean forward) {
+            if (visited.add(node)) {
+                Collection<Node> nodeParents = parents.get(node);
+                if (nodeParents == null) {
+                    if (forward) {
+                        pathStarts.add(node);
+                    }
+                } else {
+                    for (Node parent : nodeParents) {
+                        if (forward) {
+                            addPathEdge(parent, node);
+                        } else {
+                            addPathEdge(node, parent);
+                        }
+                        collect(parent, parents, visited, forward);
+                    }
+                }
+            }
+        }
+
+        private void addPathEdge(Node from, Node to) {
+            SortedSet<Node> nodes = pathEdges.get(from);
+            if (nodes == null) {
+                nodes = new TreeSet<Node>();
+                pathEdges.put(from, nodes);
+            }
+            nodes.add(to);
+        }
+    }
+
+    /**
+     *  Orders paths by length first, then by the names of their nodes.
+     */
+    private static class PathComparator implements Comparator<List<Node>> {
+        public int compare(List<Node> path1, List<Node> path2) {
+            int result = path1.size() - path2.size();
+
+            for (int i = 0; result == 0 && i < path1.size(); i++) {
+                result = path1.get(i).compareTo(path2.get(i));
+            }
+
+            return result;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.io.*;
+
+/**
+ *  <p>Prints a {@link DependencyGraph} in the same formats as
+ *  {@link Printer} and a {@link SortedTraversalStrategy}, but reads
+ *  ids straight from the graph instead of visiting {@link Node}
+ *  objects.</p>
+ *
+ *  <p>Ids within each kind already follow name order, so the only
+ *  work left at each node is to merge its package, class, and
+ *  feature dependencies by name.  Nothing gets copied into lists of
+ *  nodes and sorted.</p>
+ */
+public abstract class StreamingPrinter {
+    private PrintWriter out;
+    private DependencyGraph graph;
+
+    private String indentText = Printer.DEFAULT_INDENT_TEXT;
+    private int indentLevel = 0;
+    private boolean showInbounds = true;
+    private boolean showOutbounds = true;
+    private boolean showEmptyNodes = true;
+
+    public StreamingPrinter(PrintWriter out) {
+        this.out = out;
+    }
+
+    public String getIndentText() {
+        return indentText;
+    }
+
+    public void setIndentText(String indentText) {
+        this.indentText = indentText;
+    }
+
+    public boolean isShowInbounds() {
+        return showInbounds;
+    }
+
+    public void setShowInbounds(boolean showInbounds) {
+        this.showInbounds = showInbounds;
+    }
+
+    public boolean isShowOutbounds() {
+        return showOutbounds;
+    }
+
+    public void setShowOutbounds(boolean showOutbounds) {
+        this.showOutbounds = showOutbounds;
+    }
+
+    public boolean isShowEmptyNodes() {
+        return showEmptyNodes;
+    }
+
+    public void setShowEmptyNodes(boolean showEmptyNodes) {
+        this.showEmptyNodes = showEmptyNodes;
+    }
+
+    protected DependencyGraph getGraph() {
+        return graph;
+    }
+
+    public void traverseGraph(DependencyGraph graph) {
+        this.graph = graph;
+
+        preprocessGraph();
+        for (int node = 0; node < graph.getNbPackages(); node++) {
+            traverseNode(node);
+        }
+        postprocessGraph();
+
+        out.flush();
+    }
+
+    private void traverseNode(int node) {
+        preprocessNode(node, orderByName(graph.getOutboundDependencies(node)), orderByName(graph.getInboundDependencies(node)));
+        for (int child : graph.getContents(node)) {
+            traverseNode(child);
+        }
+        postprocessNode(node);
+    }
+
+    protected void preprocessGraph() {
+        // Do nothing
+    }
+
+    protected void postprocessGraph() {
+        // Do nothing
+    }
+
+    /**
+     *  @param outbound the node's outbound dependencies, in name order.
+     *  @param inbound  the node's inbound dependencies, in name order.
+     */
+    protected abstract void preprocessNode(int node, int[] outbound, int[] inbound);
+
+    protected abstract void postprocessNode(int node);
+
+    /**
+     *  Merges the package, class, and feature runs of an array of
+     *  ids, each already sorted, into a single run in name order.
+     *  Packages come before classes and classes before features
+     *  with the same name.
+     */
+    private int[] orderByName(int[] ids) {
+        int classesStart = 0;
+        while (classesStart < ids.length && graph.isPackage(ids[classesStart])) {
+            classesStart++;
+        }
+
+        int featuresStart = classesStart;
+        while (featuresStart < ids.length && graph.isClass(ids[featuresStart])) {
+            featuresStart++;
+        }
+
+        if (classesStart == ids.length || (classesStart == 0 && featuresStart == ids.length) || featuresStart == 0) {
+            return ids;
+        }
+
+        int[] result = new int[ids.length];
+
+        int p = 0;
+        int c = classesStart;
+        int f = featuresStart;
+        for (int i = 0; i < result.length; i++) {
+            if (p < classesStart && (c == featuresStart || compare(ids[p], ids[c]) <= 0) && (f == ids.length || compare(ids[p], ids[f]) <= 0)) {
+                result[i] = ids[p++];
+            } else if (c < featuresStart && (f == ids.length || compare(ids[c], ids[f]) <= 0)) {
+                result[i] = ids[c++];
+            } else {
+                result[i] = ids[f++];
+            }
+        }
+
+        return result;
+    }
+
+    protected int compare(int node1, int node2) {
+        return graph.getName(node1).compareTo(graph.getName(node2));
+    }
+
+    protected boolean shouldShowNode(int node) {
+        boolean result = isShowEmptyNodes();
+
+        if (!result) {
+            result = (isShowOutbounds() && graph.getOutboundDependencies(node).length > 0) || (isShowInbounds() && graph.getInboundDependencies(node).length > 0);
+        }
+
+        for (int child : graph.getContents(node)) {
+            if (result) {
+                break;
+            }
+            result = shouldShowNode(child);
+        }
+
+        return result;
+    }
+
+    protected StreamingPrinter append(String s) {
+        out.print(s);
+        return this;
+    }
+
+    protected StreamingPrinter indent() {
+        for (int i=0; i<indentLevel; i++) {
+            append(getIndentText());
+        }
+
+        return this;
+    }
+
+    protected StreamingPrinter eol() {
+        out.println();
+        return this;
+    }
+
+    protected void raiseIndent() {
+        indentLevel++;
+    }
+
+    protected void lowerIndent() {
+        indentLevel--;
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.io.*;
+
+/**
+ *  Prints a {@link DependencyGraph} in the same format as
+ *  {@link TextPrinter}.
+ */
+public class StreamingTextPrinter extends StreamingPrinter {
+    private boolean showInferred = true;
+
+    public StreamingTextPrinter(PrintWriter out) {
+        super(out);
+    }
+
+    public boolean isShowInferred() {
+        return showInferred;
+    }
+
+    public void setShowInferred(boolean showInferred) {
+        this.showInferred = showInferred;
+    }
+
+    protected void preprocessNode(int node, int[] outbound, int[] inbound) {
+        if (!isShowOutbounds()) {
+            outbound = new int[0];
+        }
+        if (!isShowInbounds()) {
+            inbound = new int[0];
+        }
+
+        if (shouldShowNode(node) || outbound.length > 0 || inbound.length > 0) {
+            indent();
+            printNodeName(node, getScopeName(node)).eol();
+        }
+
+        raiseIndent();
+        printDependencies(outbound, inbound);
+    }
+
+    protected void postprocessNode(int node) {
+        lowerIndent();
+    }
+
+    private String getScopeName(int node) {
+        String result = getGraph().getName(node);
+
+        if (getGraph().isClass(node)) {
+            result = result.substring(result.lastIndexOf('.') + 1);
+        } else if (getGraph().isFeature(node)) {
+            int parametersStart = result.indexOf('(');
+            if (parametersStart != -1 && result.endsWith(")")) {
+                result = result.substring(result.lastIndexOf('.', parametersStart) + 1);
+            } else {
+                result = result.substring(result.lastIndexOf('.') + 1);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     *  Like TextPrinter, nodes with the same name are listed once.  A
+     *  node that is both a dependency and a dependent gets
+     *  <code>&lt;-&gt;</code>.
+     */
+    private void printDependencies(int[] outbound, int[] inbound) {
+        int o = 0;
+        int i = 0;
+
+        while (o < outbound.length || i < inbound.length) {
+            int node;
+            if (i == inbound.length || (o < outbound.length && compare(outbound[o], inbound[i]) <= 0)) {
+                node = outbound[o];
+            } else {
+                node = inbound[i];
+            }
+
+            String name = getGraph().getName(node);
+            int count = 0;
+            while (o < outbound.length && name.equals(getGraph().getName(outbound[o]))) {
+                count++;
+                o++;
+            }
+            while (i < inbound.length && name.equals(getGraph().getName(inbound[i]))) {
+                count--;
+                i++;
+            }
+
+            if (count < 0) {
+                indent().append("<-- ");
+            } else if (count > 0) {
+                indent().append("--> ");
+            } else {
+                indent().append("<-> ");
+            }
+            printNodeName(node, name).eol();
+        }
+    }
+
+    private StreamingPrinter printNodeName(int node, String name) {
+        append(name);
+
+        if (isShowInferred() && !getGraph().isConfirmed(node)) {
+            append(" *");
+        }
+
+        return this;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.io.*;
+
+/**
+ *  Prints a {@link DependencyGraph} in the same format as
+ *  {@link XMLPrinter}.
+ */
+public class StreamingXMLPrinter extends StreamingPrinter {
+    public StreamingXMLPrinter(PrintWriter out) {
+        this(out, XMLPrinter.DEFAULT_ENCODING, XMLPrinter.DEFAULT_DTD_PREFIX);
+    }
+
+    public StreamingXMLPrinter(PrintWriter out, String encoding, String dtdPrefix) {
+        super(out);
+
+        appendHeader(encoding, dtdPrefix);
+    }
+
+    private void appendHeader(String encoding, String dtdPrefix) {
+        append("<?xml version=\"1.0\" encoding=\"").append(encoding).append("\" ?>").eol();
+        eol();
+        append("<!DOCTYPE dependencies SYSTEM \"").append(dtdPrefix).append("/dependencies.dtd\">").eol();
+        eol();
+    }
+
+    protected void preprocessGraph() {
+        indent().append("<dependencies>").eol();
+        raiseIndent();
+    }
+
+    protected void postprocessGraph() {
+        lowerIndent();
+        indent().append("</dependencies>").eol();
+    }
+
+    protected void preprocessNode(int node, int[] outbound, int[] inbound) {
+        if (shouldShowNode(node)) {
+            indent().append("<").append(getType(node)).append(" confirmed=\"").append(getConfirmed(node)).append("\">").eol();
+            raiseIndent();
+            indent().append("<name>").append(getGraph().getName(node)).append("</name>").eol();
+        }
+
+        if (isShowOutbounds()) {
+            for (int dependency : outbound) {
+                indent().append("<outbound type=\"").append(getType(dependency)).append("\" confirmed=\"").append(getConfirmed(dependency)).append("\">").append(getGraph().getName(dependency)).append("</outbound>").eol();
+            }
+        }
+
+        if (isShowInbounds()) {
+            for (int dependency : inbound) {
+                indent().append("<inbound type=\"").append(getType(dependency)).append("\" confirmed=\"").append(getConfirmed(dependency)).append("\">").append(getGraph().getName(dependency)).append("</inbound>").eol();
+            }
+        }
+    }
+
+    protected void postprocessNode(int node) {
+        if (shouldShowNode(node)) {
+            lowerIndent();
+            indent().append("</").append(getType(node)).append(">").eol();
+        }
+    }
+
+    private String getType(int node) {
+        String result;
+
+        if (getGraph().isPackage(node)) {
+            result = "package";
+        } else if (getGraph().isClass(node)) {
+            result = "class";
+        } else {
+            result = "feature";
+        }
+
+        return result;
+    }
+
+    private String getConfirmed(int node) {
+        return getGraph().isConfirmed(node) ? "yes" : "no";
+    }
+}
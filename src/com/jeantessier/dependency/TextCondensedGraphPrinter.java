@@ -0,0 +1,125 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.jeantessier.dependency;
+
+import java.io.*;
+import java.util.*;
+
+public class TextCondensedGraphPrinter implements CondensedGraphPrinter {
+    protected PrintWriter out;
+
+    private String indentText = "    ";
+
+    public TextCondensedGraphPrinter(PrintWriter out) {
+        this.out = out;
+    }
+
+    public void setIndentText(String indentText) {
+        this.indentText = indentText;
+    }
+
+    public void visitCondensedGraph(CondensedGraph graph) {
+        List<List<CondensedComponent>> layers = graph.getLayers();
+        for (int i = 0; i < layers.size(); i++) {
+            out.print("layer ");
+            out.print(i);
+            out.println();
+
+            for (CondensedComponent component : layers.get(i)) {
+                visitCondensedComponent(component);
+            }
+        }
+
+        List<CondensedComponent> longestChain = graph.getLongestChain();
+        if (!longestChain.isEmpty()) {
+            out.println();
+            out.println("longest chain");
+
+            Iterator<CondensedComponent> i = longestChain.iterator();
+            indent(1);
+            printComponent(i.next());
+            out.println();
+
+            while (i.hasNext()) {
+                indent(1);
+                out.print("--> ");
+                printComponent(i.next());
+                out.println();
+            }
+        }
+    }
+
+    private void visitCondensedComponent(CondensedComponent component) {
+        indent(1);
+        printComponent(component);
+        out.println();
+
+        if (component.isCycle()) {
+            for (Node node : component.getNodes()) {
+                indent(2);
+                printNode(node);
+                out.println();
+            }
+        }
+
+        for (CondensedComponent dependency : new TreeSet<CondensedComponent>(component.getDependencies())) {
+            indent(2);
+            out.print("--> ");
+            printComponent(dependency);
+            out.println();
+        }
+    }
+
+    private void indent(int indentLevel) {
+        for (int i = 0; i < indentLevel; i++) {
+            out.print(indentText);
+        }
+    }
+
+    protected void printComponent(CondensedComponent component) {
+        out.print(component.getName());
+        printComponentSize(component);
+    }
+
+    protected void printComponentSize(CondensedComponent component) {
+        if (component.isCycle()) {
+            out.print(" (");
+            out.print(component.getNodes().size());
+            out.print(" nodes)");
+        }
+    }
+
+    protected void printNode(Node node) {
+        out.print(node.getName());
+    }
+}
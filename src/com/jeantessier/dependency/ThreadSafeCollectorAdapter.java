@@ -0,0 +1,74 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import com.jeantessier.classreader.*;
+
+/**
+ *  Extracts dependencies from classfiles as soon as they are loaded,
+ *  on whichever thread loaded them.
+ *
+ *  <p>{@link CodeDependencyCollector} keeps track of the class it is
+ *  currently visiting, so one instance cannot serve several threads.
+ *  This adapter creates a fresh collector for each classfile and
+ *  points all of them at the same {@link NodeFactory}.  Use it with
+ *  {@link ParallelClassfileLoader} and a {@link ConcurrentNodeFactory}
+ *  to build a single graph in parallel.</p>
+ *
+ *  <p>All threads share the same filter criteria, so it must be
+ *  configured before loading starts.  A
+ *  {@link RegularExpressionSelectionCriteria} then compiles its
+ *  expressions and remembers matches once for all threads.</p>
+ */
+public class ThreadSafeCollectorAdapter extends LoadAdapter implements ThreadSafeLoadListener {
+    private NodeFactory factory;
+    private SelectionCriteria filterCriteria;
+
+    public ThreadSafeCollectorAdapter(NodeFactory factory) {
+        this(factory, new ComprehensiveSelectionCriteria());
+    }
+
+    public ThreadSafeCollectorAdapter(NodeFactory factory, SelectionCriteria filterCriteria) {
+        this.factory = factory;
+        this.filterCriteria = filterCriteria;
+    }
+
+    public NodeFactory getFactory() {
+        return factory;
+    }
+
+    public void endClassfile(LoadEvent event) {
+        event.getClassfile().accept(new CodeDependencyCollector(getFactory(), filterCriteria));
+    }
+}
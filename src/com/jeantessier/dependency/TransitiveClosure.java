@@ -40,6 +40,12 @@ import java.util.*;
  *  the visited graph should be maximized first with
  *  LinkMaximizer.  Otherwise, you will only get a subset
  *  of the explicit dependencies.
+ *
+ *  <p>By default, each layer is computed with a
+ *  {@link TransitiveClosureEngine}.  Call
+ *  {@link #setUsingFrontierEngine(boolean)} to use a
+ *  {@link FrontierClosureEngine} instead, which gives the same
+ *  result and is much faster on deep closures.</p>
  */
 public class TransitiveClosure {
     public static final long DO_NOT_FOLLOW = -1;
@@ -51,6 +57,8 @@ public class TransitiveClosure {
     private SelectionCriteria startCriteria;
     private SelectionCriteria stopCriteria;
 
+    private boolean usingFrontierEngine = false;
+
     private NodeFactory factory = new NodeFactory();
     
     public TransitiveClosure(SelectionCriteria startCriteria, SelectionCriteria stopCriteria) {
@@ -70,19 +78,33 @@ public class TransitiveClosure {
         this.maximumOutboundDepth = maximumOutboundDepth;
     }
 
+    public boolean isUsingFrontierEngine() {
+        return usingFrontierEngine;
+    }
+
+    public void setUsingFrontierEngine(boolean usingFrontierEngine) {
+        this.usingFrontierEngine = usingFrontierEngine;
+    }
+
     public void traverseNodes(Collection<? extends Node> nodes) {
         if (maximumInboundDepth != DO_NOT_FOLLOW) {
-            compute(nodes, maximumInboundDepth, new ClosureInboundSelector());
+            if (isUsingFrontierEngine()) {
+                compute(new FrontierClosureEngine(factory, nodes, startCriteria, stopCriteria, false), maximumInboundDepth);
+            } else {
+                compute(new TransitiveClosureEngine(factory, nodes, startCriteria, stopCriteria, new ClosureInboundSelector()), maximumInboundDepth);
+            }
         }
         
         if (maximumOutboundDepth != DO_NOT_FOLLOW) {
-            compute(nodes, maximumOutboundDepth, new ClosureOutboundSelector());
+            if (isUsingFrontierEngine()) {
+                compute(new FrontierClosureEngine(factory, nodes, startCriteria, stopCriteria, true), maximumOutboundDepth);
+            } else {
+                compute(new TransitiveClosureEngine(factory, nodes, startCriteria, stopCriteria, new ClosureOutboundSelector()), maximumOutboundDepth);
+            }
         }
     }
 
-    private void compute(Collection<? extends Node> nodes, long depth, ClosureLayerSelector layerSelector) {
-        TransitiveClosureEngine engine = new TransitiveClosureEngine(factory, nodes, startCriteria, stopCriteria, layerSelector);
-
+    private void compute(ClosureEngine engine, long depth) {
         if (depth == UNBOUNDED_DEPTH) {
             engine.computeAllLayers();
         } else {
@@ -34,7 +34,7 @@ package com.jeantessier.dependency;
 
 import java.util.*;
 
-public class TransitiveClosureEngine {
+public class TransitiveClosureEngine implements ClosureEngine {
     private NodeFactory factory;
     private ClosureLayerSelector layerSelector;
     private ClosureStopSelector stopSelector;
@@ -74,7 +74,7 @@ public class TransitiveClosureEngine {
         return layers.size();
     }
     
-    public Collection getLayer(int i) {
+    public Collection<? extends Node> getLayer(int i) {
         return layers.get(i);
     }
 
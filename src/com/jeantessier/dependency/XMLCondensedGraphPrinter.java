@@ -0,0 +1,121 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.jeantessier.dependency;
+
+import java.io.*;
+import java.util.*;
+
+public class XMLCondensedGraphPrinter implements CondensedGraphPrinter {
+    public static final String DEFAULT_ENCODING   = "utf-8";
+    public static final String DEFAULT_DTD_PREFIX = "http://depfind.sourceforge.net/dtd";
+
+    private PrintWriter out;
+
+    private String indentText = "    ";
+
+    private Map<CondensedComponent, String> ids = new HashMap<CondensedComponent, String>();
+
+    public XMLCondensedGraphPrinter(PrintWriter out) {
+        this(out, DEFAULT_ENCODING, DEFAULT_DTD_PREFIX);
+    }
+
+    public XMLCondensedGraphPrinter(PrintWriter out, String encoding, String dtdPrefix) {
+        this.out = out;
+
+        appendHeader(encoding, dtdPrefix);
+    }
+
+    private void appendHeader(String encoding, String dtdPrefix) {
+        out.append("<?xml version=\"1.0\" encoding=\"").append(encoding).append("\" ?>").println();
+        out.println();
+        out.append("<!DOCTYPE condensation SYSTEM \"").append(dtdPrefix).append("/condensation.dtd\">").println();
+        out.println();
+    }
+
+    public void setIndentText(String indentText) {
+        this.indentText = indentText;
+    }
+
+    public void visitCondensedGraph(CondensedGraph graph) {
+        for (List<CondensedComponent> layer : graph.getLayers()) {
+            for (CondensedComponent component : layer) {
+                ids.put(component, "c" + (ids.size() + 1));
+            }
+        }
+
+        out.append("<condensation>").println();
+
+        List<List<CondensedComponent>> layers = graph.getLayers();
+        for (int i = 0; i < layers.size(); i++) {
+            out.append(indentText).append("<layer level=\"").append(String.valueOf(i)).append("\">").println();
+            for (CondensedComponent component : layers.get(i)) {
+                visitCondensedComponent(component);
+            }
+            out.append(indentText).append("</layer>").println();
+        }
+
+        out.append(indentText).append("<longest-chain>").println();
+        for (CondensedComponent component : graph.getLongestChain()) {
+            out.append(indentText).append(indentText).append("<step component=\"").append(ids.get(component)).append("\"/>").println();
+        }
+        out.append(indentText).append("</longest-chain>").println();
+
+        out.append("</condensation>").println();
+    }
+
+    private void visitCondensedComponent(CondensedComponent component) {
+        out.append(indentText).append(indentText).append("<component id=\"").append(ids.get(component)).append("\">").println();
+
+        for (Node node : component.getNodes()) {
+            out.append(indentText).append(indentText).append(indentText).append("<node type=\"").append(getType(node)).append("\">").append(node.getName()).append("</node>").println();
+        }
+
+        for (CondensedComponent dependency : new TreeSet<CondensedComponent>(component.getDependencies())) {
+            out.append(indentText).append(indentText).append(indentText).append("<outbound component=\"").append(ids.get(dependency)).append("\"/>").println();
+        }
+
+        out.append(indentText).append(indentText).append("</component>").println();
+    }
+
+    private String getType(Node node) {
+        String result = "feature";
+
+        if (node instanceof PackageNode) {
+            result = "package";
+        } else if (node instanceof ClassNode) {
+            result = "class";
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,343 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependencyfinder;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.apache.log4j.*;
+
+import com.jeantessier.classreader.*;
+import com.jeantessier.dependency.*;
+
+/**
+ *  <p>Builds a dependency graph in the background, usually by
+ *  extracting it from compiled code or loading it from XML files, and
+ *  reports on its progress while it runs.  Subclasses implement
+ *  {@link #execute()} and register {@link #getListener()} with their
+ *  {@link ClassfileLoader} or {@link NodeLoader}.  {@link GraphJobService}
+ *  runs the jobs.</p>
+ *
+ *  <p>Any thread can call {@link #cancel()}.  The job stops at the next
+ *  file or class that the listener sees, so subclasses should call
+ *  {@link #checkCancelled()} once more right before they publish their
+ *  graph.  That way, a cancelled job never replaces the current
+ *  graph.</p>
+ */
+public abstract class GraphJob implements Runnable {
+    private static final Logger LOGGER = Logger.getLogger(GraphJob.class);
+
+    public static final int MAX_MESSAGES = 20;
+
+    public enum Status {
+        PENDING, RUNNING, DONE, CANCELLED, FAILED
+    }
+
+    private String name;
+
+    private volatile Status status = Status.PENDING;
+    private volatile boolean cancelled;
+    private volatile Throwable failure;
+
+    private volatile long startTime;
+    private volatile long stopTime;
+
+    private volatile int nbGroups;
+    private volatile String currentGroupName;
+    private volatile int currentGroupCount;
+    private volatile int currentGroupSize = -1;
+    private volatile int nbFiles;
+    private volatile int nbClasses;
+
+    private LinkedList<String> messages = new LinkedList<String>();
+
+    private ProgressListener listener = new ProgressListener();
+
+    public GraphJob(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     *  Does the actual work.  It runs in a background thread.
+     *
+     *  @throws CancellationException if the job was cancelled.
+     */
+    protected abstract void execute() throws Exception;
+
+    public void run() {
+        synchronized(this) {
+            if (status != Status.PENDING) {
+                return;
+            }
+            status = Status.RUNNING;
+        }
+
+        startTime = System.currentTimeMillis();
+        LOGGER.info("Starting " + getName());
+
+        try {
+            checkCancelled();
+            execute();
+            status = Status.DONE;
+            LOGGER.info("Finished " + getName());
+        } catch (CancellationException ex) {
+            status = Status.CANCELLED;
+            log("Cancelled.");
+            LOGGER.info("Cancelled " + getName());
+        } catch (Throwable ex) {
+            failure = ex;
+            status = Status.FAILED;
+            log("Failed: " + ex);
+            LOGGER.error("Failed " + getName(), ex);
+        } finally {
+            stopTime = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     *  Asks the job to stop.  A job that has not started yet will not
+     *  start at all.  A job that is done already is not affected.
+     */
+    public void cancel() {
+        synchronized(this) {
+            cancelled = true;
+            if (status == Status.PENDING) {
+                status = Status.CANCELLED;
+            }
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     *  @throws CancellationException if someone called {@link #cancel()}.
+     */
+    protected void checkCancelled() {
+        if (cancelled) {
+            throw new CancellationException(getName() + " was cancelled");
+        }
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isFinished() {
+        Status current = status;
+        return current == Status.DONE || current == Status.CANCELLED || current == Status.FAILED;
+    }
+
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    /**
+     *  @return when the job started, or 0 if it has not started yet.
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     *  @return how long the job has been running, or how long it ran
+     *          if it is finished, in milliseconds.
+     */
+    public long getElapsedTime() {
+        if (startTime == 0) {
+            return 0;
+        }
+
+        return (stopTime != 0 ? stopTime : System.currentTimeMillis()) - startTime;
+    }
+
+    /**
+     *  @return how many top-level groups, such as JAR files or
+     *          directories, the job has started on.
+     */
+    public int getNbGroups() {
+        return nbGroups;
+    }
+
+    /**
+     *  @return the top-level group the job is working on, or
+     *          <code>null</code>.
+     */
+    public String getCurrentGroupName() {
+        return currentGroupName;
+    }
+
+    /**
+     *  @return how many files of the current top-level group the job
+     *          has started on.
+     */
+    public int getCurrentGroupCount() {
+        return currentGroupCount;
+    }
+
+    /**
+     *  @return how many files the current top-level group has, or -1 if
+     *          it is not known in advance.
+     */
+    public int getCurrentGroupSize() {
+        return currentGroupSize;
+    }
+
+    /**
+     *  @return the percentage of the current top-level group that is
+     *          done, or -1 if its size is not known.
+     */
+    public int getCurrentGroupRatio() {
+        int size = currentGroupSize;
+        return size > 0 ? Math.min(100, currentGroupCount * 100 / size) : -1;
+    }
+
+    /**
+     *  @return how many files the job has started on, including those
+     *          in nested groups.
+     */
+    public int getNbFiles() {
+        return nbFiles;
+    }
+
+    /**
+     *  @return how many classes the job has processed.
+     */
+    public int getNbClasses() {
+        return nbClasses;
+    }
+
+    /**
+     *  @return the last {@link #MAX_MESSAGES} messages, oldest first.
+     */
+    public List<String> getMessages() {
+        synchronized(messages) {
+            return new ArrayList<String>(messages);
+        }
+    }
+
+    protected void log(String message) {
+        synchronized(messages) {
+            messages.add(message);
+            while (messages.size() > MAX_MESSAGES) {
+                messages.removeFirst();
+            }
+        }
+    }
+
+    /**
+     *  Tracks progress and checks for cancellation.  Register it with
+     *  the loader that does the work.
+     */
+    public ProgressListener getListener() {
+        return listener;
+    }
+
+    public String toString() {
+        return getName() + " (" + getStatus() + ")";
+    }
+
+    public class ProgressListener extends VerboseListenerBase implements DependencyListener {
+        private int depth;
+
+        public void beginGroup(LoadEvent event) {
+            checkCancelled();
+
+            super.beginGroup(event);
+
+            if (depth++ == 0) {
+                nbGroups++;
+                currentGroupName = event.getGroupName();
+                currentGroupCount = 0;
+                currentGroupSize = event.getSize();
+
+                if (event.getSize() >= 0) {
+                    log("Searching " + event.getGroupName() + " (" + event.getSize() + " files) ...");
+                } else {
+                    log("Searching " + event.getGroupName() + " ...");
+                }
+            }
+        }
+
+        public void beginFile(LoadEvent event) {
+            checkCancelled();
+
+            super.beginFile(event);
+
+            nbFiles++;
+            if (depth == 1) {
+                currentGroupCount++;
+            }
+        }
+
+        public void endClassfile(LoadEvent event) {
+            super.endClassfile(event);
+
+            nbClasses++;
+        }
+
+        public void endGroup(LoadEvent event) {
+            super.endGroup(event);
+
+            depth--;
+        }
+
+        public void beginSession(DependencyEvent event) {
+            checkCancelled();
+        }
+
+        public void beginClass(DependencyEvent event) {
+            checkCancelled();
+
+            nbClasses++;
+        }
+
+        public void dependency(DependencyEvent event) {
+            // Do nothing
+        }
+
+        public void endClass(DependencyEvent event) {
+            // Do nothing
+        }
+
+        public void endSession(DependencyEvent event) {
+            // Do nothing
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependencyfinder;
+
+import java.util.concurrent.*;
+
+import org.apache.log4j.*;
+
+/**
+ *  <p>Runs {@link GraphJob}s one at a time in a background thread, so
+ *  that the web application can extract or load a graph without holding
+ *  on to a request thread.  Pages submit a job, then poll
+ *  {@link #getCurrentJob()} for its progress.</p>
+ *
+ *  <p>The service remembers the last job it accepted, even after it is
+ *  finished, so that pages can report how it went.  It refuses new
+ *  jobs while that one is still pending or running.</p>
+ */
+public class GraphJobService {
+    private static final Logger LOGGER = Logger.getLogger(GraphJobService.class);
+
+    private ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        public Thread newThread(Runnable runnable) {
+            Thread result = new Thread(runnable, "GraphJobService");
+            result.setDaemon(true);
+            return result;
+        }
+    });
+
+    private GraphJob currentJob;
+
+    /**
+     *  @return <code>true</code> if the job was accepted,
+     *          <code>false</code> if another job is still pending or
+     *          running.
+     */
+    public synchronized boolean submit(GraphJob job) {
+        if (currentJob != null && !currentJob.isFinished()) {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Refusing " + job.getName() + ", " + currentJob + " is not finished");
+            }
+            return false;
+        }
+
+        executor.execute(job);
+        currentJob = job;
+
+        return true;
+    }
+
+    /**
+     *  @return the last job accepted by {@link #submit(GraphJob)}, or
+     *          <code>null</code> if there has not been any yet.
+     */
+    public synchronized GraphJob getCurrentJob() {
+        return currentJob;
+    }
+
+    /**
+     *  Cancels the current job, if any, and stops the background thread.
+     */
+    public void shutdown() {
+        GraphJob job = getCurrentJob();
+        if (job != null) {
+            job.cancel();
+        }
+
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependencyfinder;
+
+import javax.servlet.*;
+
+import com.jeantessier.dependency.*;
+
+/**
+ *  Sets up the objects that the pages of the web application share
+ *  through their {@link ServletContext}, so that every page finds them
+ *  under the same attribute and with the same settings.
+ */
+public class WebApplicationHelper {
+    public static final String GRAPHS_ATTRIBUTE = "graphs";
+    public static final String JOBS_ATTRIBUTE = "jobs";
+    public static final String QUERY_CACHE_ATTRIBUTE = "queryCache";
+
+    /**
+     *  @return the {@link GraphVersions} of the web application,
+     *          creating an empty one the first time.
+     */
+    public static GraphVersions getGraphs(ServletContext application) {
+        GraphVersions result;
+
+        synchronized (application) {
+            result = (GraphVersions) application.getAttribute(GRAPHS_ATTRIBUTE);
+            if (result == null) {
+                result = new GraphVersions();
+                application.setAttribute(GRAPHS_ATTRIBUTE, result);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     *  @return the {@link GraphJobService} that runs extractions and
+     *          loads in the background, creating it the first time.
+     *          {@link WebApplicationListener} shuts it down with the
+     *          web application.
+     */
+    public static GraphJobService getJobService(ServletContext application) {
+        GraphJobService result;
+
+        synchronized (application) {
+            result = (GraphJobService) application.getAttribute(JOBS_ATTRIBUTE);
+            if (result == null) {
+                result = new GraphJobService();
+                application.setAttribute(JOBS_ATTRIBUTE, result);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     *  @return the {@link QueryResultCache} of the web application,
+     *          creating it from the <code>queryCacheEntries</code> and
+     *          <code>queryCacheSize</code> context parameters the first
+     *          time.
+     */
+    public static QueryResultCache getQueryCache(ServletContext application) {
+        QueryResultCache result;
+
+        synchronized (application) {
+            result = (QueryResultCache) application.getAttribute(QUERY_CACHE_ATTRIBUTE);
+            if (result == null) {
+                int maxEntries = QueryResultCache.DEFAULT_MAX_ENTRIES;
+                try {
+                    maxEntries = Integer.parseInt(application.getInitParameter("queryCacheEntries"));
+                } catch (NumberFormatException ex) {
+                    // Use the default
+                }
+
+                long maxSize = QueryResultCache.DEFAULT_MAX_SIZE;
+                try {
+                    maxSize = Long.parseLong(application.getInitParameter("queryCacheSize"));
+                } catch (NumberFormatException ex) {
+                    // Use the default
+                }
+
+                result = new QueryResultCache(maxEntries, maxSize);
+                application.setAttribute(QUERY_CACHE_ATTRIBUTE, result);
+            }
+        }
+
+        return result;
+    }
+}
@@ -62,6 +62,7 @@ public class DependencyClosure extends GraphTask {
 
     private String  maximumInboundDepth  = "";
     private String  maximumOutboundDepth = "";
+    private boolean frontier             = false;
     private boolean xml                  = false;
     private String  encoding             = XMLPrinter.DEFAULT_ENCODING;
     private String  dtdPrefix            = XMLPrinter.DEFAULT_DTD_PREFIX;
@@ -211,6 +212,14 @@ public class DependencyClosure extends GraphTask {
         this.maximumOutboundDepth = maximumOutboundDepth;
     }
 
+    public boolean getFrontier() {
+        return frontier;
+    }
+
+    public void setFrontier(boolean frontier) {
+        this.frontier = frontier;
+    }
+
     public boolean getXml() {
         return xml;
     }
@@ -263,6 +272,7 @@ public class DependencyClosure extends GraphTask {
             }
 
             TransitiveClosure selector = new TransitiveClosure(getStartCriteria(), getStopCriteria());
+            selector.setUsingFrontierEngine(getFrontier());
 
             try {
                 if (getMaximuminbounddepth() != null) {
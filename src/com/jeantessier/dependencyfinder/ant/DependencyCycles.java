@@ -58,6 +58,7 @@ public class DependencyCycles extends GraphTask {
     private Path startExcludesList;
 
     private String  maximumCycleLenth  = "";
+    private boolean scc = false;
 
     private boolean xml = false;
     private String encoding = XMLPrinter.DEFAULT_ENCODING;
@@ -160,6 +161,14 @@ public class DependencyCycles extends GraphTask {
         this.maximumCycleLenth = maximumCycleLenth;
     }
 
+    public boolean getScc() {
+        return scc;
+    }
+
+    public void setScc(boolean scc) {
+        this.scc = scc;
+    }
+
     public boolean getXml() {
         return xml;
     }
@@ -219,13 +228,14 @@ public class DependencyCycles extends GraphTask {
                 }
             }
 
-            CycleDetector detector = new CycleDetector(getStartCriteria());
+            CycleFinder detector = new CycleFinderFactory().createCycleFinder(getStartCriteria(), getScc());
 
             if (getMaximumcyclelength() != null) {
                 detector.setMaximumCycleLength(Integer.parseInt(getMaximumcyclelength()));
             }
 
             detector.traverseNodes(factory.getPackages().values());
+            Collection<Cycle> cycles = detector.getCycles();
 
             log("Saving dependency cycles to " + getDestfile().getAbsolutePath());
 
@@ -242,7 +252,7 @@ public class DependencyCycles extends GraphTask {
                 printer.setIndentText(getIndenttext());
             }
 
-            printer.visitCycles(detector.getCycles());
+            printer.visitCycles(cycles);
 
             out.close();
         } catch (SAXException ex) {
@@ -65,6 +65,7 @@ public class DependencyExtractor extends Task {
     private String  dtdPrefix  = com.jeantessier.dependency.XMLPrinter.DEFAULT_DTD_PREFIX;
     private String  indentText;
     private File    destfile;
+    private File    cachefile;
     private Path    path;
 
     public String getFilterincludes() {
@@ -235,6 +236,14 @@ public class DependencyExtractor extends Task {
         this.destfile = destfile;
     }
     
+    public File getCachefile() {
+        return cachefile;
+    }
+
+    public void setCachefile(File cachefile) {
+        this.cachefile = cachefile;
+    }
+
     public Path createPath() {
         if (path == null) {
             path = new Path(getProject());
@@ -269,11 +278,23 @@ public class DependencyExtractor extends Task {
         NodeFactory factory = new NodeFactory();
         CodeDependencyCollector collector = new CodeDependencyCollector(factory, getFilterCriteria());
         
-        ClassfileLoader loader = new TransientClassfileLoader();
-        loader.addLoadListener(new LoadListenerVisitorAdapter(collector));
+        ExtractionCache cache = null;
+
+        ClassfileLoader loader;
+        if (getCachefile() != null) {
+            cache = loadExtractionCache();
+            loader = new CachingClassfileLoader(collector, cache);
+        } else {
+            loader = new TransientClassfileLoader();
+            loader.addLoadListener(new LoadListenerVisitorAdapter(collector));
+        }
         loader.addLoadListener(verboseListener);
         loader.load(Arrays.asList(getPath().list()));
 
+        if (cache != null) {
+            saveExtractionCache(cache);
+        }
+
         if (getMinimize()) {
             LinkMinimizer minimizer = new LinkMinimizer();
             minimizer.traverseNodes(factory.getPackages().values());
@@ -306,6 +327,31 @@ public class DependencyExtractor extends Task {
         }
     }
 
+    private ExtractionCache loadExtractionCache() {
+        log("Reading extraction cache from " + getCachefile().getAbsolutePath());
+
+        ExtractionCache result = new ExtractionCache();
+
+        try {
+            result.load(getCachefile());
+        } catch (IOException ex) {
+            log("Ignoring extraction cache " + getCachefile().getAbsolutePath() + ": " + ex.getMessage(), Project.MSG_WARN);
+            result = new ExtractionCache();
+        }
+
+        return result;
+    }
+
+    private void saveExtractionCache(ExtractionCache cache) throws BuildException {
+        log("Saving extraction cache to " + getCachefile().getAbsolutePath() + " (" + cache.getNbHits() + " hits, " + cache.getNbMisses() + " misses)");
+
+        try {
+            cache.save(getCachefile());
+        } catch (IOException ex) {
+            throw new BuildException(ex);
+        }
+    }
+
     protected SelectionCriteria getFilterCriteria() throws BuildException {
         SelectionCriteria result = new ComprehensiveSelectionCriteria();
 
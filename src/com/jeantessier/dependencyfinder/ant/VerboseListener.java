@@ -74,7 +74,7 @@ public class VerboseListener extends VerboseListenerBase implements DependencyLi
     public void endClassfile(LoadEvent event) {
         super.endClassfile(event);
 
-        task.log("Loading " + event.getClassfile() + " ...", Project.MSG_VERBOSE);
+        task.log("Loading " + event.getClassName() + " ...", Project.MSG_VERBOSE);
     }
     
     public void endFile(LoadEvent event) {
@@ -182,6 +182,27 @@ public abstract class Command {
         return exceptions;
     }
 
+    protected Collection<CommandLineException> validateCommandLineForThreads() {
+        Collection<CommandLineException> exceptions = new ArrayList<CommandLineException>();
+
+        if (getCommandLine().isPresent("threads")) {
+            String threads = getCommandLine().getSingleSwitch("threads");
+
+            boolean valid;
+            try {
+                valid = Integer.parseInt(threads) > 0;
+            } catch (NumberFormatException ex) {
+                valid = false;
+            }
+
+            if (!valid) {
+                exceptions.add(new CommandLineException("-threads must be a positive number, not \"" + threads + "\""));
+            }
+        }
+
+        return exceptions;
+    }
+
     private void process() throws Exception {
         startProcessing();
         doProcessing();
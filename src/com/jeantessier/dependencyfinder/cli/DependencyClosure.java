@@ -46,12 +46,14 @@ public class DependencyClosure extends DependencyGraphCommand {
 
         getCommandLine().addOptionalValueSwitch("maximum-inbound-depth");
         getCommandLine().addOptionalValueSwitch("maximum-outbound-depth");
+        getCommandLine().addToggleSwitch("frontier");
 
         getCommandLine().addToggleSwitch("xml");
     }
 
     protected void doProcessing() throws Exception {
         TransitiveClosure selector = new TransitiveClosure(getStartCriteria(), getStopCriteria());
+        selector.setUsingFrontierEngine(getCommandLine().getToggleSwitch("frontier"));
 
         try {
             if (getCommandLine().isPresent("maximum-inbound-depth")) {
@@ -45,6 +45,7 @@ public class DependencyCycles extends DependencyGraphCommand {
         populateCommandLineSwitchesForStartCondition();
 
         getCommandLine().addSingleValueSwitch("maximum-cycle-length");
+        getCommandLine().addToggleSwitch("scc");
 
         getCommandLine().addToggleSwitch("xml");
     }
@@ -58,13 +59,14 @@ public class DependencyCycles extends DependencyGraphCommand {
     }
 
     protected void doProcessing() throws Exception {
-        CycleDetector detector = new CycleDetector(getStartCriteria());
+        CycleFinder detector = new CycleFinderFactory().createCycleFinder(getStartCriteria(), getCommandLine().getToggleSwitch("scc"));
 
         if (getCommandLine().isPresent("maximum-cycle-length")) {
             detector.setMaximumCycleLength(Integer.parseInt(getCommandLine().getSingleSwitch("maximum-cycle-length")));
         }
 
         detector.traverseNodes(loadGraph().getPackages().values());
+        Collection<Cycle> cycles = detector.getCycles();
 
         getVerboseListener().print("Printing the graph ...");
 
@@ -79,7 +81,7 @@ public class DependencyCycles extends DependencyGraphCommand {
             printer.setIndentText(getCommandLine().getSingleSwitch("indent-text"));
         }
 
-        printer.visitCycles(detector.getCycles());
+        printer.visitCycles(cycles);
     }
 
     public static void main(String[] args) throws Exception {
@@ -32,13 +32,19 @@
 
 package com.jeantessier.dependencyfinder.cli;
 
+import java.io.*;
 import java.util.*;
+import java.util.zip.*;
+
+import org.apache.log4j.*;
 
 import com.jeantessier.classreader.*;
 import com.jeantessier.commandline.*;
 import com.jeantessier.dependency.*;
 
 public class DependencyExtractor extends DirectoryExplorerCommand {
+    private static final int STREAM_BUFFER_SIZE = 1024 * 1024;
+
     protected void populateCommandLineSwitches() {
         super.populateCommandLineSwitches();
         populateCommandLineSwitchesForXMLOutput(com.jeantessier.dependency.XMLPrinter.DEFAULT_ENCODING, com.jeantessier.dependency.XMLPrinter.DEFAULT_DTD_PREFIX, com.jeantessier.dependency.XMLPrinter.DEFAULT_INDENT_TEXT);
@@ -47,32 +53,71 @@ public class DependencyExtractor extends DirectoryExplorerCommand {
         getCommandLine().addToggleSwitch("maximize");
         getCommandLine().addToggleSwitch("minimize");
 
+        getCommandLine().addSingleValueSwitch("threads");
+        getCommandLine().addSingleValueSwitch("cache");
+
         getCommandLine().addToggleSwitch("xml");
+        getCommandLine().addToggleSwitch("binary");
+        getCommandLine().addToggleSwitch("stream");
+        getCommandLine().addToggleSwitch("gzip");
     }
 
     protected Collection<CommandLineException> parseCommandLine(String[] args) {
         Collection<CommandLineException> exceptions = super.parseCommandLine(args);
 
         exceptions.addAll(validateCommandLineForFiltering());
+        exceptions.addAll(validateCommandLineForThreads());
 
         if (getCommandLine().getToggleSwitch("maximize") && getCommandLine().getToggleSwitch("minimize")) {
             exceptions.add(new CommandLineException("Only one of -maximize or -minimize is allowed"));
         }
 
+        if (getCommandLine().isPresent("threads") && getCommandLine().isPresent("cache")) {
+            exceptions.add(new CommandLineException("Only one of -threads or -cache is allowed"));
+        }
+
+        if (getCommandLine().getToggleSwitch("xml") && getCommandLine().getToggleSwitch("binary")) {
+            exceptions.add(new CommandLineException("Only one of -xml or -binary is allowed"));
+        }
+
+        if (getCommandLine().getToggleSwitch("binary") && getCommandLine().getToggleSwitch("stream")) {
+            exceptions.add(new CommandLineException("Only one of -binary or -stream is allowed"));
+        }
+
+        if (getCommandLine().getToggleSwitch("binary") && getCommandLine().getToggleSwitch("gzip")) {
+            exceptions.add(new CommandLineException("Only one of -binary or -gzip is allowed"));
+        }
+
         return exceptions;
     }
 
     protected void doProcessing() throws Exception {
-        SelectionCriteria filterCriteria = getFilterCriteria();
+        if (getCommandLine().getToggleSwitch("stream")) {
+            CompactGraph graph = extractCompactGraph();
 
-        NodeFactory factory = new NodeFactory();
-        CodeDependencyCollector collector = new CodeDependencyCollector(factory, filterCriteria);
+            getVerboseListener().print("Printing the graph ...");
 
-        ClassfileLoader loader = new TransientClassfileLoader();
-        loader.addLoadListener(new LoadListenerVisitorAdapter(collector));
-        loader.addLoadListener(getVerboseListener());
-        loader.load(getCommandLine().getParameters());
+            startBufferedOutput(getCommandLine().getToggleSwitch("gzip"));
+            printGraph(graph);
+        } else {
+            NodeFactory factory = extractDependencies();
+            transformGraph(factory);
+
+            getVerboseListener().print("Printing the graph ...");
 
+            if (getCommandLine().getToggleSwitch("gzip")) {
+                startBufferedOutput(true);
+            }
+
+            if (getCommandLine().getToggleSwitch("binary")) {
+                writeBinaryGraph(factory);
+            } else {
+                printGraph(factory, new SortedTraversalStrategy(new ComprehensiveTraversalStrategy()));
+            }
+        }
+    }
+
+    private void transformGraph(NodeFactory factory) {
         if (getCommandLine().getToggleSwitch("minimize")) {
             LinkMinimizer minimizer = new LinkMinimizer();
             minimizer.traverseNodes(factory.getPackages().values());
@@ -80,14 +125,82 @@ public class DependencyExtractor extends DirectoryExplorerCommand {
             LinkMaximizer maximizer = new LinkMaximizer();
             maximizer.traverseNodes(factory.getPackages().values());
         }
+    }
+
+    private CompactGraph extractCompactGraph() throws IOException {
+        CompactGraphBuilder builder;
+
+        if (getCommandLine().getToggleSwitch("minimize") || getCommandLine().getToggleSwitch("maximize") || getCommandLine().isPresent("threads") || getCommandLine().isPresent("cache")) {
+            // These need the whole graph as nodes.  The nodes can be
+            // reclaimed once they have been compacted.
+            NodeFactory factory = extractDependencies();
+            transformGraph(factory);
+            builder = new CompactGraphBuilder();
+            builder.add(factory);
+        } else {
+            builder = new CompactGraphBuilder(getFilterCriteria());
+            ClassfileLoader loader = new TransientClassfileLoader();
+            loader.addLoadListener(builder);
+            loader.addLoadListener(getVerboseListener());
+            loader.load(getCommandLine().getParameters());
+        }
+
+        return builder.getGraph();
+    }
+
+    private NodeFactory extractDependencies() throws IOException {
+        SelectionCriteria filterCriteria = getFilterCriteria();
+
+        NodeFactory factory;
+        ExtractionCache cache = null;
+
+        ClassfileLoader loader;
+        if (getCommandLine().isPresent("cache")) {
+            factory = new NodeFactory();
+            cache = loadExtractionCache(new File(getCommandLine().getSingleSwitch("cache")));
+            loader = new CachingClassfileLoader(new CodeDependencyCollector(factory, filterCriteria), cache);
+        } else if (getCommandLine().isPresent("threads")) {
+            factory = new ConcurrentNodeFactory();
+            loader = new ParallelClassfileLoader(Integer.parseInt(getCommandLine().getSingleSwitch("threads")));
+            loader.addLoadListener(new ThreadSafeCollectorAdapter(factory, filterCriteria));
+        } else {
+            factory = new NodeFactory();
+            loader = new TransientClassfileLoader();
+            loader.addLoadListener(new LoadListenerVisitorAdapter(new CodeDependencyCollector(factory, filterCriteria)));
+        }
+        loader.addLoadListener(getVerboseListener());
+        loader.load(getCommandLine().getParameters());
+
+        if (cache != null) {
+            saveExtractionCache(cache, new File(getCommandLine().getSingleSwitch("cache")));
+        }
+
+        return factory;
+    }
+
+    private void startBufferedOutput(boolean compressed) throws IOException {
+        OutputStream out;
+        if (getCommandLine().isPresent("out")) {
+            out = new FileOutputStream(getCommandLine().getSingleSwitch("out"));
+        } else {
+            out = System.out;
+        }
+
+        if (compressed) {
+            out = new GZIPOutputStream(out, STREAM_BUFFER_SIZE);
+        }
 
-        getVerboseListener().print("Printing the graph ...");
+        setOut(new PrintWriter(new BufferedWriter(new OutputStreamWriter(out), STREAM_BUFFER_SIZE)));
+    }
+
+    private void printGraph(NodeFactory factory, TraversalStrategy strategy) throws IOException {
+        PrintWriter out = getOut();
 
         com.jeantessier.dependency.Printer printer;
         if (getCommandLine().getToggleSwitch("xml")) {
-            printer = new com.jeantessier.dependency.XMLPrinter(getOut(), getCommandLine().getSingleSwitch("encoding"), getCommandLine().getSingleSwitch("dtd-prefix"));
+            printer = new com.jeantessier.dependency.XMLPrinter(strategy, out, getCommandLine().getSingleSwitch("encoding"), getCommandLine().getSingleSwitch("dtd-prefix"));
         } else {
-            printer = new com.jeantessier.dependency.TextPrinter(getOut());
+            printer = new com.jeantessier.dependency.TextPrinter(strategy, out);
         }
 
         if (getCommandLine().isPresent("indent-text")) {
@@ -97,6 +210,60 @@ public class DependencyExtractor extends DirectoryExplorerCommand {
         printer.traverseNodes(factory.getPackages().values());
     }
 
+    private void printGraph(DependencyGraph graph) throws IOException {
+        StreamingPrinter printer;
+        if (getCommandLine().getToggleSwitch("xml")) {
+            printer = new StreamingXMLPrinter(getOut(), getCommandLine().getSingleSwitch("encoding"), getCommandLine().getSingleSwitch("dtd-prefix"));
+        } else {
+            printer = new StreamingTextPrinter(getOut());
+        }
+
+        if (getCommandLine().isPresent("indent-text")) {
+            printer.setIndentText(getCommandLine().getSingleSwitch("indent-text"));
+        }
+
+        printer.traverseGraph(graph);
+    }
+
+    private ExtractionCache loadExtractionCache(File file) {
+        getVerboseListener().print("Reading extraction cache ...");
+
+        ExtractionCache result = new ExtractionCache();
+
+        try {
+            result.load(file);
+        } catch (IOException ex) {
+            Logger.getLogger(getClass()).warn("Ignoring extraction cache " + file, ex);
+            result = new ExtractionCache();
+        }
+
+        return result;
+    }
+
+    private void saveExtractionCache(ExtractionCache cache, File file) throws IOException {
+        getVerboseListener().print("Saving extraction cache (" + cache.getNbHits() + " hits, " + cache.getNbMisses() + " misses) ...");
+        cache.save(file);
+    }
+
+    private void writeBinaryGraph(NodeFactory factory) throws IOException {
+        if (getCommandLine().isPresent("out")) {
+            OutputStream out = new FileOutputStream(getCommandLine().getSingleSwitch("out"));
+            try {
+                writeBinaryGraph(factory, out);
+            } finally {
+                out.close();
+            }
+        } else {
+            writeBinaryGraph(factory, System.out);
+        }
+    }
+
+    private void writeBinaryGraph(NodeFactory factory, OutputStream out) throws IOException {
+        BinaryGraphWriter writer = new BinaryGraphWriter(out);
+        writer.traverseNodes(factory.getPackages().values());
+        writer.flush();
+    }
+
     public static void main(String[] args) throws Exception {
         new DependencyExtractor().run(args);
     }
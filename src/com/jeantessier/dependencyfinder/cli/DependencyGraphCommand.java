@@ -67,19 +67,26 @@ public abstract class DependencyGraphCommand extends Command {
         return result;
     }
 
-    private void loadGraphFromSystemIn(NodeFactory factory) throws IOException, SAXException, ParserConfigurationException {
+    protected void loadGraphFromSystemIn(NodeFactory factory) throws IOException, SAXException, ParserConfigurationException {
         getVerboseListener().print("Reading from standard input");
 
-        NodeLoader loader = new NodeLoader(factory, getCommandLine().getToggleSwitch("validate"));
-        loader.addDependencyListener(getVerboseListener());
-        loader.load(System.in);
+        InputStream in = new BufferedInputStream(System.in);
+        if (BinaryGraphLoader.isBinaryGraph(in)) {
+            BinaryGraphLoader loader = new BinaryGraphLoader(factory);
+            loader.addDependencyListener(getVerboseListener());
+            loader.load(in);
+        } else {
+            NodeLoader loader = new NodeLoader(factory, getCommandLine().getToggleSwitch("validate"));
+            loader.addDependencyListener(getVerboseListener());
+            loader.load(in);
+        }
 
         getVerboseListener().print("Read from standard input.");
     }
 
     private void loadGraphFromFiles(NodeFactory factory) throws IOException, SAXException, ParserConfigurationException {
         for (String filename : getCommandLine().getParameters()) {
-            if (filename.endsWith(".xml")) {
+            if (isGraphFile(filename)) {
                 loadGraphFromFile(factory, filename);
             } else {
                 getVerboseListener().print("Skipping \"" + filename + "\".");
@@ -87,12 +94,22 @@ public abstract class DependencyGraphCommand extends Command {
         }
     }
 
-    private void loadGraphFromFile(NodeFactory factory, String filename) throws IOException, SAXException, ParserConfigurationException {
+    protected boolean isGraphFile(String filename) {
+        return filename.endsWith(".xml") || filename.endsWith(BinaryGraphWriter.FILE_EXTENSION);
+    }
+
+    protected void loadGraphFromFile(NodeFactory factory, String filename) throws IOException, SAXException, ParserConfigurationException {
         getVerboseListener().print("Reading " + filename);
 
-        NodeLoader loader = new NodeLoader(factory, getCommandLine().getToggleSwitch("validate"));
-        loader.addDependencyListener(getVerboseListener());
-        loader.load(filename);
+        if (filename.endsWith(BinaryGraphWriter.FILE_EXTENSION)) {
+            BinaryGraphLoader loader = new BinaryGraphLoader(factory);
+            loader.addDependencyListener(getVerboseListener());
+            loader.load(filename);
+        } else {
+            NodeLoader loader = new NodeLoader(factory, getCommandLine().getToggleSwitch("validate"));
+            loader.addDependencyListener(getVerboseListener());
+            loader.load(filename);
+        }
 
         getVerboseListener().print("Read \"" + filename + "\".");
     }
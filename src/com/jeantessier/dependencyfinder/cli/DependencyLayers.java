@@ -0,0 +1,94 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.jeantessier.dependencyfinder.cli;
+
+import java.util.*;
+
+import com.jeantessier.dependency.*;
+import com.jeantessier.commandline.*;
+
+public class DependencyLayers extends DependencyGraphCommand {
+    protected void populateCommandLineSwitches() {
+        super.populateCommandLineSwitches();
+        populateCommandLineSwitchesForXMLOutput(XMLCondensedGraphPrinter.DEFAULT_ENCODING, XMLCondensedGraphPrinter.DEFAULT_DTD_PREFIX, XMLPrinter.DEFAULT_INDENT_TEXT);
+
+        populateRegularExpressionCommandLineSwitches("scope", false, DEFAULT_INCLUDES);
+        populateListCommandLineSwitches("scope");
+
+        getCommandLine().addToggleSwitch("class-level");
+
+        getCommandLine().addToggleSwitch("xml");
+    }
+
+    protected Collection<CommandLineException> parseCommandLine(String[] args) {
+        Collection<CommandLineException> exceptions = super.parseCommandLine(args);
+
+        exceptions.addAll(validateCommandLineForScoping());
+
+        return exceptions;
+    }
+
+    protected void doProcessing() throws Exception {
+        GraphCondenser condenser = new GraphCondenser(getScopeCriteria());
+
+        Collection<PackageNode> packages = loadGraph().getPackages().values();
+
+        getVerboseListener().print("Condensing the graph ...");
+
+        CondensedGraph graph;
+        if (getCommandLine().getToggleSwitch("class-level")) {
+            graph = condenser.condenseClasses(packages);
+        } else {
+            graph = condenser.condensePackages(packages);
+        }
+
+        getVerboseListener().print("Printing the graph ...");
+
+        CondensedGraphPrinter printer;
+        if (getCommandLine().isPresent("xml")) {
+            printer = new XMLCondensedGraphPrinter(getOut(), getCommandLine().getSingleSwitch("encoding"), getCommandLine().getSingleSwitch("dtd-prefix"));
+        } else {
+            printer = new TextCondensedGraphPrinter(getOut());
+        }
+
+        if (getCommandLine().isPresent("indent-text")) {
+            printer.setIndentText(getCommandLine().getSingleSwitch("indent-text"));
+        }
+
+        printer.visitCondensedGraph(graph);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new DependencyLayers().run(args);
+    }
+}
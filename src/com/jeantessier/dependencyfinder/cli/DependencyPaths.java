@@ -0,0 +1,111 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.jeantessier.dependencyfinder.cli;
+
+import java.util.*;
+
+import com.jeantessier.dependency.Printer;
+import com.jeantessier.dependency.TextPrinter;
+import com.jeantessier.dependency.*;
+import com.jeantessier.commandline.*;
+
+public class DependencyPaths extends DependencyGraphCommand {
+    protected void populateCommandLineSwitches() {
+        super.populateCommandLineSwitches();
+        populateCommandLineSwitchesForXMLOutput(XMLPrinter.DEFAULT_ENCODING, XMLPrinter.DEFAULT_DTD_PREFIX, XMLPrinter.DEFAULT_INDENT_TEXT);
+
+        populateCommandLineSwitchesForStartCondition();
+        populateCommandLineSwitchesForStopCondition();
+
+        getCommandLine().addSingleValueSwitch("granularity", "feature");
+        getCommandLine().addSingleValueSwitch("maximum-paths");
+
+        getCommandLine().addToggleSwitch("xml");
+    }
+
+    protected Collection<CommandLineException> parseCommandLine(String[] args) {
+        Collection<CommandLineException> exceptions = super.parseCommandLine(args);
+
+        try {
+            getGranularity();
+        } catch (IllegalArgumentException ex) {
+            exceptions.add(new CommandLineException("Granularity must be package, class, or feature"));
+        }
+
+        return exceptions;
+    }
+
+    protected void doProcessing() throws Exception {
+        ShortestPathFinder finder = new ShortestPathFinder(getStartCriteria(), getStopCriteria());
+        finder.setGranularity(getGranularity());
+
+        try {
+            if (getCommandLine().isPresent("maximum-paths")) {
+                finder.setMaximumNbPaths(Integer.parseInt(getCommandLine().getSingleSwitch("maximum-paths")));
+            }
+        } catch (NumberFormatException ex) {
+            finder.setMaximumNbPaths(ShortestPathFinder.ALL_SHORTEST_PATHS);
+        }
+
+        finder.findPaths(loadGraph().getPackages().values());
+
+        if (finder.getDistance() == ShortestPathFinder.NO_PATH) {
+            getVerboseListener().print("No path found after visiting " + finder.getNbVisitedNodes() + " node(s).");
+        } else {
+            getVerboseListener().print("Shortest path has " + finder.getDistance() + " dependency(ies), found after visiting " + finder.getNbVisitedNodes() + " node(s).");
+        }
+
+        getVerboseListener().print("Printing the graph ...");
+
+        Printer printer;
+        if (getCommandLine().isPresent("xml")) {
+            printer = new XMLPrinter(getOut(), getCommandLine().getSingleSwitch("encoding"), getCommandLine().getSingleSwitch("dtd-prefix"));
+        } else {
+            printer = new TextPrinter(getOut());
+        }
+
+        if (getCommandLine().isPresent("indent-text")) {
+            printer.setIndentText(getCommandLine().getSingleSwitch("indent-text"));
+        }
+
+        printer.traverseNodes(finder.getFactory().getPackages().values());
+    }
+
+    private ShortestPathFinder.Granularity getGranularity() {
+        return ShortestPathFinder.Granularity.valueOf(getCommandLine().getSingleSwitch("granularity").toUpperCase());
+    }
+
+    public static void main(String[] args) throws Exception {
+        new DependencyPaths().run(args);
+    }
+}
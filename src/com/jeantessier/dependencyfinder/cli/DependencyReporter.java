@@ -131,7 +131,7 @@ public class DependencyReporter extends DependencyGraphCommand {
 
     private void copyGraphFromFiles(Visitor copier) throws IOException, SAXException, ParserConfigurationException {
         for (String filename : getCommandLine().getParameters()) {
-            if (filename.endsWith(".xml")) {
+            if (isGraphFile(filename)) {
                 copyGraph(copier, loadGraphFromFile(filename));
             } else {
                 getVerboseListener().print("Skipping \"" + filename + "\".");
@@ -151,31 +151,15 @@ public class DependencyReporter extends DependencyGraphCommand {
     }
 
     private Collection<PackageNode> loadGraphFromSystemIn() throws IOException, SAXException, ParserConfigurationException {
-        Collection<PackageNode> packages;
-
-        getVerboseListener().print("Reading from standard input");
-
-        NodeLoader loader = new NodeLoader(getCommandLine().getToggleSwitch("validate"));
-        loader.addDependencyListener(getVerboseListener());
-        packages = loader.load(System.in).getPackages().values();
-
-        getVerboseListener().print("Read from standard input.");
-
-        return packages;
+        NodeFactory factory = new NodeFactory();
+        loadGraphFromSystemIn(factory);
+        return factory.getPackages().values();
     }
 
     private Collection<PackageNode> loadGraphFromFile(String filename) throws IOException, SAXException, ParserConfigurationException {
-        Collection<PackageNode> packages;
-
-        getVerboseListener().print("Reading " + filename);
-
-        NodeLoader loader = new NodeLoader(getCommandLine().getToggleSwitch("validate"));
-        loader.addDependencyListener(getVerboseListener());
-        packages = loader.load(filename).getPackages().values();
-
-        getVerboseListener().print("Read \"" + filename + "\".");
-
-        return packages;
+        NodeFactory factory = new NodeFactory();
+        loadGraphFromFile(factory, filename);
+        return factory.getPackages().values();
     }
 
     public static void main(String[] args) throws Exception {
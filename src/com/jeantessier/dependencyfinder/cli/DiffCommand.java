@@ -82,6 +82,10 @@ public abstract class DiffCommand extends Command {
     }
 
     protected DifferencesFactory getDifferencesFactory() throws IOException {
+        return new DifferencesFactory(getDifferenceStrategy());
+    }
+
+    protected DifferenceStrategy getDifferenceStrategy() throws IOException {
         DifferenceStrategy baseStrategy = getBaseStrategy(getCommandLine().getToggleSwitch("code"));
         DifferenceStrategy strategy = getStrategy(getCommandLine().getSingleSwitch("level"), baseStrategy);
 
@@ -89,7 +93,7 @@ public abstract class DiffCommand extends Command {
             strategy = new ListBasedDifferenceStrategy(strategy, getCommandLine().getSingleSwitch("filter"));
         }
 
-        return new DifferencesFactory(strategy);
+        return strategy;
     }
 
     private DifferenceStrategy getBaseStrategy(boolean useCode) {
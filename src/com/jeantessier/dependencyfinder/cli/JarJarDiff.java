@@ -32,27 +32,128 @@
 
 package com.jeantessier.dependencyfinder.cli;
 
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
 import org.apache.log4j.*;
 
 import com.jeantessier.classreader.*;
+import com.jeantessier.commandline.*;
 import com.jeantessier.diff.*;
 
 public class JarJarDiff extends DiffCommand {
+    private Fingerprints oldFingerprints;
+    private Fingerprints newFingerprints;
+
+    protected void populateCommandLineSwitches() {
+        super.populateCommandLineSwitches();
+
+        getCommandLine().addSingleValueSwitch("threads");
+        getCommandLine().addSingleValueSwitch("old-fingerprints");
+        getCommandLine().addSingleValueSwitch("new-fingerprints");
+    }
+
+    protected Collection<CommandLineException> parseCommandLine(String[] args) {
+        Collection<CommandLineException> exceptions = super.parseCommandLine(args);
+
+        exceptions.addAll(validateCommandLineForThreads());
+
+        return exceptions;
+    }
+
+    private boolean useFingerprints() {
+        return getCommandLine().isPresent("old-fingerprints") || getCommandLine().isPresent("new-fingerprints");
+    }
+
+    protected DifferencesFactory getDifferencesFactory() throws IOException {
+        DifferencesFactory result;
+
+        if (getCommandLine().isPresent("threads")) {
+            result = new ParallelDifferencesFactory(getDifferenceStrategy(), Integer.parseInt(getCommandLine().getSingleSwitch("threads")));
+        } else {
+            result = super.getDifferencesFactory();
+        }
+
+        return result;
+    }
+
+    protected DifferenceStrategy getDifferenceStrategy() throws IOException {
+        DifferenceStrategy result = super.getDifferenceStrategy();
+
+        if (useFingerprints()) {
+            result = new FingerprintDifferenceStrategy(result, oldFingerprints, newFingerprints);
+        }
+
+        return result;
+    }
+
     protected void doProcessing() throws Exception {
         // Collecting data, first classfiles from JARs,
         // then package/class trees using NodeFactory.
 
-        PackageMapper oldPackages = new PackageMapper();
-        ClassfileLoader oldJar = new AggregatingClassfileLoader();
-        oldJar.addLoadListener(oldPackages);
-        oldJar.addLoadListener(getVerboseListener());
-        oldJar.load(getCommandLine().getMultipleSwitch("old"));
+        final PackageMapper oldPackages = new PackageMapper();
+        final ClassfileLoader oldJar;
 
         PackageMapper newPackages = new PackageMapper();
-        ClassfileLoader newJar = new AggregatingClassfileLoader();
+        ClassfileLoader newJar;
+
+        if (useFingerprints()) {
+            oldFingerprints = loadFingerprints("old-fingerprints");
+            newFingerprints = loadFingerprints("new-fingerprints");
+
+            oldJar = new FingerprintingClassfileLoader(oldFingerprints);
+            newJar = new FingerprintingClassfileLoader(newFingerprints);
+        } else {
+            oldJar = new AggregatingClassfileLoader();
+            newJar = new AggregatingClassfileLoader();
+        }
+
+        oldJar.addLoadListener(oldPackages);
         newJar.addLoadListener(newPackages);
         newJar.addLoadListener(getVerboseListener());
-        newJar.load(getCommandLine().getMultipleSwitch("new"));
+
+        if (getCommandLine().isPresent("threads")) {
+            // The old codebase loads in the background while the new one
+            // loads here.  Each loader gets its own verbose listener since
+            // they keep track of progress separately.  The background one
+            // writes to a buffer that is copied to the real output after
+            // both loads, so that their lines do not get mixed up.
+            StringWriter oldVerboseOutput = new StringWriter();
+            VerboseListener oldVerboseListener = new VerboseListener();
+            oldVerboseListener.setWriter(oldVerboseOutput);
+            oldJar.addLoadListener(oldVerboseListener);
+
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                Future<?> oldLoad = executor.submit(new Runnable() {
+                    public void run() {
+                        oldJar.load(getCommandLine().getMultipleSwitch("old"));
+                    }
+                });
+
+                newJar.load(getCommandLine().getMultipleSwitch("new"));
+
+                try {
+                    oldLoad.get();
+                } catch (ExecutionException ex) {
+                    if (ex.getCause() instanceof Exception) {
+                        throw (Exception) ex.getCause();
+                    }
+                    throw (Error) ex.getCause();
+                }
+            } finally {
+                executor.shutdown();
+
+                oldVerboseListener.getWriter().flush();
+                getVerboseListener().getWriter().print(oldVerboseOutput);
+                getVerboseListener().getWriter().flush();
+            }
+        } else {
+            oldJar.addLoadListener(getVerboseListener());
+            oldJar.load(getCommandLine().getMultipleSwitch("old"));
+            newJar.load(getCommandLine().getMultipleSwitch("new"));
+        }
 
         // Starting to compare, first at package level,
         // then descending to class level for packages
@@ -77,6 +178,39 @@ public class JarJarDiff extends DiffCommand {
 
         differences.accept(report);
         getOut().print(report.render());
+
+        if (useFingerprints()) {
+            saveFingerprints("old-fingerprints", oldFingerprints);
+            saveFingerprints("new-fingerprints", newFingerprints);
+        }
+    }
+
+    private Fingerprints loadFingerprints(String switchName) {
+        Fingerprints result = new Fingerprints();
+
+        if (getCommandLine().isPresent(switchName)) {
+            File file = new File(getCommandLine().getSingleSwitch(switchName));
+
+            getVerboseListener().print("Reading fingerprints from " + file + " ...");
+
+            try {
+                result.load(file);
+            } catch (IOException ex) {
+                Logger.getLogger(getClass()).warn("Ignoring fingerprints " + file, ex);
+                result = new Fingerprints();
+            }
+        }
+
+        return result;
+    }
+
+    private void saveFingerprints(String switchName, Fingerprints fingerprints) throws IOException {
+        if (getCommandLine().isPresent(switchName)) {
+            File file = new File(getCommandLine().getSingleSwitch(switchName));
+
+            getVerboseListener().print("Saving fingerprints to " + file + " ...");
+            fingerprints.save(file);
+        }
     }
 
     public static void main(String[] args) throws Exception {
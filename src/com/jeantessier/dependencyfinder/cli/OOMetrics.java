@@ -70,6 +70,7 @@ public class OOMetrics extends DirectoryExplorerCommand {
         getCommandLine().addToggleSwitch("expand");
         getCommandLine().addToggleSwitch("reverse");
         getCommandLine().addToggleSwitch("enable-cross-class-measurements");
+        getCommandLine().addSingleValueSwitch("threads");
     }
 
     protected Collection<CommandLineException> parseCommandLine(String[] args) {
@@ -97,6 +98,8 @@ public class OOMetrics extends DirectoryExplorerCommand {
             exceptions.add(new CommandLineException("Must have one and only one of -csv, -txt, or -xml"));
         }
 
+        exceptions.addAll(validateCommandLineForThreads());
+
         return exceptions;
     }
 
@@ -113,7 +116,12 @@ public class OOMetrics extends DirectoryExplorerCommand {
             factory = new MetricsFactory(projectName, new MetricsConfigurationLoader(getCommandLine().getToggleSwitch("validate")).load(getCommandLine().getSingleSwitch("default-configuration")));
         }
 
-        com.jeantessier.metrics.MetricsGatherer gatherer = new com.jeantessier.metrics.MetricsGatherer(factory);
+        com.jeantessier.metrics.MetricsGatherer gatherer;
+        if (getCommandLine().isPresent("threads")) {
+            gatherer = new ParallelMetricsGatherer(factory, Integer.parseInt(getCommandLine().getSingleSwitch("threads")));
+        } else {
+            gatherer = new com.jeantessier.metrics.MetricsGatherer(factory);
+        }
         if (getCommandLine().isPresent("scope-includes-list") || getCommandLine().isPresent("scope-excludes-list")) {
             gatherer.setScopeIncludes(createCollection(getCommandLine().getMultipleSwitch("scope-includes-list"), getCommandLine().getMultipleSwitch("scope-excludes-list")));
         }
@@ -132,6 +140,24 @@ public class OOMetrics extends DirectoryExplorerCommand {
             Logger.getLogger(OOMetrics.class).debug("Computing metrics ...");
             getVerboseListener().print("Computing metrics ...");
             gatherer.visitClassfiles(loader.getAllClassfiles());
+        } else if (getCommandLine().isPresent("threads")) {
+            final List<Classfile> classfiles = new ArrayList<Classfile>();
+
+            ClassfileLoader loader = new TransientClassfileLoader();
+            loader.addLoadListener(getVerboseListener());
+            loader.addLoadListener(new LoadAdapter() {
+                public void endClassfile(LoadEvent event) {
+                    classfiles.add(event.getClassfile());
+                }
+            });
+
+            Logger.getLogger(OOMetrics.class).debug("Reading in all classes ...");
+            getVerboseListener().print("Reading in all classes ...");
+            loader.load(getCommandLine().getParameters());
+
+            Logger.getLogger(OOMetrics.class).debug("Computing metrics ...");
+            getVerboseListener().print("Computing metrics ...");
+            gatherer.visitClassfiles(classfiles);
         } else {
             ClassfileLoader loader = new TransientClassfileLoader();
             loader.addLoadListener(getVerboseListener());
@@ -103,7 +103,7 @@ public class VerboseListener extends VerboseListenerBase implements DependencyLi
         super.endClassfile(event);
 
         getWriter().print("Loading ");
-        getWriter().print(event.getClassfile());
+        getWriter().print(event.getClassName());
         getWriter().print(" ...");
         getWriter().println();
         getWriter().flush();
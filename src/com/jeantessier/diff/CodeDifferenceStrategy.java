@@ -81,13 +81,11 @@ public class CodeDifferenceStrategy implements DifferenceStrategy {
         if (oldCode != null && newCode != null) {
             result = oldCode.getCode().length != newCode.getCode().length;
 
-            Iterator<Instruction> oldIterator = oldCode.iterator();
-            Iterator<Instruction> newIterator = newCode.iterator();
+            InstructionCursor oldCursor = oldCode.cursor();
+            InstructionCursor newCursor = newCode.cursor();
 
-            while (!result && oldIterator.hasNext() && newIterator.hasNext()) {
-                Instruction oldInstruction = oldIterator.next();
-                Instruction newInstruction = newIterator.next();
-                result = !oldInstruction.equals(newInstruction);
+            while (!result && oldCursor.next() && newCursor.next()) {
+                result = !oldCursor.equals(newCursor);
             }
 
             if (Logger.getLogger(getClass()).isDebugEnabled()) {
@@ -38,10 +38,12 @@ import org.apache.log4j.*;
 
 import com.jeantessier.classreader.*;
 
+/**
+ *  Builds the differences between two versions of a codebase.  It
+ *  keeps no state between calls, so many threads can use the same
+ *  instance at the same time as long as its strategy allows it.
+ */
 public class DifferencesFactory {
-    private Classfile oldClass;
-    private Classfile newClass;
-
     private DifferenceStrategy strategy;
 
     /**
@@ -55,6 +57,10 @@ public class DifferencesFactory {
         this.strategy = strategy;
     }
 
+    protected DifferenceStrategy getStrategy() {
+        return strategy;
+    }
+
     public Differences createProjectDifferences(String name, String oldVersion, PackageMapper oldPackages, String newVersion, PackageMapper newPackages) {
         Logger.getLogger(getClass()).debug("Begin " + name + " (" + oldVersion + " -> " + newVersion + ")");
 
@@ -62,25 +68,14 @@ public class DifferencesFactory {
 
         Logger.getLogger(getClass()).debug("      Collecting packages ...");
 
-        Collection<String> packageNames = new TreeSet<String>();
-        packageNames.addAll(oldPackages.getPackageNames());
-        packageNames.addAll(newPackages.getPackageNames());
+        Collection<String> packageNames = getPackageNames(oldPackages, newPackages);
 
         Logger.getLogger(getClass()).debug("      Diff'ing packages ...");
 
         for (String packageName : packageNames) {
-            Map<String, Classfile> oldPackage = oldPackages.getPackage(packageName);
-            if (oldPackage == null) {
-                oldPackage = Collections.emptyMap();
-            }
-
-            Map<String, Classfile> newPackage = newPackages.getPackage(packageName);
-            if (newPackage == null) {
-                newPackage = Collections.emptyMap();
-            }
-
-            if (strategy.isPackageDifferent(oldPackage, newPackage)) {
-                projectDifferences.getPackageDifferences().add(createPackageDifferences(packageName, oldPackage, newPackage));
+            Differences packageDifferences = comparePackage(packageName, getPackage(oldPackages, packageName), getPackage(newPackages, packageName));
+            if (packageDifferences != null) {
+                projectDifferences.getPackageDifferences().add(packageDifferences);
             }
         }
 
@@ -94,19 +89,13 @@ public class DifferencesFactory {
 
         PackageDifferences packageDifferences = new PackageDifferences(name, oldPackage, newPackage);
 
-        if (oldPackage != null && !oldPackage.isEmpty() && newPackage != null && !newPackage.isEmpty()) {
+        if (isInBothVersions(oldPackage, newPackage)) {
             Logger.getLogger(getClass()).debug("      Diff'ing classes ...");
 
-            Collection<String> classNames = new TreeSet<String>();
-            classNames.addAll(oldPackage.keySet());
-            classNames.addAll(newPackage.keySet());
-
-            for (String className : classNames) {
-                Classfile oldClass = oldPackage.get(className);
-                Classfile newClass = newPackage.get(className);
-
-                if (strategy.isClassDifferent(oldClass, newClass)) {
-                    packageDifferences.getClassDifferences().add(createClassDifferences(className, oldClass, newClass));
+            for (String className : getClassNames(oldPackage, newPackage)) {
+                Differences classDifferences = compareClass(className, oldPackage.get(className), newPackage.get(className));
+                if (classDifferences != null) {
+                    packageDifferences.getClassDifferences().add(classDifferences);
                 }
             }
 
@@ -118,6 +107,83 @@ public class DifferencesFactory {
         return packageDifferences;
     }
 
+    /**
+     *  @return the names of the packages in either version, sorted.
+     */
+    protected Collection<String> getPackageNames(PackageMapper oldPackages, PackageMapper newPackages) {
+        Collection<String> result = new TreeSet<String>();
+
+        result.addAll(oldPackages.getPackageNames());
+        result.addAll(newPackages.getPackageNames());
+
+        return result;
+    }
+
+    /**
+     *  @return the classes of the package, or an empty map if the
+     *          package is not in this version.
+     */
+    protected Map<String, Classfile> getPackage(PackageMapper packages, String packageName) {
+        Map<String, Classfile> result = packages.getPackage(packageName);
+
+        if (result == null) {
+            result = Collections.emptyMap();
+        }
+
+        return result;
+    }
+
+    /**
+     *  @return the differences between the two versions of the
+     *          package, or <code>null</code> if the strategy finds it
+     *          unchanged.
+     */
+    protected Differences comparePackage(String name, Map<String, Classfile> oldPackage, Map<String, Classfile> newPackage) {
+        Differences result = null;
+
+        if (strategy.isPackageDifferent(oldPackage, newPackage)) {
+            result = createPackageDifferences(name, oldPackage, newPackage);
+        }
+
+        return result;
+    }
+
+    /**
+     *  Only packages that are in both versions need their classes
+     *  compared one by one.
+     */
+    protected boolean isInBothVersions(Map<String, Classfile> oldPackage, Map<String, Classfile> newPackage) {
+        return oldPackage != null && !oldPackage.isEmpty() && newPackage != null && !newPackage.isEmpty();
+    }
+
+    /**
+     *  @return the names of the classes in either version of the
+     *          package, sorted.
+     */
+    protected Collection<String> getClassNames(Map<String, Classfile> oldPackage, Map<String, Classfile> newPackage) {
+        Collection<String> result = new TreeSet<String>();
+
+        result.addAll(oldPackage.keySet());
+        result.addAll(newPackage.keySet());
+
+        return result;
+    }
+
+    /**
+     *  @return the differences between the two versions of the
+     *          class, or <code>null</code> if the strategy finds it
+     *          unchanged.
+     */
+    protected Differences compareClass(String name, Classfile oldClass, Classfile newClass) {
+        Differences result = null;
+
+        if (strategy.isClassDifferent(oldClass, newClass)) {
+            result = createClassDifferences(name, oldClass, newClass);
+        }
+
+        return result;
+    }
+
     public Differences createClassDifferences(String name, Classfile oldClass, Classfile newClass) {
         Logger.getLogger(getClass()).debug("Begin " + name);
 
@@ -134,9 +200,6 @@ public class DifferencesFactory {
 
         Differences result = classDifferences;
 
-        this.oldClass = oldClass;
-        this.newClass = newClass;
-
         if (oldClass != null && newClass != null) {
             Logger.getLogger(getClass()).debug("      Collecting fields ...");
 
@@ -157,7 +220,7 @@ public class DifferencesFactory {
                 Field_info newField = newClass.getField(fieldEntry.getKey());
 
                 if (strategy.isFieldDifferent(oldField, newField)) {
-                    classDifferences.getFeatureDifferences().add(createFeatureDifferences(fieldEntry.getValue(), oldField, newField));
+                    classDifferences.getFeatureDifferences().add(createFeatureDifferences(fieldEntry.getValue(), oldField, newField, newClass));
                 }
             }
 
@@ -180,7 +243,7 @@ public class DifferencesFactory {
                 Method_info newMethod = newClass.getMethod(methodEntry.getKey());
 
                 if (strategy.isMethodDifferent(oldMethod, newMethod)) {
-                    classDifferences.getFeatureDifferences().add(createFeatureDifferences(methodEntry.getValue(), oldMethod, newMethod));
+                    classDifferences.getFeatureDifferences().add(createFeatureDifferences(methodEntry.getValue(), oldMethod, newMethod, newClass));
                 }
             }
 
@@ -197,6 +260,14 @@ public class DifferencesFactory {
     }
 
     public Differences createFeatureDifferences(String name, Feature_info oldFeature, Feature_info newFeature) {
+        return createFeatureDifferences(name, oldFeature, newFeature, (newFeature != null) ? newFeature.getClassfile() : null);
+    }
+
+    /**
+     *  @param newClass where to look for an inherited version of a
+     *                  feature that was removed.
+     */
+    public Differences createFeatureDifferences(String name, Feature_info oldFeature, Feature_info newFeature, Classfile newClass) {
         Logger.getLogger(getClass()).debug("Begin " + name);
 
         FeatureDifferences featureDifferences;
@@ -207,7 +278,7 @@ public class DifferencesFactory {
                 ((FieldDifferences) featureDifferences).setConstantValueDifference(true);
             }
 
-            if (featureDifferences.isRemoved() && newClass.locateField(name) != null) {
+            if (featureDifferences.isRemoved() && newClass != null && newClass.locateField(name) != null) {
                 featureDifferences.setInherited(true);
             }
         } else {
@@ -221,7 +292,7 @@ public class DifferencesFactory {
                 ((CodeDifferences) featureDifferences).setCodeDifference(true);
             }
 
-            if (featureDifferences.isRemoved()) {
+            if (featureDifferences.isRemoved() && newClass != null) {
                 Method_info attempt = newClass.locateMethod(name);
                 if ((attempt != null) && (oldFeature.getClassfile().isInterface() == attempt.getClassfile().isInterface())) {
                     featureDifferences.setInherited(true);
@@ -0,0 +1,126 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.diff;
+
+import java.util.*;
+
+import com.jeantessier.classreader.*;
+
+/**
+ *  <p>Skips over classes and methods that are identical in both
+ *  codebases, based on their {@link Fingerprints}, and lets the
+ *  delegate strategy decide on everything else.</p>
+ *
+ *  <p>Matching fingerprints only ever mean "no difference".  When
+ *  fingerprints do not match, or are missing, the delegate strategy
+ *  does the actual comparison, so this decorator never changes the
+ *  outcome of a diff.  It should wrap the complete strategy.</p>
+ */
+public class FingerprintDifferenceStrategy extends DifferenceStrategyDecorator {
+    private Fingerprints oldFingerprints;
+    private Fingerprints newFingerprints;
+
+    public FingerprintDifferenceStrategy(DifferenceStrategy delegate, Fingerprints oldFingerprints, Fingerprints newFingerprints) {
+        super(delegate);
+
+        this.oldFingerprints = oldFingerprints;
+        this.newFingerprints = newFingerprints;
+    }
+
+    public boolean isPackageDifferent(Map<String, Classfile> oldPackage, Map<String, Classfile> newPackage) {
+        return !isPackageIdentical(oldPackage, newPackage) && super.isPackageDifferent(oldPackage, newPackage);
+    }
+
+    public boolean isClassDifferent(Classfile oldClass, Classfile newClass) {
+        return !isClassIdentical(oldClass, newClass) && super.isClassDifferent(oldClass, newClass);
+    }
+
+    public boolean isMethodDifferent(Method_info oldMethod, Method_info newMethod) {
+        return !isMethodIdentical(oldMethod, newMethod) && super.isMethodDifferent(oldMethod, newMethod);
+    }
+
+    public boolean isCodeDifferent(Code_attribute oldCode, Code_attribute newCode) {
+        return !isCodeIdentical(oldCode, newCode) && super.isCodeDifferent(oldCode, newCode);
+    }
+
+    private boolean isPackageIdentical(Map<String, Classfile> oldPackage, Map<String, Classfile> newPackage) {
+        boolean result = !oldPackage.isEmpty() && oldPackage.keySet().equals(newPackage.keySet());
+
+        Iterator<String> i = oldPackage.keySet().iterator();
+        while (result && i.hasNext()) {
+            String className = i.next();
+            result = isClassIdentical(oldPackage.get(className), newPackage.get(className));
+        }
+
+        return result;
+    }
+
+    private boolean isClassIdentical(Classfile oldClass, Classfile newClass) {
+        boolean result = false;
+
+        if (oldClass != null && newClass != null) {
+            String oldContent = oldFingerprints.getContentFingerprint(oldClass.getClassName());
+            String newContent = newFingerprints.getContentFingerprint(newClass.getClassName());
+
+            if (oldContent != null && oldContent.equals(newContent)) {
+                result = true;
+            } else {
+                result = oldFingerprints.getAPIFingerprint(oldClass).equals(newFingerprints.getAPIFingerprint(newClass));
+
+                Iterator<? extends Method_info> i = oldClass.getAllMethods().iterator();
+                while (result && i.hasNext()) {
+                    Method_info oldMethod = i.next();
+                    Method_info newMethod = newClass.getMethod(oldMethod.getSignature());
+                    result = newMethod != null && oldFingerprints.getCodeFingerprint(oldMethod).equals(newFingerprints.getCodeFingerprint(newMethod));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private boolean isMethodIdentical(Method_info oldMethod, Method_info newMethod) {
+        return oldMethod != null && newMethod != null &&
+               oldMethod.getAccessFlag() == newMethod.getAccessFlag() &&
+               oldMethod.isDeprecated() == newMethod.isDeprecated() &&
+               oldMethod.getDeclaration().equals(newMethod.getDeclaration()) &&
+               oldFingerprints.getCodeFingerprint(oldMethod).equals(newFingerprints.getCodeFingerprint(newMethod));
+    }
+
+    private boolean isCodeIdentical(Code_attribute oldCode, Code_attribute newCode) {
+        return oldCode != null && newCode != null &&
+               oldCode.getOwner() instanceof Method_info && newCode.getOwner() instanceof Method_info &&
+               oldFingerprints.getCodeFingerprint((Method_info) oldCode.getOwner()).equals(newFingerprints.getCodeFingerprint((Method_info) newCode.getOwner()));
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.diff;
+
+import java.io.*;
+
+import org.apache.log4j.*;
+
+import com.jeantessier.classreader.*;
+
+/**
+ *  Aggregates classfiles like its superclass, but also records the
+ *  content fingerprint of each one in a {@link Fingerprints} as it
+ *  reads it.
+ */
+public class FingerprintingClassfileLoader extends AggregatingClassfileLoader {
+    private static final Logger LOGGER = Logger.getLogger(FingerprintingClassfileLoader.class);
+
+    private Fingerprints fingerprints;
+
+    public FingerprintingClassfileLoader(Fingerprints fingerprints) {
+        this.fingerprints = fingerprints;
+    }
+
+    public Fingerprints getFingerprints() {
+        return fingerprints;
+    }
+
+    protected void loadClassfile(String filename, InputStream in) {
+        try {
+            fireBeginClassfile(filename);
+
+            byte[] bytes = ClassfileContentHelper.readBytes(in);
+            Classfile classfile = load(new DataInputStream(new ByteArrayInputStream(bytes)));
+            getFingerprints().putContentFingerprint(classfile.getClassName(), ClassfileContentHelper.computeDigest(bytes));
+
+            fireEndClassfile(filename, classfile);
+        } catch (IOException ex) {
+            LOGGER.warn("Cannot load class from file \"" + filename + "\"", ex);
+        }
+    }
+}
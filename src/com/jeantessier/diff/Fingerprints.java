@@ -0,0 +1,432 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.diff;
+
+import java.io.*;
+import java.security.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.apache.log4j.*;
+
+import com.jeantessier.classreader.*;
+
+/**
+ *  <p>Strong hashes of the classes in one codebase, so that a
+ *  {@link FingerprintDifferenceStrategy} can tell that two versions
+ *  of a class or of a method are identical without walking them.</p>
+ *
+ *  <p>There are three kinds of fingerprints:</p>
+ *
+ *  <dl>
+ *      <dt>content</dt>
+ *      <dd>the raw bytes of the classfile, as recorded by a
+ *          {@link FingerprintingClassfileLoader}</dd>
+ *      <dt>API</dt>
+ *      <dd>the declaration of the class, its fields, and its
+ *          methods, in a canonical order</dd>
+ *      <dt>code</dt>
+ *      <dd>the instructions of a method, with constant pool
+ *          references replaced by the values they point to, so
+ *          that the same code compiled against a different constant
+ *          pool still gets the same fingerprint</dd>
+ *  </dl>
+ *
+ *  <p>API and code fingerprints are computed the first time they are
+ *  needed and then kept.  Fingerprints can be saved next to a release
+ *  and loaded back when diff'ing against that release later.  Saved
+ *  API and code fingerprints are only reused for classes whose content
+ *  fingerprint has not changed.</p>
+ *
+ *  <p>Instances are safe to use from many threads at once.</p>
+ */
+public class Fingerprints {
+    private static final Logger LOGGER = Logger.getLogger(Fingerprints.class);
+
+    private static final int MAGIC = 0x44464650; // "DFFP"
+    private static final int VERSION = 1;
+
+    private static final String DIGEST_ALGORITHM = "SHA-1";
+    private static final String ENCODING = "UTF-8";
+
+    private ConcurrentMap<String, String> contentFingerprints = new ConcurrentHashMap<String, String>();
+    private ConcurrentMap<String, String> apiFingerprints = new ConcurrentHashMap<String, String>();
+    private ConcurrentMap<String, ConcurrentMap<String, String>> codeFingerprints = new ConcurrentHashMap<String, ConcurrentMap<String, String>>();
+
+    private Map<String, SavedClass> savedClasses = new ConcurrentHashMap<String, SavedClass>();
+
+    public String getContentFingerprint(String className) {
+        return contentFingerprints.get(className);
+    }
+
+    public void putContentFingerprint(String className, String fingerprint) {
+        contentFingerprints.put(className, fingerprint);
+
+        SavedClass savedClass = savedClasses.remove(className);
+        if (savedClass != null && savedClass.contentFingerprint.equals(fingerprint)) {
+            if (savedClass.apiFingerprint != null) {
+                apiFingerprints.putIfAbsent(className, savedClass.apiFingerprint);
+            }
+            ConcurrentMap<String, String> classCodeFingerprints = getCodeFingerprints(className);
+            for (Map.Entry<String, String> entry : savedClass.codeFingerprints.entrySet()) {
+                classCodeFingerprints.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    public String getAPIFingerprint(Classfile classfile) {
+        String result = apiFingerprints.get(classfile.getClassName());
+
+        if (result == null) {
+            result = computeAPIFingerprint(classfile);
+            apiFingerprints.putIfAbsent(classfile.getClassName(), result);
+        }
+
+        return result;
+    }
+
+    public String getCodeFingerprint(Method_info method) {
+        ConcurrentMap<String, String> classCodeFingerprints = getCodeFingerprints(method.getClassfile().getClassName());
+        String result = classCodeFingerprints.get(method.getSignature());
+
+        if (result == null) {
+            result = computeCodeFingerprint(method.getCode());
+            classCodeFingerprints.putIfAbsent(method.getSignature(), result);
+        }
+
+        return result;
+    }
+
+    private ConcurrentMap<String, String> getCodeFingerprints(String className) {
+        ConcurrentMap<String, String> result = codeFingerprints.get(className);
+
+        if (result == null) {
+            codeFingerprints.putIfAbsent(className, new ConcurrentHashMap<String, String>());
+            result = codeFingerprints.get(className);
+        }
+
+        return result;
+    }
+
+    static String computeAPIFingerprint(Classfile classfile) {
+        Hasher hasher = new Hasher();
+
+        hasher.update(classfile.getAccessFlag());
+        hasher.update(classfile.getClassName());
+        hasher.update(classfile.getDeclaration());
+        hasher.update(classfile.getSuperclassName());
+        hasher.update(classfile.isDeprecated());
+
+        Set<String> interfaceNames = new TreeSet<String>();
+        for (Class_info interfaceInfo : classfile.getAllInterfaces()) {
+            interfaceNames.add(interfaceInfo.getName());
+        }
+        hasher.update(interfaceNames.size());
+        for (String interfaceName : interfaceNames) {
+            hasher.update(interfaceName);
+        }
+
+        Map<String, Field_info> fields = new TreeMap<String, Field_info>();
+        for (Field_info field : classfile.getAllFields()) {
+            fields.put(field.getName(), field);
+        }
+        hasher.update(fields.size());
+        for (Field_info field : fields.values()) {
+            updateFeature(hasher, field);
+            hasher.update(field.getType());
+            ConstantValue_attribute constantValue = field.getConstantValue();
+            hasher.update(constantValue != null);
+            if (constantValue != null) {
+                updateConstantPoolEntry(hasher, constantValue.getRawValue());
+            }
+        }
+
+        Map<String, Method_info> methods = new TreeMap<String, Method_info>();
+        for (Method_info method : classfile.getAllMethods()) {
+            methods.put(method.getSignature(), method);
+        }
+        hasher.update(methods.size());
+        for (Method_info method : methods.values()) {
+            updateFeature(hasher, method);
+            hasher.update(method.getReturnType());
+
+            Set<String> exceptionNames = new TreeSet<String>();
+            for (Class_info exception : method.getExceptions()) {
+                exceptionNames.add(exception.getName());
+            }
+            hasher.update(exceptionNames.size());
+            for (String exceptionName : exceptionNames) {
+                hasher.update(exceptionName);
+            }
+        }
+
+        return hasher.getFingerprint();
+    }
+
+    static String computeCodeFingerprint(Code_attribute code) {
+        Hasher hasher = new Hasher();
+
+        hasher.update(code != null);
+        if (code != null) {
+            hasher.update(code.getCode().length);
+            InstructionCursor instruction = code.cursor();
+            while (instruction.next()) {
+                hasher.update(instruction.getOpcode());
+
+                if (InstructionCategory.forOpcode(instruction.getOpcode()).isConstantPoolReference()) {
+                    updateConstantPoolEntry(hasher, instruction.getIndexedConstantPoolEntry());
+                } else {
+                    for (int i = 1; i < instruction.getLength(); i++) {
+                        hasher.update(instruction.getByte(i));
+                    }
+                }
+            }
+        }
+
+        return hasher.getFingerprint();
+    }
+
+    private static void updateFeature(Hasher hasher, Feature_info feature) {
+        hasher.update(feature.getAccessFlag());
+        hasher.update(feature.getSignature());
+        hasher.update(feature.getDeclaration());
+        hasher.update(feature.isDeprecated());
+    }
+
+    /**
+     *  Identifies an entry by its type and the values it points to,
+     *  regardless of where it sits in the constant pool.
+     */
+    private static void updateConstantPoolEntry(Hasher hasher, ConstantPoolEntry entry) {
+        if (entry instanceof Class_info) {
+            hasher.update("Class");
+            hasher.update(((Class_info) entry).getName());
+        } else if (entry instanceof String_info) {
+            hasher.update("String");
+            hasher.update(((String_info) entry).getValue());
+        } else if (entry instanceof Integer_info) {
+            hasher.update("Integer");
+            hasher.update(((Integer_info) entry).getValue());
+        } else if (entry instanceof Float_info) {
+            hasher.update("Float");
+            hasher.update(Float.floatToIntBits(((Float_info) entry).getValue()));
+        } else if (entry instanceof Long_info) {
+            hasher.update("Long");
+            hasher.update(((Long_info) entry).getValue());
+        } else if (entry instanceof Double_info) {
+            hasher.update("Double");
+            hasher.update(Double.doubleToLongBits(((Double_info) entry).getValue()));
+        } else if (entry instanceof FeatureRef_info) {
+            hasher.update(entry.getClass().getSimpleName());
+            updateFeatureRef(hasher, (FeatureRef_info) entry);
+        } else if (entry instanceof MethodType_info) {
+            hasher.update("MethodType");
+            hasher.update(((MethodType_info) entry).getDescriptor());
+        } else if (entry instanceof MethodHandle_info) {
+            hasher.update("MethodHandle");
+            hasher.update(((MethodHandle_info) entry).getRawReferenceKind());
+            updateFeatureRef(hasher, ((MethodHandle_info) entry).getReference());
+        } else if (entry instanceof InvokeDynamic_info) {
+            hasher.update("InvokeDynamic");
+            hasher.update(((InvokeDynamic_info) entry).getBootstrapMethodAttrIndex());
+            updateNameAndType(hasher, ((InvokeDynamic_info) entry).getRawNameAndType());
+        } else {
+            // Unknown kind of entry, fall back on its textual form.
+            hasher.update(entry.getClass().getSimpleName());
+            hasher.update(String.valueOf(entry));
+        }
+    }
+
+    private static void updateFeatureRef(Hasher hasher, FeatureRef_info featureRef) {
+        hasher.update(featureRef.getClassName());
+        updateNameAndType(hasher, featureRef.getRawNameAndType());
+    }
+
+    private static void updateNameAndType(Hasher hasher, NameAndType_info nameAndType) {
+        hasher.update(nameAndType.getName());
+        hasher.update(nameAndType.getType());
+    }
+
+    public void load(File file) throws IOException {
+        if (file.exists()) {
+            InputStream in = new BufferedInputStream(new FileInputStream(file));
+            try {
+                load(in);
+            } finally {
+                in.close();
+            }
+        }
+    }
+
+    public void load(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a fingerprints file");
+        }
+
+        int version = data.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported fingerprints version " + version);
+        }
+
+        int nbClasses = data.readInt();
+        for (int i = 0; i < nbClasses; i++) {
+            String className = data.readUTF();
+            SavedClass savedClass = new SavedClass(data.readUTF());
+
+            if (data.readBoolean()) {
+                savedClass.apiFingerprint = data.readUTF();
+            }
+
+            int nbMethods = data.readInt();
+            for (int j = 0; j < nbMethods; j++) {
+                String signature = data.readUTF();
+                savedClass.codeFingerprints.put(signature, data.readUTF());
+            }
+
+            savedClasses.put(className, savedClass);
+        }
+
+        LOGGER.info("Loaded fingerprints for " + savedClasses.size() + " class(es)");
+    }
+
+    public void save(File file) throws IOException {
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+        try {
+            save(out);
+        } finally {
+            out.close();
+        }
+    }
+
+    public void save(OutputStream out) throws IOException {
+        Map<String, String> sortedContentFingerprints = new TreeMap<String, String>(contentFingerprints);
+
+        DataOutputStream data = new DataOutputStream(out);
+
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+
+        data.writeInt(sortedContentFingerprints.size());
+        for (Map.Entry<String, String> entry : sortedContentFingerprints.entrySet()) {
+            data.writeUTF(entry.getKey());
+            data.writeUTF(entry.getValue());
+
+            String apiFingerprint = apiFingerprints.get(entry.getKey());
+            data.writeBoolean(apiFingerprint != null);
+            if (apiFingerprint != null) {
+                data.writeUTF(apiFingerprint);
+            }
+
+            Map<String, String> classCodeFingerprints = new TreeMap<String, String>();
+            if (codeFingerprints.containsKey(entry.getKey())) {
+                classCodeFingerprints.putAll(codeFingerprints.get(entry.getKey()));
+            }
+            data.writeInt(classCodeFingerprints.size());
+            for (Map.Entry<String, String> codeEntry : classCodeFingerprints.entrySet()) {
+                data.writeUTF(codeEntry.getKey());
+                data.writeUTF(codeEntry.getValue());
+            }
+        }
+
+        data.flush();
+    }
+
+    private static class SavedClass {
+        private String contentFingerprint;
+        private String apiFingerprint;
+        private Map<String, String> codeFingerprints = new HashMap<String, String>();
+
+        public SavedClass(String contentFingerprint) {
+            this.contentFingerprint = contentFingerprint;
+        }
+    }
+
+    private static class Hasher {
+        private MessageDigest digest;
+
+        public Hasher() {
+            try {
+                digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            } catch (NoSuchAlgorithmException ex) {
+                throw new IllegalStateException(DIGEST_ALGORITHM + " is not available", ex);
+            }
+        }
+
+        public void update(byte[] bytes) {
+            digest.update(bytes);
+        }
+
+        public void update(boolean value) {
+            digest.update((byte) (value ? 1 : 0));
+        }
+
+        public void update(int value) {
+            digest.update((byte) (value >>> 24));
+            digest.update((byte) (value >>> 16));
+            digest.update((byte) (value >>> 8));
+            digest.update((byte) value);
+        }
+
+        public void update(long value) {
+            update((int) (value >>> 32));
+            update((int) value);
+        }
+
+        public void update(String value) {
+            if (value == null) {
+                update(-1);
+            } else {
+                try {
+                    byte[] bytes = value.getBytes(ENCODING);
+                    update(bytes.length);
+                    update(bytes);
+                } catch (UnsupportedEncodingException ex) {
+                    throw new IllegalStateException(ENCODING + " is not available", ex);
+                }
+            }
+        }
+
+        public String getFingerprint() {
+            StringBuilder result = new StringBuilder();
+            for (byte b : digest.digest()) {
+                result.append(Character.forDigit((b >> 4) & 0xF, 16));
+                result.append(Character.forDigit(b & 0xF, 16));
+            }
+
+            return result.toString();
+        }
+    }
+}
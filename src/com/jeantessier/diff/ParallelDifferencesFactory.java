@@ -0,0 +1,185 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.diff;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.apache.log4j.*;
+
+import com.jeantessier.classreader.*;
+
+/**
+ *  <p>Compares packages and classes as fork/join tasks on a pool of
+ *  threads.  Each package is a task, and the classes in a package
+ *  that exists in both versions are compared as subtasks.</p>
+ *
+ *  <p>Results are gathered in the same sorted order as
+ *  {@link DifferencesFactory}, so the resulting {@link Differences},
+ *  and any {@link Report} rendered from them, are exactly the
+ *  same.</p>
+ *
+ *  <p>The strategy is shared by all threads and must be thread-safe.
+ *  The strategies in this package are.  Both codebases must be fully
+ *  loaded before the comparison starts and must not change while it
+ *  runs.</p>
+ */
+public class ParallelDifferencesFactory extends DifferencesFactory {
+    public static final int DEFAULT_NB_THREADS = Runtime.getRuntime().availableProcessors();
+
+    private int nbThreads;
+
+    public ParallelDifferencesFactory(DifferenceStrategy strategy) {
+        this(strategy, DEFAULT_NB_THREADS);
+    }
+
+    public ParallelDifferencesFactory(DifferenceStrategy strategy, int nbThreads) {
+        super(strategy);
+
+        this.nbThreads = Math.max(1, nbThreads);
+    }
+
+    public int getNbThreads() {
+        return nbThreads;
+    }
+
+    public Differences createProjectDifferences(String name, String oldVersion, PackageMapper oldPackages, String newVersion, PackageMapper newPackages) {
+        Logger.getLogger(getClass()).debug("Begin " + name + " (" + oldVersion + " -> " + newVersion + ")");
+
+        ProjectDifferences projectDifferences = new ProjectDifferences(name, oldVersion, newVersion);
+
+        Collection<String> packageNames = getPackageNames(oldPackages, newPackages);
+
+        Logger.getLogger(getClass()).debug("      Diff'ing " + packageNames.size() + " packages on " + getNbThreads() + " threads ...");
+
+        List<PackageTask> tasks = new ArrayList<PackageTask>(packageNames.size());
+        for (String packageName : packageNames) {
+            tasks.add(new PackageTask(packageName, getPackage(oldPackages, packageName), getPackage(newPackages, packageName)));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(getNbThreads());
+        try {
+            for (PackageTask task : tasks) {
+                pool.execute(task);
+            }
+
+            for (PackageTask task : tasks) {
+                Differences packageDifferences = task.join();
+                if (packageDifferences != null) {
+                    projectDifferences.getPackageDifferences().add(packageDifferences);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        Logger.getLogger(getClass()).debug("End   " + name + " (" + oldVersion + " -> " + newVersion + ")");
+
+        return projectDifferences;
+    }
+
+    /**
+     *  Forks one subtask per class when called from a task of this
+     *  factory; compares classes one after the other otherwise.
+     */
+    public Differences createPackageDifferences(String name, Map<String, Classfile> oldPackage, Map<String, Classfile> newPackage) {
+        if (!ForkJoinTask.inForkJoinPool()) {
+            return super.createPackageDifferences(name, oldPackage, newPackage);
+        }
+
+        Logger.getLogger(getClass()).debug("Begin " + name);
+
+        PackageDifferences packageDifferences = new PackageDifferences(name, oldPackage, newPackage);
+
+        if (isInBothVersions(oldPackage, newPackage)) {
+            Collection<String> classNames = getClassNames(oldPackage, newPackage);
+
+            List<ClassTask> tasks = new ArrayList<ClassTask>(classNames.size());
+            for (String className : classNames) {
+                tasks.add(new ClassTask(className, oldPackage.get(className), newPackage.get(className)));
+            }
+
+            ForkJoinTask.invokeAll(tasks);
+
+            for (ClassTask task : tasks) {
+                Differences classDifferences = task.join();
+                if (classDifferences != null) {
+                    packageDifferences.getClassDifferences().add(classDifferences);
+                }
+            }
+
+            Logger.getLogger(getClass()).debug("      " + name + " has " + packageDifferences.getClassDifferences().size() + " class(es) that changed.");
+        }
+
+        Logger.getLogger(getClass()).debug("End   " + name);
+
+        return packageDifferences;
+    }
+
+    private class PackageTask extends RecursiveTask<Differences> {
+        private static final long serialVersionUID = 1L;
+
+        private String name;
+        private Map<String, Classfile> oldPackage;
+        private Map<String, Classfile> newPackage;
+
+        public PackageTask(String name, Map<String, Classfile> oldPackage, Map<String, Classfile> newPackage) {
+            this.name = name;
+            this.oldPackage = oldPackage;
+            this.newPackage = newPackage;
+        }
+
+        protected Differences compute() {
+            return comparePackage(name, oldPackage, newPackage);
+        }
+    }
+
+    private class ClassTask extends RecursiveTask<Differences> {
+        private static final long serialVersionUID = 1L;
+
+        private String name;
+        private Classfile oldClass;
+        private Classfile newClass;
+
+        public ClassTask(String name, Classfile oldClass, Classfile newClass) {
+            this.name = name;
+            this.oldClass = oldClass;
+            this.newClass = newClass;
+        }
+
+        protected Differences compute() {
+            return compareClass(name, oldClass, newClass);
+        }
+    }
+}
@@ -39,7 +39,7 @@ import org.apache.log4j.*;
 import org.apache.oro.text.perl.*;
 
 public class MetricsFactory {
-    private static final Perl5Util perl = new Perl5Util();
+    private final Perl5Util perl = new Perl5Util();
 
     private String               projectName;
     private MetricsConfiguration configuration;
@@ -305,6 +305,88 @@ public class MetricsFactory {
         return Collections.unmodifiableCollection(methods.values());
     }
 
+    /**
+     *  Adds the metrics of another factory to this one, as if the
+     *  classes that populated <code>other</code> had been visited
+     *  with this factory instead.  Both factories must use the same
+     *  configuration.  Counters are added, name lists are combined,
+     *  and the other measurements are recomputed from the merged
+     *  tree.  Name lists initialized as LIST keep the order in which
+     *  factories are merged.
+     */
+    public void merge(MetricsFactory other) {
+        MetricsFactory baseline = new MetricsFactory(getProjectName(), getConfiguration());
+
+        for (Metrics metrics : other.getAllProjectMetrics()) {
+            String name = metrics.getName();
+            Metrics initial = projects.containsKey(name) ? baseline.createProjectMetrics(name) : null;
+            mergeMeasurements(metrics, createProjectMetrics(name), initial);
+        }
+
+        for (Metrics metrics : other.getAllGroupMetrics()) {
+            String name = metrics.getName();
+            Metrics initial = groups.containsKey(name) ? baseline.createGroupMetrics(name) : null;
+            mergeMeasurements(metrics, createGroupMetrics(name), initial);
+        }
+
+        for (Metrics metrics : other.getAllClassMetrics()) {
+            String name = metrics.getName();
+            Metrics initial = classes.containsKey(name) ? baseline.createClassMetrics(name) : null;
+            mergeMeasurements(metrics, createClassMetrics(name), initial);
+        }
+
+        for (Metrics metrics : other.getAllMethodMetrics()) {
+            String name = metrics.getName();
+            Metrics initial = methods.containsKey(name) ? baseline.createMethodMetrics(name) : null;
+            mergeMeasurements(metrics, createMethodMetrics(name), initial);
+        }
+
+        for (String name : other.getMethodNames()) {
+            includeMethodMetrics(methods.get(name));
+        }
+
+        for (String name : other.getClassNames()) {
+            includeClassMetrics(classes.get(name));
+        }
+
+        for (String name : other.getGroupNames()) {
+            includeGroupMetrics(groups.get(name));
+        }
+
+        for (String name : other.getProjectNames()) {
+            includeProjectMetrics(projects.get(name));
+        }
+    }
+
+    /**
+     *  Both <code>source</code> and <code>target</code> start with the
+     *  values set at creation time, such as initial values and name
+     *  lengths, so counters only add what <code>source</code> gathered
+     *  on top of them.  When <code>target</code> was just created,
+     *  <code>initial</code> is <code>null</code> and <code>target</code>
+     *  holds these starting values itself.
+     */
+    private void mergeMeasurements(Metrics source, Metrics target, Metrics initial) {
+        if (initial == null) {
+            initial = target;
+        }
+
+        for (String name : source.getMeasurementNames()) {
+            Measurement measurement = source.getMeasurement(name);
+
+            if (measurement instanceof CounterMeasurement) {
+                if (!measurement.isEmpty()) {
+                    double delta = measurement.getValue().doubleValue() - initial.getMeasurement(name).getValue().doubleValue();
+                    target.addToMeasurement(name, delta);
+                }
+            } else if (measurement instanceof NameListMeasurement) {
+                for (String value : ((NameListMeasurement) measurement).getValues()) {
+                    target.addToMeasurement(name, value);
+                }
+            }
+        }
+    }
+
     public void clear() {
         projects.clear();
         groups.clear();
@@ -46,7 +46,7 @@ import com.jeantessier.classreader.*;
  *  by the compiler.
  */
 public class MetricsGatherer extends VisitorBase {
-    private static final Perl5Util perl = new Perl5Util();
+    private final Perl5Util perl = new Perl5Util();
 
     private MetricsFactory factory;
 
@@ -73,10 +73,18 @@ public class MetricsGatherer extends VisitorBase {
         return factory;
     }
 
+    public Collection<String> getScopeIncludes() {
+        return scope;
+    }
+
     public void setScopeIncludes(Collection<String> scope) {
         this.scope = scope;
     }
     
+    public Collection<String> getFilterIncludes() {
+        return filter;
+    }
+
     public void setFilterIncludes(Collection<String> filter) {
         this.filter = filter;
     }
@@ -397,6 +405,10 @@ public class MetricsGatherer extends VisitorBase {
     // Attribute helpers
     //
 
+    protected void visitInstructions(Code_attribute attribute) {
+        visitInstructionsWithCursor(attribute);
+    }
+
     public void visitInstruction(Instruction helper) {
         super.visitInstruction(helper);
 
@@ -405,22 +417,11 @@ public class MetricsGatherer extends VisitorBase {
          *  followed by a call to the constructor method.
          */
 
-        switch (helper.getOpcode()) {
-            case 0x12: // ldc
-            case 0x13: // ldc_w
-            case 0xb2: // getstatic
-            case 0xb3: // putstatic
-            case 0xb4: // getfield
-            case 0xb5: // putfield
-            case 0xb6: // invokevirtual
-            case 0xb7: // invokespecial
-            case 0xb8: // invokestatic
-            case 0xb9: // invokeinterface
-            // case 0xbb: // new
-            case 0xbd: // anewarray
-            case 0xc0: // checkcast
-            case 0xc1: // instanceof
-            case 0xc5: // multianewarray
+        switch (InstructionCategory.forOpcode(helper.getOpcode())) {
+            case CONSTANT_POOL_LOAD:
+            case FIELD_ACCESS:
+            case METHOD_INVOCATION:
+            case TYPE_REFERENCE:
                 helper.getIndexedConstantPoolEntry().accept(this);
                 break;
             default:
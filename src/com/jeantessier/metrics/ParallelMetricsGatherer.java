@@ -0,0 +1,229 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.metrics;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import com.jeantessier.classreader.*;
+
+/**
+ *  <p>Gathers metrics on a pool of threads.  The classfiles are split
+ *  into contiguous partitions, one per thread, and each partition is
+ *  visited by its own {@link MetricsGatherer} with a private
+ *  {@link MetricsFactory}.  These factories are then merged, in
+ *  partition order, into the factory of this gatherer, so the final
+ *  metrics are the same as with a sequential {@link MetricsGatherer}.</p>
+ *
+ *  <p>Session events and end class and end method events are fired
+ *  from the calling thread.  Begin class and begin method events are
+ *  fired from the worker threads, one event at a time, as each worker
+ *  reaches a class or method.  The end events wait until all the
+ *  factories have been merged, so that the metrics they carry are the
+ *  final ones from {@link #getMetricsFactory()}.  They come in
+ *  partition order, i.e., in the order of the classfiles.</p>
+ *
+ *  <p>The classfiles must not change while they are being visited.
+ *  Depth of inheritance reads superclasses through the loader of
+ *  each classfile, concurrently.</p>
+ */
+public class ParallelMetricsGatherer extends MetricsGatherer {
+    public static final int DEFAULT_NB_THREADS = Runtime.getRuntime().availableProcessors();
+
+    private int nbThreads;
+
+    private final Object eventLock = new Object();
+
+    public ParallelMetricsGatherer(MetricsFactory factory) {
+        this(factory, DEFAULT_NB_THREADS);
+    }
+
+    public ParallelMetricsGatherer(MetricsFactory factory, int nbThreads) {
+        super(factory);
+
+        this.nbThreads = Math.max(1, nbThreads);
+    }
+
+    public int getNbThreads() {
+        return nbThreads;
+    }
+
+    public void visitClassfiles(Collection<Classfile> classfiles) {
+        int nbPartitions = Math.min(getNbThreads(), classfiles.size());
+        if (nbPartitions <= 1) {
+            super.visitClassfiles(classfiles);
+            return;
+        }
+
+        fireBeginSession(classfiles.size());
+
+        List<Future<WorkerGatherer>> results = new ArrayList<Future<WorkerGatherer>>(nbPartitions);
+        List<WorkerGatherer> workers = new ArrayList<WorkerGatherer>(nbPartitions);
+        ExecutorService executor = Executors.newFixedThreadPool(nbPartitions);
+        try {
+            for (List<Classfile> partition : partition(classfiles, nbPartitions)) {
+                results.add(executor.submit(new Worker(partition)));
+            }
+
+            for (Future<WorkerGatherer> result : results) {
+                WorkerGatherer worker = getWorker(result);
+                getMetricsFactory().merge(worker.getMetricsFactory());
+                workers.add(worker);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (WorkerGatherer worker : workers) {
+            worker.fireEndEvents();
+        }
+
+        fireEndSession();
+    }
+
+    private List<List<Classfile>> partition(Collection<Classfile> classfiles, int nbPartitions) {
+        List<List<Classfile>> result = new ArrayList<List<Classfile>>(nbPartitions);
+
+        List<Classfile> all = new ArrayList<Classfile>(classfiles);
+        int start = 0;
+        for (int i = 0; i < nbPartitions; i++) {
+            int end = (int) ((long) all.size() * (i + 1) / nbPartitions);
+            result.add(all.subList(start, end));
+            start = end;
+        }
+
+        return result;
+    }
+
+    private WorkerGatherer getWorker(Future<WorkerGatherer> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while gathering metrics", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException("Cannot gather metrics", cause);
+        }
+    }
+
+    private class Worker implements Callable<WorkerGatherer> {
+        private List<Classfile> classfiles;
+
+        public Worker(List<Classfile> classfiles) {
+            this.classfiles = classfiles;
+        }
+
+        public WorkerGatherer call() {
+            MetricsFactory factory = new MetricsFactory(getMetricsFactory().getProjectName(), getMetricsFactory().getConfiguration());
+
+            WorkerGatherer result = new WorkerGatherer(factory);
+            result.setScopeIncludes(getScopeIncludes());
+            result.setFilterIncludes(getFilterIncludes());
+
+            for (Classfile classfile : classfiles) {
+                classfile.accept(result);
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     *  Relays begin class and begin method events to the listeners of
+     *  the enclosing gatherer right away, and holds on to the end events
+     *  until {@link #fireEndEvents()}.
+     */
+    private class WorkerGatherer extends MetricsGatherer {
+        private List<EndEvent> endEvents = new ArrayList<EndEvent>();
+
+        public WorkerGatherer(MetricsFactory factory) {
+            super(factory);
+        }
+
+        protected void fireBeginClass(Classfile classfile) {
+            synchronized(eventLock) {
+                ParallelMetricsGatherer.this.fireBeginClass(classfile);
+            }
+        }
+
+        protected void fireBeginMethod(Method_info method) {
+            synchronized(eventLock) {
+                ParallelMetricsGatherer.this.fireBeginMethod(method);
+            }
+        }
+
+        protected void fireEndMethod(Method_info method, Metrics metrics) {
+            endEvents.add(new EndEvent(null, method, metrics.getName()));
+        }
+
+        protected void fireEndClass(Classfile classfile, Metrics metrics) {
+            endEvents.add(new EndEvent(classfile, null, metrics.getName()));
+        }
+
+        /**
+         *  Fires the end events of this worker with the metrics of the
+         *  enclosing gatherer, once the worker's metrics have been
+         *  merged into them.
+         */
+        public void fireEndEvents() {
+            MetricsFactory factory = ParallelMetricsGatherer.this.getMetricsFactory();
+
+            for (EndEvent event : endEvents) {
+                if (event.method != null) {
+                    ParallelMetricsGatherer.this.fireEndMethod(event.method, factory.createMethodMetrics(event.metricsName));
+                } else {
+                    ParallelMetricsGatherer.this.fireEndClass(event.classfile, factory.createClassMetrics(event.metricsName));
+                }
+            }
+        }
+    }
+
+    private static class EndEvent {
+        private Classfile classfile;
+        private Method_info method;
+        private String metricsName;
+
+        public EndEvent(Classfile classfile, Method_info method, String metricsName) {
+            this.classfile = classfile;
+            this.method = method;
+            this.metricsName = metricsName;
+        }
+    }
+}
@@ -43,6 +43,7 @@ import static org.junit.runners.Suite.*;
         com.jeantessier.dependency.TestAll.class,
         com.jeantessier.diff.TestAll.class,
         com.jeantessier.metrics.TestAll.class,
+        com.jeantessier.dependencyfinder.TestAll.class,
         com.jeantessier.dependencyfinder.ant.TestAll.class,
         com.jeantessier.dependencyfinder.cli.TestAll.class,
         com.jeantessier.dependencyfinder.web.TestAll.class,
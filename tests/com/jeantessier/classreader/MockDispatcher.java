@@ -34,7 +34,7 @@ package com.jeantessier.classreader;
 
 import java.util.*;
 
-public class MockDispatcher implements ClassfileLoaderDispatcher {
+public class MockDispatcher implements ArchiveEntryDispatcher {
     private Map<String, Integer> counts = new HashMap<String, Integer>();
 
     private ClassfileLoaderAction returnedAction = ClassfileLoaderAction.CLASS;
@@ -60,6 +60,10 @@ public class MockDispatcher implements ClassfileLoaderDispatcher {
         return getReturnedAction();
     }
 
+    public ClassfileLoaderAction dispatchEntry(String entryName) {
+        return dispatch(entryName);
+    }
+
     public int getDispatchCount(String filename) {
         int result = 0;
 
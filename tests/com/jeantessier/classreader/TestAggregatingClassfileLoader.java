@@ -81,6 +81,14 @@ public class TestAggregatingClassfileLoader extends TestCase {
                       loader.getClassfile(TEST_CLASS));
     }
 
+    public void testModificationCount() throws IOException {
+        int before = loader.getModificationCount();
+
+        loader.load(new DataInputStream(new FileInputStream(TEST_FILENAME)));
+
+        assertTrue("Modification count did not change", before != loader.getModificationCount());
+    }
+
     public void testClassfile() {
         loader.load(Collections.singleton(TEST_FILENAME));
 
@@ -60,6 +60,8 @@ import static org.junit.runners.Suite.SuiteClasses;
         TestAggregatingClassfileLoaderWithModifiedOnlyDispatcher.class,
         TestZipClassfileLoader.class,
         TestJarClassfileLoader.class,
+        TestMappedArchive.class,
+        TestMappedArchiveClassfileLoader.class,
         TestClassfileLoaderPermissiveDispatcher.class,
         TestClassfileLoaderStrictDispatcher.class,
         TestPackageMapper.class,
@@ -32,6 +32,8 @@
 
 package com.jeantessier.classreader;
 
+import java.util.*;
+
 import junit.framework.*;
 
 public class TestDescriptorHelper extends TestCase {
@@ -52,4 +54,25 @@ public class TestDescriptorHelper extends TestCase {
         assertEquals("(java.lang.Object)", DescriptorHelper.getSignature("(Ljava/lang/Object;)V"));
         assertEquals("(java.lang.Object[])", DescriptorHelper.getSignature("([Ljava/lang/Object;)V"));
     }
+
+    public void testGetSignature_Cached() {
+        String descriptor = "(ILjava/lang/String;)V";
+        assertSame(DescriptorHelper.getSignature(descriptor), DescriptorHelper.getSignature(new String(descriptor)));
+    }
+
+    public void testGetParameterCount() {
+        assertEquals(0, DescriptorHelper.getParameterCount("()V"));
+        assertEquals(2, DescriptorHelper.getParameterCount("(J[[Ljava/lang/Object;)I"));
+    }
+
+    public void testGetParameterTypes() {
+        assertEquals(Arrays.asList("long", "java.lang.Object[][]"), DescriptorHelper.getParameterTypes("(J[[Ljava/lang/Object;)I"));
+    }
+
+    public void testGetReturnType() {
+        assertEquals("void", DescriptorHelper.getReturnType("()V"));
+        assertEquals("java.lang.String[]", DescriptorHelper.getReturnType("(I)[Ljava/lang/String;"));
+        assertEquals("int", DescriptorHelper.getReturnType("I"));
+        assertEquals("java.lang.String", DescriptorHelper.getReturnType("Ljava/lang/String;"));
+    }
 }
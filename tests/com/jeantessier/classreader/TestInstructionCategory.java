@@ -0,0 +1,62 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.classreader;
+
+import junit.framework.*;
+
+public class TestInstructionCategory extends TestCase {
+    public void testForOpcode() {
+        assertEquals("ldc", InstructionCategory.CONSTANT_POOL_LOAD, InstructionCategory.forOpcode(0x12));
+        assertEquals("ldc2_w", InstructionCategory.WIDE_CONSTANT_POOL_LOAD, InstructionCategory.forOpcode(0x14));
+        assertEquals("getfield", InstructionCategory.FIELD_ACCESS, InstructionCategory.forOpcode(0xb4));
+        assertEquals("invokeinterface", InstructionCategory.METHOD_INVOCATION, InstructionCategory.forOpcode(0xb9));
+        assertEquals("invokedynamic", InstructionCategory.DYNAMIC_INVOCATION, InstructionCategory.forOpcode(0xba));
+        assertEquals("new", InstructionCategory.OBJECT_CREATION, InstructionCategory.forOpcode(0xbb));
+        assertEquals("checkcast", InstructionCategory.TYPE_REFERENCE, InstructionCategory.forOpcode(0xc0));
+        assertEquals("nop", InstructionCategory.OTHER, InstructionCategory.forOpcode(0x00));
+        assertEquals("newarray", InstructionCategory.OTHER, InstructionCategory.forOpcode(0xbc));
+        assertEquals("impdep2", InstructionCategory.OTHER, InstructionCategory.forOpcode(0xff));
+    }
+
+    public void testIsConstantPoolReference() {
+        int count = 0;
+        for (int opcode = 0; opcode < 0x100; opcode++) {
+            if (InstructionCategory.forOpcode(opcode).isConstantPoolReference()) {
+                count++;
+            }
+        }
+
+        assertEquals("opcodes with a constant pool index", 17, count);
+    }
+}
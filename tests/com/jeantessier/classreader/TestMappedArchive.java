@@ -0,0 +1,296 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.classreader;
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+import java.util.zip.*;
+
+import junit.framework.*;
+
+public class TestMappedArchive extends TestCase {
+    public static final String TEST_DIR = "tests" + File.separator + "JarJarDiff";
+
+    private File file;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        file = File.createTempFile(getName(), ".jar");
+        file.deleteOnExit();
+    }
+
+    protected void tearDown() throws Exception {
+        try {
+            file.delete();
+        } finally {
+            super.tearDown();
+        }
+    }
+
+    public void testEntriesMatchZipFile() throws IOException {
+        String filename = TEST_DIR + File.separator + "onelevel.jar";
+        assertTrue(filename + " missing", new File(filename).exists());
+
+        MappedArchive archive = MappedArchive.open(new File(filename));
+
+        ZipFile zipfile = new ZipFile(filename);
+        try {
+            assertEquals("size", zipfile.size(), archive.size());
+
+            Iterator<MappedArchive.Entry> i = archive.getEntries().iterator();
+            Enumeration<? extends ZipEntry> expectedEntries = zipfile.entries();
+            while (expectedEntries.hasMoreElements()) {
+                ZipEntry expectedEntry = expectedEntries.nextElement();
+                MappedArchive.Entry entry = i.next();
+
+                assertEquals("name", expectedEntry.getName(), entry.getName());
+                assertEquals(entry.getName() + " directory", expectedEntry.isDirectory(), entry.isDirectory());
+                assertEquals(entry.getName() + " size", expectedEntry.getSize(), entry.getSize());
+                assertTrue(entry.getName() + " contents", Arrays.equals(readFully(zipfile.getInputStream(expectedEntry)), readFully(entry.getInputStream())));
+            }
+        } finally {
+            zipfile.close();
+        }
+    }
+
+    public void testStoredEntryIsSliceOfArchive() throws IOException {
+        byte[] contents = "stored contents".getBytes("UTF-8");
+
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file));
+        try {
+            putStoredEntry(out, "stored.txt", contents);
+        } finally {
+            out.close();
+        }
+
+        MappedArchive.Entry entry = MappedArchive.open(file).getEntries().get(0);
+        assertTrue("stored", entry.isStored());
+
+        ByteBuffer buffer = entry.getBuffer();
+        assertEquals("remaining", contents.length, buffer.remaining());
+        byte[] actual = new byte[buffer.remaining()];
+        buffer.get(actual);
+        assertTrue("contents", Arrays.equals(contents, actual));
+        assertTrue("contents from stream", Arrays.equals(contents, readFully(entry.getInputStream())));
+    }
+
+    public void testCompressedEntryHasNoBuffer() throws IOException {
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file));
+        try {
+            out.putNextEntry(new ZipEntry("compressed.txt"));
+            out.write("compressed contents".getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+
+        MappedArchive.Entry entry = MappedArchive.open(file).getEntries().get(0);
+        assertFalse("stored", entry.isStored());
+        assertEquals("contents", "compressed contents", new String(readFully(entry.getInputStream()), "UTF-8"));
+
+        try {
+            entry.getBuffer();
+            fail("Got buffer for compressed entry");
+        } catch (ZipException ex) {
+            // Expected
+        }
+    }
+
+    public void testOpenStoredNestedArchive() throws IOException {
+        ByteArrayOutputStream nested = new ByteArrayOutputStream();
+        ZipOutputStream nestedOut = new ZipOutputStream(nested);
+        nestedOut.putNextEntry(new ZipEntry("a/b/C.class"));
+        nestedOut.write(new byte[] {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE});
+        nestedOut.close();
+
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file));
+        try {
+            putStoredEntry(out, "WEB-INF/lib/nested.jar", nested.toByteArray());
+        } finally {
+            out.close();
+        }
+
+        MappedArchive.Entry entry = MappedArchive.open(file).getEntries().get(0);
+        assertTrue("stored", entry.isStored());
+
+        MappedArchive archive = entry.openArchive();
+        assertEquals("size", 1, archive.size());
+        assertEquals("name", "a/b/C.class", archive.getEntries().get(0).getName());
+        assertEquals("contents", 4, readFully(archive.getEntries().get(0).getInputStream()).length);
+    }
+
+    public void testOpenCompressedNestedArchive() throws IOException {
+        String filename = TEST_DIR + File.separator + "twolevel.zip";
+        assertTrue(filename + " missing", new File(filename).exists());
+
+        MappedArchive.Entry entry = MappedArchive.open(new File(filename)).getEntries().get(0);
+
+        assertEquals("size", MappedArchive.open(new File(TEST_DIR + File.separator + "onelevel.zip")).size(), entry.openArchive().size());
+    }
+
+    public void testOpenNonArchive() throws IOException {
+        String filename = TEST_DIR + File.separator + "old" + File.separator + "ModifiedPackage" + File.separator + "ModifiedClass.class";
+        assertTrue(filename + " missing", new File(filename).exists());
+
+        try {
+            MappedArchive.open(new File(filename));
+            fail("Opened non-archive " + filename);
+        } catch (ZipException ex) {
+            // Expected
+        }
+    }
+
+    public void testOpenEncryptedArchive() throws IOException {
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file));
+        try {
+            putStoredEntry(out, "encrypted.txt", new byte[0]);
+        } finally {
+            out.close();
+        }
+
+        // Set the encryption flag in the central directory header
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            byte[] bytes = new byte[(int) raf.length()];
+            raf.readFully(bytes);
+            for (int i = bytes.length - 4; i >= 0; i--) {
+                if (bytes[i] == 0x50 && bytes[i + 1] == 0x4b && bytes[i + 2] == 0x01 && bytes[i + 3] == 0x02) {
+                    raf.seek(i + 8);
+                    raf.write(bytes[i + 8] | 0x01);
+                    break;
+                }
+            }
+        } finally {
+            raf.close();
+        }
+
+        try {
+            MappedArchive.open(file);
+            fail("Opened encrypted archive");
+        } catch (ZipException ex) {
+            // Expected
+        }
+    }
+
+    public void testEntriesInFileOrder() throws IOException {
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(file));
+        try {
+            putStoredEntry(out, "first.txt", new byte[] {1});
+            putStoredEntry(out, "other.txt", new byte[] {2});
+        } finally {
+            out.close();
+        }
+
+        // Swap the two central directory headers
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            byte[] bytes = new byte[(int) raf.length()];
+            raf.readFully(bytes);
+
+            int first = -1;
+            for (int i = 0; first == -1 && i < bytes.length - 4; i++) {
+                if (bytes[i] == 0x50 && bytes[i + 1] == 0x4b && bytes[i + 2] == 0x01 && bytes[i + 3] == 0x02) {
+                    first = i;
+                }
+            }
+            int firstLength = 46 + (bytes[first + 28] & 0xFF) + (bytes[first + 30] & 0xFF) + (bytes[first + 32] & 0xFF);
+            int secondLength = 46 + (bytes[first + firstLength + 28] & 0xFF) + (bytes[first + firstLength + 30] & 0xFF) + (bytes[first + firstLength + 32] & 0xFF);
+
+            raf.seek(first);
+            raf.write(bytes, first + firstLength, secondLength);
+            raf.write(bytes, first, firstLength);
+        } finally {
+            raf.close();
+        }
+
+        MappedArchive archive = MappedArchive.open(file);
+        try {
+            assertEquals("central directory order", "other.txt", archive.getEntries().get(0).getName());
+            assertEquals("file order", "first.txt", archive.getEntriesInFileOrder().get(0).getName());
+            assertEquals("file order", "other.txt", archive.getEntriesInFileOrder().get(1).getName());
+
+            ZipInputStream in = new ZipInputStream(new FileInputStream(file));
+            try {
+                assertEquals("stream order", "first.txt", in.getNextEntry().getName());
+            } finally {
+                in.close();
+            }
+        } finally {
+            archive.close();
+        }
+    }
+
+    public void testClose() throws IOException {
+        String filename = TEST_DIR + File.separator + "onelevel.jar";
+        assertTrue(filename + " missing", new File(filename).exists());
+
+        MappedArchive archive = MappedArchive.open(new File(filename));
+        assertTrue("contents", readFully(archive.getEntries().get(0).getInputStream()).length >= 0);
+
+        archive.close();
+        archive.close();
+    }
+
+    private void putStoredEntry(ZipOutputStream out, String name, byte[] contents) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(contents);
+
+        ZipEntry entry = new ZipEntry(name);
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(contents.length);
+        entry.setCompressedSize(contents.length);
+        entry.setCrc(crc.getValue());
+
+        out.putNextEntry(entry);
+        out.write(contents);
+        out.closeEntry();
+    }
+
+    private byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try {
+            byte[] buffer = new byte[1024];
+            int length;
+            while ((length = in.read(buffer)) != -1) {
+                out.write(buffer, 0, length);
+            }
+        } finally {
+            in.close();
+        }
+
+        return out.toByteArray();
+    }
+}
@@ -38,7 +38,7 @@ import junit.framework.*;
 
 public class TestModifiedOnlyDispatcher extends TestCase {
     private MockDispatcher            mockDispatcher;
-    private ClassfileLoaderDispatcher dispatcher;
+    private ArchiveEntryDispatcher dispatcher;
 
     private String testDirname;
     private String testFilename;
@@ -134,6 +134,24 @@ public class TestModifiedOnlyDispatcher extends TestCase {
         assertEquals("repeat delegated calls", 2, mockDispatcher.getDispatchCount(testFilename));
     }
 
+    public void testDispatchEntryClassFile() {
+        mockDispatcher.setReturnedAction(ClassfileLoaderAction.CLASS);
+
+        assertEquals("first dispatch action", mockDispatcher.getReturnedAction(), dispatcher.dispatchEntry("foo/Bar.class"));
+        assertEquals("first delegated calls", 1, mockDispatcher.getDispatchCount("foo/Bar.class"));
+
+        assertEquals("repeat dispatch action", ClassfileLoaderAction.IGNORE, dispatcher.dispatchEntry("foo/Bar.class"));
+        assertEquals("repeat delegated calls", 2, mockDispatcher.getDispatchCount("foo/Bar.class"));
+    }
+
+    public void testDispatchEntryJarFile() {
+        mockDispatcher.setReturnedAction(ClassfileLoaderAction.JAR);
+
+        assertEquals("first dispatch action", mockDispatcher.getReturnedAction(), dispatcher.dispatchEntry("lib/foo.jar"));
+        assertEquals("repeat dispatch action", mockDispatcher.getReturnedAction(), dispatcher.dispatchEntry("lib/foo.jar"));
+        assertEquals("delegated calls", 2, mockDispatcher.getDispatchCount("lib/foo.jar"));
+    }
+
     private void createFile() throws IOException {
         PrintWriter out = new PrintWriter(new FileWriter(testFilename));
         out.println("foobar");
@@ -297,6 +297,34 @@ public class TestMonitor extends TestCase {
         assertAdditionsAndRemovals(1, 1);
     }
 
+    public void testRemovalFromCopy() {
+        monitor.beginSession(new LoadEvent(this, null, null, null));
+        monitor.beginGroup(new LoadEvent(this, null, null, null));
+        monitor.beginFile(new LoadEvent(this, null, TEST_FILENAME, null));
+        monitor.beginClassfile(new LoadEvent(this, null, TEST_FILENAME, null));
+        monitor.endClassfile(new LoadEvent(this, null, TEST_FILENAME, testClassfile));
+        monitor.endFile(new LoadEvent(this, null, TEST_FILENAME, null));
+        monitor.endGroup(new LoadEvent(this, null, null, null));
+        monitor.endSession(new LoadEvent(this, null, null, null));
+
+        MockVisitor       copyAddVisitor    = new MockVisitor();
+        MockRemoveVisitor copyRemoveVisitor = new MockRemoveVisitor();
+        Monitor copy = new Monitor(copyAddVisitor, copyRemoveVisitor, monitor);
+
+        copy.beginSession(new LoadEvent(this, null, null, null));
+        copy.beginGroup(new LoadEvent(this, null, null, null));
+        copy.endGroup(new LoadEvent(this, null, null, null));
+        copy.endSession(new LoadEvent(this, null, null, null));
+
+        assertEquals("copy removals", 1, copyRemoveVisitor.getVisitedClasses().size());
+        assertEquals("copy removed", TEST_CLASS, copyRemoveVisitor.getVisitedClasses().get(0));
+        assertEquals("copy previous", 0, copy.previousFiles.size());
+
+        assertEquals("original removals", 0, removeVisitor.getVisitedClasses().size());
+        assertEquals("original previous", 1, monitor.previousFiles.size());
+        assertTrue("TEST_FILENAME not in original previous", monitor.previousFiles.contains(TEST_FILENAME));
+    }
+
     public void testSkip() {
         monitor.beginSession(new LoadEvent(this, null, null, null));
         monitor.beginGroup(new LoadEvent(this, null, null, null));
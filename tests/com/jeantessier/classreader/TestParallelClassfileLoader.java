@@ -0,0 +1,189 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.classreader;
+
+import java.io.*;
+import java.util.*;
+
+public class TestParallelClassfileLoader extends TestClassfileLoaderBase {
+    public static final String OLD_DIR = TEST_DIR + File.separator + "old";
+    public static final String NEW_DIR = TEST_DIR + File.separator + "new";
+    public static final String TEST_FILENAME = "classes" + File.separator + "test.class";
+
+    private Collection<String> filenames;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        filenames = Arrays.asList(OLD_DIR, TEST_FILENAME, NEW_DIR);
+    }
+
+    public void testSameEventsAsSequentialLoader() {
+        RecordingLoadListener expected = new RecordingLoadListener();
+        ClassfileLoader sequentialLoader = new TransientClassfileLoader();
+        sequentialLoader.addLoadListener(expected);
+        sequentialLoader.load(filenames);
+
+        RecordingLoadListener actual = new RecordingLoadListener();
+        ClassfileLoader parallelLoader = new ParallelClassfileLoader(4);
+        parallelLoader.addLoadListener(actual);
+        parallelLoader.load(filenames);
+
+        assertFalse("No events", expected.getEvents().isEmpty());
+        assertEquals("Events", expected.getEvents(), actual.getEvents());
+    }
+
+    public void testEventsFromSingleThread() {
+        ClassfileLoader loader = new ParallelClassfileLoader(4);
+        loader.addLoadListener(this);
+        loader.load(filenames);
+
+        assertEquals("Begin Session",   1, getBeginSessionEvents().size());
+        assertEquals("Begin Group",     3, getBeginGroupEvents().size());
+        assertEquals("End Group",       3, getEndGroupEvents().size());
+        assertEquals("End Session",     1, getEndSessionEvents().size());
+        assertEquals("Classfiles", getBeginClassfileEvents().size(), getEndClassfileEvents().size());
+
+        for (LoadEvent event : getEndClassfileEvents()) {
+            assertSame("Source", loader, event.getSource());
+            assertNotNull("Classfile", event.getClassfile());
+        }
+    }
+
+    public void testThreadSafeListenerReceivesAllEvents() {
+        RecordingLoadListener expected = new RecordingLoadListener();
+        ClassfileLoader sequentialLoader = new TransientClassfileLoader();
+        sequentialLoader.addLoadListener(expected);
+        sequentialLoader.load(filenames);
+
+        ThreadSafeRecordingLoadListener actual = new ThreadSafeRecordingLoadListener();
+        ClassfileLoader parallelLoader = new ParallelClassfileLoader(4);
+        parallelLoader.addLoadListener(actual);
+        parallelLoader.load(filenames);
+
+        List<String> expectedEvents = new ArrayList<String>(expected.getEvents());
+        List<String> actualEvents = new ArrayList<String>(actual.getEvents());
+        Collections.sort(expectedEvents);
+        Collections.sort(actualEvents);
+        assertEquals("Events", expectedEvents, actualEvents);
+    }
+
+    public void testListenersKeepUpWithParsers() {
+        final int[] parsed = new int[1];
+        ClassfileFactory factory = new ClassfileFactory() {
+            private ClassfileFactory delegate = new com.jeantessier.classreader.impl.DefaultClassfileFactory();
+
+            public Classfile create(ClassfileLoader loader, DataInput in) throws IOException {
+                Classfile result = delegate.create(loader, in);
+
+                synchronized (parsed) {
+                    parsed[0]++;
+                }
+
+                return result;
+            }
+        };
+
+        final int[] delivered = new int[1];
+        final int[] maxAhead = new int[1];
+        ClassfileLoader loader = new ParallelClassfileLoader(factory, ClassfileLoaderEventSource.DEFAULT_DISPATCHER, 1);
+        loader.addLoadListener(new LoadListenerBase() {
+            public void endClassfile(LoadEvent event) {
+                delivered[0]++;
+                synchronized (parsed) {
+                    maxAhead[0] = Math.max(maxAhead[0], parsed[0] - delivered[0]);
+                }
+            }
+        });
+        loader.load(Collections.singleton("classes" + File.separator + "com"));
+
+        assertTrue("Too few classfiles: " + delivered[0], delivered[0] > 500);
+        assertTrue("Parsers too far ahead: " + maxAhead[0], maxAhead[0] < 100);
+    }
+
+    private static class RecordingLoadListener implements LoadListener {
+        private List<String> events = new ArrayList<String>();
+
+        public List<String> getEvents() {
+            return events;
+        }
+
+        public void beginSession(LoadEvent event) {
+            record("beginSession", event);
+        }
+
+        public void beginGroup(LoadEvent event) {
+            record("beginGroup", event);
+        }
+
+        public void beginFile(LoadEvent event) {
+            record("beginFile", event);
+        }
+
+        public void beginClassfile(LoadEvent event) {
+            record("beginClassfile", event);
+        }
+
+        public void endClassfile(LoadEvent event) {
+            record("endClassfile", event);
+        }
+
+        public void endFile(LoadEvent event) {
+            record("endFile", event);
+        }
+
+        public void endGroup(LoadEvent event) {
+            record("endGroup", event);
+        }
+
+        public void endSession(LoadEvent event) {
+            record("endSession", event);
+        }
+
+        protected void record(String type, LoadEvent event) {
+            String classname = (event.getClassfile() != null) ? event.getClassfile().getClassName() : null;
+            events.add(type + " " + event.getGroupName() + " " + event.getFilename() + " " + classname + " " + event.getSize());
+        }
+    }
+
+    private static class ThreadSafeRecordingLoadListener extends RecordingLoadListener implements ThreadSafeLoadListener {
+        protected synchronized void record(String type, LoadEvent event) {
+            super.record(type, event);
+        }
+
+        public synchronized List<String> getEvents() {
+            return super.getEvents();
+        }
+    }
+}
@@ -35,7 +35,7 @@ package com.jeantessier.classreader;
 import junit.framework.*;
 
 public class TestPermissiveDispatcher extends TestCase {
-    private ClassfileLoaderDispatcher dispatcher;
+    private ArchiveEntryDispatcher dispatcher;
     
     protected void setUp() throws Exception {
         super.setUp();
@@ -73,4 +73,17 @@ public class TestPermissiveDispatcher extends TestCase {
 
         assertEquals("foo.foo",        ClassfileLoaderAction.ZIP,       dispatcher.dispatch("foo.foo"));
     }
+
+    public void testDispatchEntry() {
+        assertEquals("foo.class",      ClassfileLoaderAction.CLASS,     dispatcher.dispatchEntry("foo.class"));
+        assertEquals("foo.jar",        ClassfileLoaderAction.JAR,       dispatcher.dispatchEntry("foo.jar"));
+        assertEquals("foo.zip",        ClassfileLoaderAction.ZIP,       dispatcher.dispatchEntry("foo.zip"));
+        assertEquals("foo.foo",        ClassfileLoaderAction.ZIP,       dispatcher.dispatchEntry("foo.foo"));
+        assertEquals("foo.gif",        ClassfileLoaderAction.IGNORE,    dispatcher.dispatchEntry("foo.gif"));
+        assertEquals("foo/",           ClassfileLoaderAction.IGNORE,    dispatcher.dispatchEntry("foo/"));
+    }
+
+    public void testDispatchEntryDoesNotLookAtFilesystem() {
+        assertEquals("src",            ClassfileLoaderAction.ZIP,       dispatcher.dispatchEntry("src"));
+    }
 }
@@ -163,4 +163,79 @@ public class TestZipClassfileLoader extends TestClassfileLoaderBase {
         assertEquals("End Group",       1, getEndGroupEvents().size());
         assertEquals("End Session",     0, getEndSessionEvents().size());
     }
+
+    public void testIgnoredEntriesAreNeverOpened() {
+        String filename = TEST_DIR + File.separator + "onelevel.zip";
+        assertTrue(filename + " missing", new File(filename).exists());
+
+        MockDispatcher dispatcher = new MockDispatcher();
+        dispatcher.setReturnedAction(ClassfileLoaderAction.IGNORE);
+
+        final java.util.List<String> openedEntries = new java.util.ArrayList<String>();
+        ClassfileLoader eventSource = new TransientClassfileLoader(dispatcher) {
+            protected void load(String filename, ClassfileLoaderAction dispatch, InputStream in) {
+                openedEntries.add(filename);
+                super.load(filename, dispatch, in);
+            }
+        };
+        eventSource.addLoadListener(this);
+        new ZipClassfileLoader(eventSource).load(filename);
+
+        assertEquals("Begin File",      31, getBeginFileEvents().size());
+        assertEquals("Begin Classfile",  0, getBeginClassfileEvents().size());
+        assertEquals("End File",        31, getEndFileEvents().size());
+        assertEquals("Opened entries",   0, openedEntries.size());
+        assertEquals("Dispatch count",   1, dispatcher.getDispatchCount("ModifiedPackage/ModifiedClass.class"));
+    }
+
+    public void testDispatcherWithoutEntryDispatch() {
+        String filename = TEST_DIR + File.separator + "onelevel.zip";
+        assertTrue(filename + " missing", new File(filename).exists());
+
+        ClassfileLoaderDispatcher dispatcher = new ClassfileLoaderDispatcher() {
+            public ClassfileLoaderAction dispatch(String filename) {
+                return ClassfileLoaderEventSource.DEFAULT_DISPATCHER.dispatch(filename);
+            }
+        };
+        ClassfileLoader eventSource = new TransientClassfileLoader(dispatcher);
+        eventSource.addLoadListener(this);
+        new ZipClassfileLoader(eventSource).load(filename);
+
+        assertEquals("Begin File",      31, getBeginFileEvents().size());
+        assertEquals("Begin Classfile", 14, getBeginClassfileEvents().size());
+        assertEquals("End Classfile",   14, getEndClassfileEvents().size());
+    }
+
+    public void testLoaderWithoutEntryDispatch() {
+        String filename = TEST_DIR + File.separator + "onelevel.zip";
+        assertTrue(filename + " missing", new File(filename).exists());
+
+        final ClassfileLoader eventSource = new TransientClassfileLoader();
+        eventSource.addLoadListener(this);
+
+        final java.util.List<String> loadedEntries = new java.util.ArrayList<String>();
+        ClassfileLoader loader = new ClassfileLoaderDecorator(eventSource) {
+            protected void load(String filename) {
+                eventSource.load(filename);
+            }
+
+            protected void load(String filename, InputStream in) {
+                loadedEntries.add(filename);
+                eventSource.load(filename, in);
+            }
+
+            protected ClassfileLoaderAction dispatchEntry(String filename) {
+                return null;
+            }
+
+            protected void load(String filename, ClassfileLoaderAction dispatch, InputStream in) {
+                assertNull("dispatch", dispatch);
+                load(filename, in);
+            }
+        };
+        new ZipClassfileLoader(loader).load(filename);
+
+        assertEquals("Loaded entries",  31, loadedEntries.size());
+        assertEquals("Begin Classfile", 14, getBeginClassfileEvents().size());
+    }
 }
@@ -88,6 +88,7 @@ import static org.junit.runners.Suite.SuiteClasses;
         TestCustom_attribute.class,
         TestAttributeFactory.class,
         TestClass_info.class,
-        TestClassfile.class
+        TestClassfile.class,
+        TestClassfileLookup.class
 })
 public class TestAll {}
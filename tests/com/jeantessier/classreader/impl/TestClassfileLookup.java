@@ -0,0 +1,97 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.jeantessier.classreader.impl;
+
+import java.io.*;
+import java.util.*;
+
+import junit.framework.*;
+
+import com.jeantessier.classreader.AggregatingClassfileLoader;
+
+public class TestClassfileLookup extends TestCase {
+    public static final String SUBCLASS_FILENAME   = "classes" + File.separator + "com" + File.separator + "jeantessier" + File.separator + "classreader" + File.separator + "AggregatingClassfileLoader.class";
+    public static final String SUPERCLASS_FILENAME = "classes" + File.separator + "com" + File.separator + "jeantessier" + File.separator + "classreader" + File.separator + "ClassfileLoaderEventSource.class";
+
+    public static final String SUBCLASS_NAME = "com.jeantessier.classreader.AggregatingClassfileLoader";
+
+    private AggregatingClassfileLoader loader;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        loader = new AggregatingClassfileLoader();
+        loader.load(Collections.singleton(SUBCLASS_FILENAME));
+    }
+
+    public void testGetField() {
+        Classfile sut = (Classfile) loader.getClassfile(SUBCLASS_NAME);
+
+        assertNotNull("classfiles", sut.getField("classfiles"));
+        assertSame("classfiles", sut.getField("classfiles"), sut.getField("classfiles"));
+        assertEquals("classfiles", sut.getField("classfiles").getName());
+        assertNull("dispatcher", sut.getField("dispatcher"));
+    }
+
+    public void testGetMethod() {
+        Classfile sut = (Classfile) loader.getClassfile(SUBCLASS_NAME);
+
+        for (Method_info method : sut.getAllMethods()) {
+            assertSame(method.getSignature(), method, sut.getMethod(method.getSignature()));
+        }
+        assertNull("getDispatcher()", sut.getMethod("getDispatcher()"));
+    }
+
+    public void testLocateMethodSeesNewlyLoadedSuperclass() {
+        Classfile sut = (Classfile) loader.getClassfile(SUBCLASS_NAME);
+
+        assertSame("getAllClassNames()", sut.getMethod("getAllClassNames()"), sut.locateMethod("getAllClassNames()"));
+        assertNull("getDispatcher() before loading superclass", sut.locateMethod("getDispatcher()"));
+
+        loader.load(Collections.singleton(SUPERCLASS_FILENAME));
+
+        assertNotNull("getDispatcher() after loading superclass", sut.locateMethod("getDispatcher()"));
+        assertSame("getDispatcher()", sut.locateMethod("getDispatcher()"), sut.locateMethod("getDispatcher()"));
+    }
+
+    public void testLocateFieldSeesNewlyLoadedSuperclass() {
+        Classfile sut = (Classfile) loader.getClassfile(SUBCLASS_NAME);
+
+        assertNull("DEFAULT_DISPATCHER before loading superclass", sut.locateField("DEFAULT_DISPATCHER"));
+
+        loader.load(Collections.singleton(SUPERCLASS_FILENAME));
+
+        assertNotNull("DEFAULT_DISPATCHER after loading superclass", sut.locateField("DEFAULT_DISPATCHER"));
+        assertNull("dispatcher is private", sut.locateField("dispatcher"));
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.classreader.impl;
+
+import java.util.*;
+
+import junit.framework.*;
+
+public class TestInstructionCursor extends TestCase {
+    private static final byte ICONST_0_INSTRUCTION = (byte) 0x03;
+    private static final byte LDC_INSTRUCTION = (byte) 0x12;
+    private static final byte ILOAD_INSTRUCTION = (byte) 0x15;
+    private static final byte IINC_INSTRUCTION = (byte) 0x84;
+    private static final byte WIDE_INSTRUCTION = (byte) 0xc4;
+    private static final byte INDEX = (byte) 0x02;
+
+    public void testNext_NoCode() {
+        InstructionCursor sut = new InstructionCursor(null, new byte[0]);
+        assertFalse(sut.next());
+    }
+
+    public void testNext_SameInstructionsAsIterator() {
+        byte[] code = new byte[] {ICONST_0_INSTRUCTION, ILOAD_INSTRUCTION, INDEX, WIDE_INSTRUCTION, IINC_INSTRUCTION, 0x00, INDEX, 0x00, 0x01, LDC_INSTRUCTION, INDEX};
+
+        InstructionCursor sut = new InstructionCursor(null, code);
+        Iterator<com.jeantessier.classreader.Instruction> expected = new CodeIterator(null, code);
+
+        while (expected.hasNext()) {
+            com.jeantessier.classreader.Instruction instruction = expected.next();
+
+            assertTrue("next at " + instruction.getStart(), sut.next());
+            assertEquals("start", instruction.getStart(), sut.getStart());
+            assertEquals("opcode at " + instruction.getStart(), instruction.getOpcode(), sut.getOpcode());
+            assertEquals("length at " + instruction.getStart(), instruction.getLength(), sut.getLength());
+            assertEquals("index at " + instruction.getStart(), instruction.getIndex(), sut.getIndex());
+            assertEquals("value at " + instruction.getStart(), instruction.getValue(), sut.getValue());
+        }
+
+        assertFalse("extra instruction", sut.next());
+    }
+
+    public void testNext_ReusesSameInstance() {
+        byte[] code = new byte[] {ICONST_0_INSTRUCTION, ICONST_0_INSTRUCTION};
+
+        InstructionCursor sut = new InstructionCursor(null, code);
+
+        assertTrue(sut.next());
+        assertEquals("first", 0, sut.getStart());
+        assertTrue(sut.next());
+        assertEquals("second", 1, sut.getStart());
+        assertFalse(sut.next());
+    }
+}
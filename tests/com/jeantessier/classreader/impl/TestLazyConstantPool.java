@@ -0,0 +1,166 @@
+/*
+ *  Copyright (c) 2001-2016, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.classreader.impl;
+
+import com.jeantessier.classreader.AggregatingClassfileLoader;
+import com.jeantessier.classreader.ClassfileLoader;
+import com.jeantessier.classreader.XMLPrinter;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestLazyConstantPool {
+    private static final Collection<String> TEST_FILENAMES = Arrays.asList("classes" + File.separator + "test.class", "lib" + File.separator + "jakarta-oro.jar");
+
+    @Test
+    public void testSameClassfilesAsEagerParsing() {
+        ClassfileLoader eagerLoader = new AggregatingClassfileLoader();
+        eagerLoader.load(TEST_FILENAMES);
+
+        ClassfileLoader lazyLoader = new AggregatingClassfileLoader(new LazyClassfileFactory());
+        lazyLoader.load(TEST_FILENAMES);
+
+        assertThat("class names", new ArrayList<String>(lazyLoader.getAllClassNames()), is(new ArrayList<String>(eagerLoader.getAllClassNames())));
+        for (String className : eagerLoader.getAllClassNames()) {
+            com.jeantessier.classreader.Classfile eagerClassfile = eagerLoader.getClassfile(className);
+            com.jeantessier.classreader.Classfile lazyClassfile = lazyLoader.getClassfile(className);
+
+            assertThat(className + " constant pool", lazyClassfile.getConstantPool(), instanceOf(LazyConstantPool.class));
+            assertThat(className, print(lazyClassfile), is(print(eagerClassfile)));
+            assertThat(className + " constant pool", lazyClassfile.getConstantPool(), is(eagerClassfile.getConstantPool()));
+        }
+    }
+
+    @Test
+    public void testEntriesAreParsedOnDemand() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeShort(5);
+        out.writeByte(ConstantPoolEntry.CONSTANT_Class);
+        out.writeShort(4);
+        out.writeByte(ConstantPoolEntry.CONSTANT_Long);
+        out.writeLong(42);
+        out.writeByte(ConstantPoolEntry.CONSTANT_Utf8);
+        out.writeUTF("foo/Bar");
+        out.close();
+
+        LazyConstantPool constantPool = new LazyConstantPool(null, new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertThat("size", constantPool.size(), is(5));
+        assertThat("entry 0", constantPool.get(0), is(nullValue()));
+        assertThat("class name", ((Class_info) constantPool.get(1)).getName(), is("foo.Bar"));
+        assertThat("long", ((Long_info) constantPool.get(2)).getValue(), is(42L));
+        assertThat("second slot of long", constantPool.get(3), is(nullValue()));
+        assertThat("same entry", constantPool.get(4), is(constantPool.get(4)));
+        assertThat("UTF-8", ((UTF8_info) constantPool.get(4)).getValue(), is("foo/Bar"));
+    }
+
+    @Test
+    public void testBulkMethodsSeeEveryEntry() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeShort(3);
+        out.writeByte(ConstantPoolEntry.CONSTANT_Class);
+        out.writeShort(2);
+        out.writeByte(ConstantPoolEntry.CONSTANT_Utf8);
+        out.writeUTF("foo/Bar");
+        out.close();
+
+        final Collection<com.jeantessier.classreader.ConstantPoolEntry> visited = new ArrayList<com.jeantessier.classreader.ConstantPoolEntry>();
+        LazyConstantPool constantPool = new LazyConstantPool(null, new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        constantPool.forEach(new Consumer<com.jeantessier.classreader.ConstantPoolEntry>() {
+            public void accept(com.jeantessier.classreader.ConstantPoolEntry entry) {
+                visited.add(entry);
+            }
+        });
+        assertThat("forEach", visited.size(), is(3));
+        assertThat("forEach class", visited.contains(constantPool.get(1)), is(true));
+
+        constantPool = new LazyConstantPool(null, new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertThat("removeIf", constantPool.removeIf(new Predicate<com.jeantessier.classreader.ConstantPoolEntry>() {
+            public boolean test(com.jeantessier.classreader.ConstantPoolEntry entry) {
+                return entry instanceof Class_info;
+            }
+        }), is(true));
+        assertThat("size after removeIf", constantPool.size(), is(2));
+        assertThat("UTF-8 after removeIf", constantPool.get(1), instanceOf(UTF8_info.class));
+    }
+
+    @Test
+    public void testMalformedStringIsReportedWhenRead() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeShort(2);
+        out.writeByte(ConstantPoolEntry.CONSTANT_Utf8);
+        out.writeShort(2);
+        out.writeByte(0xFF);
+        out.writeByte(0xFF);
+        out.close();
+
+        LazyConstantPool constantPool = new LazyConstantPool(null, new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        UTF8_info entry = (UTF8_info) constantPool.get(1);
+
+        try {
+            entry.getValue();
+            fail("Decoded malformed UTF-8");
+        } catch (IllegalStateException ex) {
+            // Expected
+        }
+    }
+
+    private String print(com.jeantessier.classreader.Classfile classfile) {
+        StringWriter out = new StringWriter();
+        XMLPrinter printer = new XMLPrinter(new PrintWriter(out));
+        classfile.accept(printer);
+        return out.toString();
+    }
+}
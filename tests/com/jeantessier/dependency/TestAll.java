@@ -83,6 +83,9 @@ import static org.junit.runners.Suite.*;
         TestTextCyclePrinter.class,
         TestHTMLCyclePrinter.class,
         TestXMLCyclePrinter.class,
+        TestGraphCondenser.class,
+        TestTextCondensedGraphPrinter.class,
+        TestXMLCondensedGraphPrinter.class,
         TestTransitiveClosure.class,
         TestTransitiveClosureWithTestClass.class,
         TestTransitiveClosureSlice.class,
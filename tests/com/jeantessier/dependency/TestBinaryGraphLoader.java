@@ -0,0 +1,271 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+
+import junit.framework.*;
+
+public class TestBinaryGraphLoader extends TestCase {
+    private NodeFactory factory;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        factory = new NodeFactory();
+
+        ClassNode a_A = factory.createClass("a.A", true);
+        FeatureNode a_A_a = factory.createFeature("a.A.a(java.lang.String)", true);
+        ClassNode b_B = factory.createClass("b.B", true);
+        FeatureNode b_B_b = factory.createFeature("b.B.b", true);
+        FeatureNode c_C_c = factory.createFeature("c.C.c");
+        factory.createPackage("d", true);
+        factory.createClass("\u00e9t\u00e9.\u00c9t\u00e9");
+
+        b_B.addParent(a_A);
+        a_A.addDependency(b_B);
+        a_A_a.addDependency(b_B_b);
+        a_A_a.addDependency(c_C_c);
+        b_B_b.addDependency(a_A);
+        c_C_c.getClassNode().getPackageNode().addDependency(a_A.getPackageNode());
+    }
+
+    public void testRoundTrip() throws IOException {
+        NodeFactory result = new BinaryGraphLoader().load(ByteBuffer.wrap(write(factory)));
+
+        assertEquals(print(factory), print(result));
+        assertConfirmed(factory, result);
+    }
+
+    public void testRoundTripThroughFile() throws IOException {
+        File file = File.createTempFile(getName(), BinaryGraphWriter.FILE_EXTENSION);
+        file.deleteOnExit();
+
+        OutputStream out = new FileOutputStream(file);
+        try {
+            BinaryGraphWriter writer = new BinaryGraphWriter(out);
+            writer.traverseNodes(factory.getPackages().values());
+            writer.flush();
+        } finally {
+            out.close();
+        }
+
+        NodeFactory result = new BinaryGraphLoader().load(file.getPath());
+
+        assertEquals(print(factory), print(result));
+        assertConfirmed(factory, result);
+    }
+
+    public void testRoundTripThroughStream() throws IOException {
+        NodeFactory result = new BinaryGraphLoader().load(new ByteArrayInputStream(write(factory)));
+
+        assertEquals(print(factory), print(result));
+    }
+
+    public void testInheritance() throws IOException {
+        NodeFactory result = new BinaryGraphLoader().load(ByteBuffer.wrap(write(factory)));
+
+        ClassNode b_B = result.getClasses().get("b.B");
+        assertEquals("parents", 1, b_B.getParents().size());
+        assertSame("parent", result.getClasses().get("a.A"), b_B.getParents().iterator().next());
+        assertTrue("children", result.getClasses().get("a.A").getChildren().contains(b_B));
+    }
+
+    public void testContainment() throws IOException {
+        NodeFactory result = new BinaryGraphLoader().load(ByteBuffer.wrap(write(factory)));
+
+        FeatureNode a_A_a = result.getFeatures().get("a.A.a(java.lang.String)");
+        assertSame("class", result.getClasses().get("a.A"), a_A_a.getClassNode());
+        assertSame("package", result.getPackages().get("a"), a_A_a.getClassNode().getPackageNode());
+        assertTrue("features", result.getClasses().get("a.A").getFeatures().contains(a_A_a));
+    }
+
+    public void testMerge() throws IOException {
+        NodeFactory other = new NodeFactory();
+        other.createFeature("c.C.c", true).addDependency(other.createClass("e.E"));
+
+        NodeFactory result = new NodeFactory();
+        BinaryGraphLoader loader = new BinaryGraphLoader(result);
+        loader.load(ByteBuffer.wrap(write(factory)));
+        loader.load(ByteBuffer.wrap(write(other)));
+
+        assertSame(result, loader.getFactory());
+        assertTrue("c.C.c confirmed", result.getFeatures().get("c.C.c").isConfirmed());
+        assertTrue("c.C confirmed", result.getClasses().get("c.C").isConfirmed());
+        assertEquals("c.C.c outbound", 1, result.getFeatures().get("c.C.c").getOutboundDependencies().size());
+        assertEquals("c.C.c inbound", 1, result.getFeatures().get("c.C.c").getInboundDependencies().size());
+        assertNotNull("e.E", result.getClasses().get("e.E"));
+    }
+
+    public void testEmptyGraph() throws IOException {
+        NodeFactory result = new BinaryGraphLoader().load(ByteBuffer.wrap(write(new NodeFactory())));
+
+        assertTrue(result.getPackages().isEmpty());
+    }
+
+    public void testIsBinaryGraph() throws IOException {
+        InputStream in = new BufferedInputStream(new ByteArrayInputStream(write(factory)));
+        assertTrue(BinaryGraphLoader.isBinaryGraph(in));
+        assertEquals("stream was not reset", 0xff & (BinaryGraphWriter.MAGIC >>> 24), in.read());
+
+        assertFalse(BinaryGraphLoader.isBinaryGraph(new BufferedInputStream(new ByteArrayInputStream("<?xml version=\"1.0\"?>".getBytes()))));
+        assertFalse(BinaryGraphLoader.isBinaryGraph(new BufferedInputStream(new ByteArrayInputStream(new byte[2]))));
+    }
+
+    public void testNotABinaryGraph() {
+        try {
+            new BinaryGraphLoader().load(ByteBuffer.wrap("<?xml version=\"1.0\"?>".getBytes()));
+            fail("Loaded XML as a binary graph");
+        } catch (IOException ex) {
+            // Expected
+        }
+    }
+
+    public void testTruncatedGraph() {
+        byte[] bytes = write(factory);
+
+        try {
+            new BinaryGraphLoader().load(ByteBuffer.wrap(bytes, 0, bytes.length - 3));
+            fail("Loaded truncated graph");
+        } catch (IOException ex) {
+            // Expected
+        }
+    }
+
+    public void testListeners() throws IOException {
+        final List<String> events = new ArrayList<String>();
+
+        BinaryGraphLoader loader = new BinaryGraphLoader();
+        loader.addDependencyListener(new DependencyListener() {
+            public void beginSession(DependencyEvent event) {
+                events.add("beginSession");
+            }
+
+            public void beginClass(DependencyEvent event) {
+                events.add("beginClass " + event.getClassName());
+            }
+
+            public void dependency(DependencyEvent event) {
+                events.add("dependency " + event.getDependent() + " --> " + event.getDependable());
+            }
+
+            public void endClass(DependencyEvent event) {
+                events.add("endClass " + event.getClassName());
+            }
+
+            public void endSession(DependencyEvent event) {
+                events.add("endSession");
+            }
+        });
+        loader.load(ByteBuffer.wrap(write(factory)));
+
+        assertEquals("first", "beginSession", events.get(0));
+        assertEquals("last", "endSession", events.get(events.size() - 1));
+        assertTrue("beginClass", events.contains("beginClass a.A"));
+        assertTrue("dependency", events.contains("dependency a.A.a(java.lang.String) --> c.C.c"));
+
+        int beginA = events.indexOf("beginClass a.A");
+        int endA = events.indexOf("endClass a.A");
+        assertTrue("endClass a.A", endA > beginA);
+        assertTrue("a.A.a dependency inside a.A", events.indexOf("dependency a.A.a(java.lang.String) --> c.C.c") > beginA);
+        assertTrue("a.A.a dependency inside a.A", events.indexOf("dependency a.A.a(java.lang.String) --> c.C.c") < endA);
+
+        int nbBeginClass = 0;
+        int nbEndClass = 0;
+        String openClass = null;
+        for (String event : events) {
+            if (event.startsWith("beginClass ")) {
+                assertNull("nested beginClass " + event, openClass);
+                openClass = event.substring("beginClass ".length());
+                nbBeginClass++;
+            } else if (event.startsWith("endClass ")) {
+                assertEquals("endClass", "endClass " + openClass, event);
+                openClass = null;
+                nbEndClass++;
+            }
+        }
+        assertNull("unclosed class", openClass);
+        assertEquals("beginClass and endClass", nbBeginClass, nbEndClass);
+    }
+
+    public void testSelectiveTraversal() throws IOException {
+        SelectionCriteria scope = new RegularExpressionSelectionCriteria("/^a/");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryGraphWriter writer = new BinaryGraphWriter(new SelectiveTraversalStrategy(scope, new ComprehensiveSelectionCriteria()), out);
+        writer.traverseNodes(factory.getPackages().values());
+        writer.flush();
+
+        NodeFactory result = new BinaryGraphLoader().load(ByteBuffer.wrap(out.toByteArray()));
+
+        assertEquals("a.A.a outbound", 2, result.getFeatures().get("a.A.a(java.lang.String)").getOutboundDependencies().size());
+        assertTrue("b.B.b outbound", result.getFeatures().get("b.B.b").getOutboundDependencies().isEmpty());
+        assertTrue("a inbound", result.getPackages().get("a").getInboundDependencies().isEmpty());
+        assertNull("d", result.getPackages().get("d"));
+    }
+
+    private byte[] write(NodeFactory factory) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try {
+            BinaryGraphWriter writer = new BinaryGraphWriter(out);
+            writer.traverseNodes(factory.getPackages().values());
+            writer.flush();
+        } catch (IOException ex) {
+            fail(ex.toString());
+        }
+
+        return out.toByteArray();
+    }
+
+    private void assertConfirmed(NodeFactory expected, NodeFactory actual) {
+        for (Node node : expected.getPackages().values()) {
+            assertEquals(node.getName(), node.isConfirmed(), actual.getPackages().get(node.getName()).isConfirmed());
+        }
+        for (Node node : expected.getClasses().values()) {
+            assertEquals(node.getName(), node.isConfirmed(), actual.getClasses().get(node.getName()).isConfirmed());
+        }
+        for (Node node : expected.getFeatures().values()) {
+            assertEquals(node.getName(), node.isConfirmed(), actual.getFeatures().get(node.getName()).isConfirmed());
+        }
+    }
+
+    private String print(NodeFactory factory) {
+        StringWriter out = new StringWriter();
+        TextPrinter printer = new TextPrinter(new PrintWriter(out));
+        printer.traverseNodes(factory.getPackages().values());
+        return out.toString();
+    }
+}
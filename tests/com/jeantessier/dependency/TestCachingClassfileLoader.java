@@ -0,0 +1,312 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.io.*;
+import java.util.*;
+
+import junit.framework.*;
+
+import com.jeantessier.classreader.*;
+
+public class TestCachingClassfileLoader extends TestCase {
+    private static final String OLD_CLASSPATH = "tests" + File.separator + "JarJarDiff" + File.separator + "old";
+    private static final String NEW_CLASSPATH = "tests" + File.separator + "JarJarDiff" + File.separator + "new";
+
+    public void testColdCacheGivesSameGraph() throws IOException {
+        ExtractionCache cache = new ExtractionCache();
+
+        assertEquals(print(extract(OLD_CLASSPATH)), print(extract(OLD_CLASSPATH, cache)));
+        assertEquals("hits", 0, cache.getNbHits());
+        assertTrue("no misses", cache.getNbMisses() > 0);
+        assertEquals("size", cache.getNbMisses(), cache.size());
+    }
+
+    public void testWarmCacheGivesSameGraph() throws IOException {
+        ExtractionCache cache = reload(fill(OLD_CLASSPATH));
+
+        NodeFactory factory = extract(OLD_CLASSPATH, cache);
+
+        assertEquals(print(extract(OLD_CLASSPATH)), print(factory));
+        assertConfirmed(extract(OLD_CLASSPATH), factory);
+        assertTrue("no hits", cache.getNbHits() > 0);
+        assertEquals("misses", 0, cache.getNbMisses());
+    }
+
+    public void testWarmCacheFiresSameDependencyEvents() throws IOException {
+        ExtractionCache cache = reload(fill(OLD_CLASSPATH));
+
+        CodeDependencyCollector collector = new CodeDependencyCollector();
+        DependencyEventCounter counter = new DependencyEventCounter();
+        collector.addDependencyListener(counter);
+        new CachingClassfileLoader(collector, cache).load(Collections.singleton(OLD_CLASSPATH));
+
+        CodeDependencyCollector expectedCollector = new CodeDependencyCollector();
+        DependencyEventCounter expectedCounter = new DependencyEventCounter();
+        expectedCollector.addDependencyListener(expectedCounter);
+        ClassfileLoader loader = new TransientClassfileLoader();
+        loader.addLoadListener(new LoadListenerVisitorAdapter(expectedCollector));
+        loader.load(Collections.singleton(OLD_CLASSPATH));
+
+        assertEquals("classes", expectedCounter.getClasses(), counter.getClasses());
+        assertEquals("dependencies", expectedCounter.getNbDependencies(), counter.getNbDependencies());
+        assertEquals("dependency events", expectedCounter.getDependencies(), counter.getDependencies());
+    }
+
+    public void testWarmCacheFiresEndClassfile() throws IOException {
+        ExtractionCache cache = reload(fill(OLD_CLASSPATH));
+
+        ClassfileLoader loader = new CachingClassfileLoader(new CodeDependencyCollector(), cache);
+        ClassNameRecorder recorder = new ClassNameRecorder();
+        loader.addLoadListener(recorder);
+        loader.load(Collections.singleton(OLD_CLASSPATH));
+
+        ClassfileLoader expectedLoader = new TransientClassfileLoader();
+        ClassNameRecorder expectedRecorder = new ClassNameRecorder();
+        expectedLoader.addLoadListener(expectedRecorder);
+        expectedLoader.load(Collections.singleton(OLD_CLASSPATH));
+
+        assertTrue("no hits", cache.getNbHits() > 0);
+        assertEquals("misses", 0, cache.getNbMisses());
+        assertEquals(expectedRecorder.getClassNames(), recorder.getClassNames());
+    }
+
+    public void testFilterIsAppliedOnReplay() throws IOException {
+        ExtractionCache cache = reload(fill(OLD_CLASSPATH));
+
+        NodeFactory expected = new NodeFactory();
+        ClassfileLoader loader = new TransientClassfileLoader();
+        loader.addLoadListener(new LoadListenerVisitorAdapter(new CodeDependencyCollector(expected, createFilterCriteria())));
+        loader.load(Collections.singleton(OLD_CLASSPATH));
+
+        NodeFactory factory = new NodeFactory();
+        new CachingClassfileLoader(new CodeDependencyCollector(factory, createFilterCriteria()), cache).load(Collections.singleton(OLD_CLASSPATH));
+
+        assertEquals(print(expected), print(factory));
+        assertFalse("not filtered", print(extract(OLD_CLASSPATH)).equals(print(factory)));
+    }
+
+    public void testChangedClassesAreParsedAgain() throws IOException {
+        ExtractionCache cache = reload(fill(OLD_CLASSPATH));
+
+        NodeFactory factory = extract(NEW_CLASSPATH, cache);
+
+        assertEquals(print(extract(NEW_CLASSPATH)), print(factory));
+        assertTrue("no hits", cache.getNbHits() > 0);
+        assertTrue("no misses", cache.getNbMisses() > 0);
+    }
+
+    public void testClassesThatDisappearAreDroppedOnSave() throws IOException {
+        String classpath = OLD_CLASSPATH + File.separator + "ModifiedPackage";
+
+        ExtractionCache cache = reload(fill(OLD_CLASSPATH));
+        extract(classpath, cache);
+
+        cache = reload(cache);
+        assertEquals("size", 0, cache.size());
+        extract(OLD_CLASSPATH, cache);
+
+        assertEquals("hits", fill(classpath).size(), cache.getNbHits());
+        assertEquals("misses", fill(OLD_CLASSPATH).size() - fill(classpath).size(), cache.getNbMisses());
+    }
+
+    public void testMissingFileGivesEmptyCache() throws IOException {
+        File file = File.createTempFile(getName(), ".cache");
+        file.delete();
+
+        ExtractionCache cache = new ExtractionCache();
+        cache.load(file);
+
+        assertEquals("size", 0, cache.size());
+        extract(OLD_CLASSPATH, cache);
+        assertEquals("hits", 0, cache.getNbHits());
+    }
+
+    public void testSaveAndLoadThroughFile() throws IOException {
+        File file = File.createTempFile(getName(), ".cache");
+        file.deleteOnExit();
+
+        fill(OLD_CLASSPATH).save(file);
+
+        ExtractionCache cache = new ExtractionCache();
+        cache.load(file);
+        NodeFactory factory = extract(OLD_CLASSPATH, cache);
+
+        assertEquals(print(extract(OLD_CLASSPATH)), print(factory));
+        assertEquals("misses", 0, cache.getNbMisses());
+    }
+
+    public void testNotACacheFile() {
+        try {
+            new ExtractionCache().load(new ByteArrayInputStream("not a cache".getBytes()));
+            fail("Loaded garbage");
+        } catch (IOException ex) {
+            // Expected
+        }
+    }
+
+    public void testSaveAndLoadLongNames() throws IOException {
+        StringBuilder featureName = new StringBuilder("a.A.a(");
+        while (featureName.length() < 70000) {
+            featureName.append("java.lang.\u00e9tudiant, ");
+        }
+        featureName.append("java.lang.Object)");
+
+        CachedClass cachedClass = new CachedClass("a.A");
+        cachedClass.addFeatureName(featureName.toString());
+        cachedClass.addDependency(0, CachedClass.FEATURE_KIND, featureName.toString());
+
+        ExtractionCache cache = new ExtractionCache();
+        cache.put("key", cachedClass);
+
+        CachedClass result = reload(cache).get("key");
+
+        assertNotNull("entry", result);
+        assertEquals("class name", "a.A", result.getClassName());
+        assertEquals("feature names", Collections.singletonList(featureName.toString()), result.getFeatureNames());
+        assertEquals("dependable name", featureName.toString(), result.getDependencies().get(0).getDependableName());
+    }
+
+    public void testUnsupportedVersion() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(ExtractionCache.MAGIC);
+        out.writeInt(ExtractionCache.VERSION + 1);
+        out.close();
+
+        try {
+            new ExtractionCache().load(new ByteArrayInputStream(buffer.toByteArray()));
+            fail("Loaded unsupported version");
+        } catch (IOException ex) {
+            // Expected
+        }
+    }
+
+    private ExtractionCache fill(String classpath) {
+        ExtractionCache result = new ExtractionCache();
+        extract(classpath, result);
+        return result;
+    }
+
+    private ExtractionCache reload(ExtractionCache cache) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        cache.save(buffer);
+
+        ExtractionCache result = new ExtractionCache();
+        result.load(new ByteArrayInputStream(buffer.toByteArray()));
+        return result;
+    }
+
+    private NodeFactory extract(String classpath) {
+        NodeFactory result = new NodeFactory();
+
+        ClassfileLoader loader = new TransientClassfileLoader();
+        loader.addLoadListener(new LoadListenerVisitorAdapter(new CodeDependencyCollector(result)));
+        loader.load(Collections.singleton(classpath));
+
+        return result;
+    }
+
+    private NodeFactory extract(String classpath, ExtractionCache cache) {
+        NodeFactory result = new NodeFactory();
+        new CachingClassfileLoader(new CodeDependencyCollector(result), cache).load(Collections.singleton(classpath));
+        return result;
+    }
+
+    private SelectionCriteria createFilterCriteria() {
+        RegularExpressionSelectionCriteria result = new RegularExpressionSelectionCriteria("//");
+        result.setGlobalExcludes("/^java\\./");
+        return result;
+    }
+
+    private String print(NodeFactory factory) {
+        StringWriter out = new StringWriter();
+        new TextPrinter(new PrintWriter(out)).traverseNodes(factory.getPackages().values());
+        return out.toString();
+    }
+
+    private void assertConfirmed(NodeFactory expected, NodeFactory actual) {
+        for (Map.Entry<String, FeatureNode> entry : expected.getFeatures().entrySet()) {
+            assertEquals(entry.getKey(), entry.getValue().isConfirmed(), actual.getFeatures().get(entry.getKey()).isConfirmed());
+        }
+    }
+
+    private static class DependencyEventCounter implements DependencyListener {
+        private Collection<String> classes = new TreeSet<String>();
+        private int nbDependencies = 0;
+        private List<String> dependencies = new ArrayList<String>();
+
+        public Collection<String> getClasses() {
+            return classes;
+        }
+
+        public int getNbDependencies() {
+            return nbDependencies;
+        }
+
+        public List<String> getDependencies() {
+            return dependencies;
+        }
+
+        public void beginSession(DependencyEvent event) {
+        }
+
+        public void beginClass(DependencyEvent event) {
+            classes.add(event.getClassName());
+        }
+
+        public void dependency(DependencyEvent event) {
+            nbDependencies++;
+            dependencies.add(event.getDependent() + " --> " + event.getDependable());
+        }
+
+        public void endClass(DependencyEvent event) {
+        }
+
+        public void endSession(DependencyEvent event) {
+        }
+    }
+
+    private static class ClassNameRecorder extends LoadAdapter {
+        private List<String> classNames = new ArrayList<String>();
+
+        public List<String> getClassNames() {
+            return classNames;
+        }
+
+        public void endClassfile(LoadEvent event) {
+            classNames.add(event.getClassName());
+        }
+    }
+}
@@ -0,0 +1,371 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.io.*;
+import java.util.*;
+
+import junit.framework.*;
+
+import com.jeantessier.classreader.*;
+
+public class TestCompactGraph extends TestCase {
+    private static final String TEST_CLASSPATH = "tests" + File.separator + "JarJarDiff" + File.separator + "old";
+
+    private NodeFactory factory;
+    private CompactGraph graph;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        factory = new NodeFactory();
+
+        ClassNode a_A = factory.createClass("a.A", true);
+        FeatureNode a_A_a = factory.createFeature("a.A.a", true);
+        FeatureNode a_A_b = factory.createFeature("a.A.b", true);
+
+        ClassNode b_B = factory.createClass("b.B", true);
+        FeatureNode b_B_b = factory.createFeature("b.B.b", true);
+
+        ClassNode c_C = factory.createClass("c.C");
+        FeatureNode c_C_c = factory.createFeature("c.C.c");
+
+        factory.createPackage("d", true);
+
+        b_B.addParent(a_A);
+        c_C.addParent(a_A);
+        c_C.addParent(b_B);
+
+        a_A.addDependency(b_B);
+        a_A_a.addDependency(b_B_b);
+        a_A_a.addDependency(c_C_c);
+        a_A_b.addDependency(a_A_a);
+        b_B_b.addDependency(c_C_c);
+        c_C_c.addDependency(a_A);
+        c_C.getPackageNode().addDependency(a_A.getPackageNode());
+
+        CompactGraphBuilder builder = new CompactGraphBuilder();
+        builder.add(factory);
+        graph = builder.getGraph();
+    }
+
+    public void testSize() {
+        assertEquals("packages", 4, graph.getNbPackages());
+        assertEquals("classes", 3, graph.getNbClasses());
+        assertEquals("features", 4, graph.getNbFeatures());
+        assertEquals("nodes", 4 + 3 + 4, graph.getNbNodes());
+        assertEquals("dependencies", 7, graph.getNbDependencies());
+    }
+
+    public void testIdsFollowKindAndName() {
+        String[] expected = {"a", "b", "c", "d", "a.A", "b.B", "c.C", "a.A.a", "a.A.b", "b.B.b", "c.C.c"};
+
+        for (int id = 0; id < expected.length; id++) {
+            assertEquals("name " + id, expected[id], graph.getName(id));
+        }
+
+        assertTrue("package", graph.isPackage(3));
+        assertFalse("package", graph.isPackage(4));
+        assertTrue("class", graph.isClass(4));
+        assertTrue("class", graph.isClass(6));
+        assertTrue("feature", graph.isFeature(7));
+        assertFalse("feature", graph.isFeature(11));
+    }
+
+    public void testFind() {
+        assertEquals("package", "a", graph.getName(graph.findPackage("a")));
+        assertEquals("class", "a.A", graph.getName(graph.findClass("a.A")));
+        assertEquals("feature", "a.A.a", graph.getName(graph.findFeature("a.A.a")));
+
+        assertEquals("missing package", DependencyGraph.NO_NODE, graph.findPackage("z"));
+        assertEquals("class name as package", DependencyGraph.NO_NODE, graph.findPackage("a.A"));
+        assertEquals("package name as class", DependencyGraph.NO_NODE, graph.findClass("a"));
+        assertEquals("missing feature", DependencyGraph.NO_NODE, graph.findFeature("a.A.z"));
+    }
+
+    public void testConfirmed() {
+        assertTrue("a", graph.isConfirmed(graph.findPackage("a")));
+        assertTrue("a.A", graph.isConfirmed(graph.findClass("a.A")));
+        assertTrue("a.A.a", graph.isConfirmed(graph.findFeature("a.A.a")));
+        assertFalse("c", graph.isConfirmed(graph.findPackage("c")));
+        assertFalse("c.C", graph.isConfirmed(graph.findClass("c.C")));
+        assertFalse("c.C.c", graph.isConfirmed(graph.findFeature("c.C.c")));
+        assertTrue("d", graph.isConfirmed(graph.findPackage("d")));
+    }
+
+    public void testContainment() {
+        int a = graph.findPackage("a");
+        int a_A = graph.findClass("a.A");
+
+        assertEquals("a container", DependencyGraph.NO_NODE, graph.getContainer(a));
+        assertEquals("a.A container", a, graph.getContainer(a_A));
+        assertEquals("a.A.a container", a_A, graph.getContainer(graph.findFeature("a.A.a")));
+
+        assertEquals("a contents", Arrays.asList("a.A"), names(graph.getContents(a)));
+        assertEquals("a.A contents", Arrays.asList("a.A.a", "a.A.b"), names(graph.getContents(a_A)));
+        assertEquals("a.A.a contents", 0, graph.getContents(graph.findFeature("a.A.a")).length);
+        assertEquals("d contents", 0, graph.getContents(graph.findPackage("d")).length);
+    }
+
+    public void testInheritance() {
+        int a_A = graph.findClass("a.A");
+        int c_C = graph.findClass("c.C");
+
+        assertEquals("a.A parents", 0, graph.getParents(a_A).length);
+        assertEquals("a.A children", Arrays.asList("b.B", "c.C"), names(graph.getChildren(a_A)));
+        assertEquals("c.C parents", Arrays.asList("a.A", "b.B"), names(graph.getParents(c_C)));
+        assertEquals("c.C children", 0, graph.getChildren(c_C).length);
+        assertEquals("package parents", 0, graph.getParents(graph.findPackage("a")).length);
+        assertEquals("feature children", 0, graph.getChildren(graph.findFeature("a.A.a")).length);
+    }
+
+    public void testDependencies() {
+        for (Node node : factory.getPackages().values()) {
+            assertSameDependencies(node, graph.findPackage(node.getName()));
+        }
+        for (Node node : factory.getClasses().values()) {
+            assertSameDependencies(node, graph.findClass(node.getName()));
+        }
+        for (Node node : factory.getFeatures().values()) {
+            assertSameDependencies(node, graph.findFeature(node.getName()));
+        }
+    }
+
+    public void testDependencyKinds() {
+        int[] dependencies = graph.getOutboundDependencies(graph.findFeature("a.A.a"));
+
+        assertEquals("size", 2, dependencies.length);
+        assertTrue("feature", graph.isFeature(dependencies[0]));
+        assertTrue("feature", graph.isFeature(dependencies[1]));
+    }
+
+    public void testReturnedArraysAreCopies() {
+        int a_A_a = graph.findFeature("a.A.a");
+
+        graph.getOutboundDependencies(a_A_a)[0] = a_A_a;
+
+        assertEquals("b.B.b", graph.getName(graph.getOutboundDependencies(a_A_a)[0]));
+    }
+
+    public void testAddingTheSameGraphTwiceChangesNothing() {
+        CompactGraphBuilder builder = new CompactGraphBuilder();
+        builder.add(factory);
+        builder.add(factory);
+
+        assertEquals(print(graph.getPackages().values()), print(builder.getGraph().getPackages().values()));
+        assertEquals("dependencies", 7, builder.getGraph().getNbDependencies());
+    }
+
+    public void testLaterConfirmationSticks() {
+        NodeFactory other = new NodeFactory();
+        other.createFeature("c.C.c", true);
+
+        CompactGraphBuilder builder = new CompactGraphBuilder();
+        builder.add(factory);
+        builder.add(other);
+        CompactGraph result = builder.getGraph();
+
+        assertTrue("c.C.c", result.isConfirmed(result.findFeature("c.C.c")));
+        assertEquals("c.C.c outbound", Arrays.asList("a.A"), names(result.getOutboundDependencies(result.findFeature("c.C.c"))));
+    }
+
+    public void testToNodeFactory() {
+        assertEquals(print(factory), print(graph.toNodeFactory()));
+    }
+
+    public void testViewsPrintLikeRegularNodes() {
+        assertEquals(print(factory), print(graph.getPackages().values()));
+    }
+
+    public void testViewsPrintXMLLikeRegularNodes() {
+        StringWriter expected = new StringWriter();
+        new XMLPrinter(new PrintWriter(expected)).traverseNodes(factory.getPackages().values());
+
+        StringWriter actual = new StringWriter();
+        new XMLPrinter(new PrintWriter(actual)).traverseNodes(graph.getPackages().values());
+
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    public void testViewsNavigateTheGraph() {
+        ClassNode c_C = graph.getClasses().get("c.C");
+
+        assertEquals("package", "c", c_C.getPackageNode().getName());
+        assertEquals("features", names(factory.getClasses().get("c.C").getFeatures()), names(c_C.getFeatures()));
+        assertEquals("parents", names(factory.getClasses().get("c.C").getParents()), names(c_C.getParents()));
+        assertEquals("children", names(factory.getClasses().get("a.A").getChildren()), names(graph.getClasses().get("a.A").getChildren()));
+        assertEquals("feature class", "a.A", graph.getFeatures().get("a.A.a").getClassNode().getName());
+        assertEquals("inherited", factory.getClasses().get("c.C").getInheritedFeatures("a").size(), c_C.getInheritedFeatures("a").size());
+
+        for (FeatureNode expected : factory.getFeatures().values()) {
+            FeatureNode actual = graph.getFeatures().get(expected.getName());
+            assertEquals(expected.getName() + " outbound", names(expected.getOutboundDependencies()), names(actual.getOutboundDependencies()));
+            assertEquals(expected.getName() + " inbound", names(expected.getInboundDependencies()), names(actual.getInboundDependencies()));
+        }
+
+        assertNull("missing", graph.getClasses().get("z.Z"));
+        assertEquals("keys", new ArrayList<String>(factory.getPackages().keySet()), new ArrayList<String>(graph.getPackages().keySet()));
+    }
+
+    public void testViewsAreReused() {
+        int a_A = graph.findClass("a.A");
+
+        assertSame(graph.getNode(a_A), graph.getNode(a_A));
+        assertSame(graph.getNode(a_A), graph.getClasses().get("a.A"));
+        assertSame(graph.getNode(a_A), graph.getFeatures().get("a.A.a").getClassNode());
+    }
+
+    public void testViewsEqualRegularNodes() {
+        assertEquals(factory.getPackages().get("a"), graph.getPackages().get("a"));
+        assertEquals(graph.getClasses().get("a.A"), factory.getClasses().get("a.A"));
+        assertEquals(factory.getFeatures().get("a.A.a"), graph.getFeatures().get("a.A.a"));
+        assertEquals(factory.getClasses().get("a.A").hashCode(), graph.getClasses().get("a.A").hashCode());
+        assertFalse(graph.getClasses().get("a.A").equals(factory.getPackages().get("a")));
+    }
+
+    public void testViewsAreReadOnly() {
+        ClassNode a_A = graph.getClasses().get("a.A");
+
+        try {
+            a_A.addDependency(graph.getClasses().get("c.C"));
+            fail("Added a dependency to a view");
+        } catch (UnsupportedOperationException ex) {
+            // Expected
+        }
+
+        try {
+            a_A.addParent(graph.getClasses().get("c.C"));
+            fail("Added a parent to a view");
+        } catch (UnsupportedOperationException ex) {
+            // Expected
+        }
+
+        try {
+            a_A.getFeatures().clear();
+            fail("Removed features from a view");
+        } catch (UnsupportedOperationException ex) {
+            // Expected
+        }
+
+        assertEquals("a.A outbound", Arrays.asList("b.B"), names(graph.getOutboundDependencies(graph.findClass("a.A"))));
+    }
+
+    public void testTransitiveClosureOnViews() {
+        TransitiveClosure expected = new TransitiveClosure(new ComprehensiveSelectionCriteria(), new NullSelectionCriteria());
+        expected.setMaximumOutboundDepth(TransitiveClosure.UNBOUNDED_DEPTH);
+        expected.traverseNodes(Collections.singleton(factory.getFeatures().get("a.A.b")));
+
+        TransitiveClosure actual = new TransitiveClosure(new ComprehensiveSelectionCriteria(), new NullSelectionCriteria());
+        actual.setMaximumOutboundDepth(TransitiveClosure.UNBOUNDED_DEPTH);
+        actual.traverseNodes(Collections.singleton(graph.getFeatures().get("a.A.b")));
+
+        assertTrue("empty closure", actual.getFactory().getFeatures().size() > 1);
+        assertEquals(print(expected.getFactory()), print(actual.getFactory()));
+    }
+
+    public void testBuildFromLoader() {
+        NodeFactory expected = new NodeFactory();
+        ClassfileLoader loader = new TransientClassfileLoader();
+        loader.addLoadListener(new LoadListenerVisitorAdapter(new CodeDependencyCollector(expected)));
+        loader.load(Collections.singleton(TEST_CLASSPATH));
+
+        CompactGraphBuilder builder = new CompactGraphBuilder();
+        loader = new TransientClassfileLoader();
+        loader.addLoadListener(builder);
+        loader.load(Collections.singleton(TEST_CLASSPATH));
+        CompactGraph result = builder.getGraph();
+
+        assertTrue("no classes", result.getNbClasses() > 0);
+        assertEquals("classes", expected.getClasses().size(), result.getNbClasses());
+        assertEquals(print(expected), print(result.getPackages().values()));
+    }
+
+    private void assertSameDependencies(Node expected, int actual) {
+        assertEquals(expected.getName() + " outbound", names(expected.getOutboundDependencies()), kindsAndNames(graph.getOutboundDependencies(actual)));
+        assertEquals(expected.getName() + " inbound", names(expected.getInboundDependencies()), kindsAndNames(graph.getInboundDependencies(actual)));
+    }
+
+    private List<String> names(int[] ids) {
+        List<String> result = new ArrayList<String>();
+
+        for (int id : ids) {
+            result.add(graph.getName(id));
+        }
+
+        return result;
+    }
+
+    private Collection<String> names(Collection<? extends Node> nodes) {
+        Collection<String> result = new TreeSet<String>();
+
+        for (Node node : nodes) {
+            if (node instanceof PackageNode) {
+                result.add("package " + node.getName());
+            } else if (node instanceof ClassNode) {
+                result.add("class " + node.getName());
+            } else {
+                result.add("feature " + node.getName());
+            }
+        }
+
+        return result;
+    }
+
+    private Collection<String> kindsAndNames(int[] ids) {
+        Collection<String> result = new TreeSet<String>();
+
+        for (int id : ids) {
+            if (graph.isPackage(id)) {
+                result.add("package " + graph.getName(id));
+            } else if (graph.isClass(id)) {
+                result.add("class " + graph.getName(id));
+            } else {
+                result.add("feature " + graph.getName(id));
+            }
+        }
+
+        return result;
+    }
+
+    private String print(NodeFactory factory) {
+        return print(factory.getPackages().values());
+    }
+
+    private String print(Collection<PackageNode> packages) {
+        StringWriter out = new StringWriter();
+        TextPrinter printer = new TextPrinter(new PrintWriter(out));
+        printer.traverseNodes(packages);
+        return out.toString();
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.util.*;
+
+import junit.framework.*;
+
+public class TestComponentCycleDetector extends TestCase {
+    private NodeFactory factory;
+
+    private Node a_package;
+    private Node a_A_class;
+    private Node a_A_a_feature;
+
+    private Node b_package;
+    private Node b_B_class;
+    private Node b_B_b_feature;
+
+    private Node c_package;
+    private Node d_package;
+    private Node e_package;
+
+    private ComponentCycleDetector detector;
+
+    protected void setUp() throws Exception {
+        factory = new NodeFactory();
+
+        a_package = factory.createPackage("a");
+        a_A_class = factory.createClass("a.A");
+        a_A_a_feature = factory.createFeature("a.A.a");
+
+        b_package = factory.createPackage("b");
+        b_B_class = factory.createClass("b.B");
+        b_B_b_feature = factory.createFeature("b.B.b");
+
+        c_package = factory.createPackage("c");
+        d_package = factory.createPackage("d");
+        e_package = factory.createPackage("e");
+
+        detector = new ComponentCycleDetector();
+    }
+
+    public void testNoDependencies() {
+        detector.traverseNodes(factory.getPackages().values());
+        assertEquals("Nb cycles", 0, detector.getCycles().size());
+        assertEquals("Nb components", 0, detector.getComponents().size());
+    }
+
+    public void testNoCycles() {
+        a_package.addDependency(b_package);
+        detector.traverseNodes(factory.getPackages().values());
+        assertEquals("Nb cycles", 0, detector.getCycles().size());
+        assertEquals("Nb components", 0, detector.getComponents().size());
+    }
+
+    public void testOneLength2PackageCycle() {
+        a_package.addDependency(b_package);
+        b_package.addDependency(a_package);
+        detector.traverseNodes(factory.getPackages().values());
+        assertEquals("Nb cycles", 1, detector.getCycles().size());
+
+        Cycle cycle = detector.getCycles().iterator().next();
+        assertEquals("cycle", Arrays.asList(a_package, b_package), cycle.getPath());
+
+        assertEquals("Nb components", 1, detector.getComponents().size());
+        assertEquals("component", Arrays.asList(a_package, b_package), detector.getComponents().get(0));
+    }
+
+    public void testTwoLength3PackageCycles() {
+        a_package.addDependency(b_package);
+        b_package.addDependency(c_package);
+        c_package.addDependency(a_package);
+        c_package.addDependency(d_package);
+        d_package.addDependency(e_package);
+        e_package.addDependency(c_package);
+        detector.traverseNodes(factory.getPackages().values());
+        assertEquals("Nb cycles", 2, detector.getCycles().size());
+
+        Iterator<Cycle> cycles = detector.getCycles().iterator();
+        assertEquals("first cycle", Arrays.asList(a_package, b_package, c_package), cycles.next().getPath());
+        assertEquals("second cycle", Arrays.asList(c_package, d_package, e_package), cycles.next().getPath());
+
+        assertEquals("Nb components", 1, detector.getComponents().size());
+    }
+
+    public void testMaximumLength() {
+        a_package.addDependency(b_package);
+        b_package.addDependency(a_package);
+        c_package.addDependency(d_package);
+        d_package.addDependency(e_package);
+        e_package.addDependency(c_package);
+        detector.setMaximumCycleLength(2);
+        detector.traverseNodes(factory.getPackages().values());
+        assertEquals("Nb cycles", 1, detector.getCycles().size());
+
+        Cycle cycle = detector.getCycles().iterator().next();
+        assertEquals("cycle", Arrays.asList(a_package, b_package), cycle.getPath());
+    }
+
+    public void testMaximumLengthDoesNotHideShorterCycles() {
+        a_package.addDependency(b_package);
+        b_package.addDependency(c_package);
+        c_package.addDependency(d_package);
+        d_package.addDependency(a_package);
+        a_package.addDependency(c_package);
+        c_package.addDependency(b_package);
+        detector.setMaximumCycleLength(3);
+        detector.traverseNodes(factory.getPackages().values());
+
+        CycleDetector expected = new CycleDetector();
+        expected.setMaximumCycleLength(3);
+        expected.traverseNodes(factory.getPackages().values());
+
+        assertEquals("cycles", new ArrayList<Cycle>(expected.getCycles()), new ArrayList<Cycle>(detector.getCycles()));
+    }
+
+    public void testOneLength2ClassCycle() {
+        a_A_class.addDependency(b_B_class);
+        b_B_class.addDependency(a_A_class);
+        detector.traverseNodes(factory.getPackages().values());
+        assertEquals("Nb cycles", 1, detector.getCycles().size());
+
+        Cycle cycle = detector.getCycles().iterator().next();
+        assertEquals("cycle", Arrays.asList(a_A_class, b_B_class), cycle.getPath());
+    }
+
+    public void testOneLength2FeatureCycle() {
+        a_A_a_feature.addDependency(b_B_b_feature);
+        b_B_b_feature.addDependency(a_A_a_feature);
+        detector.traverseNodes(factory.getPackages().values());
+        assertEquals("Nb cycles", 1, detector.getCycles().size());
+
+        Cycle cycle = detector.getCycles().iterator().next();
+        assertEquals("cycle", Arrays.asList(a_A_a_feature, b_B_b_feature), cycle.getPath());
+    }
+
+    public void testStartCriteria() {
+        a_package.addDependency(b_package);
+        b_package.addDependency(a_package);
+        c_package.addDependency(d_package);
+        d_package.addDependency(c_package);
+
+        RegularExpressionSelectionCriteria startCriteria = new RegularExpressionSelectionCriteria();
+        startCriteria.setGlobalIncludes("/^b/");
+
+        detector = new ComponentCycleDetector(startCriteria);
+        detector.traverseNodes(factory.getPackages().values());
+        assertEquals("Nb cycles", 1, detector.getCycles().size());
+
+        Cycle cycle = detector.getCycles().iterator().next();
+        assertEquals("cycle", Arrays.asList(a_package, b_package), cycle.getPath());
+    }
+
+    public void testSameCyclesAsCycleDetector() {
+        Random random = new Random(42);
+        List<PackageNode> packages = new ArrayList<PackageNode>();
+        for (int i = 0; i < 9; i++) {
+            packages.add(factory.createPackage("p" + i));
+        }
+        for (int i = 0; i < 25; i++) {
+            packages.get(random.nextInt(packages.size())).addDependency(packages.get(random.nextInt(packages.size())));
+        }
+
+        CycleDetector expected = new CycleDetector();
+        expected.traverseNodes(factory.getPackages().values());
+
+        detector.traverseNodes(factory.getPackages().values());
+
+        assertFalse("No cycles", expected.getCycles().isEmpty());
+        assertEquals("cycles", new ArrayList<Cycle>(expected.getCycles()), new ArrayList<Cycle>(detector.getCycles()));
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.util.*;
+
+import junit.framework.*;
+
+public class TestComponentFinder extends TestCase {
+    private NodeFactory factory;
+    private ComponentFinder finder;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        factory = new NodeFactory();
+        finder = new ComponentFinder();
+    }
+
+    public void testNoDependencies() {
+        factory.createPackage("a");
+        factory.createPackage("b");
+
+        List<List<Node>> components = finder.findComponents(factory.getPackages().values());
+
+        assertEquals("Nb components", 2, components.size());
+        assertEquals("component size", 1, components.get(0).size());
+        assertEquals("component size", 1, components.get(1).size());
+    }
+
+    public void testOneComponent() {
+        PackageNode a = factory.createPackage("a");
+        PackageNode b = factory.createPackage("b");
+        PackageNode c = factory.createPackage("c");
+
+        a.addDependency(b);
+        b.addDependency(c);
+        c.addDependency(a);
+
+        List<List<Node>> components = finder.findComponents(Collections.singleton(a));
+
+        assertEquals("Nb components", 1, components.size());
+        assertEquals("component", Arrays.asList(a, b, c), components.get(0));
+    }
+
+    public void testReverseTopologicalOrder() {
+        PackageNode a = factory.createPackage("a");
+        PackageNode b = factory.createPackage("b");
+        PackageNode c = factory.createPackage("c");
+        PackageNode d = factory.createPackage("d");
+
+        a.addDependency(b);
+        b.addDependency(a);
+        b.addDependency(c);
+        c.addDependency(d);
+        d.addDependency(c);
+
+        List<List<Node>> components = finder.findComponents(Collections.singleton(a));
+
+        assertEquals("Nb components", 2, components.size());
+        assertEquals("first component", Arrays.asList(c, d), components.get(0));
+        assertEquals("second component", Arrays.asList(a, b), components.get(1));
+    }
+
+    public void testIgnoresDependenciesToOtherKinds() {
+        ClassNode a = factory.createClass("a.A");
+        FeatureNode b = factory.createFeature("b.B.b");
+        ClassNode c = factory.createClass("c.C");
+
+        a.addDependency(b);
+        b.addDependency(c);
+        c.addDependency(a);
+
+        List<List<Node>> components = finder.findComponents(Arrays.asList(a, c));
+
+        assertEquals("Nb components", 2, components.size());
+        assertEquals("first component", Collections.singletonList(a), components.get(0));
+        assertEquals("second component", Collections.singletonList(c), components.get(1));
+    }
+
+    public void testLongChain() {
+        List<PackageNode> chain = new ArrayList<PackageNode>();
+        for (int i = 0; i < 50000; i++) {
+            chain.add(factory.createPackage("p" + i));
+        }
+        for (int i = 1; i < chain.size(); i++) {
+            chain.get(i - 1).addDependency(chain.get(i));
+        }
+        chain.get(chain.size() - 1).addDependency(chain.get(0));
+
+        List<List<Node>> components = finder.findComponents(Collections.singleton(chain.get(0)));
+
+        assertEquals("Nb components", 1, components.size());
+        assertEquals("component size", chain.size(), components.get(0).size());
+    }
+
+    public void testGivenDependencies() {
+        PackageNode a = factory.createPackage("a");
+        PackageNode b = factory.createPackage("b");
+        PackageNode c = factory.createPackage("c");
+
+        a.addDependency(c);
+
+        Map<Node, Collection<Node>> dependencies = new HashMap<Node, Collection<Node>>();
+        dependencies.put(a, Collections.<Node>singleton(b));
+        dependencies.put(b, Collections.<Node>singleton(a));
+
+        List<List<Node>> components = finder.findComponents(Collections.singleton(a), dependencies);
+
+        assertEquals("Nb components", 1, components.size());
+        assertEquals("component", Arrays.asList(a, b), components.get(0));
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.io.*;
+import java.util.*;
+
+import junit.framework.*;
+
+import com.jeantessier.classreader.*;
+
+public class TestConcurrentNodeFactory extends TestCase {
+    private static final String OLD_CLASSPATH = "tests" + File.separator + "JarJarDiff" + File.separator + "old";
+    private static final String NEW_CLASSPATH = "tests" + File.separator + "JarJarDiff" + File.separator + "new";
+
+    private static final int NB_THREADS = 8;
+    private static final int NB_NODES = 500;
+
+    private ConcurrentNodeFactory factory;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        factory = new ConcurrentNodeFactory();
+    }
+
+    public void testCreateFeatureLikeNodeFactory() {
+        NodeFactory expected = new NodeFactory();
+        FeatureNode expectedNode = expected.createFeature("a.A.a(java.lang.String)", true);
+
+        FeatureNode node = factory.createFeature("a.A.a(java.lang.String)", true);
+
+        assertEquals("feature", expectedNode.getName(), node.getName());
+        assertEquals("class", expectedNode.getClassNode().getName(), node.getClassNode().getName());
+        assertEquals("package", expectedNode.getClassNode().getPackageNode().getName(), node.getClassNode().getPackageNode().getName());
+        assertTrue("feature not confirmed", node.isConfirmed());
+        assertTrue("class not confirmed", node.getClassNode().isConfirmed());
+        assertTrue("package not confirmed", node.getClassNode().getPackageNode().isConfirmed());
+        assertSame("class", node.getClassNode(), factory.getClasses().get("a.A"));
+        assertTrue("containment", node.getClassNode().getFeatures().contains(node));
+    }
+
+    public void testNodeNamesAreInterned() {
+        String featureName = "a.A.a()";
+
+        FeatureNode node = factory.createFeature(new String(featureName));
+
+        assertSame("feature", featureName, node.getName());
+        assertSame("class", "a.A", node.getClassNode().getName());
+        assertSame("package", "a", node.getClassNode().getPackageNode().getName());
+    }
+
+    public void testConfirmingFeatureConfirmsExistingClass() {
+        FeatureNode node = factory.createFeature("a.A.a", false);
+        assertFalse("class confirmed", node.getClassNode().isConfirmed());
+
+        factory.createFeature("a.A.a", true);
+
+        assertTrue("feature not confirmed", node.isConfirmed());
+        assertTrue("class not confirmed", node.getClassNode().isConfirmed());
+        assertTrue("package not confirmed", node.getClassNode().getPackageNode().isConfirmed());
+    }
+
+    public void testSingleInstancePerName() throws InterruptedException {
+        final List<Map<String, FeatureNode>> results = new ArrayList<Map<String, FeatureNode>>(NB_THREADS);
+        for (int i = 0; i < NB_THREADS; i++) {
+            results.add(new HashMap<String, FeatureNode>());
+        }
+
+        runInParallel(new Task() {
+            public void run(int thread) {
+                Map<String, FeatureNode> result = results.get(thread);
+                for (int i = 0; i < NB_NODES; i++) {
+                    String name = "p" + (i % 7) + ".C" + (i % 31) + ".f" + i;
+                    result.put(name, factory.createFeature(name, thread % 2 == 0));
+                }
+            }
+        });
+
+        assertEquals("packages", 7, factory.getPackages().size());
+        assertEquals("classes", 7 * 31, factory.getClasses().size());
+        assertEquals("features", NB_NODES, factory.getFeatures().size());
+
+        for (Map<String, FeatureNode> result : results) {
+            for (Map.Entry<String, FeatureNode> entry : result.entrySet()) {
+                assertSame(entry.getKey(), factory.getFeatures().get(entry.getKey()), entry.getValue());
+                assertTrue(entry.getKey() + " not confirmed", entry.getValue().isConfirmed());
+            }
+        }
+
+        int nbContainedClasses = 0;
+        for (PackageNode packageNode : factory.getPackages().values()) {
+            assertTrue(packageNode.getName() + " not confirmed", packageNode.isConfirmed());
+            for (ClassNode classNode : packageNode.getClasses()) {
+                assertSame(classNode.getName(), factory.getClasses().get(classNode.getName()), classNode);
+                nbContainedClasses++;
+            }
+        }
+        assertEquals("contained classes", factory.getClasses().size(), nbContainedClasses);
+
+        int nbContainedFeatures = 0;
+        for (ClassNode classNode : factory.getClasses().values()) {
+            nbContainedFeatures += classNode.getFeatures().size();
+        }
+        assertEquals("contained features", NB_NODES, nbContainedFeatures);
+    }
+
+    public void testConcurrentDependencies() throws InterruptedException {
+        final ClassNode target = factory.createClass("target.Target");
+
+        runInParallel(new Task() {
+            public void run(int thread) {
+                for (int i = 0; i < NB_NODES; i++) {
+                    ClassNode source = factory.createClass("source" + thread + ".Source" + i);
+                    source.addDependency(target);
+                    target.addDependency(factory.createClass("shared.Shared" + i));
+                    source.addParent(factory.createClass("shared.Shared" + i));
+                }
+            }
+        });
+
+        assertEquals("inbound", NB_THREADS * NB_NODES, target.getInboundDependencies().size());
+        assertEquals("outbound", NB_NODES, target.getOutboundDependencies().size());
+        for (int i = 0; i < NB_NODES; i++) {
+            ClassNode shared = factory.getClasses().get("shared.Shared" + i);
+            assertEquals("shared.Shared" + i + " inbound", 1, shared.getInboundDependencies().size());
+            assertEquals("shared.Shared" + i + " children", NB_THREADS, shared.getChildren().size());
+        }
+    }
+
+    public void testParallelExtractionGivesSameGraph() {
+        Collection<String> filenames = Arrays.asList(OLD_CLASSPATH, NEW_CLASSPATH);
+
+        NodeFactory expected = new NodeFactory();
+        ClassfileLoader sequentialLoader = new TransientClassfileLoader();
+        sequentialLoader.addLoadListener(new LoadListenerVisitorAdapter(new CodeDependencyCollector(expected)));
+        sequentialLoader.load(filenames);
+
+        ClassfileLoader parallelLoader = new ParallelClassfileLoader(4);
+        parallelLoader.addLoadListener(new ThreadSafeCollectorAdapter(factory));
+        parallelLoader.load(filenames);
+
+        assertFalse("No classes", expected.getClasses().isEmpty());
+        assertEquals(print(expected), print(factory));
+        for (Map.Entry<String, FeatureNode> entry : expected.getFeatures().entrySet()) {
+            assertEquals(entry.getKey(), entry.getValue().isConfirmed(), factory.getFeatures().get(entry.getKey()).isConfirmed());
+        }
+    }
+
+    public void testParallelExtractionSharesFilterCriteria() {
+        Collection<String> filenames = Arrays.asList(OLD_CLASSPATH, NEW_CLASSPATH);
+        RegularExpressionSelectionCriteria filterCriteria = new RegularExpressionSelectionCriteria("/^java\\.lang\\./");
+
+        NodeFactory expected = new NodeFactory();
+        ClassfileLoader sequentialLoader = new TransientClassfileLoader();
+        sequentialLoader.addLoadListener(new LoadListenerVisitorAdapter(new CodeDependencyCollector(expected, filterCriteria)));
+        sequentialLoader.load(filenames);
+
+        ClassfileLoader parallelLoader = new ParallelClassfileLoader(4);
+        parallelLoader.addLoadListener(new ThreadSafeCollectorAdapter(factory, filterCriteria));
+        parallelLoader.load(filenames);
+
+        assertEquals(print(expected), print(factory));
+    }
+
+    private interface Task {
+        void run(int thread);
+    }
+
+    private void runInParallel(final Task task) throws InterruptedException {
+        final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+        Thread[] threads = new Thread[NB_THREADS];
+
+        for (int i = 0; i < NB_THREADS; i++) {
+            final int thread = i;
+            threads[i] = new Thread() {
+                public void run() {
+                    try {
+                        task.run(thread);
+                    } catch (Throwable ex) {
+                        failures.add(ex);
+                    }
+                }
+            };
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals("failures: " + failures, 0, failures.size());
+    }
+
+    private String print(NodeFactory factory) {
+        StringWriter out = new StringWriter();
+        new TextPrinter(new PrintWriter(out)).traverseNodes(factory.getPackages().values());
+        return out.toString();
+    }
+}
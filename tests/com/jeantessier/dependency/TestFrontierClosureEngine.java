@@ -0,0 +1,179 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.io.*;
+import java.util.*;
+
+import junit.framework.*;
+
+public class TestFrontierClosureEngine extends TestCase {
+    private static final String[] START_INCLUDES = {"/^p0\\.C0\\.f0/", "/^p1/", "/^p2\\.C1$/", "/nomatch/"};
+    private static final String[] STOP_INCLUDES = {"", "/^p3\\.C2/", "/^p4$/"};
+    private static final long[] DEPTHS = {0, 1, 2, TransitiveClosure.UNBOUNDED_DEPTH};
+
+    private NodeFactory factory;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        factory = new NodeFactory();
+
+        List<Node> nodes = new ArrayList<Node>();
+        for (int p = 0; p < 6; p++) {
+            nodes.add(factory.createPackage("p" + p, p % 5 != 0));
+            for (int c = 0; c < 4; c++) {
+                nodes.add(factory.createClass("p" + p + ".C" + c, c != 3));
+                for (int f = 0; f < 4; f++) {
+                    nodes.add(factory.createFeature("p" + p + ".C" + c + ".f" + f, f != 2));
+                }
+            }
+        }
+
+        Random random = new Random(42);
+        for (int i = 0; i < 250; i++) {
+            nodes.get(random.nextInt(nodes.size())).addDependency(nodes.get(random.nextInt(nodes.size())));
+        }
+    }
+
+    public void testSameLayersAsTransitiveClosureEngine() {
+        for (String startIncludes : START_INCLUDES) {
+            for (String stopIncludes : STOP_INCLUDES) {
+                for (long depth : DEPTHS) {
+                    assertSameLayers(startIncludes, stopIncludes, depth, true);
+                    assertSameLayers(startIncludes, stopIncludes, depth, false);
+                }
+            }
+        }
+    }
+
+    public void testComputeNextLayer() {
+        ClosureEngine expected = new TransitiveClosureEngine(factory.getPackages().values(), new RegularExpressionSelectionCriteria("/^p0\\.C0\\.f0/"), new NullSelectionCriteria(), new ClosureOutboundSelector());
+        ClosureEngine actual = new FrontierClosureEngine(factory.getPackages().values(), new RegularExpressionSelectionCriteria("/^p0\\.C0\\.f0/"), new NullSelectionCriteria(), true);
+
+        for (int i = 0; i < 5; i++) {
+            expected.computeNextLayer();
+            actual.computeNextLayer();
+
+            assertEquals("layer " + i, describe(expected), describe(actual));
+            assertEquals("graph at layer " + i, print(expected.getFactory()), print(actual.getFactory()));
+        }
+    }
+
+    public void testTransitiveClosureBothWays() {
+        for (String startIncludes : START_INCLUDES) {
+            for (long depth : DEPTHS) {
+                TransitiveClosure expected = new TransitiveClosure(new RegularExpressionSelectionCriteria(startIncludes), new NullSelectionCriteria());
+                expected.setMaximumInboundDepth(depth);
+                expected.setMaximumOutboundDepth(depth);
+                expected.traverseNodes(factory.getPackages().values());
+
+                TransitiveClosure actual = new TransitiveClosure(new RegularExpressionSelectionCriteria(startIncludes), new NullSelectionCriteria());
+                actual.setUsingFrontierEngine(true);
+                actual.setMaximumInboundDepth(depth);
+                actual.setMaximumOutboundDepth(depth);
+                actual.traverseNodes(factory.getPackages().values());
+
+                String message = startIncludes + " at depth " + depth;
+                assertEquals(message, print(expected.getFactory()), print(actual.getFactory()));
+                assertConfirmed(message, expected.getFactory(), actual.getFactory());
+            }
+        }
+    }
+
+    public void testEmptyStart() {
+        ClosureEngine engine = new FrontierClosureEngine(factory.getPackages().values(), new RegularExpressionSelectionCriteria("/nomatch/"), new NullSelectionCriteria(), true);
+        engine.computeAllLayers();
+
+        assertEquals("Nb layers", 1, engine.getNbLayers());
+        assertTrue("Layer 0", engine.getLayer(0).isEmpty());
+        assertTrue("Packages", engine.getFactory().getPackages().isEmpty());
+    }
+
+    private void assertSameLayers(String startIncludes, String stopIncludes, long depth, boolean outbound) {
+        RegularExpressionSelectionCriteria startCriteria = new RegularExpressionSelectionCriteria(startIncludes);
+        RegularExpressionSelectionCriteria stopCriteria = new RegularExpressionSelectionCriteria();
+        stopCriteria.setGlobalIncludes(stopIncludes);
+
+        ClosureEngine expected = new TransitiveClosureEngine(factory.getPackages().values(), startCriteria, stopCriteria, outbound ? new ClosureOutboundSelector() : new ClosureInboundSelector());
+        ClosureEngine actual = new FrontierClosureEngine(factory.getPackages().values(), startCriteria, stopCriteria, outbound);
+
+        if (depth == TransitiveClosure.UNBOUNDED_DEPTH) {
+            expected.computeAllLayers();
+            actual.computeAllLayers();
+        } else {
+            expected.computeLayers(depth);
+            actual.computeLayers(depth);
+        }
+
+        String message = startIncludes + " until " + stopIncludes + " at depth " + depth + (outbound ? " outbound" : " inbound");
+        assertEquals(message, describe(expected), describe(actual));
+        assertEquals(message, print(expected.getFactory()), print(actual.getFactory()));
+        assertConfirmed(message, expected.getFactory(), actual.getFactory());
+    }
+
+    private String describe(ClosureEngine engine) {
+        StringBuilder result = new StringBuilder();
+
+        for (int i = 0; i < engine.getNbLayers(); i++) {
+            Collection<String> names = new TreeSet<String>();
+            for (Object node : engine.getLayer(i)) {
+                names.add(((Node) node).getName());
+            }
+            result.append(i).append(": ").append(names).append("\n");
+        }
+
+        return result.toString();
+    }
+
+    private String print(NodeFactory factory) {
+        StringWriter out = new StringWriter();
+        new TextPrinter(new PrintWriter(out)).traverseNodes(factory.getPackages().values());
+        return out.toString();
+    }
+
+    private void assertConfirmed(String message, NodeFactory expected, NodeFactory actual) {
+        assertEquals(message, expected.getClasses().keySet(), actual.getClasses().keySet());
+        assertEquals(message, expected.getFeatures().keySet(), actual.getFeatures().keySet());
+        for (Map.Entry<String, PackageNode> entry : expected.getPackages().entrySet()) {
+            assertEquals(message + ": " + entry.getKey(), entry.getValue().isConfirmed(), actual.getPackages().get(entry.getKey()).isConfirmed());
+        }
+        for (Map.Entry<String, ClassNode> entry : expected.getClasses().entrySet()) {
+            assertEquals(message + ": " + entry.getKey(), entry.getValue().isConfirmed(), actual.getClasses().get(entry.getKey()).isConfirmed());
+        }
+        for (Map.Entry<String, FeatureNode> entry : expected.getFeatures().entrySet()) {
+            assertEquals(message + ": " + entry.getKey(), entry.getValue().isConfirmed(), actual.getFeatures().get(entry.getKey()).isConfirmed());
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.jeantessier.dependency;
+
+import java.util.*;
+
+import junit.framework.*;
+
+public class TestGraphCondenser extends TestCase {
+    private NodeFactory factory;
+    private GraphCondenser condenser;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        factory = new NodeFactory();
+        condenser = new GraphCondenser();
+    }
+
+    public void testEmptyGraph() {
+        CondensedGraph graph = condenser.condensePackages(factory.getPackages().values());
+
+        assertEquals("Nb components", 0, graph.getComponents().size());
+        assertEquals("Nb layers", 0, graph.getLayers().size());
+        assertEquals("longest chain", 0, graph.getLongestChain().size());
+    }
+
+    public void testPackagesRollUpClassAndFeatureDependencies() {
+        ClassNode a = factory.createClass("a.A");
+        FeatureNode b = factory.createFeature("b.B.b");
+        factory.createPackage("c");
+
+        a.addDependency(b);
+
+        CondensedGraph graph = condenser.condensePackages(factory.getPackages().values());
+
+        assertEquals("Nb components", 3, graph.getComponents().size());
+        assertEquals("Nb layers", 2, graph.getLayers().size());
+        assertEquals("layer 0", "[b, c]", graph.getLayers().get(0).toString());
+        assertEquals("layer 1", "[a]", graph.getLayers().get(1).toString());
+        assertEquals("longest chain", "[a, b]", graph.getLongestChain().toString());
+    }
+
+    public void testPackageCycleBecomesOneComponent() {
+        factory.createClass("a.A").addDependency(factory.createClass("b.B"));
+        factory.createClass("b.B").addDependency(factory.createFeature("a.A.a"));
+        factory.createClass("b.B").addDependency(factory.createClass("c.C"));
+
+        CondensedGraph graph = condenser.condensePackages(factory.getPackages().values());
+
+        assertEquals("Nb components", 2, graph.getComponents().size());
+        assertEquals("Nb layers", 2, graph.getLayers().size());
+
+        CondensedComponent top = graph.getLayers().get(1).get(0);
+        assertEquals("name", "a", top.getName());
+        assertTrue("cycle", top.isCycle());
+        assertEquals("nodes", Arrays.asList(factory.getPackages().get("a"), factory.getPackages().get("b")), top.getNodes());
+        assertEquals("dependencies", "[c]", top.getDependencies().toString());
+        assertEquals("layer", 1, top.getLayer());
+    }
+
+    public void testClasses() {
+        ClassNode a = factory.createClass("p.A");
+        ClassNode b = factory.createClass("p.B");
+        ClassNode c = factory.createClass("q.C");
+
+        factory.createFeature("p.A.a").addDependency(b);
+        b.addDependency(factory.createFeature("q.C.c"));
+        a.getPackageNode().addDependency(factory.createPackage("r"));
+
+        CondensedGraph graph = condenser.condenseClasses(factory.getPackages().values());
+
+        assertEquals("Nb components", 3, graph.getComponents().size());
+        assertEquals("longest chain", Arrays.asList(a, b, c).toString(), graph.getLongestChain().toString());
+    }
+
+    public void testSelfDependenciesAreIgnored() {
+        factory.createClass("a.A").addDependency(factory.createClass("a.B"));
+
+        CondensedGraph graph = condenser.condensePackages(factory.getPackages().values());
+
+        assertEquals("Nb components", 1, graph.getComponents().size());
+        assertFalse("cycle", graph.getComponents().get(0).isCycle());
+        assertEquals("dependencies", 0, graph.getComponents().get(0).getDependencies().size());
+    }
+
+    public void testScope() {
+        factory.createPackage("a").addDependency(factory.createPackage("java.lang"));
+
+        RegularExpressionSelectionCriteria criteria = new RegularExpressionSelectionCriteria();
+        criteria.setGlobalIncludes("//");
+        criteria.setGlobalExcludes("/^java/");
+
+        CondensedGraph graph = new GraphCondenser(criteria).condensePackages(factory.getPackages().values());
+
+        assertEquals("Nb components", 1, graph.getComponents().size());
+        assertEquals("name", "a", graph.getComponents().get(0).getName());
+        assertEquals("layer", 0, graph.getComponents().get(0).getLayer());
+    }
+
+    public void testLongestChainTakesLongestPath() {
+        PackageNode a = factory.createPackage("a");
+        PackageNode b = factory.createPackage("b");
+        PackageNode c = factory.createPackage("c");
+        PackageNode d = factory.createPackage("d");
+
+        a.addDependency(d);
+        a.addDependency(b);
+        b.addDependency(c);
+        c.addDependency(d);
+
+        CondensedGraph graph = condenser.condensePackages(factory.getPackages().values());
+
+        assertEquals("Nb layers", 4, graph.getLayers().size());
+        assertEquals("longest chain", Arrays.asList(a, b, c, d).toString(), graph.getLongestChain().toString());
+    }
+
+    public void testLongChain() {
+        List<PackageNode> chain = new ArrayList<PackageNode>();
+        for (int i = 0; i < 50000; i++) {
+            chain.add(factory.createPackage("p" + i));
+        }
+        for (int i = 1; i < chain.size(); i++) {
+            chain.get(i - 1).addDependency(chain.get(i));
+        }
+
+        CondensedGraph graph = condenser.condensePackages(factory.getPackages().values());
+
+        assertEquals("Nb layers", chain.size(), graph.getLayers().size());
+        assertEquals("longest chain", chain.size(), graph.getLongestChain().size());
+        assertSame("top", chain.get(0), graph.getLongestChain().get(0).getNodes().get(0));
+    }
+}
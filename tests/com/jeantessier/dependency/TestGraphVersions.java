@@ -0,0 +1,222 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.io.*;
+import java.util.*;
+
+import junit.framework.*;
+
+import com.jeantessier.classreader.*;
+
+public class TestGraphVersions extends TestCase {
+    private static final String NEW_CLASSPATH = "tests" + File.separator + "JarJarDiff" + File.separator + "new";
+
+    private static final int NB_THREADS = 4;
+    private static final int NB_ITERATIONS = 200;
+
+    private GraphVersions versions;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        versions = new GraphVersions();
+    }
+
+    public void testAcquireBeforePublish() {
+        assertNull("acquired", versions.acquire());
+        assertEquals("current version", 0, versions.getCurrentVersion());
+        assertEquals("live versions", 0, versions.getNbLiveVersions());
+    }
+
+    public void testPublishAndAcquire() {
+        NodeFactory factory = new NodeFactory();
+        versions.publish(factory);
+
+        GraphVersion version = versions.acquire();
+        assertNotNull("acquired", version);
+        assertEquals("version", 1, version.getVersion());
+        assertSame("factory", factory, version.getFactory());
+        version.release();
+
+        assertFalse("released", version.isReleased());
+        assertEquals("live versions", 1, versions.getNbLiveVersions());
+    }
+
+    public void testPinnedVersionSurvivesPublish() {
+        NodeFactory oldFactory = new NodeFactory();
+        oldFactory.createClass("a.A", true);
+        versions.publish(oldFactory);
+
+        GraphVersion pinned = versions.acquire();
+
+        NodeFactory newFactory = new NodeFactory();
+        newFactory.createClass("b.B", true);
+        versions.publish(newFactory);
+
+        assertEquals("current version", 2, versions.getCurrentVersion());
+        assertEquals("live versions", 2, versions.getNbLiveVersions());
+        assertSame("pinned factory", oldFactory, pinned.getFactory());
+        assertTrue("a.A missing", pinned.getFactory().getClasses().containsKey("a.A"));
+        assertFalse("b.B visible", pinned.getFactory().getClasses().containsKey("b.B"));
+
+        GraphVersion current = versions.acquire();
+        assertSame("current factory", newFactory, current.getFactory());
+        current.release();
+
+        pinned.release();
+
+        assertTrue("not released", pinned.isReleased());
+        assertNull("factory", pinned.getFactory());
+        assertEquals("live versions", 1, versions.getNbLiveVersions());
+    }
+
+    public void testPublishReleasesUnpinnedVersion() {
+        versions.publish(new NodeFactory());
+        GraphVersion first = versions.acquire();
+        first.release();
+
+        versions.publish(new NodeFactory());
+
+        assertTrue("not released", first.isReleased());
+        assertEquals("live versions", 1, versions.getNbLiveVersions());
+    }
+
+    public void testReleaseTooManyTimes() {
+        versions.publish(new NodeFactory());
+        GraphVersion version = versions.acquire();
+        version.release();
+        versions.publish(new NodeFactory());
+
+        try {
+            version.release();
+            fail("Released a version more times than it was acquired");
+        } catch (IllegalStateException ex) {
+            // Expected
+        }
+    }
+
+    public void testCopyFactory() throws Exception {
+        NodeFactory factory = new NodeFactory();
+        ClassfileLoader loader = new AggregatingClassfileLoader();
+        loader.addLoadListener(new LoadListenerVisitorAdapter(new CodeDependencyCollector(factory)));
+        loader.load(Collections.singleton(NEW_CLASSPATH));
+        versions.publish(factory);
+
+        GraphVersion version = versions.acquire();
+        NodeFactory copy;
+        try {
+            copy = version.copyFactory();
+        } finally {
+            version.release();
+        }
+
+        assertNotSame("copy", factory, copy);
+        assertEquals("packages", factory.getPackages().size(), copy.getPackages().size());
+        assertEquals("classes", factory.getClasses().size(), copy.getClasses().size());
+        assertEquals("features", factory.getFeatures().size(), copy.getFeatures().size());
+        assertEquals("graph", print(factory), print(copy));
+
+        for (ClassNode classNode : factory.getClasses().values()) {
+            ClassNode classCopy = copy.getClasses().get(classNode.getName());
+            assertNotSame(classNode.getName(), classNode, classCopy);
+            assertEquals(classNode.getName() + " confirmed", classNode.isConfirmed(), classCopy.isConfirmed());
+            assertEquals(classNode.getName() + " parents", classNode.getParents().size(), classCopy.getParents().size());
+        }
+
+        copy.createClass("z.Z", true);
+        assertFalse("copy leaked into original", factory.getClasses().containsKey("z.Z"));
+    }
+
+    public void testConcurrentReadersAndWriter() throws Exception {
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+
+        NodeFactory initial = new NodeFactory();
+        initial.createClass("a.A0", true);
+        versions.publish(initial);
+
+        Thread[] readers = new Thread[NB_THREADS];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = new Thread() {
+                public void run() {
+                    try {
+                        for (int j = 0; j < NB_ITERATIONS; j++) {
+                            GraphVersion version = versions.acquire();
+                            try {
+                                NodeFactory factory = version.getFactory();
+                                int expected = factory.getClasses().size();
+                                Thread.yield();
+                                assertEquals(version.toString(), expected, factory.getClasses().size());
+                                assertEquals(version.toString(), version.getVersion(), expected);
+                            } finally {
+                                version.release();
+                            }
+                        }
+                    } catch (Throwable ex) {
+                        errors.add(ex);
+                    }
+                }
+            };
+            readers[i].start();
+        }
+
+        for (int i = 1; i < NB_ITERATIONS; i++) {
+            synchronized (versions) {
+                GraphVersion current = versions.acquire();
+                NodeFactory next;
+                try {
+                    next = current.copyFactory();
+                } finally {
+                    current.release();
+                }
+                next.createClass("a.A" + i, true);
+                versions.publish(next);
+            }
+        }
+
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertEquals("errors: " + errors, 0, errors.size());
+        assertEquals("current version", NB_ITERATIONS, versions.getCurrentVersion());
+        assertEquals("live versions", 1, versions.getNbLiveVersions());
+    }
+
+    private String print(NodeFactory factory) {
+        StringWriter out = new StringWriter();
+        new TextPrinter(new PrintWriter(out)).traverseNodes(factory.getPackages().values());
+        return out.toString();
+    }
+}
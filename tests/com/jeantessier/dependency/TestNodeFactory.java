@@ -52,6 +52,16 @@ public class TestNodeFactory extends TestCase {
         assertEquals("outbounds", 0, node.getOutboundDependencies().size());
     }
 
+    public void testNodeNamesAreInterned() {
+        String featureName = "a.A.a()";
+
+        FeatureNode node = factory.createFeature(new String(featureName));
+
+        assertSame("feature", featureName, node.getName());
+        assertSame("class", "a.A", node.getClassNode().getName());
+        assertSame("package", "a", node.getClassNode().getPackageNode().getName());
+    }
+
     public void testLookupPackage() {
         Node node1 = factory.createPackage("a");
         Node node2 = factory.createPackage("a");
@@ -115,6 +125,19 @@ public class TestNodeFactory extends TestCase {
         assertEquals("package name", "", node.getClassNode().getPackageNode().getName());
     }
 
+    public void testClassNameOfMethodWithQualifiedParameters() {
+        assertEquals("a.A", NodeFactory.getClassName("a.A.a(java.lang.String, java.util.List)"));
+        assertEquals("a.A", NodeFactory.getClassName("a.A.a()"));
+        assertEquals("A", NodeFactory.getClassName("A.a(java.lang.String)"));
+        assertEquals("a.A", NodeFactory.getClassName("a.A.a"));
+        assertEquals("", NodeFactory.getClassName("a"));
+    }
+
+    public void testClassNameOfMalformedMethod() {
+        assertEquals("a(java.lang", NodeFactory.getClassName("a(java.lang.String)"));
+        assertEquals("a.A.a(java.lang", NodeFactory.getClassName("a.A.a(java.lang.String"));
+    }
+
     public void testCreateIllegalFeature() {
         FeatureNode node = factory.createFeature("");
 
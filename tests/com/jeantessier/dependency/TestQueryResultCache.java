@@ -0,0 +1,192 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.text.*;
+
+import junit.framework.*;
+
+public class TestQueryResultCache extends TestCase {
+    private QueryResultCache cache;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        cache = new QueryResultCache(3, 100);
+    }
+
+    public void testMissThenHit() {
+        QueryResultCache.Key key = new QueryResultCache.Key("query.jsp").add("scope-includes", "/a/");
+
+        assertNull("first lookup", cache.get(1, key));
+        cache.put(1, key, "result");
+        assertEquals("second lookup", "result", cache.get(1, new QueryResultCache.Key("query.jsp").add("scope-includes", "/a/")));
+
+        assertEquals("hits", 1, cache.getHits());
+        assertEquals("misses", 1, cache.getMisses());
+        assertEquals("hit ratio", 0.5, cache.getHitRatio(), 0.001);
+        assertEquals("entries", 1, cache.getNbEntries());
+        assertEquals("size", "result".length(), cache.getSize());
+    }
+
+    public void testKeyNormalizesExpressions() {
+        QueryResultCache.Key key1 = new QueryResultCache.Key("query.jsp").addExpressions("scope-includes", "/a/,/b/");
+        QueryResultCache.Key key2 = new QueryResultCache.Key("query.jsp").addExpressions("scope-includes", "  /a/,   /b/ ");
+
+        assertEquals("keys", key1, key2);
+        assertEquals("hash codes", key1.hashCode(), key2.hashCode());
+    }
+
+    public void testKeyDistinguishesPagesAndParameters() {
+        QueryResultCache.Key key = new QueryResultCache.Key("query.jsp").add("package-scope", true);
+
+        assertFalse("page", key.equals(new QueryResultCache.Key("closure.jsp").add("package-scope", true)));
+        assertFalse("value", key.equals(new QueryResultCache.Key("query.jsp").add("package-scope", false)));
+        assertFalse("name", key.equals(new QueryResultCache.Key("query.jsp").add("class-scope", true)));
+    }
+
+    public void testURLPatternComesFromKey() {
+        QueryResultCache.Key key1 = new QueryResultCache.Key("query.jsp")
+            .add("package-scope", true)
+            .add("class-scope", false)
+            .addExpressions("scope-includes", "/a/")
+            .addExpressions("filter-excludes", "  /b/,   /c/ ");
+        QueryResultCache.Key key2 = new QueryResultCache.Key("query.jsp")
+            .add("package-scope", true)
+            .add("class-scope", false)
+            .addExpressions("scope-includes", "/d/")
+            .addExpressions("filter-excludes", "/b/,/c/");
+
+        assertEquals("query.jsp?package-scope=on&scope-includes=/^{0}/&filter-excludes=%2Fb%2F%2C+%2Fc%2F&submit=Run", key1.getURLPattern("scope-includes"));
+        assertEquals(key1.getURLPattern("scope-includes"), key2.getURLPattern("scope-includes"));
+    }
+
+    public void testURLPatternIsAMessageFormat() {
+        QueryResultCache.Key key = new QueryResultCache.Key("query.jsp")
+            .addExpressions("scope-includes", "/a/")
+            .addExpressions("filter-includes", "/{'x'}/");
+
+        String url = new MessageFormat(key.getURLPattern("scope-includes")).format(new Object[] {"b"});
+
+        assertEquals("query.jsp?scope-includes=/^b/&filter-includes=%2F%7B%27x%27%7D%2F&submit=Run", url);
+    }
+
+    public void testNewerVersionInvalidates() {
+        QueryResultCache.Key key = new QueryResultCache.Key("query.jsp");
+
+        cache.put(1, key, "old result");
+        assertNull("lookup in new version", cache.get(2, key));
+        assertEquals("entries", 0, cache.getNbEntries());
+        assertEquals("size", 0, cache.getSize());
+    }
+
+    public void testOlderVersionIsNotCached() {
+        QueryResultCache.Key key = new QueryResultCache.Key("query.jsp");
+
+        cache.get(2, key);
+        cache.put(1, key, "stale result");
+
+        assertEquals("entries", 0, cache.getNbEntries());
+        assertNull("lookup in older version", cache.get(1, key));
+    }
+
+    public void testInvalidate() {
+        QueryResultCache.Key key = new QueryResultCache.Key("query.jsp");
+
+        cache.put(1, key, "result");
+        cache.invalidate();
+
+        assertNull("lookup", cache.get(1, key));
+        assertEquals("size", 0, cache.getSize());
+    }
+
+    public void testEvictsLeastRecentlyUsedEntry() {
+        QueryResultCache.Key a = new QueryResultCache.Key("a");
+        QueryResultCache.Key b = new QueryResultCache.Key("b");
+        QueryResultCache.Key c = new QueryResultCache.Key("c");
+        QueryResultCache.Key d = new QueryResultCache.Key("d");
+
+        cache.put(1, a, "a");
+        cache.put(1, b, "b");
+        cache.put(1, c, "c");
+        cache.get(1, a);
+        cache.put(1, d, "d");
+
+        assertEquals("entries", 3, cache.getNbEntries());
+        assertEquals("evictions", 1, cache.getEvictions());
+        assertNotNull("a", cache.get(1, a));
+        assertNull("b", cache.get(1, b));
+        assertNotNull("c", cache.get(1, c));
+        assertNotNull("d", cache.get(1, d));
+    }
+
+    public void testEvictsToStayWithinSize() {
+        StringBuffer buffer = new StringBuffer();
+        for (int i = 0; i < 40; i++) {
+            buffer.append('x');
+        }
+        String result = buffer.toString();
+
+        cache.put(1, new QueryResultCache.Key("a"), result);
+        cache.put(1, new QueryResultCache.Key("b"), result);
+        cache.put(1, new QueryResultCache.Key("c"), result);
+
+        assertEquals("entries", 2, cache.getNbEntries());
+        assertEquals("size", 80, cache.getSize());
+        assertNull("a", cache.get(1, new QueryResultCache.Key("a")));
+    }
+
+    public void testResultLargerThanCacheIsNotKept() {
+        StringBuffer buffer = new StringBuffer();
+        for (int i = 0; i < 101; i++) {
+            buffer.append('x');
+        }
+
+        cache.put(1, new QueryResultCache.Key("a"), "a");
+        cache.put(1, new QueryResultCache.Key("b"), buffer.toString());
+
+        assertEquals("entries", 1, cache.getNbEntries());
+        assertEquals("size", 1, cache.getSize());
+    }
+
+    public void testReplaceUpdatesSize() {
+        QueryResultCache.Key key = new QueryResultCache.Key("a");
+
+        cache.put(1, key, "short");
+        cache.put(1, key, "much longer");
+
+        assertEquals("entries", 1, cache.getNbEntries());
+        assertEquals("size", "much longer".length(), cache.getSize());
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.util.*;
+
+import junit.framework.*;
+import org.apache.oro.text.perl.*;
+
+public class TestRegularExpressionMatcher extends TestCase {
+    private static final String[] EXPRESSIONS = {
+        "//",
+        "/^/",
+        "/$/",
+        "/^java\\.lang\\./",
+        "/^java\\.lang\\.Object$/",
+        "/^java\\.lang\\.Object\\b/",
+        "/Test/",
+        "/Test$/",
+        "/test/i",
+        "/\\.get\\w*\\(\\)$/",
+        "/^com\\.(foo|bar)\\./",
+        "m:^java\\.util:",
+        "m#String#",
+        "/\\$/",
+        "/\\$1$/",
+        "/^a\\/b/",
+        "/^A/s",
+        "/^ A/x",
+        "/^java\\.lang\\.String$/m",
+    };
+
+    private static final String[] NAMES = {
+        "",
+        "java",
+        "java.lang",
+        "java.lang.Object",
+        "java.lang.Object\n",
+        "java.lang.ObjectInputStream",
+        "java.lang.Object.toString()",
+        "java.lang.String",
+        "java.util.Map",
+        "java.util.Map$Entry",
+        "com.foo.Test",
+        "com.bar.TestCase",
+        "com.baz.test",
+        "com.baz.Inner$1",
+        "a/b",
+        "A",
+        "a.B.getName()",
+    };
+
+    public void testSameResultsAsPerl5Util() {
+        Perl5Util perl = new Perl5Util();
+
+        for (String expression : EXPRESSIONS) {
+            RegularExpressionMatcher matcher = new RegularExpressionMatcher(Collections.singletonList(expression));
+            for (String name : NAMES) {
+                assertEquals(expression + " on \"" + name + "\"", perl.match(expression, name), matcher.matches(name));
+            }
+        }
+    }
+
+    public void testAnyExpressionMatches() {
+        RegularExpressionMatcher matcher = new RegularExpressionMatcher(Arrays.asList("/^java\\.lang\\./", "/^java\\.lang$/", "/Test/", "/\\(\\)$/"));
+
+        assertFalse("empty", matcher.isEmpty());
+        assertTrue("java.lang", matcher.matches("java.lang"));
+        assertTrue("java.lang.Object", matcher.matches("java.lang.Object"));
+        assertFalse("java.langx", matcher.matches("java.langx"));
+        assertTrue("com.foo.Test", matcher.matches("com.foo.Test"));
+        assertTrue("a.B.getName()", matcher.matches("a.B.getName()"));
+        assertFalse("java.util.Map", matcher.matches("java.util.Map"));
+    }
+
+    public void testNoExpressions() {
+        RegularExpressionMatcher matcher = new RegularExpressionMatcher(Collections.<String>emptyList());
+
+        assertTrue("not empty", matcher.isEmpty());
+        assertFalse("matched", matcher.matches(""));
+        assertFalse("matched", matcher.matches("java.lang.Object"));
+    }
+
+    public void testMalformedExpression() {
+        try {
+            new RegularExpressionMatcher(Collections.singletonList("/(/"));
+            fail("Compiled malformed regular expression");
+        } catch (MatchException ex) {
+            assertEquals("message", "/(/", ex.getMessage());
+        }
+    }
+
+    public void testMissingDelimiters() {
+        try {
+            new RegularExpressionMatcher(Collections.singletonList("java.lang"));
+            fail("Compiled expression without delimiters");
+        } catch (MatchException ex) {
+            assertEquals("message", "java.lang", ex.getMessage());
+        }
+    }
+
+    public void testSharedBetweenThreads() throws InterruptedException {
+        final RegularExpressionMatcher matcher = new RegularExpressionMatcher(Arrays.asList("/^java\\.(lang|util)\\.\\w+$/", "/Test/"));
+        final List<String> failures = Collections.synchronizedList(new ArrayList<String>());
+
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                public void run() {
+                    for (int j = 0; j < 1000; j++) {
+                        if (!matcher.matches("java.lang.Object") || matcher.matches("java.io.File") || !matcher.matches("com.foo.Test" + j)) {
+                            failures.add(getName() + " at " + j);
+                        }
+                    }
+                }
+            };
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals("failures: " + failures, 0, failures.size());
+    }
+}
@@ -215,4 +215,51 @@ public class TestRegularExpressionSelectionCriteria extends TestCase {
         assertTrue("c.C in package scope",       !criteria.matches(c_C));
         assertTrue("c.C.c in package scope",     !criteria.matches(c_C_c));
     }
+
+    public void testSettingIncludesAfterMatching() {
+        criteria.setGlobalIncludes("/^a/");
+        assertTrue("a.A not in scope", criteria.matchesClassName("a.A"));
+        assertFalse("b.B in scope", criteria.matchesClassName("b.B"));
+
+        criteria.setGlobalIncludes("/^b/");
+        assertFalse("a.A in scope", criteria.matchesClassName("a.A"));
+        assertTrue("b.B not in scope", criteria.matchesClassName("b.B"));
+
+        criteria.setClassExcludes("/B$/");
+        assertFalse("b.B in scope", criteria.matchesClassName("b.B"));
+        assertTrue("b not in scope", criteria.matchesPackageName("b"));
+    }
+
+    public void testGettersAreReadOnly() {
+        criteria.setGlobalIncludes("/^a/");
+
+        try {
+            criteria.getGlobalIncludes().add("/^b/");
+            fail("Changed the expressions through a getter");
+        } catch (UnsupportedOperationException ex) {
+            // Expected
+        }
+
+        assertFalse("b in scope", criteria.matchesPackageName("b"));
+    }
+
+    public void testSetterCopiesList() {
+        criteria.setGlobalIncludes(include);
+        assertTrue("b not in scope", criteria.matchesPackageName("b"));
+
+        include.add("/^c/");
+        assertEquals("includes", 1, criteria.getGlobalIncludes().size());
+        assertFalse("c in scope", criteria.matchesPackageName("c"));
+    }
+
+    public void testMalformedRegularExpression() {
+        criteria.setGlobalIncludes("/(/");
+
+        try {
+            criteria.matchesClassName("a.A");
+            fail("Matched with malformed regular expression");
+        } catch (MatchException ex) {
+            // Expected
+        }
+    }
 }
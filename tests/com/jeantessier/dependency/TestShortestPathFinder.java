@@ -0,0 +1,303 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.jeantessier.dependency;
+
+import java.io.*;
+import java.util.*;
+
+import junit.framework.*;
+
+public class TestShortestPathFinder extends TestCase {
+    private NodeFactory factory;
+
+    private FeatureNode a;
+    private FeatureNode b;
+    private FeatureNode c;
+    private FeatureNode d;
+    private FeatureNode e;
+    private FeatureNode f;
+    private FeatureNode g;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        factory = new NodeFactory();
+
+        a = factory.createFeature("a.A.a");
+        b = factory.createFeature("b.B.b");
+        c = factory.createFeature("c.C.c");
+        d = factory.createFeature("d.D.d");
+        e = factory.createFeature("e.E.e");
+        f = factory.createFeature("f.F.f");
+        g = factory.createFeature("g.G.g");
+
+        // a --> b --> c --> d
+        // a --> e --> d
+        // a --> f --> g --> c
+        a.addDependency(b);
+        b.addDependency(c);
+        c.addDependency(d);
+        a.addDependency(e);
+        e.addDependency(d);
+        a.addDependency(f);
+        f.addDependency(g);
+        g.addDependency(c);
+    }
+
+    public void testShortestPath() {
+        ShortestPathFinder finder = find("/^a.A.a/", "/^d.D.d/", ShortestPathFinder.ALL_SHORTEST_PATHS);
+
+        assertEquals("distance", 2, finder.getDistance());
+        assertEquals("paths", "[[a.A.a, e.E.e, d.D.d]]", finder.getPaths().toString());
+
+        assertEquals("features", 3, finder.getFactory().getFeatures().size());
+        assertTrue("a --> e", finder.getFactory().createFeature("a.A.a").getOutboundDependencies().contains(finder.getFactory().createFeature("e.E.e")));
+        assertTrue("e --> d", finder.getFactory().createFeature("e.E.e").getOutboundDependencies().contains(finder.getFactory().createFeature("d.D.d")));
+    }
+
+    public void testAllShortestPaths() {
+        e.addDependency(c);
+
+        ShortestPathFinder finder = find("/^a.A.a/", "/^c.C.c/", ShortestPathFinder.ALL_SHORTEST_PATHS);
+
+        assertEquals("distance", 2, finder.getDistance());
+        assertEquals("paths", "[[a.A.a, b.B.b, c.C.c], [a.A.a, e.E.e, c.C.c]]", finder.getPaths().toString());
+        assertFalse("f", finder.getFactory().getFeatures().containsKey("f.F.f"));
+    }
+
+    public void testKShortestPaths() {
+        ShortestPathFinder finder = find("/^a.A.a/", "/^d.D.d/", 3);
+
+        assertEquals("distance", 2, finder.getDistance());
+        assertEquals("paths", "[[a.A.a, e.E.e, d.D.d], [a.A.a, b.B.b, c.C.c, d.D.d], [a.A.a, f.F.f, g.G.g, c.C.c, d.D.d]]", finder.getPaths().toString());
+        assertEquals("features", 7, finder.getFactory().getFeatures().size());
+    }
+
+    public void testMoreShortestPathsThanThereAre() {
+        ShortestPathFinder finder = find("/^a.A.a/", "/^d.D.d/", 10);
+
+        assertEquals("paths", 3, finder.getPaths().size());
+    }
+
+    public void testNoPath() {
+        ShortestPathFinder finder = find("/^d.D.d/", "/^a.A.a/", ShortestPathFinder.ALL_SHORTEST_PATHS);
+
+        assertEquals("distance", ShortestPathFinder.NO_PATH, finder.getDistance());
+        assertTrue("paths", finder.getPaths().isEmpty());
+        assertTrue("packages", finder.getFactory().getPackages().isEmpty());
+    }
+
+    public void testNoPathWithKShortestPaths() {
+        ShortestPathFinder finder = find("/^d.D.d/", "/^a.A.a/", 3);
+
+        assertEquals("distance", ShortestPathFinder.NO_PATH, finder.getDistance());
+        assertTrue("paths", finder.getPaths().isEmpty());
+    }
+
+    public void testPathsDoNotGoThroughOtherTargets() {
+        ShortestPathFinder finder = find("/^a.A.a/", "/^[cd].[CD].[cd]/", 10);
+
+        assertEquals("paths", "[[a.A.a, b.B.b, c.C.c], [a.A.a, e.E.e, d.D.d], [a.A.a, f.F.f, g.G.g, c.C.c]]", finder.getPaths().toString());
+    }
+
+    public void testPathsDoNotGoThroughOtherStarts() {
+        ShortestPathFinder finder = find("/^[ab].[AB].[ab]/", "/^c.C.c/", 10);
+
+        assertEquals("paths", "[[b.B.b, c.C.c], [a.A.a, f.F.f, g.G.g, c.C.c]]", finder.getPaths().toString());
+    }
+
+    public void testCycle() {
+        d.addDependency(a);
+
+        ShortestPathFinder finder = find("/^a.A.a/", "/^a.A.a/", ShortestPathFinder.ALL_SHORTEST_PATHS);
+
+        assertEquals("distance", 3, finder.getDistance());
+        assertEquals("paths", "[[a.A.a, e.E.e, d.D.d, a.A.a]]", finder.getPaths().toString());
+    }
+
+    public void testPackageGranularity() {
+        factory.createFeature("a.X.x").addDependency(factory.createClass("d.Y"));
+
+        ShortestPathFinder finder = new ShortestPathFinder(new RegularExpressionSelectionCriteria("/^a$/"), new RegularExpressionSelectionCriteria("/^d$/"));
+        finder.setGranularity(ShortestPathFinder.Granularity.PACKAGE);
+        finder.findPaths(factory.getPackages().values());
+
+        assertEquals("distance", 1, finder.getDistance());
+        assertEquals("paths", "[[a, d]]", finder.getPaths().toString());
+        assertTrue("a --> d", finder.getFactory().createPackage("a").getOutboundDependencies().contains(finder.getFactory().createPackage("d")));
+        assertTrue("classes", finder.getFactory().getClasses().isEmpty());
+    }
+
+    public void testClassGranularity() {
+        factory.createFeature("a.A.x").addDependency(factory.createClass("d.D"));
+
+        ShortestPathFinder finder = new ShortestPathFinder(new RegularExpressionSelectionCriteria("/^a.A$/"), new RegularExpressionSelectionCriteria("/^d.D$/"));
+        finder.setGranularity(ShortestPathFinder.Granularity.CLASS);
+        finder.findPaths(factory.getPackages().values());
+
+        assertEquals("paths", "[[a.A, d.D]]", finder.getPaths().toString());
+        assertTrue("features", finder.getFactory().getFeatures().isEmpty());
+    }
+
+    public void testClassGranularityIgnoresPackages() {
+        a.addDependency(factory.createPackage("d"));
+
+        ShortestPathFinder finder = new ShortestPathFinder(new RegularExpressionSelectionCriteria("/^a/"), new RegularExpressionSelectionCriteria("/^d/"));
+        finder.setGranularity(ShortestPathFinder.Granularity.CLASS);
+        finder.findPaths(factory.getPackages().values());
+
+        assertEquals("paths", "[[a.A, e.E, d.D]]", finder.getPaths().toString());
+    }
+
+    public void testVisitsLessThanClosure() {
+        FeatureNode previous = d;
+        for (int i = 0; i < 1000; i++) {
+            FeatureNode next = factory.createFeature("z.Z.z" + i);
+            previous.addDependency(next);
+            previous = next;
+        }
+
+        ShortestPathFinder finder = find("/^a.A.a/", "/^c.C.c/", ShortestPathFinder.ALL_SHORTEST_PATHS);
+
+        assertEquals("distance", 2, finder.getDistance());
+        assertTrue("visited " + finder.getNbVisitedNodes(), finder.getNbVisitedNodes() < 10);
+    }
+
+    public void testRandomGraph() {
+        NodeFactory randomFactory = new NodeFactory();
+
+        List<Node> nodes = new ArrayList<Node>();
+        for (int i = 0; i < 30; i++) {
+            nodes.add(randomFactory.createFeature("p.C.f" + (i < 10 ? "0" : "") + i));
+        }
+
+        Random random = new Random(42);
+        for (int i = 0; i < 70; i++) {
+            nodes.get(random.nextInt(nodes.size())).addDependency(nodes.get(random.nextInt(nodes.size())));
+        }
+
+        String[][] queries = {
+            {"/f0[0-2]$/", "/f2[0-9]$/"},
+            {"/f05$/", "/f05$/"},
+            {"/f1[0-9]$/", "/f0[5-9]$/"},
+            {"/f2[5-9]$/", "/f0[0-4]$/"},
+        };
+
+        for (String[] query : queries) {
+            List<List<Node>> expected = enumeratePaths(randomFactory, query[0], query[1]);
+
+            ShortestPathFinder allShortest = new ShortestPathFinder(new RegularExpressionSelectionCriteria(query[0]), new RegularExpressionSelectionCriteria(query[1]));
+            allShortest.findPaths(randomFactory.getPackages().values());
+
+            Set<List<Node>> expectedShortest = new HashSet<List<Node>>();
+            for (List<Node> path : expected) {
+                if (path.size() == expected.get(0).size()) {
+                    expectedShortest.add(path);
+                }
+            }
+            assertEquals(Arrays.asList(query) + " all shortest", expectedShortest, new HashSet<List<Node>>(allShortest.getPaths()));
+
+            ShortestPathFinder kShortest = new ShortestPathFinder(new RegularExpressionSelectionCriteria(query[0]), new RegularExpressionSelectionCriteria(query[1]));
+            kShortest.setMaximumNbPaths(12);
+            kShortest.findPaths(randomFactory.getPackages().values());
+
+            List<Integer> expectedLengths = new ArrayList<Integer>();
+            for (List<Node> path : expected.subList(0, Math.min(12, expected.size()))) {
+                expectedLengths.add(path.size());
+            }
+            List<Integer> actualLengths = new ArrayList<Integer>();
+            for (List<Node> path : kShortest.getPaths()) {
+                actualLengths.add(path.size());
+                assertTrue(Arrays.asList(query) + " " + path, expected.contains(path));
+            }
+            assertEquals(Arrays.asList(query) + " k shortest", expectedLengths, actualLengths);
+            assertEquals(Arrays.asList(query) + " distinct", kShortest.getPaths().size(), new HashSet<List<Node>>(kShortest.getPaths()).size());
+        }
+    }
+
+    public void testPrint() {
+        ShortestPathFinder finder = find("/^a.A.a/", "/^d.D.d/", ShortestPathFinder.ALL_SHORTEST_PATHS);
+
+        StringWriter out = new StringWriter();
+        new TextPrinter(new PrintWriter(out)).traverseNodes(finder.getFactory().getPackages().values());
+
+        assertTrue(out.toString(), out.toString().contains("--> e.E.e"));
+    }
+
+    private ShortestPathFinder find(String startIncludes, String targetIncludes, int maximumNbPaths) {
+        ShortestPathFinder result = new ShortestPathFinder(new RegularExpressionSelectionCriteria(startIncludes), new RegularExpressionSelectionCriteria(targetIncludes));
+        result.setMaximumNbPaths(maximumNbPaths);
+        result.findPaths(factory.getPackages().values());
+        return result;
+    }
+
+    /**
+     *  Every path by brute force, shortest first.
+     */
+    private List<List<Node>> enumeratePaths(NodeFactory factory, String startIncludes, String targetIncludes) {
+        SelectionCriteria startCriteria = new RegularExpressionSelectionCriteria(startIncludes);
+        SelectionCriteria targetCriteria = new RegularExpressionSelectionCriteria(targetIncludes);
+
+        final List<List<Node>> result = new ArrayList<List<Node>>();
+        for (FeatureNode node : factory.getFeatures().values()) {
+            if (startCriteria.matches(node)) {
+                LinkedList<Node> path = new LinkedList<Node>();
+                path.add(node);
+                enumeratePaths(path, startCriteria, targetCriteria, result);
+            }
+        }
+
+        Collections.sort(result, new Comparator<List<Node>>() {
+            public int compare(List<Node> path1, List<Node> path2) {
+                return path1.size() - path2.size();
+            }
+        });
+
+        return result;
+    }
+
+    private void enumeratePaths(LinkedList<Node> path, SelectionCriteria startCriteria, SelectionCriteria targetCriteria, List<List<Node>> result) {
+        for (Node node : path.getLast().getOutboundDependencies()) {
+            FeatureNode featureNode = (FeatureNode) node;
+            if (targetCriteria.matches(featureNode) && (!path.contains(featureNode) || (path.size() > 1 && featureNode.equals(path.getFirst())))) {
+                List<Node> newPath = new ArrayList<Node>(path);
+                newPath.add(featureNode);
+                result.add(newPath);
+            } else if (!startCriteria.matches(featureNode) && !targetCriteria.matches(featureNode) && !path.contains(featureNode)) {
+                path.addLast(featureNode);
+                enumeratePaths(path, startCriteria, targetCriteria, result);
+                path.removeLast();
+            }
+        }
+    }
+}
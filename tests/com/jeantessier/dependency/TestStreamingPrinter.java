@@ -0,0 +1,183 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependency;
+
+import java.io.*;
+import java.util.*;
+
+import junit.framework.*;
+
+import com.jeantessier.classreader.*;
+
+public class TestStreamingPrinter extends TestCase {
+    private static final String TEST_CLASSPATH = "tests" + File.separator + "JarJarDiff" + File.separator + "new";
+
+    private NodeFactory factory;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        factory = new NodeFactory();
+
+        ClassNode a_A = factory.createClass("a.A", true);
+        FeatureNode a_A_a = factory.createFeature("a.A.a()", true);
+        FeatureNode a_A_b = factory.createFeature("a.A.b(java.lang.String)", true);
+
+        ClassNode b_B = factory.createClass("b.B", true);
+        FeatureNode b_B_b = factory.createFeature("b.B.b", true);
+
+        ClassNode c_C = factory.createClass("c.C");
+        FeatureNode c_C_c = factory.createFeature("c.C.c");
+
+        factory.createPackage("d", true);
+        factory.createClass("d.D", true);
+
+        a_A.addDependency(b_B);
+        a_A_a.addDependency(b_B_b);
+        a_A_a.addDependency(c_C_c);
+        a_A_b.addDependency(a_A_a);
+        b_B_b.addDependency(c_C_c);
+        b_B_b.addDependency(a_A_a);
+        c_C_c.addDependency(a_A);
+        c_C_c.addDependency(b_B_b);
+        c_C.getPackageNode().addDependency(a_A.getPackageNode());
+    }
+
+    public void testTextOutput() {
+        assertEquals(printText(factory), printText(compact(factory)));
+    }
+
+    public void testXMLOutput() {
+        assertEquals(printXML(factory), printXML(compact(factory)));
+    }
+
+    public void testMaximizedOutput() {
+        new LinkMaximizer().traverseNodes(factory.getPackages().values());
+
+        assertEquals("text", printText(factory), printText(compact(factory)));
+        assertEquals("XML", printXML(factory), printXML(compact(factory)));
+    }
+
+    public void testExtractedOutput() {
+        NodeFactory factory = new NodeFactory();
+        ClassfileLoader loader = new TransientClassfileLoader();
+        loader.addLoadListener(new LoadListenerVisitorAdapter(new CodeDependencyCollector(factory)));
+        loader.load(Collections.singleton(TEST_CLASSPATH));
+
+        CompactGraphBuilder builder = new CompactGraphBuilder();
+        loader = new TransientClassfileLoader();
+        loader.addLoadListener(builder);
+        loader.load(Collections.singleton(TEST_CLASSPATH));
+
+        assertEquals("text", printText(factory), printText(builder.getGraph()));
+        assertEquals("XML", printXML(factory), printXML(builder.getGraph()));
+    }
+
+    public void testHideEmptyNodes() {
+        StringWriter expected = new StringWriter();
+        TextPrinter printer = new TextPrinter(new PrintWriter(expected));
+        printer.setShowEmptyNodes(false);
+        printer.traverseNodes(factory.getPackages().values());
+
+        StringWriter actual = new StringWriter();
+        StreamingTextPrinter streamingPrinter = new StreamingTextPrinter(new PrintWriter(actual));
+        streamingPrinter.setShowEmptyNodes(false);
+        streamingPrinter.traverseGraph(compact(factory));
+
+        assertFalse("d.D", actual.toString().contains("D"));
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    public void testHideInbounds() {
+        StringWriter expected = new StringWriter();
+        XMLPrinter printer = new XMLPrinter(new PrintWriter(expected));
+        printer.setShowInbounds(false);
+        printer.setIndentText("\t");
+        printer.traverseNodes(factory.getPackages().values());
+
+        StringWriter actual = new StringWriter();
+        StreamingXMLPrinter streamingPrinter = new StreamingXMLPrinter(new PrintWriter(actual));
+        streamingPrinter.setShowInbounds(false);
+        streamingPrinter.setIndentText("\t");
+        streamingPrinter.traverseGraph(compact(factory));
+
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    public void testHideOutboundsAndInferred() {
+        StringWriter expected = new StringWriter();
+        TextPrinter printer = new TextPrinter(new PrintWriter(expected));
+        printer.setShowOutbounds(false);
+        printer.setShowInferred(false);
+        printer.traverseNodes(factory.getPackages().values());
+
+        StringWriter actual = new StringWriter();
+        StreamingTextPrinter streamingPrinter = new StreamingTextPrinter(new PrintWriter(actual));
+        streamingPrinter.setShowOutbounds(false);
+        streamingPrinter.setShowInferred(false);
+        streamingPrinter.traverseGraph(compact(factory));
+
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    private CompactGraph compact(NodeFactory factory) {
+        CompactGraphBuilder builder = new CompactGraphBuilder();
+        builder.add(factory);
+        return builder.getGraph();
+    }
+
+    private String printText(NodeFactory factory) {
+        StringWriter out = new StringWriter();
+        new TextPrinter(new PrintWriter(out)).traverseNodes(factory.getPackages().values());
+        return out.toString();
+    }
+
+    private String printText(DependencyGraph graph) {
+        StringWriter out = new StringWriter();
+        new StreamingTextPrinter(new PrintWriter(out)).traverseGraph(graph);
+        return out.toString();
+    }
+
+    private String printXML(NodeFactory factory) {
+        StringWriter out = new StringWriter();
+        new XMLPrinter(new PrintWriter(out)).traverseNodes(factory.getPackages().values());
+        return out.toString();
+    }
+
+    private String printXML(DependencyGraph graph) {
+        StringWriter out = new StringWriter();
+        new StreamingXMLPrinter(new PrintWriter(out)).traverseGraph(graph);
+        return out.toString();
+    }
+}
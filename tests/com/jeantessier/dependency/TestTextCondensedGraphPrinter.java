@@ -0,0 +1,111 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.jeantessier.dependency;
+
+import java.io.*;
+
+import junit.framework.*;
+
+public class TestTextCondensedGraphPrinter extends TestCase {
+    private NodeFactory factory;
+    private StringWriter out;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        factory = new NodeFactory();
+        out = new StringWriter();
+
+        PackageNode a = factory.createPackage("a");
+        PackageNode b = factory.createPackage("b");
+        PackageNode c = factory.createPackage("c");
+        PackageNode d = factory.createPackage("d");
+
+        a.addDependency(b);
+        b.addDependency(a);
+        b.addDependency(c);
+        d.addDependency(a);
+        d.addDependency(c);
+    }
+
+    public void testVisitCondensedGraph() throws IOException {
+        TextCondensedGraphPrinter printer = new TextCondensedGraphPrinter(new PrintWriter(out));
+        printer.visitCondensedGraph(new GraphCondenser().condensePackages(factory.getPackages().values()));
+
+        int            lineNumber = 0;
+        BufferedReader in         = new BufferedReader(new StringReader(out.toString()));
+
+        assertEquals("line " + ++lineNumber, "layer 0", in.readLine());
+        assertEquals("line " + ++lineNumber, "    c", in.readLine());
+        assertEquals("line " + ++lineNumber, "layer 1", in.readLine());
+        assertEquals("line " + ++lineNumber, "    a (2 nodes)", in.readLine());
+        assertEquals("line " + ++lineNumber, "        a", in.readLine());
+        assertEquals("line " + ++lineNumber, "        b", in.readLine());
+        assertEquals("line " + ++lineNumber, "        --> c", in.readLine());
+        assertEquals("line " + ++lineNumber, "layer 2", in.readLine());
+        assertEquals("line " + ++lineNumber, "    d", in.readLine());
+        assertEquals("line " + ++lineNumber, "        --> a (2 nodes)", in.readLine());
+        assertEquals("line " + ++lineNumber, "        --> c", in.readLine());
+        assertEquals("line " + ++lineNumber, "", in.readLine());
+        assertEquals("line " + ++lineNumber, "longest chain", in.readLine());
+        assertEquals("line " + ++lineNumber, "    d", in.readLine());
+        assertEquals("line " + ++lineNumber, "    --> a (2 nodes)", in.readLine());
+        assertEquals("line " + ++lineNumber, "    --> c", in.readLine());
+
+        assertEquals("End of file", null, in.readLine());
+    }
+
+    public void testVisitCondensedGraphWithIndentText() throws IOException {
+        CondensedGraphPrinter printer = new TextCondensedGraphPrinter(new PrintWriter(out));
+        printer.setIndentText("*");
+        printer.visitCondensedGraph(new GraphCondenser().condensePackages(factory.getPackages().values()));
+
+        int            lineNumber = 0;
+        BufferedReader in         = new BufferedReader(new StringReader(out.toString()));
+
+        assertEquals("line " + ++lineNumber, "layer 0", in.readLine());
+        assertEquals("line " + ++lineNumber, "*c", in.readLine());
+        assertEquals("line " + ++lineNumber, "layer 1", in.readLine());
+        assertEquals("line " + ++lineNumber, "*a (2 nodes)", in.readLine());
+        assertEquals("line " + ++lineNumber, "**a", in.readLine());
+        assertEquals("line " + ++lineNumber, "**b", in.readLine());
+        assertEquals("line " + ++lineNumber, "**--> c", in.readLine());
+    }
+
+    public void testVisitEmptyGraph() throws IOException {
+        TextCondensedGraphPrinter printer = new TextCondensedGraphPrinter(new PrintWriter(out));
+        printer.visitCondensedGraph(new GraphCondenser().condensePackages(new NodeFactory().getPackages().values()));
+
+        assertEquals("output", "", out.toString());
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.jeantessier.dependency;
+
+import java.io.*;
+
+import javax.xml.parsers.*;
+
+import junit.framework.*;
+import org.xml.sax.*;
+
+public class TestXMLCondensedGraphPrinter extends TestCase implements ErrorHandler {
+    private static final String SPECIFIC_ENCODING   = "iso-latin-1";
+    private static final String SPECIFIC_DTD_PREFIX = "./etc";
+
+    private XMLReader    reader;
+    private NodeFactory  factory;
+    private StringWriter out;
+
+    protected void setUp() throws Exception {
+        boolean validate = Boolean.getBoolean("DEPENDENCYFINDER_TESTS_VALIDATE");
+
+        reader = SAXParserFactory.newInstance().newSAXParser().getXMLReader();
+        reader.setFeature("http://xml.org/sax/features/validation", validate);
+        reader.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", validate);
+        reader.setErrorHandler(this);
+
+        factory = new NodeFactory();
+        out     = new StringWriter();
+
+        ClassNode a = factory.createClass("a.A");
+        ClassNode b = factory.createClass("b.B");
+        ClassNode c = factory.createClass("c.C");
+
+        a.addDependency(b);
+        b.addDependency(a);
+        b.addDependency(c);
+    }
+
+    public void testSpecificEncodingAndDTDPrefix() throws IOException {
+        new XMLCondensedGraphPrinter(new PrintWriter(out), SPECIFIC_ENCODING, SPECIFIC_DTD_PREFIX);
+
+        int            lineNumber = 0;
+        BufferedReader in         = new BufferedReader(new StringReader(out.toString()));
+
+        assertEquals("line " + ++lineNumber, "<?xml version=\"1.0\" encoding=\"iso-latin-1\" ?>", in.readLine());
+        assertEquals("line " + ++lineNumber, "", in.readLine());
+        assertEquals("line " + ++lineNumber, "<!DOCTYPE condensation SYSTEM \"./etc/condensation.dtd\">", in.readLine());
+    }
+
+    public void testVisitCondensedGraph() throws Exception {
+        XMLCondensedGraphPrinter printer = new XMLCondensedGraphPrinter(new PrintWriter(out), XMLCondensedGraphPrinter.DEFAULT_ENCODING, SPECIFIC_DTD_PREFIX);
+        printer.visitCondensedGraph(new GraphCondenser().condenseClasses(factory.getPackages().values()));
+
+        String xmlDocument = out.toString();
+        reader.parse(new InputSource(new StringReader(xmlDocument)));
+
+        int            lineNumber = 0;
+        BufferedReader in         = new BufferedReader(new StringReader(xmlDocument));
+
+        assertEquals("line " + ++lineNumber, "<?xml version=\"1.0\" encoding=\"utf-8\" ?>", in.readLine());
+        assertEquals("line " + ++lineNumber, "", in.readLine());
+        assertEquals("line " + ++lineNumber, "<!DOCTYPE condensation SYSTEM \"./etc/condensation.dtd\">", in.readLine());
+        assertEquals("line " + ++lineNumber, "", in.readLine());
+        assertEquals("line " + ++lineNumber, "<condensation>", in.readLine());
+        assertEquals("line " + ++lineNumber, "    <layer level=\"0\">", in.readLine());
+        assertEquals("line " + ++lineNumber, "        <component id=\"c1\">", in.readLine());
+        assertEquals("line " + ++lineNumber, "            <node type=\"class\">c.C</node>", in.readLine());
+        assertEquals("line " + ++lineNumber, "        </component>", in.readLine());
+        assertEquals("line " + ++lineNumber, "    </layer>", in.readLine());
+        assertEquals("line " + ++lineNumber, "    <layer level=\"1\">", in.readLine());
+        assertEquals("line " + ++lineNumber, "        <component id=\"c2\">", in.readLine());
+        assertEquals("line " + ++lineNumber, "            <node type=\"class\">a.A</node>", in.readLine());
+        assertEquals("line " + ++lineNumber, "            <node type=\"class\">b.B</node>", in.readLine());
+        assertEquals("line " + ++lineNumber, "            <outbound component=\"c1\"/>", in.readLine());
+        assertEquals("line " + ++lineNumber, "        </component>", in.readLine());
+        assertEquals("line " + ++lineNumber, "    </layer>", in.readLine());
+        assertEquals("line " + ++lineNumber, "    <longest-chain>", in.readLine());
+        assertEquals("line " + ++lineNumber, "        <step component=\"c2\"/>", in.readLine());
+        assertEquals("line " + ++lineNumber, "        <step component=\"c1\"/>", in.readLine());
+        assertEquals("line " + ++lineNumber, "    </longest-chain>", in.readLine());
+        assertEquals("line " + ++lineNumber, "</condensation>", in.readLine());
+
+        assertEquals("End of file", null, in.readLine());
+    }
+
+    public void error(SAXParseException ex) {
+        fail(ex.toString());
+    }
+
+    public void fatalError(SAXParseException ex) {
+        fail(ex.toString());
+    }
+
+    public void warning(SAXParseException ex) {
+        fail(ex.toString());
+    }
+}
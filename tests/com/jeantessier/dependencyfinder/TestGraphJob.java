@@ -0,0 +1,204 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependencyfinder;
+
+import java.io.*;
+import java.util.*;
+
+import junit.framework.*;
+
+import com.jeantessier.classreader.*;
+import com.jeantessier.dependency.*;
+
+public class TestGraphJob extends TestCase {
+    public static final String TEST_DIR = "tests" + File.separator + "JarJarDiff";
+    public static final String GRAPH_FILENAME = "tests" + File.separator + "com" + File.separator + "jeantessier" + File.separator + "dependencyfinder" + File.separator + "web" + File.separator + "graph.xml";
+
+    public void testExtract() {
+        String filename = TEST_DIR + File.separator + "onelevel.jar";
+        assertTrue(filename + " missing", new File(filename).exists());
+
+        ExtractionJob job = new ExtractionJob(filename);
+        assertEquals("status before", GraphJob.Status.PENDING, job.getStatus());
+        assertFalse("finished before", job.isFinished());
+
+        job.run();
+
+        assertEquals("status", GraphJob.Status.DONE, job.getStatus());
+        assertTrue("finished", job.isFinished());
+        assertNotNull("published", job.getPublished());
+        assertEquals("groups", 1, job.getNbGroups());
+        assertEquals("group name", filename, job.getCurrentGroupName());
+        assertEquals("group size", 33, job.getCurrentGroupSize());
+        assertEquals("group count", 33, job.getCurrentGroupCount());
+        assertEquals("group ratio", 100, job.getCurrentGroupRatio());
+        assertEquals("files", 33, job.getNbFiles());
+        assertEquals("classes", 14, job.getNbClasses());
+        assertEquals("messages", Collections.singletonList("Searching " + filename + " (33 files) ..."), job.getMessages());
+    }
+
+    public void testExtractNestedGroups() {
+        String filename = TEST_DIR + File.separator + "twolevel.zip";
+        assertTrue(filename + " missing", new File(filename).exists());
+
+        ExtractionJob job = new ExtractionJob(filename);
+        job.run();
+
+        assertEquals("status", GraphJob.Status.DONE, job.getStatus());
+        assertEquals("groups", 1, job.getNbGroups());
+        assertEquals("group count", 1, job.getCurrentGroupCount());
+        assertEquals("files", 32, job.getNbFiles());
+        assertEquals("classes", 14, job.getNbClasses());
+    }
+
+    public void testCancelBeforeRun() {
+        ExtractionJob job = new ExtractionJob(TEST_DIR + File.separator + "onelevel.jar");
+
+        job.cancel();
+        assertEquals("status after cancel", GraphJob.Status.CANCELLED, job.getStatus());
+
+        job.run();
+
+        assertEquals("status", GraphJob.Status.CANCELLED, job.getStatus());
+        assertEquals("files", 0, job.getNbFiles());
+        assertNull("published", job.getPublished());
+    }
+
+    public void testCancelWhileRunning() {
+        ExtractionJob job = new ExtractionJob(TEST_DIR + File.separator + "onelevel.jar") {
+            protected void execute() throws Exception {
+                cancel();
+                super.execute();
+            }
+        };
+        job.run();
+
+        assertEquals("status", GraphJob.Status.CANCELLED, job.getStatus());
+        assertEquals("files", 0, job.getNbFiles());
+        assertNull("published", job.getPublished());
+    }
+
+    public void testCancelLoad() {
+        assertTrue(GRAPH_FILENAME + " missing", new File(GRAPH_FILENAME).exists());
+
+        GraphJob job = new GraphJob("load") {
+            protected void execute() throws Exception {
+                NodeLoader loader = new NodeLoader(new NodeFactory());
+                loader.addDependencyListener(getListener());
+                loader.addDependencyListener(new DependencyListener() {
+                    public void beginSession(DependencyEvent event) {}
+                    public void beginClass(DependencyEvent event) {
+                        cancel();
+                    }
+                    public void dependency(DependencyEvent event) {}
+                    public void endClass(DependencyEvent event) {}
+                    public void endSession(DependencyEvent event) {}
+                });
+                loader.load(GRAPH_FILENAME);
+            }
+        };
+        job.run();
+
+        assertEquals("status", GraphJob.Status.CANCELLED, job.getStatus());
+        assertTrue("classes", job.getNbClasses() <= 1);
+    }
+
+    public void testFailure() {
+        final IllegalStateException failure = new IllegalStateException("test failure");
+
+        GraphJob job = new GraphJob("failing") {
+            protected void execute() {
+                throw failure;
+            }
+        };
+        job.run();
+
+        assertEquals("status", GraphJob.Status.FAILED, job.getStatus());
+        assertSame("failure", failure, job.getFailure());
+        assertTrue("finished", job.isFinished());
+    }
+
+    public void testMessagesAreBounded() {
+        GraphJob job = new GraphJob("verbose") {
+            protected void execute() {
+                for (int i = 0; i < GraphJob.MAX_MESSAGES + 5; i++) {
+                    log("message " + i);
+                }
+            }
+        };
+        job.run();
+
+        List<String> messages = job.getMessages();
+        assertEquals("nb messages", GraphJob.MAX_MESSAGES, messages.size());
+        assertEquals("first message", "message 5", messages.get(0));
+        assertEquals("last message", "message " + (GraphJob.MAX_MESSAGES + 4), messages.get(messages.size() - 1));
+    }
+
+    public void testElapsedTime() {
+        GraphJob job = new ExtractionJob(TEST_DIR + File.separator + "onelevel.jar");
+        assertEquals("before", 0, job.getElapsedTime());
+
+        job.run();
+
+        assertTrue("start time", job.getStartTime() > 0);
+        assertTrue("elapsed time", job.getElapsedTime() >= 0);
+        assertEquals("stable elapsed time", job.getElapsedTime(), job.getElapsedTime());
+    }
+
+    static class ExtractionJob extends GraphJob {
+        private String filename;
+        private NodeFactory published;
+
+        public ExtractionJob(String filename) {
+            super("extraction of " + filename);
+            this.filename = filename;
+        }
+
+        public NodeFactory getPublished() {
+            return published;
+        }
+
+        protected void execute() throws Exception {
+            NodeFactory factory = new NodeFactory();
+
+            ClassfileLoader loader = new TransientClassfileLoader();
+            loader.addLoadListener(getListener());
+            loader.addLoadListener(new LoadListenerVisitorAdapter(new CodeDependencyCollector(factory)));
+            loader.load(Collections.singleton(filename));
+
+            checkCancelled();
+            published = factory;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.dependencyfinder;
+
+import java.util.concurrent.*;
+
+import junit.framework.*;
+
+public class TestGraphJobService extends TestCase {
+    private GraphJobService service;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        service = new GraphJobService();
+    }
+
+    protected void tearDown() throws Exception {
+        try {
+            service.shutdown();
+        } finally {
+            super.tearDown();
+        }
+    }
+
+    public void testNoJob() {
+        assertNull("current job", service.getCurrentJob());
+    }
+
+    public void testSubmitRunsJobInBackground() throws Exception {
+        BlockingJob job = new BlockingJob();
+
+        assertTrue("accepted", service.submit(job));
+        assertSame("current job", job, service.getCurrentJob());
+
+        assertTrue("started", job.started.await(10, TimeUnit.SECONDS));
+        assertNotSame("thread", Thread.currentThread(), job.thread);
+        assertTrue("daemon", job.thread.isDaemon());
+
+        job.finish.countDown();
+        waitFor(job);
+
+        assertEquals("status", GraphJob.Status.DONE, job.getStatus());
+        assertSame("current job after", job, service.getCurrentJob());
+    }
+
+    public void testRefusesJobWhileOneIsRunning() throws Exception {
+        BlockingJob first = new BlockingJob();
+        BlockingJob second = new BlockingJob();
+
+        assertTrue("first accepted", service.submit(first));
+        assertTrue("first started", first.started.await(10, TimeUnit.SECONDS));
+        assertFalse("second accepted", service.submit(second));
+        assertSame("current job", first, service.getCurrentJob());
+
+        first.finish.countDown();
+        waitFor(first);
+
+        second.finish.countDown();
+        assertTrue("second accepted after first finished", service.submit(second));
+        waitFor(second);
+        assertEquals("second status", GraphJob.Status.DONE, second.getStatus());
+    }
+
+    public void testCancelRunningJob() throws Exception {
+        BlockingJob job = new BlockingJob();
+
+        service.submit(job);
+        assertTrue("started", job.started.await(10, TimeUnit.SECONDS));
+
+        job.cancel();
+        job.finish.countDown();
+        waitFor(job);
+
+        assertEquals("status", GraphJob.Status.CANCELLED, job.getStatus());
+    }
+
+    private void waitFor(GraphJob job) throws InterruptedException {
+        for (int i = 0; i < 1000 && !job.isFinished(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(job.getName() + " finished", job.isFinished());
+    }
+
+    private static class BlockingJob extends GraphJob {
+        private CountDownLatch started = new CountDownLatch(1);
+        private CountDownLatch finish = new CountDownLatch(1);
+        private volatile Thread thread;
+
+        public BlockingJob() {
+            super("blocking job");
+        }
+
+        protected void execute() throws Exception {
+            thread = Thread.currentThread();
+            started.countDown();
+            finish.await();
+            checkCancelled();
+        }
+    }
+}
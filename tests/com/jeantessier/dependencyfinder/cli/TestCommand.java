@@ -33,9 +33,12 @@
 package com.jeantessier.dependencyfinder.cli;
 
 import java.io.*;
+import java.util.*;
 
 import junit.framework.*;
 
+import com.jeantessier.commandline.*;
+
 public class TestCommand extends TestCase {
     private File outFile;
     private String[] args;
@@ -76,6 +79,22 @@ public class TestCommand extends TestCase {
         assertFalse("Output file " + outFile + " exists after test", outFile.exists());
     }
 
+    public void testValidThreads() {
+        assertTrue(createThreadsCommand().validateCommandLine(new String[] {"-threads", "4"}, new PrintStream(new ByteArrayOutputStream())));
+    }
+
+    public void testZeroThreads() {
+        assertFalse(createThreadsCommand().validateCommandLine(new String[] {"-threads", "0"}, new PrintStream(new ByteArrayOutputStream())));
+    }
+
+    public void testNegativeThreads() {
+        assertFalse(createThreadsCommand().validateCommandLine(new String[] {"-threads", "-2"}, new PrintStream(new ByteArrayOutputStream())));
+    }
+
+    public void testNonNumericThreads() {
+        assertFalse(createThreadsCommand().validateCommandLine(new String[] {"-threads", "many"}, new PrintStream(new ByteArrayOutputStream())));
+    }
+
     public void testOutCreatedAfterAccess() throws Exception {
         Command sut = new Command() {
             protected void doProcessing() throws Exception {
@@ -91,4 +110,27 @@ public class TestCommand extends TestCase {
         sut.run(args);
         assertTrue("Output file " + outFile + " does not exist after test", outFile.exists());
     }
+
+    private Command createThreadsCommand() {
+        return new Command() {
+            protected void populateCommandLineSwitches() {
+                super.populateCommandLineSwitches();
+                getCommandLine().addSingleValueSwitch("threads");
+            }
+
+            protected Collection<CommandLineException> parseCommandLine(String[] args) {
+                Collection<CommandLineException> exceptions = super.parseCommandLine(args);
+                exceptions.addAll(validateCommandLineForThreads());
+                return exceptions;
+            }
+
+            protected void doProcessing() throws Exception {
+                // Do Nothing
+            }
+
+            protected void showSpecificUsage(PrintStream out) {
+                // Do Nothing
+            }
+        };
+    }
 }
@@ -71,6 +71,7 @@ public abstract class TestBase extends TestCase {
     protected String rightFeatureName;
 
     protected NodeFactory factory;
+    protected GraphVersions graphs;
     protected ServletUnitClient client;
     protected WebRequest request;
     protected InvocationContext context;
@@ -121,8 +122,11 @@ public abstract class TestBase extends TestCase {
 
         label = "label " + random.nextLong();
 
+        graphs = new GraphVersions();
+        graphs.publish(factory);
+
         getApplication().setAttribute("label", label);
-        getApplication().setAttribute("factory", factory);
+        getApplication().setAttribute("graphs", graphs);
     }
 
     public void testNoLabel() throws Exception {
@@ -142,7 +146,7 @@ public abstract class TestBase extends TestCase {
     }
 
     public void testNoDependencyGraph() throws Exception {
-        getApplication().removeAttribute("factory");
+        getApplication().removeAttribute("graphs");
 
         context.service();
         WebResponse response = client.getResponse(request);
@@ -150,7 +154,9 @@ public abstract class TestBase extends TestCase {
     }
 
     public void testEmptyDependencyGraph() throws Exception {
-        getApplication().setAttribute("factory", new NodeFactory());
+        graphs = new GraphVersions();
+        graphs.publish(new NodeFactory());
+        getApplication().setAttribute("graphs", graphs);
 
         context.service();
         WebResponse response = client.getResponse(request);
@@ -161,6 +167,27 @@ public abstract class TestBase extends TestCase {
         context.service();
         WebResponse response = client.getResponse(request);
         assertFalse("Unexpected text \"" + NO_GRAPH_MESSAGE + "\"", response.getText().contains(NO_GRAPH_MESSAGE));
+        assertCurrentGraphNotPinned();
+    }
+
+    /**
+     *  Checks that the page rendered the test graph and released the
+     *  version it acquired.  Pages that publish a new graph will have
+     *  moved on to a later version.
+     */
+    protected void assertCurrentGraphNotPinned() {
+        assertSame("graphs", graphs, getApplication().getAttribute("graphs"));
+
+        GraphVersion current = graphs.acquire();
+        assertNotNull("current version", current);
+        try {
+            assertEquals("version", 1, current.getVersion());
+            assertSame("factory", factory, current.getFactory());
+        } finally {
+            current.release();
+        }
+
+        assertEquals("live versions", 1, graphs.getNbLiveVersions());
     }
 
     protected ServletContext getApplication() {
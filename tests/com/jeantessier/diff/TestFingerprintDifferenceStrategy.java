@@ -0,0 +1,171 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.diff;
+
+import java.io.*;
+import java.util.*;
+
+import junit.framework.*;
+
+import com.jeantessier.classreader.*;
+
+public class TestFingerprintDifferenceStrategy extends TestCase {
+    private Fingerprints oldFingerprints;
+    private Fingerprints newFingerprints;
+
+    private AggregatingClassfileLoader oldJar;
+    private AggregatingClassfileLoader newJar;
+
+    private PackageMapper oldPackages;
+    private PackageMapper newPackages;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        oldFingerprints = new Fingerprints();
+        newFingerprints = new Fingerprints();
+
+        oldPackages = new PackageMapper();
+        newPackages = new PackageMapper();
+
+        oldJar = load(TestDifferencesFactoryBase.OLD_CLASSPATH, oldFingerprints, oldPackages);
+        newJar = load(TestDifferencesFactoryBase.NEW_CLASSPATH, newFingerprints, newPackages);
+    }
+
+    private AggregatingClassfileLoader load(String classpath, Fingerprints fingerprints, PackageMapper packages) {
+        AggregatingClassfileLoader result = new FingerprintingClassfileLoader(fingerprints);
+        result.addLoadListener(packages);
+        result.load(Collections.singleton(classpath));
+        return result;
+    }
+
+    public void testContentFingerprints() {
+        assertEquals("UnmodifiedClass", oldFingerprints.getContentFingerprint("UnmodifiedPackage.UnmodifiedClass"), newFingerprints.getContentFingerprint("UnmodifiedPackage.UnmodifiedClass"));
+        assertFalse("ModifiedClass", oldFingerprints.getContentFingerprint("ModifiedPackage.ModifiedClass").equals(newFingerprints.getContentFingerprint("ModifiedPackage.ModifiedClass")));
+        assertNull("NewClass", oldFingerprints.getContentFingerprint("ModifiedPackage.NewClass"));
+    }
+
+    public void testCodeFingerprintIgnoresConstantPoolOrder() {
+        String className = "ModifiedPackage.DifferentConstantPool";
+        String signature = "callingMovedMethodRefInfo()";
+
+        Method_info oldMethod = oldJar.getClassfile(className).getMethod(signature);
+        Method_info newMethod = newJar.getClassfile(className).getMethod(signature);
+
+        assertFalse("content", oldFingerprints.getContentFingerprint(className).equals(newFingerprints.getContentFingerprint(className)));
+        assertEquals("code", oldFingerprints.getCodeFingerprint(oldMethod), newFingerprints.getCodeFingerprint(newMethod));
+    }
+
+    public void testAPIFingerprintDetectsDeprecation() {
+        String className = "ModifiedPackage.DeprecatedClass";
+
+        assertFalse(oldFingerprints.getAPIFingerprint(oldJar.getClassfile(className)).equals(newFingerprints.getAPIFingerprint(newJar.getClassfile(className))));
+    }
+
+    public void testSameReportWithAPIDifferenceStrategy() {
+        assertSameReport(new APIDifferenceStrategy(new NoDifferenceStrategy()));
+    }
+
+    public void testSameReportWithCodeDifferenceStrategy() {
+        assertSameReport(new APIDifferenceStrategy(new CodeDifferenceStrategy()));
+    }
+
+    public void testSameReportWithIncompatibleDifferenceStrategy() {
+        assertSameReport(new IncompatibleDifferenceStrategy(new NoDifferenceStrategy()));
+    }
+
+    public void testSameReportInParallel() {
+        DifferenceStrategy strategy = new APIDifferenceStrategy(new CodeDifferenceStrategy());
+
+        String expected = render(new DifferencesFactory(strategy).createProjectDifferences("test", "old", oldPackages, "new", newPackages));
+        String actual = render(new ParallelDifferencesFactory(new FingerprintDifferenceStrategy(strategy, oldFingerprints, newFingerprints), 4).createProjectDifferences("test", "old", oldPackages, "new", newPackages));
+
+        assertEquals(expected, actual);
+    }
+
+    public void testSaveAndLoad() throws IOException {
+        Classfile classfile = oldJar.getClassfile("ModifiedPackage.ModifiedClass");
+        Method_info method = classfile.getAllMethods().iterator().next();
+        String apiFingerprint = oldFingerprints.getAPIFingerprint(classfile);
+        String codeFingerprint = oldFingerprints.getCodeFingerprint(method);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        oldFingerprints.save(out);
+
+        Fingerprints fingerprints = new Fingerprints();
+        fingerprints.load(new ByteArrayInputStream(out.toByteArray()));
+        load(TestDifferencesFactoryBase.OLD_CLASSPATH, fingerprints, new PackageMapper());
+
+        assertEquals("content", oldFingerprints.getContentFingerprint(classfile.getClassName()), fingerprints.getContentFingerprint(classfile.getClassName()));
+        assertEquals("API", apiFingerprint, fingerprints.getAPIFingerprint(classfile));
+        assertEquals("code", codeFingerprint, fingerprints.getCodeFingerprint(method));
+    }
+
+    public void testSavedFingerprintsAreDroppedWhenContentChanges() throws IOException {
+        String className = "ModifiedPackage.DeprecatedClass";
+        oldFingerprints.getAPIFingerprint(oldJar.getClassfile(className));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        oldFingerprints.save(out);
+
+        Fingerprints fingerprints = new Fingerprints();
+        fingerprints.load(new ByteArrayInputStream(out.toByteArray()));
+        load(TestDifferencesFactoryBase.NEW_CLASSPATH, fingerprints, new PackageMapper());
+
+        Classfile newClass = newJar.getClassfile(className);
+        assertEquals(newFingerprints.getAPIFingerprint(newClass), fingerprints.getAPIFingerprint(newClass));
+    }
+
+    public void testLoadRejectsOtherFiles() {
+        try {
+            new Fingerprints().load(new ByteArrayInputStream(new byte[] {0, 0, 0, 0, 0, 0, 0, 1}));
+            fail("Loaded bad fingerprints");
+        } catch (IOException ex) {
+            // Expected
+        }
+    }
+
+    private void assertSameReport(DifferenceStrategy strategy) {
+        String expected = render(new DifferencesFactory(strategy).createProjectDifferences("test", "old", oldPackages, "new", newPackages));
+        String actual = render(new DifferencesFactory(new FingerprintDifferenceStrategy(strategy, oldFingerprints, newFingerprints)).createProjectDifferences("test", "old", oldPackages, "new", newPackages));
+
+        assertEquals(expected, actual);
+    }
+
+    private String render(Differences differences) {
+        Report report = new Report();
+        differences.accept(report);
+        return report.render();
+    }
+}
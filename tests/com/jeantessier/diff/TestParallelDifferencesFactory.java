@@ -0,0 +1,109 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.diff;
+
+import java.util.*;
+
+import com.jeantessier.classreader.*;
+
+public class TestParallelDifferencesFactory extends TestDifferencesFactoryBase {
+    private static final int NB_THREADS = 4;
+
+    public void testSameReportAsSequentialWithAPIDifferenceStrategy() {
+        assertSameReport(new APIDifferenceStrategy(new NoDifferenceStrategy()));
+    }
+
+    public void testSameReportAsSequentialWithCodeDifferenceStrategy() {
+        assertSameReport(new APIDifferenceStrategy(new CodeDifferenceStrategy()));
+    }
+
+    public void testSameReportAsSequentialWithIncompatibleDifferenceStrategy() {
+        assertSameReport(new IncompatibleDifferenceStrategy(new NoDifferenceStrategy()));
+    }
+
+    public void testSameReportOnRepeatedRuns() {
+        ParallelDifferencesFactory factory = new ParallelDifferencesFactory(new APIDifferenceStrategy(new CodeDifferenceStrategy()), NB_THREADS);
+
+        String expected = render(factory.createProjectDifferences("test", "old", getOldPackages(), "new", getNewPackages()));
+        for (int i = 0; i < 10; i++) {
+            assertEquals("run " + i, expected, render(factory.createProjectDifferences("test", "old", getOldPackages(), "new", getNewPackages())));
+        }
+    }
+
+    public void testPackageDifferencesOutsideOfPool() {
+        String packageName = "ModifiedPackage";
+        Map<String, Classfile> oldPackage = getOldPackages().getPackage(packageName);
+        Map<String, Classfile> newPackage = getNewPackages().getPackage(packageName);
+
+        DifferenceStrategy strategy = new APIDifferenceStrategy(new CodeDifferenceStrategy());
+        PackageDifferences expected = (PackageDifferences) new DifferencesFactory(strategy).createPackageDifferences(packageName, oldPackage, newPackage);
+        PackageDifferences actual = (PackageDifferences) new ParallelDifferencesFactory(strategy, NB_THREADS).createPackageDifferences(packageName, oldPackage, newPackage);
+
+        assertEquals("class differences", names(expected.getClassDifferences()), names(actual.getClassDifferences()));
+    }
+
+    public void testFeatureDifferencesWithoutNewClass() {
+        String className = "ModifiedPackage.ModifiedClass";
+        Classfile oldClass = getOldJar().getClassfile(className);
+        Method_info oldMethod = oldClass.getAllMethods().iterator().next();
+
+        Differences differences = new ParallelDifferencesFactory(new APIDifferenceStrategy(new NoDifferenceStrategy())).createFeatureDifferences(oldMethod.getFullSignature(), oldMethod, null);
+
+        assertTrue("not removed", ((FeatureDifferences) differences).isRemoved());
+        assertFalse("inherited", ((FeatureDifferences) differences).isInherited());
+    }
+
+    private void assertSameReport(DifferenceStrategy strategy) {
+        Differences expected = new DifferencesFactory(strategy).createProjectDifferences("test", "old", getOldPackages(), "new", getNewPackages());
+        Differences actual = new ParallelDifferencesFactory(strategy, NB_THREADS).createProjectDifferences("test", "old", getOldPackages(), "new", getNewPackages());
+
+        assertEquals(render(expected), render(actual));
+    }
+
+    private String render(Differences differences) {
+        Report report = new Report();
+        differences.accept(report);
+        return report.render();
+    }
+
+    private List<String> names(Collection<Differences> differences) {
+        List<String> result = new ArrayList<String>();
+
+        for (Differences difference : differences) {
+            result.add(difference.getName());
+        }
+
+        return result;
+    }
+}
@@ -41,6 +41,7 @@ import static org.junit.runners.Suite.*;
         TestWordCounter.class,
         TestMetrics.class,
         TestMetricsFactory.class,
+        TestMetricsFactoryMerge.class,
         TestMeasurementDescriptor.class,
         TestMetricsConfiguration.class,
         TestMetricsConfigurationHandler.class,
@@ -66,6 +67,7 @@ import static org.junit.runners.Suite.*;
         TestMetricsGathererDependenciesScope.class,
         TestMetricsGathererDependenciesFilter.class,
         TestMetricsGathererSLOC.class,
+        TestParallelMetricsGatherer.class,
         TestXMLPrinter.class
 })
 public class TestAll {
@@ -0,0 +1,148 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.metrics;
+
+import junit.framework.*;
+
+import java.io.*;
+import java.util.*;
+
+public class TestMetricsFactoryMerge extends TestCase {
+    private MetricsConfiguration configuration;
+    private MetricsFactory factory;
+    private MetricsFactory other;
+
+    protected void setUp() throws Exception {
+        configuration = new MetricsConfigurationLoader(Boolean.getBoolean("DEPENDENCYFINDER_TESTS_VALIDATE")).load("etc" + File.separator + "MetricsConfig.xml");
+        factory = new MetricsFactory("test", configuration);
+        other = new MetricsFactory("test", configuration);
+    }
+
+    public void testMergeIntoEmptyFactory() {
+        other.createClassMetrics("foo.Bar").addToMeasurement(BasicMeasurements.SUBCLASSES, 2);
+
+        factory.merge(other);
+
+        Metrics metrics = factory.createClassMetrics("foo.Bar");
+        assertEquals(BasicMeasurements.SUBCLASSES, 2, metrics.getMeasurement(BasicMeasurements.SUBCLASSES).getValue().intValue());
+        assertEquals(BasicMeasurements.CLASS_NAME_CHARACTER_COUNT, 3, metrics.getMeasurement(BasicMeasurements.CLASS_NAME_CHARACTER_COUNT).getValue().intValue());
+        assertEquals(BasicMeasurements.GROUP_NAME_CHARACTER_COUNT, 3, factory.createGroupMetrics("foo").getMeasurement(BasicMeasurements.GROUP_NAME_CHARACTER_COUNT).getValue().intValue());
+        assertTrue("all class names", factory.getAllClassNames().contains("foo.Bar"));
+        assertFalse("class names", factory.getClassNames().contains("foo.Bar"));
+    }
+
+    public void testMergeAddsCounters() {
+        factory.createClassMetrics("foo.Bar").addToMeasurement(BasicMeasurements.SUBCLASSES, 1);
+        other.createClassMetrics("foo.Bar").addToMeasurement(BasicMeasurements.SUBCLASSES, 2);
+
+        factory.merge(other);
+
+        Metrics metrics = factory.createClassMetrics("foo.Bar");
+        assertEquals(BasicMeasurements.SUBCLASSES, 3, metrics.getMeasurement(BasicMeasurements.SUBCLASSES).getValue().intValue());
+        assertEquals(BasicMeasurements.CLASS_NAME_CHARACTER_COUNT, 3, metrics.getMeasurement(BasicMeasurements.CLASS_NAME_CHARACTER_COUNT).getValue().intValue());
+        assertEquals(BasicMeasurements.GROUP_NAME_CHARACTER_COUNT, 3, factory.createGroupMetrics("foo").getMeasurement(BasicMeasurements.GROUP_NAME_CHARACTER_COUNT).getValue().intValue());
+    }
+
+    public void testMergeKeepsEmptyCountersEmpty() {
+        factory.createClassMetrics("foo.Bar");
+        other.createClassMetrics("foo.Bar");
+
+        factory.merge(other);
+
+        assertTrue(BasicMeasurements.SUBCLASSES + " is not empty", factory.createClassMetrics("foo.Bar").getMeasurement(BasicMeasurements.SUBCLASSES).isEmpty());
+    }
+
+    public void testMergeCountersWithInitialValue() {
+        MetricsConfiguration configuration = new MetricsConfiguration();
+        MeasurementDescriptor descriptor = new MeasurementDescriptor();
+        descriptor.setShortName("INIT");
+        descriptor.setLongName("with initial value");
+        descriptor.setClassFor(CounterMeasurement.class);
+        descriptor.setInitText("10");
+        configuration.addClassMeasurement(descriptor);
+
+        MetricsFactory factory = new MetricsFactory("test", configuration);
+        MetricsFactory other = new MetricsFactory("test", configuration);
+
+        factory.createClassMetrics("foo.Bar").addToMeasurement("INIT", 1);
+        other.createClassMetrics("foo.Bar").addToMeasurement("INIT", 2);
+        other.createClassMetrics("foo.Baz").addToMeasurement("INIT", 3);
+
+        factory.merge(other);
+
+        assertEquals("foo.Bar", 13, factory.createClassMetrics("foo.Bar").getMeasurement("INIT").getValue().intValue());
+        assertEquals("foo.Baz", 13, factory.createClassMetrics("foo.Baz").getMeasurement("INIT").getValue().intValue());
+    }
+
+    public void testMergeNameLists() {
+        factory.createClassMetrics("foo.Bar").addToMeasurement(BasicMeasurements.OUTBOUND_EXTRA_PACKAGE_DEPENDENCIES, "a.A");
+        other.createClassMetrics("foo.Bar").addToMeasurement(BasicMeasurements.OUTBOUND_EXTRA_PACKAGE_DEPENDENCIES, "a.A");
+        other.createClassMetrics("foo.Bar").addToMeasurement(BasicMeasurements.OUTBOUND_EXTRA_PACKAGE_DEPENDENCIES, "b.B");
+
+        factory.merge(other);
+
+        Collection<String> values = ((CollectionMeasurement) factory.createClassMetrics("foo.Bar").getMeasurement(BasicMeasurements.OUTBOUND_EXTRA_PACKAGE_DEPENDENCIES)).getValues();
+        assertEquals("values", 2, values.size());
+        assertTrue("missing a.A", values.contains("a.A"));
+        assertTrue("missing b.B", values.contains("b.B"));
+    }
+
+    public void testMergeInclusions() {
+        other.includeMethodMetrics(other.createMethodMetrics("foo.Bar.baz()"));
+
+        factory.merge(other);
+
+        assertTrue("method names", factory.getMethodNames().contains("foo.Bar.baz()"));
+        assertTrue("class names", factory.getClassNames().contains("foo.Bar"));
+        assertTrue("group names", factory.getGroupNames().contains("foo"));
+        assertTrue("project names", factory.getProjectNames().contains("test"));
+
+        assertTrue("class submetrics", factory.createClassMetrics("foo.Bar").getSubMetrics().contains(factory.createMethodMetrics("foo.Bar.baz()")));
+        assertTrue("group submetrics", factory.createGroupMetrics("foo").getSubMetrics().contains(factory.createClassMetrics("foo.Bar")));
+        assertTrue("project submetrics", factory.createProjectMetrics().getSubMetrics().contains(factory.createGroupMetrics("foo")));
+        assertEquals(BasicMeasurements.METHOD_NAME_CHARACTER_COUNT, 3, factory.createMethodMetrics("foo.Bar.baz()").getMeasurement(BasicMeasurements.METHOD_NAME_CHARACTER_COUNT).getValue().intValue());
+    }
+
+    public void testMergeDoesNotShareMetrics() {
+        other.includeClassMetrics(other.createClassMetrics("foo.Bar"));
+
+        factory.merge(other);
+
+        assertNotSame(other.createClassMetrics("foo.Bar"), factory.createClassMetrics("foo.Bar"));
+    }
+
+    private void assertEquals(BasicMeasurements message, int expectedValue, int actualValue) {
+        assertEquals(message.getAbbreviation(), expectedValue, actualValue);
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ *  Copyright (c) 2001-2009, Jean Tessier
+ *  All rights reserved.
+ *  
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions
+ *  are met:
+ *  
+ *      * Redistributions of source code must retain the above copyright
+ *        notice, this list of conditions and the following disclaimer.
+ *  
+ *      * Redistributions in binary form must reproduce the above copyright
+ *        notice, this list of conditions and the following disclaimer in the
+ *        documentation and/or other materials provided with the distribution.
+ *  
+ *      * Neither the name of Jean Tessier nor the names of his contributors
+ *        may be used to endorse or promote products derived from this software
+ *        without specific prior written permission.
+ *  
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ *  LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+ *  A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+
+package com.jeantessier.metrics;
+
+import junit.framework.*;
+
+import java.io.*;
+import java.util.*;
+
+import com.jeantessier.classreader.*;
+
+public class TestParallelMetricsGatherer extends TestCase {
+    public static final String TEST_DIRNAME = "classes" + File.separator + "com" + File.separator + "jeantessier" + File.separator + "metrics";
+
+    private MetricsConfiguration configuration;
+    private Collection<Classfile> classfiles;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        configuration = new MetricsConfigurationLoader(Boolean.getBoolean("DEPENDENCYFINDER_TESTS_VALIDATE")).load("etc" + File.separator + "MetricsConfig.xml");
+
+        ClassfileLoader loader = new AggregatingClassfileLoader();
+        loader.load(Collections.singleton(TEST_DIRNAME));
+        classfiles = loader.getAllClassfiles();
+    }
+
+    public void testSameMetricsAsSequential() throws Exception {
+        MetricsGatherer sequential = new MetricsGatherer(new MetricsFactory("test", configuration));
+        sequential.visitClassfiles(classfiles);
+
+        MetricsGatherer parallel = new ParallelMetricsGatherer(new MetricsFactory("test", configuration), 3);
+        parallel.visitClassfiles(classfiles);
+
+        assertEquals(print(sequential.getMetricsFactory()), print(parallel.getMetricsFactory()));
+    }
+
+    public void testSameMetricsAsSequentialWithScope() throws Exception {
+        Collection<String> scope = new HashSet<String>();
+        scope.add("com.jeantessier.metrics.Metrics");
+        scope.add("com.jeantessier.metrics.MetricsFactory");
+
+        MetricsGatherer sequential = new MetricsGatherer(new MetricsFactory("test", configuration));
+        sequential.setScopeIncludes(scope);
+        sequential.visitClassfiles(classfiles);
+
+        MetricsGatherer parallel = new ParallelMetricsGatherer(new MetricsFactory("test", configuration), 3);
+        parallel.setScopeIncludes(scope);
+        parallel.visitClassfiles(classfiles);
+
+        assertEquals(print(sequential.getMetricsFactory()), print(parallel.getMetricsFactory()));
+    }
+
+    public void testEvents() {
+        final List<String> events = new ArrayList<String>();
+
+        MetricsGatherer gatherer = new ParallelMetricsGatherer(new MetricsFactory("test", configuration), 3);
+        gatherer.addMetricsListener(new MetricsListener() {
+            public void beginSession(MetricsEvent event) {
+                events.add("beginSession " + event.getSize());
+            }
+
+            public void beginClass(MetricsEvent event) {
+                synchronized(events) {
+                    events.add("beginClass");
+                }
+            }
+
+            public void beginMethod(MetricsEvent event) {
+                // Do nothing
+            }
+
+            public void endMethod(MetricsEvent event) {
+                // Do nothing
+            }
+
+            public void endClass(MetricsEvent event) {
+                synchronized(events) {
+                    events.add("endClass");
+                }
+            }
+
+            public void endSession(MetricsEvent event) {
+                events.add("endSession");
+            }
+        });
+        gatherer.visitClassfiles(classfiles);
+
+        assertEquals("nb events", 2 * classfiles.size() + 2, events.size());
+        assertEquals("first event", "beginSession " + classfiles.size(), events.get(0));
+        assertEquals("last event", "endSession", events.get(events.size() - 1));
+    }
+
+    public void testEndEventsCarryMergedMetrics() {
+        final List<Metrics> classMetrics = new ArrayList<Metrics>();
+        final List<Metrics> methodMetrics = new ArrayList<Metrics>();
+
+        MetricsGatherer gatherer = new ParallelMetricsGatherer(new MetricsFactory("test", configuration), 3);
+        gatherer.addMetricsListener(new MetricsListener() {
+            public void beginSession(MetricsEvent event) {
+                // Do nothing
+            }
+
+            public void beginClass(MetricsEvent event) {
+                // Do nothing
+            }
+
+            public void beginMethod(MetricsEvent event) {
+                // Do nothing
+            }
+
+            public void endMethod(MetricsEvent event) {
+                methodMetrics.add(event.getMetrics());
+            }
+
+            public void endClass(MetricsEvent event) {
+                classMetrics.add(event.getMetrics());
+            }
+
+            public void endSession(MetricsEvent event) {
+                // Do nothing
+            }
+        });
+        gatherer.visitClassfiles(classfiles);
+
+        assertEquals("nb end class events", classfiles.size(), classMetrics.size());
+        for (Metrics metrics : classMetrics) {
+            assertSame(metrics.getName(), gatherer.getMetricsFactory().createClassMetrics(metrics.getName()), metrics);
+        }
+
+        assertFalse("no end method events", methodMetrics.isEmpty());
+        for (Metrics metrics : methodMetrics) {
+            assertSame(metrics.getName(), gatherer.getMetricsFactory().createMethodMetrics(metrics.getName()), metrics);
+        }
+    }
+
+    private String print(MetricsFactory factory) {
+        StringWriter out = new StringWriter();
+
+        TextPrinter printer = new TextPrinter(new PrintWriter(out), configuration.getProjectMeasurements());
+        printer.setExpandCollectionMeasurements(true);
+        printer.setShowEmptyMetrics(true);
+        printer.visitMetrics(factory.getProjectMetrics());
+
+        printer = new TextPrinter(new PrintWriter(out), configuration.getGroupMeasurements());
+        printer.setExpandCollectionMeasurements(true);
+        printer.setShowEmptyMetrics(true);
+        printer.visitMetrics(sort(factory.getGroupMetrics()));
+
+        printer = new TextPrinter(new PrintWriter(out), configuration.getClassMeasurements());
+        printer.setExpandCollectionMeasurements(true);
+        printer.setShowEmptyMetrics(true);
+        printer.visitMetrics(sort(factory.getAllClassMetrics()));
+
+        printer = new TextPrinter(new PrintWriter(out), configuration.getMethodMeasurements());
+        printer.setExpandCollectionMeasurements(true);
+        printer.setShowEmptyMetrics(true);
+        printer.visitMetrics(sort(factory.getAllMethodMetrics()));
+
+        return out.toString();
+    }
+
+    private List<Metrics> sort(Collection<Metrics> metrics) {
+        List<Metrics> result = new ArrayList<Metrics>(metrics);
+        Collections.sort(result, new MetricsComparator("name"));
+        return result;
+    }
+}
@@ -166,7 +166,9 @@
 
 <th><fieldset class="navigation"><a href="advancedquery.jsp">Dependency graph</a></fieldset></th>
 <th><fieldset class="currentnavigation">Transitive closure</fieldset></th>
+<th><fieldset class="navigation"><a href="paths.jsp">Dependency paths</a></fieldset></th>
 <th><fieldset class="navigation"><a href="advancedcycles.jsp">Dependency cycles</a></fieldset></th>
+<th><fieldset class="navigation"><a href="layers.jsp">Dependency layers</a></fieldset></th>
 <th><fieldset class="navigation"><a href="advancedmetrics.jsp">Dependency metrics</a></fieldset></th>
 
 </tr></table>
@@ -369,7 +371,10 @@ follow
 
 <%
     if (request.getParameter("submit") != null) {
-        if (application.getAttribute("factory") != null) {
+        GraphVersions graphs = (GraphVersions) application.getAttribute("graphs");
+        GraphVersion graph = (graphs != null) ? graphs.acquire() : null;
+        if (graph != null) {
+            try {
 %>
 
 <pre class="result">
@@ -411,7 +416,7 @@ follow
                 closure.setMaximumOutboundDepth(TransitiveClosure.UNBOUNDED_DEPTH);
             }
 
-            closure.traverseNodes(((NodeFactory) application.getAttribute("factory")).getPackages().values());
+            closure.traverseNodes(graph.getFactory().getPackages().values());
 
             RegularExpressionSelectionCriteria scopeCriteria  = new RegularExpressionSelectionCriteria();
             scopeCriteria.setMatchingPackages("package".equals(scope));
@@ -464,6 +469,9 @@ follow
 <p><%= (stop.getTime() - start.getTime()) / (double) 1000 %> secs.</p>
 
 <%
+            } finally {
+                graph.release();
+            }
         } else {
 %>
 
@@ -105,6 +105,8 @@
     if (maximumCycleLength == null) {
         maximumCycleLength = "";
     }
+
+    boolean scc = "on".equals(request.getParameter("scc"));
 %>
 
 <body>
@@ -126,7 +128,9 @@
 
 <th><fieldset class="navigation"><a href="advancedquery.jsp">Dependency graph</a></fieldset></th>
 <th><fieldset class="navigation"><a href="advancedclosure.jsp">Transitive closure</a></fieldset></th>
+<th><fieldset class="navigation"><a href="paths.jsp">Dependency paths</a></fieldset></th>
 <th><fieldset class="currentnavigation">Dependency cycles</fieldset></th>
+<th><fieldset class="navigation"><a href="layers.jsp">Dependency layers</a></fieldset></th>
 <th><fieldset class="navigation"><a href="advancedmetrics.jsp">Dependency metrics</a></fieldset></th>
 
 </tr></table>
@@ -216,6 +220,7 @@
 
 <fieldset>
     <label title="Maximum length of dependencies cycles.  Empty field means no limit." for="maximumCycleLength">max length <input type="text" name="maximum-cycle-length" value="<%= maximumCycleLength %>" size="2" id="maximumCycleLength"></label>
+    <label title="Only look for cycles within strongly connected components.  Much faster on large graphs, but only follows dependencies between nodes of the same kind." for="scc"><input type="checkbox" name="scc" <%= scc ? "checked" : "" %> id="scc"> strongly connected components</label>
 </fieldset>
 
         </td>
@@ -239,7 +244,10 @@
 
 <%
     if (request.getParameter("submit") != null) {
-        if (application.getAttribute("factory") != null) {
+        GraphVersions graphs = (GraphVersions) application.getAttribute("graphs");
+        GraphVersion graph = (graphs != null) ? graphs.acquire() : null;
+        if (graph != null) {
+            try {
 %>
 
 <pre class="result">
@@ -261,14 +269,15 @@
             scopeCriteria.setClassExcludes(classScopeExcludes);
             scopeCriteria.setFeatureExcludes(featureScopeExcludes);
 
-            CycleDetector detector = new CycleDetector(scopeCriteria);
+            CycleFinder detector = new CycleFinderFactory().createCycleFinder(scopeCriteria, scc);
             try {
                 detector.setMaximumCycleLength(Integer.parseInt(maximumCycleLength));
             } catch (NumberFormatException ex) {
                 // Ignore
             }
 
-            detector.traverseNodes(((NodeFactory) application.getAttribute("factory")).getPackages().values());
+            detector.traverseNodes(graph.getFactory().getPackages().values());
+            Collection<Cycle> cycles = detector.getCycles();
 
             StringBuffer urlPattern = new StringBuffer();
             urlPattern.append(request.getRequestURI());
@@ -295,7 +304,7 @@
             MessageFormat urlFormat = new MessageFormat(urlPattern.toString());
 
             CyclePrinter printer = new HTMLCyclePrinter(new PrintWriter(out), urlFormat);
-            printer.visitCycles(detector.getCycles());
+            printer.visitCycles(cycles);
 
             Date stop = new Date();
 
@@ -307,6 +316,9 @@
 <p><%= (stop.getTime() - start.getTime()) / (double) 1000 %> secs.</p>
 
 <%
+            } finally {
+                graph.release();
+            }
         } else {
 %>
 
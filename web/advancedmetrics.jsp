@@ -181,7 +181,9 @@
 
 <th><fieldset class="navigation"><a href="advancedquery.jsp">Dependency graph</a></fieldset></th>
 <th><fieldset class="navigation"><a href="advancedclosure.jsp">Transitive closure</a></fieldset></th>
+<th><fieldset class="navigation"><a href="paths.jsp">Dependency paths</a></fieldset></th>
 <th><fieldset class="navigation"><a href="advancedcycles.jsp">Dependency cycles</a></fieldset></th>
+<th><fieldset class="navigation"><a href="layers.jsp">Dependency layers</a></fieldset></th>
 <th><fieldset class="currentnavigation">Dependency metrics</fieldset></th>
 
 </tr></table>
@@ -369,7 +371,10 @@
 
 <%
     if (request.getParameter("submit") != null) {
-        if (application.getAttribute("factory") != null) {
+        GraphVersions graphs = (GraphVersions) application.getAttribute("graphs");
+        GraphVersion graph = (graphs != null) ? graphs.acquire() : null;
+        if (graph != null) {
+            try {
 %>
 
 <pre class="result">
@@ -406,7 +411,7 @@
 
             SelectiveTraversalStrategy strategy = new SelectiveTraversalStrategy(scopeCriteria, filterCriteria);
             MetricsGatherer metrics = new MetricsGatherer(strategy);
-            metrics.traverseNodes(((NodeFactory) application.getAttribute("factory")).getPackages().values());
+            metrics.traverseNodes(graph.getFactory().getPackages().values());
         
             MetricsReport reporter = new MetricsReport(new PrintWriter(out));
             reporter.setListingElements(listElements);
@@ -420,6 +425,9 @@
 <p><%= (stop.getTime() - start.getTime()) / (double) 1000 %> secs.</p>
 
 <%
+            } finally {
+                graph.release();
+            }
         } else {
 %>
 
@@ -196,7 +196,9 @@
 
 <th><fieldset class="currentnavigation">Dependency graph</fieldset></th>
 <th><fieldset class="navigation"><a href="advancedclosure.jsp">Transitive closure</a></fieldset></th>
+<th><fieldset class="navigation"><a href="paths.jsp">Dependency paths</a></fieldset></th>
 <th><fieldset class="navigation"><a href="advancedcycles.jsp">Dependency cycles</a></fieldset></th>
+<th><fieldset class="navigation"><a href="layers.jsp">Dependency layers</a></fieldset></th>
 <th><fieldset class="navigation"><a href="advancedmetrics.jsp">Dependency metrics</a></fieldset></th>
 
 </tr></table>
@@ -389,7 +391,10 @@ Show&nbsp;&nbsp;
 
 <%
     if (request.getParameter("submit") != null) {
-        if (application.getAttribute("factory") != null) {
+        GraphVersions graphs = (GraphVersions) application.getAttribute("graphs");
+        GraphVersion graph = (graphs != null) ? graphs.acquire() : null;
+        if (graph != null) {
+            try {
 %>
 
 <pre class="result">
@@ -430,7 +435,7 @@ Show&nbsp;&nbsp;
                 dependenciesQuery = new GraphCopier(strategy);
             }
 
-            dependenciesQuery.traverseNodes(((NodeFactory) application.getAttribute("factory")).getPackages().values());
+            dependenciesQuery.traverseNodes(graph.getFactory().getPackages().values());
 
             StringBuffer urlPattern = new StringBuffer();
             urlPattern.append(request.getRequestURI());
@@ -474,6 +479,9 @@ Show&nbsp;&nbsp;
 <p><%= (stop.getTime() - start.getTime()) / (double) 1000 %> secs.</p>
 
 <%
+            } finally {
+                graph.release();
+            }
         } else {
 %>
 
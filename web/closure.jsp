@@ -76,6 +76,8 @@
         maximumOutboundDepth = "";
     }
 
+    boolean frontier = "on".equals(request.getParameter("frontier"));
+
     String scope = request.getParameter("scope");
     if (scope == null) {
         scope = "feature";
@@ -106,7 +108,9 @@
 
 <th><fieldset class="navigation"><a href="query.jsp">Dependency graph</a></fieldset></th>
 <th><fieldset class="currentnavigation">Transitive closure</fieldset></th>
+<th><fieldset class="navigation"><a href="paths.jsp">Dependency paths</a></fieldset></th>
 <th><fieldset class="navigation"><a href="cycles.jsp">Dependency cycles</a></fieldset></th>
+<th><fieldset class="navigation"><a href="layers.jsp">Dependency layers</a></fieldset></th>
 <th><fieldset class="navigation"><a href="metrics.jsp">Dependency metrics</a></fieldset></th>
 
 </tr></table>
@@ -173,6 +177,7 @@
 <label title="Maximum hops against the direction dependencies.  Empty field means no limit." for="maximumInboundDepth"><input type="text" name="maximum-inbound-depth" value="<%= maximumInboundDepth %>" size="2" id="maximumInboundDepth"> <tt>&lt;--</tt></label>
 follow
 <label title="Maximum hops in the direction of dependencies.  Empty field means no limit." for="maximumOutboundDepth"><tt>--&gt;</tt> <input type="text" name="maximum-outbound-depth" value="<%= maximumOutboundDepth %>" size="2" id="maximumOutboundDepth"></label>
+<label title="Compute the closure with a breadth-first search over integer ids.  Same result, much faster on deep closures." for="frontier"><input type="checkbox" name="frontier" <%= frontier ? "checked" : "" %> id="frontier"> frontier</label>
 </fieldset>
 
         </td>
@@ -235,7 +240,10 @@ follow
 
 <%
     if (request.getParameter("submit") != null) {
-        if (application.getAttribute("factory") != null) {
+        GraphVersions graphs = (GraphVersions) application.getAttribute("graphs");
+        GraphVersion graph = (graphs != null) ? graphs.acquire() : null;
+        if (graph != null) {
+            try {
 %>
 
 <pre class="result">
@@ -243,81 +251,88 @@ follow
 <%
             Date start = new Date();
 
-            RegularExpressionSelectionCriteria startCriteria  = new RegularExpressionSelectionCriteria();
-            startCriteria.setGlobalIncludes(startIncludes);
-            startCriteria.setGlobalExcludes(startExcludes);
-        
-            RegularExpressionSelectionCriteria stopCriteria = new RegularExpressionSelectionCriteria();
-            stopCriteria.setGlobalIncludes(stopIncludes);
-            stopCriteria.setGlobalExcludes(stopExcludes);
+            QueryResultCache.Key key = new QueryResultCache.Key(request.getRequestURI())
+                .addExpressions("start-includes", startIncludes)
+                .addExpressions("start-excludes", startExcludes)
+                .addExpressions("stop-includes", stopIncludes)
+                .addExpressions("stop-excludes", stopExcludes)
+                .add("maximum-inbound-depth", maximumInboundDepth.trim())
+                .add("maximum-outbound-depth", maximumOutboundDepth.trim())
+                .add("frontier", frontier)
+                .add("scope", scope)
+                .add("filter", filter);
+
+            QueryResultCache cache = (QueryResultCache) application.getAttribute("queryCache");
+            String result = (cache != null) ? cache.get(graph.getVersion(), key) : null;
+            boolean cached = (result != null);
+            if (!cached) {
+                StringWriter buffer = new StringWriter();
+
+                RegularExpressionSelectionCriteria startCriteria  = new RegularExpressionSelectionCriteria();
+                startCriteria.setGlobalIncludes(startIncludes);
+                startCriteria.setGlobalExcludes(startExcludes);
+
+                RegularExpressionSelectionCriteria stopCriteria = new RegularExpressionSelectionCriteria();
+                stopCriteria.setGlobalIncludes(stopIncludes);
+                stopCriteria.setGlobalExcludes(stopExcludes);
+
+                TransitiveClosure closure = new TransitiveClosure(startCriteria, stopCriteria);
+                closure.setUsingFrontierEngine(frontier);
+
+                try {
+                    closure.setMaximumInboundDepth(Long.parseLong(maximumInboundDepth));
+                } catch (NumberFormatException ex) {
+                    closure.setMaximumInboundDepth(TransitiveClosure.UNBOUNDED_DEPTH);
+                }
 
-            TransitiveClosure closure = new TransitiveClosure(startCriteria, stopCriteria);
+                try {
+                    closure.setMaximumOutboundDepth(Long.parseLong(maximumOutboundDepth));
+                } catch (NumberFormatException ex) {
+                    closure.setMaximumOutboundDepth(TransitiveClosure.UNBOUNDED_DEPTH);
+                }
 
-            try {
-                closure.setMaximumInboundDepth(Long.parseLong(maximumInboundDepth));
-            } catch (NumberFormatException ex) {
-                closure.setMaximumInboundDepth(TransitiveClosure.UNBOUNDED_DEPTH);
-            }
+                closure.traverseNodes(graph.getFactory().getPackages().values());
 
-            try {
-                closure.setMaximumOutboundDepth(Long.parseLong(maximumOutboundDepth));
-            } catch (NumberFormatException ex) {
-                closure.setMaximumOutboundDepth(TransitiveClosure.UNBOUNDED_DEPTH);
-            }
+                RegularExpressionSelectionCriteria scopeCriteria  = new RegularExpressionSelectionCriteria();
+                scopeCriteria.setMatchingPackages("package".equals(scope));
+                scopeCriteria.setMatchingClasses("class".equals(scope));
+                scopeCriteria.setMatchingFeatures("feature".equals(scope));
+                scopeCriteria.setGlobalIncludes("//");
 
-            closure.traverseNodes(((NodeFactory) application.getAttribute("factory")).getPackages().values());
-
-            RegularExpressionSelectionCriteria scopeCriteria  = new RegularExpressionSelectionCriteria();
-            scopeCriteria.setMatchingPackages("package".equals(scope));
-            scopeCriteria.setMatchingClasses("class".equals(scope));
-            scopeCriteria.setMatchingFeatures("feature".equals(scope));
-            scopeCriteria.setGlobalIncludes("//");
-
-            RegularExpressionSelectionCriteria filterCriteria = new RegularExpressionSelectionCriteria();
-            filterCriteria.setMatchingPackages("package".equals(filter));
-            filterCriteria.setMatchingClasses("class".equals(filter));
-            filterCriteria.setMatchingFeatures("feature".equals(filter));
-            filterCriteria.setGlobalIncludes("//");
-
-            GraphSummarizer summarizer = new GraphSummarizer(scopeCriteria, filterCriteria);
-            summarizer.traverseNodes(closure.getFactory().getPackages().values());
-
-            StringBuffer urlPattern = new StringBuffer();
-            urlPattern.append(request.getRequestURI());
-            urlPattern.append("?");
-            Iterator entries = request.getParameterMap().entrySet().iterator();
-            while (entries.hasNext()) {
-                Map.Entry entry = (Map.Entry) entries.next();
-                if ("start-includes".equals(entry.getKey())) {
-                    urlPattern.append(entry.getKey()).append("=/^{0}/");
-                } else {
-                    String[] values = (String[]) entry.getValue();
-                    for (int i = 0; i < values.length; i++) {
-                        urlPattern.append(entry.getKey()).append("=").append(values[i]);
-                        if (i < values.length - 1) {
-                            urlPattern.append("&");
-                        }
-                    }
-                }
-                if (entries.hasNext()) {
-                    urlPattern.append("&");
-                }
-            }
+                RegularExpressionSelectionCriteria filterCriteria = new RegularExpressionSelectionCriteria();
+                filterCriteria.setMatchingPackages("package".equals(filter));
+                filterCriteria.setMatchingClasses("class".equals(filter));
+                filterCriteria.setMatchingFeatures("feature".equals(filter));
+                filterCriteria.setGlobalIncludes("//");
+
+                GraphSummarizer summarizer = new GraphSummarizer(scopeCriteria, filterCriteria);
+                summarizer.traverseNodes(closure.getFactory().getPackages().values());
+
+                MessageFormat urlFormat = new MessageFormat(key.getURLPattern("start-includes"));
 
-            MessageFormat urlFormat = new MessageFormat(urlPattern.toString());
+                Printer printer = new HTMLPrinter(new PrintWriter(buffer), urlFormat);
 
-            Printer printer = new HTMLPrinter(new PrintWriter(out), urlFormat);
+                printer.traverseNodes(summarizer.getScopeFactory().getPackages().values());
 
-            printer.traverseNodes(summarizer.getScopeFactory().getPackages().values());
+                result = buffer.toString();
+                if (cache != null) {
+                    cache.put(graph.getVersion(), key, result);
+                }
+            }
+
+            out.print(result);
 
             Date stop = new Date();
 %>
 
 </pre>
 
-<p><%= (stop.getTime() - start.getTime()) / (double) 1000 %> secs.</p>
+<p><%= (stop.getTime() - start.getTime()) / (double) 1000 %> secs.<%= cached ? " (cached)" : "" %></p>
 
 <%
+            } finally {
+                graph.release();
+            }
         } else {
 %>
 
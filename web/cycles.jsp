@@ -75,6 +75,8 @@
     if (maximumCycleLength == null) {
         maximumCycleLength = "";
     }
+
+    boolean scc = "on".equals(request.getParameter("scc"));
 %>
 
 <body>
@@ -96,7 +98,9 @@
 
 <th><fieldset class="navigation"><a href="query.jsp">Dependency graph</a></fieldset></th>
 <th><fieldset class="navigation"><a href="closure.jsp">Transitive closure</a></fieldset></th>
+<th><fieldset class="navigation"><a href="paths.jsp">Dependency paths</a></fieldset></th>
 <th><fieldset class="currentnavigation">Dependency cycles</fieldset></th>
+<th><fieldset class="navigation"><a href="layers.jsp">Dependency layers</a></fieldset></th>
 <th><fieldset class="navigation"><a href="metrics.jsp">Dependency metrics</a></fieldset></th>
 
 </tr></table>
@@ -143,6 +147,7 @@
 
 <fieldset>
     <label title="Maximum length of dependencies cycles.  Empty field means no limit." for="maximumCycleLength">max length <input type="text" name="maximum-cycle-length" value="<%= maximumCycleLength %>" size="2" id="maximumCycleLength"></label>
+    <label title="Only look for cycles within strongly connected components.  Much faster on large graphs, but only follows dependencies between nodes of the same kind." for="scc"><input type="checkbox" name="scc" <%= scc ? "checked" : "" %> id="scc"> strongly connected components</label>
 </fieldset>
 
         </td>
@@ -166,7 +171,10 @@
 
 <%
     if (request.getParameter("submit") != null) {
-        if (application.getAttribute("factory") != null) {
+        GraphVersions graphs = (GraphVersions) application.getAttribute("graphs");
+        GraphVersion graph = (graphs != null) ? graphs.acquire() : null;
+        if (graph != null) {
+            try {
 %>
 
 <pre class="result">
@@ -182,14 +190,15 @@
             scopeCriteria.setGlobalIncludes(scopeIncludes);
             scopeCriteria.setGlobalExcludes(scopeExcludes);
         
-            CycleDetector detector = new CycleDetector(scopeCriteria);
+            CycleFinder detector = new CycleFinderFactory().createCycleFinder(scopeCriteria, scc);
             try {
                 detector.setMaximumCycleLength(Integer.parseInt(maximumCycleLength));
             } catch (NumberFormatException ex) {
                 // Ignore
             }
 
-            detector.traverseNodes(((NodeFactory) application.getAttribute("factory")).getPackages().values());
+            detector.traverseNodes(graph.getFactory().getPackages().values());
+            Collection<Cycle> cycles = detector.getCycles();
 
             StringBuffer urlPattern = new StringBuffer();
             urlPattern.append(request.getRequestURI());
@@ -216,7 +225,7 @@
             MessageFormat urlFormat = new MessageFormat(urlPattern.toString());
 
             CyclePrinter printer = new HTMLCyclePrinter(new PrintWriter(out), urlFormat);
-            printer.visitCycles(detector.getCycles());
+            printer.visitCycles(cycles);
 
             Date stop = new Date();
 %>
@@ -226,6 +235,9 @@
 <p><%= (stop.getTime() - start.getTime()) / (double) 1000 %> secs.</p>
 
 <%
+            } finally {
+                graph.release();
+            }
         } else {
 %>
 
@@ -36,78 +36,167 @@
 <jsp:useBean id="version" class="com.jeantessier.dependencyfinder.Version" scope="application"/>
 
 <%!
-    private class VerboseListener extends VerboseListenerBase {
-        private JspWriter out;
-
-        private int classCount = 0;
-
-        public VerboseListener(JspWriter out) {
-            this.out = out;
+    private class ExtractionJob extends GraphJob {
+        private ServletContext application;
+        private Collection<String> sources;
+        private boolean update;
+        private String label;
+
+        public ExtractionJob(ServletContext application, Collection<String> sources, boolean update, String label) {
+            super(update ? "Updating the dependency graph" : "Extracting the dependency graph");
+
+            this.application = application;
+            this.sources = sources;
+            this.update = update;
+            this.label = label;
         }
 
-        public int getClassCount() {
-            return classCount;
-        }
-        
-        public void beginGroup(LoadEvent event) {
-            super.beginGroup(event);
+        protected void execute() throws Exception {
+            Date start = new Date();
 
-            try {
-                out.println();
-                out.print("\tSearching ");
-                out.print(getCurrentGroup().getName());
-                if (getCurrentGroup().getSize() >= 0) {
-                    out.print(" (");
-                    out.print(getCurrentGroup().getSize());
-                    out.print(" files)");
+            ClassfileLoaderDispatcher dispatcher = (ClassfileLoaderDispatcher) application.getAttribute("dispatcher");
+            if (dispatcher == null || !update) {
+                dispatcher = new ModifiedOnlyDispatcher(ClassfileLoaderEventSource.DEFAULT_DISPATCHER);
+            }
+
+            GraphVersions graphs = WebApplicationHelper.getGraphs(application);
+
+            synchronized (graphs) {
+                boolean published = false;
+                try {
+                    // Work on a private copy so that readers keep seeing the
+                    // current version until the new one is published.
+                    NodeFactory factory = null;
+                    Monitor previousMonitor = (Monitor) application.getAttribute("monitor");
+                    if (previousMonitor != null && update) {
+                        GraphVersion current = graphs.acquire();
+                        if (current != null) {
+                            try {
+                                factory = current.copyFactory();
+                            } finally {
+                                current.release();
+                            }
+                        }
+                    }
+                    if (factory == null) {
+                        factory = new NodeFactory();
+                        previousMonitor = null;
+                    }
+
+                    RegularExpressionSelectionCriteria filterCriteria = new RegularExpressionSelectionCriteria();
+                    filterCriteria.setGlobalIncludes(application.getInitParameter("filterIncludes"));
+                    filterCriteria.setGlobalExcludes(application.getInitParameter("filterExcludes"));
+
+                    CodeDependencyCollector collector = new CodeDependencyCollector(factory, filterCriteria);
+                    DeletingVisitor deletingVisitor = new DeletingVisitor(factory);
+
+                    Monitor monitor;
+                    if (previousMonitor != null) {
+                        monitor = new Monitor(collector, deletingVisitor, previousMonitor);
+                    } else {
+                        monitor = new Monitor(collector, deletingVisitor);
+                    }
+
+                    ClassfileLoader loader = new TransientClassfileLoader(dispatcher);
+                    loader.addLoadListener(getListener());
+                    loader.addLoadListener(monitor);
+                    loader.load(sources);
+
+                    if ("maximize".equalsIgnoreCase(application.getInitParameter("mode"))) {
+                        log("Maximizing ...");
+                        new LinkMaximizer().traverseNodes(factory.getPackages().values());
+                    } else if ("minimize".equalsIgnoreCase(application.getInitParameter("mode"))) {
+                        log("Minimizing ...");
+                        new LinkMinimizer().traverseNodes(factory.getPackages().values());
+                    }
+
+                    // Last chance to back out before replacing the current graph.
+                    checkCancelled();
+
+                    graphs.publish(factory);
+                    published = true;
+
+                    // Results computed from the previous version are of no use anymore.
+                    WebApplicationHelper.getQueryCache(application).invalidate();
+
+                    application.setAttribute("dispatcher", dispatcher);
+                    application.setAttribute("monitor",    monitor);
+                } finally {
+                    // An update that did not make it has already recorded
+                    // the files it read in the dispatcher, so the next
+                    // run has to start over.
+                    if (!published && dispatcher == application.getAttribute("dispatcher")) {
+                        application.removeAttribute("dispatcher");
+                        application.removeAttribute("monitor");
+                    }
                 }
-                out.print(" ...");
-                out.println();
-            } catch (IOException ex) {
-                // Do nothing
             }
-        }
 
-        public void beginFile(LoadEvent event) {
-            super.beginFile(event);
+            Date   stop     = new Date();
+            double duration = (stop.getTime() - start.getTime()) / (double) 1000;
 
-            try {
-                out.print(getRatioIndicator());
-            } catch (IOException ex) {
-                // Ignore
-            }
-        }
+            SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
 
-        public void endClassfile(LoadEvent event) {
-            super.endClassfile(event);
+            if (!update) {
+                application.setAttribute("extractStart",    formatter.format(start));
+                application.setAttribute("extractDuration", duration);
+                application.removeAttribute("updateStart");
+                application.removeAttribute("updateDuration");
+            } else {
+                application.setAttribute("updateStart",    formatter.format(start));
+                application.setAttribute("updateDuration", duration);
+            }
 
-            classCount++;
+            if ("".equals(label)) {
+                application.setAttribute("label", null);
+            } else {
+                application.setAttribute("label", label);
+            }
 
-            try {
-                out.print("\t\tGetting dependencies from ");
-                out.print(event.getClassfile());
-                out.print(" ...");
-                out.println();
-            } catch (IOException ex) {
-                // Ignore
+            application.removeAttribute("loadStart");
+            application.removeAttribute("loadDuration");
+
+            switch (getNbClasses()) {
+                case 0:
+                    log("Processed nothing in " + duration + " secs.");
+                    break;
+                case 1:
+                    log("Processed 1 class in " + duration + " secs.");
+                    break;
+                default:
+                    log("Processed " + getNbClasses() + " classes in " + duration + " secs.");
+                    break;
             }
         }
+    }
+%>
 
-        public void endFile(LoadEvent event) {
-            super.endFile(event);
+<%
+    GraphJobService jobs = WebApplicationHelper.getJobService(application);
 
-            try {
-                if (!getVisitedFiles().contains(event.getFilename())) {
-                    out.print("\t\t<i>Skipping ");
-                    out.print(event.getFilename());
-                    out.print(" ...</i>");
-                    out.println();
-                }
-            } catch (IOException ex) {
-                // Ignore
-            }
+    Perl5Util perl = new Perl5Util();
+    Collection<String> sources = new LinkedList<String>();
+    perl.split(sources, "/,\\s*/", application.getInitParameter("source"));
+
+    GraphJob job = jobs.getCurrentJob();
+
+    if (request.getParameter("launch") != null) {
+        jobs.submit(new ExtractionJob(application, sources, request.getParameter("update") != null, request.getParameter("label")));
+
+        response.sendRedirect(request.getRequestURI());
+        return;
+    }
+
+    if (request.getParameter("cancel") != null) {
+        if (job != null) {
+            job.cancel();
         }
+
+        response.sendRedirect(request.getRequestURI());
+        return;
     }
+
+    boolean running = (job != null && !job.isFinished());
 %>
 
 <html>
@@ -115,6 +204,9 @@
 <head>
 <link rel="stylesheet" type="text/css" href="style.css" />
 <link rel="shortcut icon" href="images/logoicon.gif" type="image/gif" />
+<% if (running) { %>
+<meta http-equiv="refresh" content="2" />
+<% } %>
 <title>Extract <%= application.getInitParameter("name") %></title>
 </head>
 
@@ -148,7 +240,9 @@
 
             <th><fieldset class="navigation"><a href="query.jsp">Dependency graph</a></fieldset></th>
             <th><fieldset class="navigation"><a href="closure.jsp">Transitive closure</a></fieldset></th>
+            <th><fieldset class="navigation"><a href="paths.jsp">Dependency paths</a></fieldset></th>
             <th><fieldset class="navigation"><a href="cycles.jsp">Dependency cycles</a></fieldset></th>
+            <th><fieldset class="navigation"><a href="layers.jsp">Dependency layers</a></fieldset></th>
             <th><fieldset class="navigation"><a href="metrics.jsp">Dependency metrics</a></fieldset></th>
 
             </tr></table>
@@ -156,11 +250,7 @@
     </tr>
 
 <%
-    Perl5Util perl = new Perl5Util();
-    Collection<String> sources = new LinkedList<String>();
-    perl.split(sources, "/,\\s*/", application.getInitParameter("source"));
-
-    if (request.getParameter("launch") == null) {
+    if (!running) {
         if (Boolean.valueOf(application.getInitParameter("showSource"))) {
 %>
 
@@ -213,7 +303,7 @@
                 <input type="submit" name="launch" value="Launch">
                 <font size="smaller">optional label:</font> <input type="text" name="label" value="<%= (label != null) ? label : "" %>" />
 <%
-        if (application.getAttribute("factory") != null) {
+        if (application.getAttribute("graphs") != null && ((GraphVersions) application.getAttribute("graphs")).getCurrentVersion() > 0) {
 %>
                 <br />
                 <label title="Uncheck to discard the current graph and extract a new one from scratch" for="update">
@@ -231,11 +321,27 @@
             <table>
 
 <%
-        if (application.getAttribute("factory") != null) {
+        GraphVersions graphs = (GraphVersions) application.getAttribute("graphs");
+        GraphVersion graph = (graphs != null) ? graphs.acquire() : null;
+        if (graph != null) {
+            try {
+%>
+                <tr><td valign="top" rowspan="3">The current graph contains:</td><td align="right"><%= graph.getFactory().getPackages().size() %></td><td>packages</td></tr>
+                <tr><td align="right"><%= graph.getFactory().getClasses().size() %></td><td>classes</td></tr>
+                <tr><td align="right"><%= graph.getFactory().getFeatures().size() %></td><td>features</td></tr>
+<%
+            QueryResultCache queryCache = (QueryResultCache) application.getAttribute("queryCache");
+            if (queryCache != null) {
+%>
+                <tr><td>&nbsp;</td></tr>
+                <tr><td valign="top" rowspan="2">The query cache holds:</td><td align="right"><%= queryCache.getNbEntries() %></td><td>result(s), out of <%= queryCache.getMaxEntries() %></td></tr>
+                <tr><td align="right"><%= queryCache.getSize() %></td><td>characters, out of <%= queryCache.getMaxSize() %></td></tr>
+                <tr><td valign="top" rowspan="3">It has seen:</td><td align="right"><%= queryCache.getHits() %></td><td>hit(s) (<%= Math.round(queryCache.getHitRatio() * 100) %>%)</td></tr>
+                <tr><td align="right"><%= queryCache.getMisses() %></td><td>miss(es)</td></tr>
+                <tr><td align="right"><%= queryCache.getEvictions() %></td><td>eviction(s)</td></tr>
+<%
+            }
 %>
-                <tr><td valign="top" rowspan="3">The current graph contains:</td><td align="right"><%= ((NodeFactory) application.getAttribute("factory")).getPackages().size() %></td><td>packages</td></tr>
-                <tr><td align="right"><%= ((NodeFactory) application.getAttribute("factory")).getClasses().size() %></td><td>classes</td></tr>
-                <tr><td align="right"><%= ((NodeFactory) application.getAttribute("factory")).getFeatures().size() %></td><td>features</td></tr>
 <%
             if (application.getAttribute("extractStart") != null) {
 %>
@@ -263,6 +369,9 @@
                 </td></tr>
 <%
             }
+            } finally {
+                graph.release();
+            }
         } else {
 %>
                 There is no dependency graph at this time.
@@ -282,93 +391,12 @@
 
 <p>Extracting dependency graph for <b><code><%= application.getInitParameter("name") %></code></b></p>
 
-<pre class="result">
-
-<%
-        Date start = new Date();
-        VerboseListener listener = new VerboseListener(out);
-
-        ClassfileLoaderDispatcher dispatcher = (ClassfileLoaderDispatcher) application.getAttribute("dispatcher");
-        if (dispatcher == null || request.getParameter("update") == null) {
-            dispatcher = new ModifiedOnlyDispatcher(ClassfileLoaderEventSource.DEFAULT_DISPATCHER);
-        }
-
-        NodeFactory factory = (NodeFactory) application.getAttribute("factory");
-        if (factory == null || request.getParameter("update") == null) {
-            factory = new NodeFactory();
-        }
-
-        Monitor monitor = (Monitor) application.getAttribute("monitor");
-        if (monitor == null || request.getParameter("update") == null) {
-            RegularExpressionSelectionCriteria filterCriteria = new RegularExpressionSelectionCriteria();
-            filterCriteria.setGlobalIncludes(application.getInitParameter("filterIncludes"));
-            filterCriteria.setGlobalExcludes(application.getInitParameter("filterExcludes"));
-
-            CodeDependencyCollector collector = new CodeDependencyCollector(factory, filterCriteria);
-            DeletingVisitor deletingVisitor = new DeletingVisitor(factory);
-
-            monitor = new Monitor(collector, deletingVisitor);
-        }
-
-        ClassfileLoader loader = new TransientClassfileLoader(dispatcher);
-        loader.addLoadListener(listener);
-        loader.addLoadListener(monitor);
-        loader.load(sources);
-
-        if ("maximize".equalsIgnoreCase(application.getInitParameter("mode"))) {
-            out.println("Maximizing ...");
-            new LinkMaximizer().traverseNodes(factory.getPackages().values());
-        } else if ("minimize".equalsIgnoreCase(application.getInitParameter("mode"))) {
-            out.println("Minimizing ...");
-            new LinkMinimizer().traverseNodes(factory.getPackages().values());
-        }
-
-        Date   stop     = new Date();
-        double duration = (stop.getTime() - start.getTime()) / (double) 1000;
-
-        SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-
-        application.setAttribute("dispatcher", dispatcher);
-        application.setAttribute("factory",    factory);
-        application.setAttribute("monitor",    monitor);
-
-        if (request.getParameter("update") == null) {
-            application.setAttribute("extractStart",    formatter.format(start));
-            application.setAttribute("extractDuration", duration);
-            application.removeAttribute("updateStart");
-            application.removeAttribute("updateDuration");
-        } else {
-            application.setAttribute("updateStart",    formatter.format(start));
-            application.setAttribute("updateDuration", duration);
-        }
-
-        if ("".equals(request.getParameter("label"))) {
-            application.setAttribute("label", null);
-        } else {
-            application.setAttribute("label", request.getParameter("label"));
-        }
-
-        application.removeAttribute("loadStart");
-        application.removeAttribute("loadDuration");
-%>
-
-</pre>
-
 <%
-        switch (listener.getClassCount()) {
-            case 0:
-                out.println("<p>Processed nothing in " + duration + " secs.</p>");
-                break;
-            case 1:
-                out.println("<p>Processed 1 class in " + duration + " secs.</p>");
-                break;
-            default:
-                out.println("<p>Processed " + listener.getClassCount() + " classes in " + duration + " secs.</p>");
-                break;
-        }
     }
 %>
 
+<jsp:include page="job.jsp"/>
+
 <jsp:include page="footer.jsp"/>
 
 </body>
@@ -1,3 +1,4 @@
+<%@ page import="com.jeantessier.dependency.*" %>
 <!--
     Copyright (c) 2001-2009, Jean Tessier
     All rights reserved.
@@ -41,7 +42,7 @@
     <tr>
         <td>
 <%
-            if (application.getAttribute("factory") != null) {
+            if (application.getAttribute("graphs") != null && ((GraphVersions) application.getAttribute("graphs")).getCurrentVersion() > 0) {
                 if (application.getAttribute("updateStart") != null) {
 %>
             Current graph last updated on <%= application.getAttribute("updateStart") %>.
@@ -0,0 +1,106 @@
+<%@ page import="java.util.*, com.jeantessier.dependencyfinder.*" %>
+<!--
+    Copyright (c) 2001-2009, Jean Tessier
+    All rights reserved.
+    
+    Redistribution and use in source and binary forms, with or without
+    modification, are permitted provided that the following conditions
+    are met:
+    
+        * Redistributions of source code must retain the above copyright
+          notice, this list of conditions and the following disclaimer.
+    
+        * Redistributions in binary form must reproduce the above copyright
+          notice, this list of conditions and the following disclaimer in the
+          documentation and/or other materials provided with the distribution.
+    
+        * Neither the name of Jean Tessier nor the names of his contributors
+          may be used to endorse or promote products derived from this software
+          without specific prior written permission.
+    
+    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+    "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+    LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+    A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+    CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+    EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+    PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+    PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+    LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+    NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+-->
+
+<%
+    GraphJobService jobs = (GraphJobService) application.getAttribute("jobs");
+    GraphJob job = (jobs != null) ? jobs.getCurrentJob() : null;
+    if (job != null) {
+        String status;
+        switch (job.getStatus()) {
+            case PENDING:
+                status = "Waiting to start";
+                break;
+            case RUNNING:
+                status = job.isCancelled() ? "Cancelling" : "Running";
+                break;
+            case DONE:
+                status = "Done";
+                break;
+            case CANCELLED:
+                status = "Cancelled";
+                break;
+            default:
+                status = "Failed";
+                break;
+        }
+%>
+
+<table cellpadding="5">
+    <tr>
+        <td>
+            <table>
+                <tr><td><%= job.getName() %>:</td><td><%= status %> after <%= job.getElapsedTime() / (double) 1000 %> second(s).</td></tr>
+<%
+        if (job.getCurrentGroupName() != null) {
+%>
+                <tr><td>Reading:</td><td><tt><%= job.getCurrentGroupName() %></tt>, <%= job.getCurrentGroupCount() %><%= (job.getCurrentGroupSize() >= 0) ? " of " + job.getCurrentGroupSize() : "" %> file(s)<%= (job.getCurrentGroupRatio() >= 0) ? " (" + job.getCurrentGroupRatio() + "%)" : "" %></td></tr>
+<%
+        }
+%>
+                <tr><td>Processed:</td><td><%= job.getNbFiles() %> file(s), <%= job.getNbClasses() %> class(es)</td></tr>
+<%
+        if (job.getFailure() != null) {
+%>
+                <tr><td>Error:</td><td><span class="error"><%= job.getFailure() %></span></td></tr>
+<%
+        }
+%>
+            </table>
+        </td>
+    </tr>
+<%
+        if (!job.isFinished()) {
+%>
+    <tr>
+        <td align="center">
+            <form method="post" action="<%= request.getRequestURI() %>">
+                <input type="submit" name="cancel" value="Cancel" <%= job.isCancelled() ? "disabled" : "" %>>
+            </form>
+        </td>
+    </tr>
+<%
+        }
+%>
+</table>
+
+<pre class="result">
+<%
+        for (String message : job.getMessages()) {
+            out.println(message);
+        }
+%>
+</pre>
+
+<%
+    }
+%>
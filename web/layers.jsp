@@ -0,0 +1,199 @@
+<%@ page import="java.io.*, java.text.*, java.util.*, com.jeantessier.dependency.*" %>
+<%@ page errorPage="errorpage.jsp" %>
+
+<!--
+    Copyright (c) 2001-2009, Jean Tessier
+    All rights reserved.
+    
+    Redistribution and use in source and binary forms, with or without
+    modification, are permitted provided that the following conditions
+    are met:
+    
+        * Redistributions of source code must retain the above copyright
+          notice, this list of conditions and the following disclaimer.
+    
+        * Redistributions in binary form must reproduce the above copyright
+          notice, this list of conditions and the following disclaimer in the
+          documentation and/or other materials provided with the distribution.
+    
+        * Neither the name of Jean Tessier nor the names of his contributors
+          may be used to endorse or promote products derived from this software
+          without specific prior written permission.
+    
+    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+    "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+    LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+    A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+    CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+    EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+    PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+    PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+    LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+    NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+-->
+
+<jsp:useBean id="version" class="com.jeantessier.dependencyfinder.Version" scope="application"/>
+
+<html>
+
+<head>
+<link rel="stylesheet" type="text/css" href="style.css" />
+<link rel="shortcut icon" href="images/logoicon.gif" type="image/gif" />
+<title>Query <%= application.getInitParameter("name") %></title>
+</head>
+
+<!-- Reading the parameters and setting up the forms -->
+
+<%
+    String scopeIncludes = request.getParameter("scope-includes");
+    if (scopeIncludes == null) {
+        scopeIncludes = "//";
+    }
+
+    String scopeExcludes = request.getParameter("scope-excludes");
+    if (scopeExcludes == null) {
+        scopeExcludes = "";
+    }
+
+    boolean classLevel = "class".equals(request.getParameter("level"));
+%>
+
+<body>
+
+<form action="<%= request.getRequestURI() %>" method="get">
+
+<table border="0" cellpadding="5"><tr><td colspan="2">
+
+<div class="title">
+<span id="name"><%= application.getInitParameter("name") %></span>
+<% if (application.getAttribute("label") != null ) { %>
+<span id="label"><%= application.getAttribute("label") %></span>
+<% } %>
+</div>
+
+</td></tr><tr><td colspan="2">
+
+<table border="0" class="controls" width="100%"><tr>
+
+<th><fieldset class="navigation"><a href="query.jsp">Dependency graph</a></fieldset></th>
+<th><fieldset class="navigation"><a href="closure.jsp">Transitive closure</a></fieldset></th>
+<th><fieldset class="navigation"><a href="paths.jsp">Dependency paths</a></fieldset></th>
+<th><fieldset class="navigation"><a href="cycles.jsp">Dependency cycles</a></fieldset></th>
+<th><fieldset class="currentnavigation">Dependency layers</fieldset></th>
+<th><fieldset class="navigation"><a href="metrics.jsp">Dependency metrics</a></fieldset></th>
+
+</tr></table>
+
+</td></tr><tr><td colspan="2">
+
+<table border="0" class="controls" width="100%">
+    <tr>
+        <td align="center">
+
+<fieldset>
+    <legend>Condense programming elements</legend>
+    <table width="100%">
+        <tr>
+            <td align="center" colspan="2">
+                <label title="Collapse cycles between packages" for="packageLevel"><input type="radio" name="level" value="package" <%= !classLevel ? "checked" : "" %> id="packageLevel"> package</label>
+                <label title="Collapse cycles between classes" for="classLevel"><input type="radio" name="level" value="class" <%= classLevel ? "checked" : "" %> id="classLevel"> class</label>
+            </td>
+        </tr>
+        <tr>
+            <td>
+                including:
+            </td>
+            <td>
+                excluding:
+            </td>
+        </tr>
+        <tr>
+            <td>
+                <input type="text" name="scope-includes" value="<%= scopeIncludes %>" title="Package or class must match any these expressions. E.g., /^com.mycompany/, /\\.Test\\w+/">
+            </td>
+            <td>
+                <input type="text" name="scope-excludes" value="<%= scopeExcludes %>" title="Package or class must NOT match any of these expressions. E.g., /^java/">
+            </td>
+        </tr>
+    </table>
+</fieldset>
+
+        </td>
+    </tr>
+</table>
+
+</td></tr><tr>
+
+<td align="left" colspan="2"><font size="-1">Use Perl regular expressions, <a target="_blank" href="<jsp:getProperty name="version" property="ImplementationURL"/>Manual.html#PerlRegularExpressions">see the manual</a>.</font></td>
+
+</tr><tr><td align="center" colspan="2">
+
+<input type="submit" name="submit" value="Run Query"/>
+
+</td></tr></table>
+
+</form>
+
+<hr size="3" />
+
+<%
+    if (request.getParameter("submit") != null) {
+        GraphVersions graphs = (GraphVersions) application.getAttribute("graphs");
+        GraphVersion graph = (graphs != null) ? graphs.acquire() : null;
+        if (graph != null) {
+            try {
+%>
+
+<pre class="result">
+
+<%
+            Date start = new Date();
+
+            RegularExpressionSelectionCriteria scopeCriteria  = new RegularExpressionSelectionCriteria();
+
+            scopeCriteria.setGlobalIncludes(scopeIncludes);
+            scopeCriteria.setGlobalExcludes(scopeExcludes);
+
+            GraphCondenser condenser = new GraphCondenser(scopeCriteria);
+
+            CondensedGraph condensedGraph;
+            if (classLevel) {
+                condensedGraph = condenser.condenseClasses(graph.getFactory().getPackages().values());
+            } else {
+                condensedGraph = condenser.condensePackages(graph.getFactory().getPackages().values());
+            }
+
+            MessageFormat urlFormat = new MessageFormat("query.jsp?scope-includes=/^{0}/&" + (classLevel ? "class" : "package") + "-scope=on&submit=Run+Query");
+
+            CondensedGraphPrinter printer = new HTMLCondensedGraphPrinter(new PrintWriter(out), urlFormat);
+            printer.visitCondensedGraph(condensedGraph);
+
+            Date stop = new Date();
+%>
+
+</pre>
+
+<p><%= (stop.getTime() - start.getTime()) / (double) 1000 %> secs.</p>
+
+<%
+            } finally {
+                graph.release();
+            }
+        } else {
+%>
+
+<h3>No dependency graph available</h3>
+
+<p>Please ask the webmaster to extract a dependency graph before you start placing queries.</p>
+
+<%
+        }
+    }
+%>
+
+<jsp:include page="footer.jsp"/>
+
+</body>
+
+</html>
@@ -1,4 +1,4 @@
-<%@ page import="java.io.*, java.text.*, java.util.*, javax.servlet.jsp.*, org.apache.oro.text.perl.*, org.xml.sax.*, com.jeantessier.dependency.*" %>
+<%@ page import="java.io.*, java.text.*, java.util.*, org.apache.oro.text.perl.*, org.xml.sax.*, com.jeantessier.dependency.*, com.jeantessier.dependencyfinder.*" %>
 <%@ page errorPage="errorpage.jsp" %>
 
 <!--
@@ -36,40 +36,119 @@
 <jsp:useBean id="version" class="com.jeantessier.dependencyfinder.Version" scope="application"/>
 
 <%!
-    private class VerboseListener implements DependencyListener {
-        private JspWriter out;
+    private class LoadJob extends GraphJob {
+        private ServletContext application;
+        private Collection<String> files;
+        private String label;
 
-        public VerboseListener(JspWriter out) {
-            this.out = out;
-        }
+        public LoadJob(ServletContext application, Collection<String> files, String label) {
+            super("Loading the dependency graph");
 
-        public void beginSession(DependencyEvent event) {
-            // Do nothing
+            this.application = application;
+            this.files = files;
+            this.label = label;
         }
 
-        public void beginClass(DependencyEvent event) {
-            try {
-                out.print("Loading dependencies for ");
-                out.print(event.getClassName());
-                out.print(" ...");
-                out.println();
-            } catch (IOException ex) {
-                // Ignore
+        protected void execute() throws Exception {
+            Date start = new Date();
+
+            NodeFactory factory = new NodeFactory();
+            NodeLoader loader = new NodeLoader(factory);
+            loader.addDependencyListener(getListener());
+
+            for (String filename : files) {
+                log("Loading " + filename + " ...");
+                try {
+                    loader.load(filename);
+                } catch (SAXException ex) {
+                    log("Could not load graph from file \"" + filename + "\": " + ex.getMessage());
+                } catch (FileNotFoundException ex) {
+                    log("Could not load graph from file \"" + filename + "\": " + ex.getMessage());
+                }
             }
-        }
 
-        public void dependency(DependencyEvent event) {
-            // Do nothing
-        }
+            if ("maximize".equalsIgnoreCase(application.getInitParameter("mode"))) {
+                log("Maximizing ...");
+                new LinkMaximizer().traverseNodes(factory.getPackages().values());
+            } else if ("minimize".equalsIgnoreCase(application.getInitParameter("mode"))) {
+                log("Minimizing ...");
+                new LinkMinimizer().traverseNodes(factory.getPackages().values());
+            }
+
+            Date   stop     = new Date();
+            double duration = (stop.getTime() - start.getTime()) / (double) 1000;
+
+            SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+            GraphVersions graphs = WebApplicationHelper.getGraphs(application);
+
+            synchronized (graphs) {
+                // Last chance to back out before replacing the current graph.
+                checkCancelled();
+
+                graphs.publish(factory);
+
+                // Results computed from the previous version are of no use anymore.
+                WebApplicationHelper.getQueryCache(application).invalidate();
+
+                application.setAttribute("loadStart",    formatter.format(start));
+                application.setAttribute("loadDuration", duration);
 
-        public void endClass(DependencyEvent event) {
-            // Do nothing
+                if ("".equals(label)) {
+                    application.setAttribute("label", null);
+                } else {
+                    application.setAttribute("label", label);
+                }
+
+                application.removeAttribute("dispatcher");
+                application.removeAttribute("monitor");
+                application.removeAttribute("extractStart");
+                application.removeAttribute("extractDuration");
+                application.removeAttribute("updateStart");
+                application.removeAttribute("updateDuration");
+            }
+
+            switch (files.size()) {
+                case 0:
+                    log("Loaded nothing in " + duration + " secs.");
+                    break;
+                case 1:
+                    log("Loaded 1 file in " + duration + " secs.");
+                    break;
+                default:
+                    log("Loaded " + files.size() + " files in " + duration + " secs.");
+                    break;
+            }
         }
+    }
+%>
+
+<%
+    GraphJobService jobs = WebApplicationHelper.getJobService(application);
+
+    Perl5Util perl = new Perl5Util();
+    Collection<String> files = new LinkedList<String>();
+    perl.split(files, "/,\\s*/", application.getInitParameter("file"));
+
+    GraphJob job = jobs.getCurrentJob();
+
+    if (request.getParameter("launch") != null) {
+        jobs.submit(new LoadJob(application, files, request.getParameter("label")));
 
-        public void endSession(DependencyEvent event) {
-            // Do nothing
+        response.sendRedirect(request.getRequestURI());
+        return;
+    }
+
+    if (request.getParameter("cancel") != null) {
+        if (job != null) {
+            job.cancel();
         }
+
+        response.sendRedirect(request.getRequestURI());
+        return;
     }
+
+    boolean running = (job != null && !job.isFinished());
 %>
 
 <html>
@@ -77,6 +156,9 @@
 <head>
 <link rel="stylesheet" type="text/css" href="style.css" />
 <link rel="shortcut icon" href="images/logoicon.gif" type="image/gif" />
+<% if (running) { %>
+<meta http-equiv="refresh" content="2" />
+<% } %>
 <title>Load <%= application.getInitParameter("name") %></title>
 </head>
 
@@ -110,7 +192,9 @@
 
             <th><fieldset class="navigation"><a href="query.jsp">Dependency graph</a></fieldset></th>
             <th><fieldset class="navigation"><a href="closure.jsp">Transitive closure</a></fieldset></th>
+            <th><fieldset class="navigation"><a href="paths.jsp">Dependency paths</a></fieldset></th>
             <th><fieldset class="navigation"><a href="cycles.jsp">Dependency cycles</a></fieldset></th>
+            <th><fieldset class="navigation"><a href="layers.jsp">Dependency layers</a></fieldset></th>
             <th><fieldset class="navigation"><a href="metrics.jsp">Dependency metrics</a></fieldset></th>
 
             </tr></table>
@@ -118,11 +202,7 @@
     </tr>
 
 <%
-    Perl5Util perl = new Perl5Util();
-    Collection<String> files = new LinkedList<String>();
-    perl.split(files, "/,\\s*/", application.getInitParameter("file"));
-
-    if (request.getParameter("launch") == null) {
+    if (!running) {
         if (Boolean.valueOf(application.getInitParameter("showFile"))) {
 %>
 
@@ -178,11 +258,14 @@
             <table>
 
 <%
-        if (application.getAttribute("factory") != null) {
+        GraphVersions graphs = (GraphVersions) application.getAttribute("graphs");
+        GraphVersion graph = (graphs != null) ? graphs.acquire() : null;
+        if (graph != null) {
+            try {
 %>
-                <tr><td valign="top" rowspan="3">The current graph contains:</td><td align="right"><%= ((NodeFactory) application.getAttribute("factory")).getPackages().size() %></td><td>packages</td></tr>
-                <tr><td align="right"><%= ((NodeFactory) application.getAttribute("factory")).getClasses().size() %></td><td>classes</td></tr>
-                <tr><td align="right"><%= ((NodeFactory) application.getAttribute("factory")).getFeatures().size() %></td><td>features</td></tr>
+                <tr><td valign="top" rowspan="3">The current graph contains:</td><td align="right"><%= graph.getFactory().getPackages().size() %></td><td>packages</td></tr>
+                <tr><td align="right"><%= graph.getFactory().getClasses().size() %></td><td>classes</td></tr>
+                <tr><td align="right"><%= graph.getFactory().getFeatures().size() %></td><td>features</td></tr>
 <%
             if (application.getAttribute("loadStart") != null) {
 %>
@@ -191,6 +274,9 @@
 
 <%
             }
+            } finally {
+                graph.release();
+            }
         } else {
 %>
                 There is no dependency graph at this time.
@@ -210,74 +296,12 @@
 
 <p>Loading dependency graph for <b><code><%= application.getInitParameter("name") %></code></b></p>
 
-<pre class="result">
-
-<%
-        Date start = new Date();
-        VerboseListener listener = new VerboseListener(out);
-
-        NodeFactory factory = new NodeFactory();
-        NodeLoader loader = new NodeLoader(factory);
-        loader.addDependencyListener(listener);
-
-        for (String filename : files) {
-            try {
-                loader.load(filename);
-            } catch (SAXException ex) {
-                out.println("<i class=\"error\">Could not load graph from file \"" + filename + "\": " + ex.getMessage() + "</i>");
-            } catch (FileNotFoundException ex) {
-                out.println("<i class=\"error\">Could not load graph from file \"" + filename + "\": " + ex.getMessage() + "</i>");
-            }
-        }
-
-        if ("maximize".equalsIgnoreCase(application.getInitParameter("mode"))) {
-            out.println("Maximizing ...");
-            new LinkMaximizer().traverseNodes(factory.getPackages().values());
-        } else if ("minimize".equalsIgnoreCase(application.getInitParameter("mode"))) {
-            out.println("Minimizing ...");
-            new LinkMinimizer().traverseNodes(factory.getPackages().values());
-        }
-
-        Date   stop     = new Date();
-        double duration = (stop.getTime() - start.getTime()) / (double) 1000;
-
-        SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-
-        application.setAttribute("factory",      factory);
-        application.setAttribute("loadStart",    formatter.format(start));
-        application.setAttribute("loadDuration", duration);
-
-        if ("".equals(request.getParameter("label"))) {
-            application.setAttribute("label", null);
-        } else {
-            application.setAttribute("label", request.getParameter("label"));
-        }
-
-        application.removeAttribute("dispatcher");
-        application.removeAttribute("monitor");
-        application.removeAttribute("extractStart");
-        application.removeAttribute("extractDuration");
-        application.removeAttribute("updateStart");
-        application.removeAttribute("updateDuration");
-%>
-
-</pre>
-
 <%
-        switch (files.size()) {
-            case 0:
-                out.println("<p>Loaded nothing in " + duration + " secs.</p>");
-                break;
-            case 1:
-                out.println("<p>Loaded 1 file in " + duration + " secs.</p>");
-                break;
-            default:
-                out.println("<p>Loaded " + files.size() + " files in " + duration + " secs.</p>");
-                break;
-        }
     }
 %>
 
+<jsp:include page="job.jsp"/>
+
 <jsp:include page="footer.jsp"/>
 
 </body>
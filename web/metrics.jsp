@@ -121,7 +121,9 @@
 
 <th><fieldset class="navigation"><a href="query.jsp">Dependency graph</a></fieldset></th>
 <th><fieldset class="navigation"><a href="closure.jsp">Transitive closure</a></fieldset></th>
+<th><fieldset class="navigation"><a href="paths.jsp">Dependency paths</a></fieldset></th>
 <th><fieldset class="navigation"><a href="cycles.jsp">Dependency cycles</a></fieldset></th>
+<th><fieldset class="navigation"><a href="layers.jsp">Dependency layers</a></fieldset></th>
 <th><fieldset class="currentnavigation">Dependency metrics</fieldset></th>
 
 </tr></table>
@@ -223,7 +225,10 @@
 
 <%
     if (request.getParameter("submit") != null) {
-        if (application.getAttribute("factory") != null) {
+        GraphVersions graphs = (GraphVersions) application.getAttribute("graphs");
+        GraphVersion graph = (graphs != null) ? graphs.acquire() : null;
+        if (graph != null) {
+            try {
 %>
 
 <pre class="result">
@@ -231,37 +236,67 @@
 <%
             Date start = new Date();
 
-            RegularExpressionSelectionCriteria scopeCriteria  = new RegularExpressionSelectionCriteria();
-            RegularExpressionSelectionCriteria filterCriteria = new RegularExpressionSelectionCriteria();
-            
-            scopeCriteria.setMatchingPackages(packageScope);
-            scopeCriteria.setMatchingClasses(classScope);
-            scopeCriteria.setMatchingFeatures(featureScope);
-            scopeCriteria.setGlobalIncludes(scopeIncludes);
-            scopeCriteria.setGlobalExcludes(scopeExcludes);
-        
-            filterCriteria.setMatchingPackages(packageFilter);
-            filterCriteria.setMatchingClasses(classFilter);
-            filterCriteria.setMatchingFeatures(featureFilter);
-            filterCriteria.setGlobalIncludes(filterIncludes);
-            filterCriteria.setGlobalExcludes(filterExcludes);
-
-            SelectiveTraversalStrategy strategy = new SelectiveTraversalStrategy(scopeCriteria, filterCriteria);
-            MetricsGatherer metrics = new MetricsGatherer(strategy);
-            metrics.traverseNodes(((NodeFactory) application.getAttribute("factory")).getPackages().values());
-        
-            MetricsReport reporter = new MetricsReport(new PrintWriter(out));
-            reporter.setListingElements(listElements);
-            reporter.process(metrics);
+            QueryResultCache.Key key = new QueryResultCache.Key(request.getRequestURI())
+                .add("package-scope", packageScope)
+                .add("class-scope", classScope)
+                .add("feature-scope", featureScope)
+                .addExpressions("scope-includes", scopeIncludes)
+                .addExpressions("scope-excludes", scopeExcludes)
+                .add("package-filter", packageFilter)
+                .add("class-filter", classFilter)
+                .add("feature-filter", featureFilter)
+                .addExpressions("filter-includes", filterIncludes)
+                .addExpressions("filter-excludes", filterExcludes)
+                .add("list-elements", listElements);
+
+            QueryResultCache cache = (QueryResultCache) application.getAttribute("queryCache");
+            String result = (cache != null) ? cache.get(graph.getVersion(), key) : null;
+            boolean cached = (result != null);
+            if (!cached) {
+                StringWriter buffer = new StringWriter();
+
+                RegularExpressionSelectionCriteria scopeCriteria  = new RegularExpressionSelectionCriteria();
+                RegularExpressionSelectionCriteria filterCriteria = new RegularExpressionSelectionCriteria();
+
+                scopeCriteria.setMatchingPackages(packageScope);
+                scopeCriteria.setMatchingClasses(classScope);
+                scopeCriteria.setMatchingFeatures(featureScope);
+                scopeCriteria.setGlobalIncludes(scopeIncludes);
+                scopeCriteria.setGlobalExcludes(scopeExcludes);
+
+                filterCriteria.setMatchingPackages(packageFilter);
+                filterCriteria.setMatchingClasses(classFilter);
+                filterCriteria.setMatchingFeatures(featureFilter);
+                filterCriteria.setGlobalIncludes(filterIncludes);
+                filterCriteria.setGlobalExcludes(filterExcludes);
+
+                SelectiveTraversalStrategy strategy = new SelectiveTraversalStrategy(scopeCriteria, filterCriteria);
+                MetricsGatherer metrics = new MetricsGatherer(strategy);
+                metrics.traverseNodes(graph.getFactory().getPackages().values());
+
+                MetricsReport reporter = new MetricsReport(new PrintWriter(buffer));
+                reporter.setListingElements(listElements);
+                reporter.process(metrics);
+
+                result = buffer.toString();
+                if (cache != null) {
+                    cache.put(graph.getVersion(), key, result);
+                }
+            }
+
+            out.print(result);
 
             Date stop = new Date();
 %>
 
 </pre>
 
-<p><%= (stop.getTime() - start.getTime()) / (double) 1000 %> secs.</p>
+<p><%= (stop.getTime() - start.getTime()) / (double) 1000 %> secs.<%= cached ? " (cached)" : "" %></p>
 
 <%
+            } finally {
+                graph.release();
+            }
         } else {
 %>
 
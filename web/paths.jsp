@@ -0,0 +1,312 @@
+<%@ page import="java.io.*, java.text.*, java.util.*, com.jeantessier.dependency.*" %>
+<%@ page errorPage="errorpage.jsp" %>
+
+<!--
+    Copyright (c) 2001-2007, Jean Tessier
+    All rights reserved.
+    
+    Redistribution and use in source and binary forms, with or without
+    modification, are permitted provided that the following conditions
+    are met:
+    
+        * Redistributions of source code must retain the above copyright
+          notice, this list of conditions and the following disclaimer.
+    
+        * Redistributions in binary form must reproduce the above copyright
+          notice, this list of conditions and the following disclaimer in the
+          documentation and/or other materials provided with the distribution.
+    
+        * Neither the name of Jean Tessier nor the names of his contributors
+          may be used to endorse or promote products derived from this software
+          without specific prior written permission.
+    
+    THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+    "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+    LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+    A PARTICULAR PURPOSE ARE DISCLAIMED.  IN NO EVENT SHALL THE REGENTS OR
+    CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+    EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+    PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+    PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+    LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+    NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+    SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+-->
+
+<jsp:useBean id="version" class="com.jeantessier.dependencyfinder.Version" scope="application"/>
+
+<html>
+
+<head>
+<link rel="stylesheet" type="text/css" href="style.css" />
+<link rel="shortcut icon" href="images/logoicon.gif" type="image/gif" />
+<title>Paths in <%= application.getInitParameter("name") %></title>
+</head>
+
+<!-- Reading the parameters and setting up the forms -->
+
+<%
+    String startIncludes = request.getParameter("start-includes");
+    if (startIncludes == null) {
+        startIncludes = "";
+    }
+
+    String startExcludes = request.getParameter("start-excludes");
+    if (startExcludes == null) {
+        startExcludes = "";
+    }
+
+    String stopIncludes = request.getParameter("stop-includes");
+    if (stopIncludes == null) {
+        stopIncludes = "";
+    }
+
+    String stopExcludes = request.getParameter("stop-excludes");
+    if (stopExcludes == null) {
+        stopExcludes = "";
+    }
+
+    String maximumPaths = request.getParameter("maximum-paths");
+    if (maximumPaths == null) {
+        maximumPaths = "";
+    }
+
+    String granularity = request.getParameter("granularity");
+    if (granularity == null) {
+        granularity = "class";
+    }
+%>
+
+<body>
+
+<form action="<%= request.getRequestURI() %>" method="get">
+
+<table border="0" cellpadding="5"><tr><td colspan="2">
+
+<div class="title">
+<span id="name"><%= application.getInitParameter("name") %></span>
+<% if (application.getAttribute("label") != null ) { %>
+<span id="label"><%= application.getAttribute("label") %></span>
+<% } %>
+</div>
+
+</td></tr><tr><td colspan="2" align="center">
+
+<table border="0" class="controls" width="100%"><tr>
+
+<th><fieldset class="navigation"><a href="query.jsp">Dependency graph</a></fieldset></th>
+<th><fieldset class="navigation"><a href="closure.jsp">Transitive closure</a></fieldset></th>
+<th><fieldset class="currentnavigation">Dependency paths</fieldset></th>
+<th><fieldset class="navigation"><a href="cycles.jsp">Dependency cycles</a></fieldset></th>
+<th><fieldset class="navigation"><a href="layers.jsp">Dependency layers</a></fieldset></th>
+<th><fieldset class="navigation"><a href="metrics.jsp">Dependency metrics</a></fieldset></th>
+
+</tr></table>
+
+</td></tr><tr><td colspan="2" align="center">
+
+<table border="0" class="controls">
+    <tr>
+        <td width="50%">
+
+<fieldset>
+    <legend>Start with programming elements</legend>
+    <table>
+        <tr>
+            <td>
+                including:
+            </td>
+            <td>
+                excluding:
+            </td>
+        </tr>
+        <tr>
+            <td>
+                <input type="text" name="start-includes" value="<%= startIncludes %>" title="Package, class, method, or field must match any these expressions. E.g., /^com.mycompany/, /\\.get\\w+\\(/">
+            </td>
+            <td>
+                <input type="text" name="start-excludes" value="<%= startExcludes %>" title="Package, class, method, or field must NOT match any of these expressions. E.g., /Test/">
+            </td>
+        </tr>
+    </table>
+</fieldset>
+
+        </td>
+        <td>
+
+<fieldset>
+    <legend>End with programming elements</legend>
+    <table>
+        <tr>
+            <td>
+                including:
+            </td>
+            <td>
+                excluding:
+            </td>
+        </tr>
+        <tr>
+            <td>
+                <input type="text" name="stop-includes" value="<%= stopIncludes %>" title="Package, class, method, or field at the other end of the dependency must match any these expressions. E.g., /^com.mycompany/, /\\.get\\w+\\(/">
+            </td>
+            <td>
+                <input type="text" name="stop-excludes" value="<%= stopExcludes %>" title="Package, class, method, or field at the other end of the dependency must NOT match any of these expressions. E.g., /Test/">
+            </td>
+        </tr>
+    </table>
+</fieldset>
+
+        </td>
+    </tr>
+    <tr>
+        <td colspan="2" align="center">
+
+<fieldset>
+<label title="How many of the shortest paths to find, shortest first.  Empty field means every path of the shortest length." for="maximumPaths">at most <input type="text" name="maximum-paths" value="<%= maximumPaths %>" size="2" id="maximumPaths"> paths</label>
+</fieldset>
+
+        </td>
+    </tr>
+</table>
+
+</td></tr><tr><td colspan="2" align="center">
+
+<table border="0" class="controls" width="100%">
+    <tr>
+        <td align="center">
+
+<fieldset>
+    <legend>Follow dependencies between</legend>
+    <table>
+        <tr>
+            <td align="center">
+                <label title="Lift dependencies to packages" for="packageGranularity"><input type="radio" name="granularity" value="package" <%= "package".equals(granularity) ? "checked" : "" %> id="packageGranularity">&nbsp;package</label>
+                <label title="Lift dependencies to classes (with their package)" for="classGranularity"><input type="radio" name="granularity" value="class" <%= "class".equals(granularity) ? "checked" : "" %> id="classGranularity">&nbsp;class</label>
+                <label title="Follow dependencies as they are in the graph" for="featureGranularity"><input type="radio" name="granularity" value="feature" <%= "feature".equals(granularity) ? "checked" : "" %> id="featureGranularity">&nbsp;feature</label>
+            </td>
+        </tr>
+    </table>
+</fieldset>
+
+        </td>
+    </tr>
+</table>
+
+</td></tr><tr>
+
+<td align="left"><font size="-1">Use Perl regular expressions, <a target="_blank" href="<jsp:getProperty name="version" property="ImplementationURL"/>Manual.html#PerlRegularExpressions">see the manual</a>.</font></td>
+<td align="right">&nbsp;</td>
+
+</tr><tr><td align="center" colspan="2">
+
+<input type="submit" name="submit" value="Run Query"/>
+
+</td></tr></table>
+
+</form>
+
+<hr size="3" />
+
+<%
+    if (request.getParameter("submit") != null) {
+        GraphVersions graphs = (GraphVersions) application.getAttribute("graphs");
+        GraphVersion graph = (graphs != null) ? graphs.acquire() : null;
+        if (graph != null) {
+            try {
+%>
+
+<pre class="result">
+
+<%
+            Date start = new Date();
+
+            QueryResultCache.Key key = new QueryResultCache.Key(request.getRequestURI())
+                .addExpressions("start-includes", startIncludes)
+                .addExpressions("start-excludes", startExcludes)
+                .addExpressions("stop-includes", stopIncludes)
+                .addExpressions("stop-excludes", stopExcludes)
+                .add("maximum-paths", maximumPaths.trim())
+                .add("granularity", granularity);
+
+            QueryResultCache cache = (QueryResultCache) application.getAttribute("queryCache");
+            String result = (cache != null) ? cache.get(graph.getVersion(), key) : null;
+            boolean cached = (result != null);
+            if (!cached) {
+                StringWriter buffer = new StringWriter();
+
+                RegularExpressionSelectionCriteria startCriteria  = new RegularExpressionSelectionCriteria();
+                startCriteria.setGlobalIncludes(startIncludes);
+                startCriteria.setGlobalExcludes(startExcludes);
+
+                RegularExpressionSelectionCriteria stopCriteria = new RegularExpressionSelectionCriteria();
+                stopCriteria.setGlobalIncludes(stopIncludes);
+                stopCriteria.setGlobalExcludes(stopExcludes);
+
+                ShortestPathFinder finder = new ShortestPathFinder(startCriteria, stopCriteria);
+
+                try {
+                    finder.setGranularity(ShortestPathFinder.Granularity.valueOf(granularity.toUpperCase()));
+                } catch (IllegalArgumentException ex) {
+                    finder.setGranularity(ShortestPathFinder.Granularity.CLASS);
+                }
+
+                try {
+                    finder.setMaximumNbPaths(Integer.parseInt(maximumPaths.trim()));
+                } catch (NumberFormatException ex) {
+                    finder.setMaximumNbPaths(ShortestPathFinder.ALL_SHORTEST_PATHS);
+                }
+
+                finder.findPaths(graph.getFactory().getPackages().values());
+
+                PrintWriter writer = new PrintWriter(buffer);
+
+                if (finder.getDistance() == ShortestPathFinder.NO_PATH) {
+                    writer.println("No path found after visiting " + finder.getNbVisitedNodes() + " node(s).");
+                } else {
+                    writer.println("Shortest path has " + finder.getDistance() + " dependency(ies), found after visiting " + finder.getNbVisitedNodes() + " node(s).");
+                }
+                writer.println();
+
+                MessageFormat urlFormat = new MessageFormat(key.getURLPattern("start-includes"));
+
+                Printer printer = new HTMLPrinter(writer, urlFormat);
+
+                printer.traverseNodes(finder.getFactory().getPackages().values());
+                writer.flush();
+
+                result = buffer.toString();
+                if (cache != null) {
+                    cache.put(graph.getVersion(), key, result);
+                }
+            }
+
+            out.print(result);
+
+            Date stop = new Date();
+%>
+
+</pre>
+
+<p><%= (stop.getTime() - start.getTime()) / (double) 1000 %> secs.<%= cached ? " (cached)" : "" %></p>
+
+<%
+            } finally {
+                graph.release();
+            }
+        } else {
+%>
+
+<h3>No dependency graph available</h3>
+
+<p>Please ask the webmaster to extract a dependency graph before you start placing queries.</p>
+
+<%
+        }
+    }
+%>
+
+<jsp:include page="footer.jsp"/>
+
+</body>
+
+</html>
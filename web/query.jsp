@@ -131,7 +131,9 @@
 
 <th><fieldset class="currentnavigation">Dependency graph</fieldset></th>
 <th><fieldset class="navigation"><a href="closure.jsp">Transitive closure</a></fieldset></th>
+<th><fieldset class="navigation"><a href="paths.jsp">Dependency paths</a></fieldset></th>
 <th><fieldset class="navigation"><a href="cycles.jsp">Dependency cycles</a></fieldset></th>
+<th><fieldset class="navigation"><a href="layers.jsp">Dependency layers</a></fieldset></th>
 <th><fieldset class="navigation"><a href="metrics.jsp">Dependency metrics</a></fieldset></th>
 
 </tr></table>
@@ -236,7 +238,10 @@ Show&nbsp;&nbsp;
 
 <%
     if (request.getParameter("submit") != null) {
-        if (application.getAttribute("factory") != null) {
+        GraphVersions graphs = (GraphVersions) application.getAttribute("graphs");
+        GraphVersion graph = (graphs != null) ? graphs.acquire() : null;
+        if (graph != null) {
+            try {
 %>
 
 <pre class="result">
@@ -244,69 +249,79 @@ Show&nbsp;&nbsp;
 <%
             Date start = new Date();
 
-            RegularExpressionSelectionCriteria scopeCriteria  = new RegularExpressionSelectionCriteria();
-            RegularExpressionSelectionCriteria filterCriteria = new RegularExpressionSelectionCriteria();
-            
-            scopeCriteria.setMatchingPackages(packageScope);
-            scopeCriteria.setMatchingClasses(classScope);
-            scopeCriteria.setMatchingFeatures(featureScope);
-            scopeCriteria.setGlobalIncludes(scopeIncludes);
-            scopeCriteria.setGlobalExcludes(scopeExcludes);
-        
-            filterCriteria.setMatchingPackages(packageFilter);
-            filterCriteria.setMatchingClasses(classFilter);
-            filterCriteria.setMatchingFeatures(featureFilter);
-            filterCriteria.setGlobalIncludes(filterIncludes);
-            filterCriteria.setGlobalExcludes(filterExcludes);
-
-            GraphCopier dependenciesQuery = new GraphSummarizer(scopeCriteria, filterCriteria);
-            if ("maximize".equalsIgnoreCase(application.getInitParameter("mode"))) {
-                SelectiveTraversalStrategy strategy = new SelectiveTraversalStrategy(scopeCriteria, filterCriteria);
-                dependenciesQuery = new GraphCopier(strategy);
-            }
-        
-            dependenciesQuery.traverseNodes(((NodeFactory) application.getAttribute("factory")).getPackages().values());
-
-            StringBuffer urlPattern = new StringBuffer();
-            urlPattern.append(request.getRequestURI());
-            urlPattern.append("?");
-            Iterator entries = request.getParameterMap().entrySet().iterator();
-            while (entries.hasNext()) {
-                Map.Entry entry = (Map.Entry) entries.next();
-                if ("scope-includes".equals(entry.getKey())) {
-                    urlPattern.append(entry.getKey()).append("=/^{0}/");
-                } else {
-                    String[] values = (String[]) entry.getValue();
-                    for (int i=0; i<values.length; i++) {
-                        urlPattern.append(entry.getKey()).append("=").append(values[i]);
-                        if (i < values.length - 1) {
-                            urlPattern.append("&");
-                        }
-                    }
-                }
-                if (entries.hasNext()) {
-                    urlPattern.append("&");
+            QueryResultCache.Key key = new QueryResultCache.Key(request.getRequestURI())
+                .add("package-scope", packageScope)
+                .add("class-scope", classScope)
+                .add("feature-scope", featureScope)
+                .addExpressions("scope-includes", scopeIncludes)
+                .addExpressions("scope-excludes", scopeExcludes)
+                .add("package-filter", packageFilter)
+                .add("class-filter", classFilter)
+                .add("feature-filter", featureFilter)
+                .addExpressions("filter-includes", filterIncludes)
+                .addExpressions("filter-excludes", filterExcludes)
+                .add("show-inbounds", showInbounds)
+                .add("show-outbounds", showOutbounds)
+                .add("show-empty-nodes", showEmptyNodes);
+
+            QueryResultCache cache = (QueryResultCache) application.getAttribute("queryCache");
+            String result = (cache != null) ? cache.get(graph.getVersion(), key) : null;
+            boolean cached = (result != null);
+            if (!cached) {
+                StringWriter buffer = new StringWriter();
+
+                RegularExpressionSelectionCriteria scopeCriteria  = new RegularExpressionSelectionCriteria();
+                RegularExpressionSelectionCriteria filterCriteria = new RegularExpressionSelectionCriteria();
+
+                scopeCriteria.setMatchingPackages(packageScope);
+                scopeCriteria.setMatchingClasses(classScope);
+                scopeCriteria.setMatchingFeatures(featureScope);
+                scopeCriteria.setGlobalIncludes(scopeIncludes);
+                scopeCriteria.setGlobalExcludes(scopeExcludes);
+
+                filterCriteria.setMatchingPackages(packageFilter);
+                filterCriteria.setMatchingClasses(classFilter);
+                filterCriteria.setMatchingFeatures(featureFilter);
+                filterCriteria.setGlobalIncludes(filterIncludes);
+                filterCriteria.setGlobalExcludes(filterExcludes);
+
+                GraphCopier dependenciesQuery = new GraphSummarizer(scopeCriteria, filterCriteria);
+                if ("maximize".equalsIgnoreCase(application.getInitParameter("mode"))) {
+                    SelectiveTraversalStrategy strategy = new SelectiveTraversalStrategy(scopeCriteria, filterCriteria);
+                    dependenciesQuery = new GraphCopier(strategy);
                 }
-            }
 
-            MessageFormat urlFormat = new MessageFormat(urlPattern.toString());
+                dependenciesQuery.traverseNodes(graph.getFactory().getPackages().values());
+
+                MessageFormat urlFormat = new MessageFormat(key.getURLPattern("scope-includes"));
+
+                Printer printer = new HTMLPrinter(new PrintWriter(buffer), urlFormat);
 
-            Printer printer = new HTMLPrinter(new PrintWriter(out), urlFormat);
+                printer.setShowInbounds(showInbounds);
+                printer.setShowOutbounds(showOutbounds);
+                printer.setShowEmptyNodes(showEmptyNodes);
 
-            printer.setShowInbounds(showInbounds);
-            printer.setShowOutbounds(showOutbounds);
-            printer.setShowEmptyNodes(showEmptyNodes);
-            
-            printer.traverseNodes(dependenciesQuery.getScopeFactory().getPackages().values());
+                printer.traverseNodes(dependenciesQuery.getScopeFactory().getPackages().values());
+
+                result = buffer.toString();
+                if (cache != null) {
+                    cache.put(graph.getVersion(), key, result);
+                }
+            }
+
+            out.print(result);
 
             Date stop = new Date();
 %>
 
 </pre>
 
-<p><%= (stop.getTime() - start.getTime()) / (double) 1000 %> secs.</p>
+<p><%= (stop.getTime() - start.getTime()) / (double) 1000 %> secs.<%= cached ? " (cached)" : "" %></p>
 
 <%
+            } finally {
+                graph.release();
+            }
         } else {
 %>
 